@@ -0,0 +1,73 @@
+// JVM benchmarks for the game engine. Standalone build so it runs without the Android SDK:
+//   cd benchmark && gradle jmh
+// Results go to build/results/jmh/results.json (JMH JSON format)
+plugins {
+    java
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// The engine catalog carries the power button emoji
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+// Compile the engine, the backup format and the sync layer straight from the app sources, they have no Android dependencies.
+// The backup format re-encodes archives, which brings in the codec and the Room entities, annotations only.
+sourceSets {
+    main {
+        java {
+            setSrcDirs(listOf("../src/main/java"))
+            include("com/example/guerraentrevecinos/engine/**")
+            include("com/example/guerraentrevecinos/database/HistoryFormat.java")
+            include("com/example/guerraentrevecinos/database/GameArchiveCodec.java")
+            include("com/example/guerraentrevecinos/database/entities/**")
+            include("com/example/guerraentrevecinos/sync/**")
+            include("com/example/guerraentrevecinos/FirebaseGameRoom.java")
+        }
+    }
+    // The JDBC benchmarks share the app's test copy of the Room schema, SyncBenchmark the simulated player
+    named("jmh") {
+        java {
+            srcDir("../src/test/java")
+            include("com/example/guerraentrevecinos/benchmark/**")
+            include("com/example/guerraentrevecinos/database/RoomSchema.java")
+            include("com/example/guerraentrevecinos/database/JdbcHistory.java")
+            include("com/example/guerraentrevecinos/sync/SimulatedPlayer.java")
+        }
+    }
+}
+
+dependencies {
+    compileOnly("androidx.room:room-common:2.6.1")
+    compileOnly("androidx.annotation:annotation:1.7.1")
+    // GameCreationBenchmark and HistoryBackupBenchmark run the app's SQL on a real SQLite file
+    jmh("org.xerial:sqlite-jdbc:3.46.1.3")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    timeUnit.set("ns")
+    benchmarkMode.set(listOf("avgt"))
+    // gc profiler reports gc.alloc.rate.norm, the bytes allocated per operation
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+}
+
+// Balance sweep with the headless simulator: gradle simulate -Pgames=1000000 -Pseed=42
+tasks.register<JavaExec>("simulate") {
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.guerraentrevecinos.engine.sim.MonteCarloSimulator")
+    args(
+        (findProperty("games") ?: "1000000").toString(),
+        (findProperty("seed") ?: "42").toString()
+    )
+}
@@ -0,0 +1,68 @@
+package com.example.guerraentrevecinos.benchmark;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.HitResult;
+import com.example.guerraentrevecinos.engine.UnitKind;
+import com.example.guerraentrevecinos.engine.ai.MctsOpponent;
+import com.example.guerraentrevecinos.engine.ai.OpponentKnowledge;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The computer's turn in BattleActivity: MctsOpponent.chooseTarget on a
+ * mid-game snapshot, per difficulty. The search runs until its budget, so
+ * the score is the budget plus what the thread pool and the final merge
+ * add on top. Compare the tail against each level's budget.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AiOpponentBenchmark {
+
+    @Param({"EASY", "NORMAL", "HARD"})
+    public MctsOpponent.Difficulty difficulty;
+
+    private MctsOpponent opponent;
+    private Garden own;
+    private OpponentKnowledge snapshot;
+    private GameRandom random;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        opponent = new MctsOpponent(difficulty, BattleRules.MAX_ROUNDS);
+        random = new GameRandom(42);
+
+        own = new Garden();
+        BattleRules.placeArmy(own, random);
+
+        // Round 10: a few misses, one wounded dog and one destroyed rose found
+        OpponentKnowledge knowledge = new OpponentKnowledge();
+        for (int cell = 0; cell < Garden.CELLS; cell += 7) knowledge.recordMiss(cell);
+        knowledge.recordHit(Garden.cell(2, 3), UnitKind.DOG, HitResult.DAMAGED, Garden.cell(2, 3), 1);
+        knowledge.recordHit(Garden.cell(5, 5), UnitKind.ROSE, HitResult.DESTROYED, Garden.cell(5, 5), 0);
+        snapshot = knowledge.snapshot(10, 6, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        opponent.shutdown();
+    }
+
+    @Benchmark
+    public int chooseTarget() {
+        return opponent.chooseTarget(own, snapshot, random.nextSeed());
+    }
+}
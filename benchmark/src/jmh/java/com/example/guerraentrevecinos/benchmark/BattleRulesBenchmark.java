@@ -0,0 +1,153 @@
+package com.example.guerraentrevecinos.benchmark;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.GameJournal;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.GameState;
+import com.example.guerraentrevecinos.engine.HitResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Hot paths of a battle, measured on the engine the activities call into:
+ * attack resolution, cat teleport, AI army placement, the simulator's AI
+ * target pick, mini-duel resolution and rebuilding a game from its journal.
+ * Run with the gc profiler to catch allocations. The computer's turn in the
+ * app is MctsOpponent, see AiOpponentBenchmark.
+ */
+@State(Scope.Thread)
+public class BattleRulesBenchmark {
+
+    private Random random;
+
+    // Full army of 7 units, plus a second garden with a cat that can still teleport
+    private Garden army;
+    private Garden catGarden;
+    private int sunflowerSlot;
+    private int catSlot;
+
+    // Garden with a single free cell, worst case for empty-cell picks
+    private Garden crowded;
+
+    private GameState state;
+
+    // Journal of a full 30-round game, for the crash-resume rebuild
+    private GameJournal journal;
+
+    @Setup
+    public void setup() {
+        random = new GameRandom(42);
+
+        army = new Garden();
+        BattleRules.placeArmy(army, random);
+        sunflowerSlot = 0;
+
+        catGarden = new Garden();
+        BattleRules.placeArmy(catGarden, random);
+        catSlot = catGarden.unitCount() - 1;
+
+        crowded = new Garden();
+        for (int cell = 0; cell < Garden.CELLS - 1; cell++) {
+            crowded.addUnit(Garden.rowOf(cell), Garden.colOf(cell), "sunflower", Garden.MAX_HEALTH);
+        }
+
+        state = GameState.initial(army, catGarden);
+        journal = fullGameJournal(new GameRandom(7));
+    }
+
+    private static GameJournal fullGameJournal(Random random) {
+        Garden player = new Garden();
+        Garden ai = new Garden();
+        BattleRules.placeArmy(player, random);
+        BattleRules.placeArmy(ai, random);
+
+        GameJournal journal = new GameJournal();
+        journal.placeAll(GameState.Side.PLAYER, player);
+        journal.placeAll(GameState.Side.AI, ai);
+        for (int round = 0; round < BattleRules.MAX_ROUNDS; round++) {
+            for (GameState.Side side : GameState.Side.values()) {
+                Garden target = side == GameState.Side.PLAYER ? player : ai;
+                int cell = random.nextInt(Garden.CELLS);
+                int slot = target.slotAt(Garden.rowOf(cell), Garden.colOf(cell));
+                if (slot < 0) {
+                    journal.miss(side, cell);
+                } else {
+                    HitResult hit = BattleRules.applyHit(target, slot, false, true, random);
+                    journal.hit(side, cell, hit, target, slot);
+                }
+            }
+            journal.endRound();
+        }
+        return journal;
+    }
+
+    // Partial hit on a full-health unit, the most common attack outcome
+    @Benchmark
+    public HitResult attackResolution() {
+        Garden garden = new Garden(army);
+        return BattleRules.applyHit(garden, sunflowerSlot, false, true, random);
+    }
+
+    // Baseline for the copy that attackResolution and catTeleport pay for
+    @Benchmark
+    public Garden gardenCopy() {
+        return new Garden(army);
+    }
+
+    @Benchmark
+    public HitResult catTeleport() {
+        Garden garden = new Garden(catGarden);
+        return BattleRules.applyHit(garden, catSlot, true, true, random);
+    }
+
+    // What SetupActivity.generateAIUnits does before converting to UnitPosition
+    @Benchmark
+    public Garden generateAIUnits() {
+        Garden garden = new Garden();
+        BattleRules.placeArmy(garden, random);
+        return garden;
+    }
+
+    // BattleRules.pickAiTarget is the opponent of SoloGame, the balance simulator, not of the app
+    @Benchmark
+    public int simulatorAiTargetHit() {
+        return BattleRules.pickAiTarget(army, true, random);
+    }
+
+    @Benchmark
+    public int simulatorAiTargetMiss() {
+        return BattleRules.pickAiTarget(army, false, random);
+    }
+
+    @Benchmark
+    public int simulatorAiTargetMissCrowded() {
+        return BattleRules.pickAiTarget(crowded, false, random);
+    }
+
+    // Persistent transition, compare with attackResolution's full copy
+    @Benchmark
+    public GameState snapshotHit() {
+        return state.hit(GameState.Side.PLAYER, sunflowerSlot, false, true, random);
+    }
+
+    // Rebuilding both boards from a 30-round journal
+    @Benchmark
+    public GameJournal.Board journalRebuild() {
+        return journal.fold();
+    }
+
+    // MiniDuelActivity.revealResult with the Garden Hose second number
+    @Benchmark
+    public boolean duelResolution() {
+        int attack = 1 + random.nextInt(BattleRules.DUEL_NUMBERS);
+        int second = 1 + random.nextInt(BattleRules.DUEL_NUMBERS);
+        int defense = 1 + random.nextInt(BattleRules.DUEL_NUMBERS);
+        return BattleRules.isDirectHit(attack, second, defense);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.guerraentrevecinos.benchmark;
+
+import com.example.guerraentrevecinos.database.RoomSchema;
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.GameRandom;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database part of SetupActivity.startBattle, the only work between the last
+ * unit being placed and BattleActivity launching. Runs against a SQLite file
+ * so every commit pays for its journal sync, like on a device.
+ *
+ * perStatement is the old flow, one autocommit insert per unit and stats
+ * row. singleTransaction is GameSetupDao.createGame.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameCreationBenchmark {
+
+    private static final String INSERT_GAME = "INSERT INTO games (player1_id, player2_id, game_mode, "
+            + "game_status, current_round, max_rounds, created_at, seed) VALUES (1, 2, 'solo_vs_ai', 'in_progress', 1, 30, ?, ?)";
+    private static final String INSERT_UNIT = "INSERT INTO game_units (game_id, unit_type_id, owner_player_id, "
+            + "grid_row, grid_col, current_health, is_destroyed) VALUES (?, ?, ?, ?, ?, 2, 0)";
+    private static final String INSERT_STATS = "INSERT INTO game_stats (game_id, player_id, total_attacks, "
+            + "successful_hits, units_destroyed, powers_used, accuracy_percentage) VALUES (?, ?, 0, 0, 0, 0, 0)";
+
+    private File file;
+    private Connection connection;
+    private PreparedStatement insertGame;
+    private PreparedStatement insertUnit;
+    private PreparedStatement insertStats;
+
+    // Both armies, unit type id (1-based like the units table) and cell per slot
+    private final int[][] typeIds = new int[2][];
+    private final int[][] cells = new int[2][];
+
+    @Setup
+    public void setup() throws IOException, SQLException {
+        file = Files.createTempFile("guerra-bench", ".db").toFile();
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        RoomSchema.create(connection);
+        insertGame = connection.prepareStatement(INSERT_GAME, Statement.RETURN_GENERATED_KEYS);
+        insertUnit = connection.prepareStatement(INSERT_UNIT);
+        insertStats = connection.prepareStatement(INSERT_STATS);
+
+        GameRandom random = new GameRandom(42);
+        for (int player = 0; player < 2; player++) {
+            Garden garden = new Garden();
+            BattleRules.placeArmy(garden, random);
+            typeIds[player] = new int[garden.unitCount()];
+            cells[player] = new int[garden.unitCount()];
+            for (int slot = 0; slot < garden.unitCount(); slot++) {
+                typeIds[player][slot] = garden.kind(slot).ordinal() + 1;
+                cells[player][slot] = garden.cellOf(slot);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        file.delete();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+    }
+
+    @Benchmark
+    public long perStatement() throws SQLException {
+        connection.setAutoCommit(true);
+        long gameId = insertGame();
+        for (int player = 0; player < 2; player++) {
+            for (int slot = 0; slot < cells[player].length; slot++) {
+                bindUnit(gameId, player, slot);
+                insertUnit.executeUpdate();
+            }
+        }
+        for (int player = 0; player < 2; player++) {
+            bindStats(gameId, player);
+            insertStats.executeUpdate();
+        }
+        return gameId;
+    }
+
+    @Benchmark
+    public long singleTransaction() throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            long gameId = insertGame();
+            for (int player = 0; player < 2; player++) {
+                for (int slot = 0; slot < cells[player].length; slot++) {
+                    bindUnit(gameId, player, slot);
+                    insertUnit.addBatch();
+                }
+            }
+            insertUnit.executeBatch();
+            for (int player = 0; player < 2; player++) {
+                bindStats(gameId, player);
+                insertStats.addBatch();
+            }
+            insertStats.executeBatch();
+            connection.commit();
+            return gameId;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private long insertGame() throws SQLException {
+        insertGame.setLong(1, System.currentTimeMillis());
+        insertGame.setLong(2, 42);
+        insertGame.executeUpdate();
+        try (ResultSet keys = insertGame.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    private void bindUnit(long gameId, int player, int slot) throws SQLException {
+        insertUnit.setLong(1, gameId);
+        insertUnit.setInt(2, typeIds[player][slot]);
+        insertUnit.setInt(3, player + 1);
+        insertUnit.setInt(4, Garden.rowOf(cells[player][slot]));
+        insertUnit.setInt(5, Garden.colOf(cells[player][slot]));
+    }
+
+    private void bindStats(long gameId, int player) throws SQLException {
+        insertStats.setLong(1, gameId);
+        insertStats.setInt(2, player + 1);
+    }
+}
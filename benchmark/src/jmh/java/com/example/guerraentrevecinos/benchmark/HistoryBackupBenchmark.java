@@ -0,0 +1,176 @@
+package com.example.guerraentrevecinos.benchmark;
+
+import com.example.guerraentrevecinos.database.JdbcHistory;
+import com.example.guerraentrevecinos.database.RoomSchema;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HistoryBackup on a large history: export to a file and import into an
+ * empty database, both on SQLite files. One invocation is the whole job,
+ * run with -bm ss to time single runs:
+ *   gradle jmh -Pjmh.includes=HistoryBackupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistoryBackupBenchmark {
+
+    // Same as HistoryBackup
+    private static final int GAMES_PER_TRANSACTION = 5000;
+    private static final int GAMES_PER_PAGE = 500;
+
+    @Param("100000")
+    public int games;
+
+    @Param("20")
+    public int movesPerGame;
+
+    private File source;
+    private File backup;
+    private File target;
+    private Connection sourceConnection;
+    private Connection targetConnection;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, SQLException {
+        source = Files.createTempFile("guerra-history", ".db").toFile();
+        backup = Files.createTempFile("guerra-history", ".bak").toFile();
+        sourceConnection = DriverManager.getConnection("jdbc:sqlite:" + source.getAbsolutePath());
+        RoomSchema.create(sourceConnection);
+        fill(sourceConnection, games, movesPerGame);
+        try (OutputStream out = new FileOutputStream(backup)) {
+            JdbcHistory.export(sourceConnection, out, GAMES_PER_PAGE);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTarget() throws IOException, SQLException {
+        target = Files.createTempFile("guerra-import", ".db").toFile();
+        targetConnection = DriverManager.getConnection("jdbc:sqlite:" + target.getAbsolutePath());
+        RoomSchema.create(targetConnection);
+    }
+
+    @TearDown(Level.Invocation)
+    public void dropTarget() throws SQLException {
+        targetConnection.close();
+        delete(target);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        sourceConnection.close();
+        delete(source);
+        backup.delete();
+    }
+
+    @Benchmark
+    public long export() throws IOException, SQLException {
+        try (OutputStream out = new FileOutputStream(backup)) {
+            return JdbcHistory.export(sourceConnection, out, GAMES_PER_PAGE);
+        }
+    }
+
+    @Benchmark
+    public long importAll() throws IOException, SQLException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(backup))) {
+            return JdbcHistory.importFrom(targetConnection, in, GAMES_PER_TRANSACTION);
+        }
+    }
+
+    // Finished games with two stats rows, both armies' units and movesPerGame moves each
+    private static void fill(Connection connection, int games, int movesPerGame) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement game = connection.prepareStatement("INSERT INTO games (game_id, player1_id, "
+                + "player2_id, winner_id, game_mode, game_status, current_round, max_rounds, created_at, finished_at, "
+                + "seed) VALUES (?, 1, 2, ?, 'solo_vs_ai', 'finished', ?, 30, ?, ?, ?)");
+             PreparedStatement stats = connection.prepareStatement("INSERT INTO game_stats (game_id, player_id, "
+                     + "total_attacks, successful_hits, units_destroyed, powers_used, accuracy_percentage) "
+                     + "VALUES (?, ?, ?, ?, 3, 1, ?)");
+             PreparedStatement unit = connection.prepareStatement("INSERT INTO game_units (game_id, unit_type_id, "
+                     + "owner_player_id, grid_row, grid_col, current_health, is_destroyed) VALUES (?, ?, ?, ?, ?, 0, 1)");
+             PreparedStatement move = connection.prepareStatement("INSERT INTO moves (game_id, round_number, "
+                     + "attacking_player_id, target_row, target_col, was_hit, attacker_choice, defender_choice, "
+                     + "duel_result, timestamp) VALUES (?, ?, ?, ?, ?, ?, 1, 2, 'destroyed', ?)")) {
+            long time = 1_700_000_000_000L;
+            for (int g = 1; g <= games; g++) {
+                time += 600_000;
+                game.setInt(1, g);
+                game.setInt(2, 1 + g % 2);
+                game.setInt(3, 1 + movesPerGame / 2);
+                game.setLong(4, time - 300_000);
+                game.setLong(5, time);
+                game.setLong(6, g * 0x9E3779B97F4A7C15L);
+                game.addBatch();
+                for (int player = 1; player <= 2; player++) {
+                    stats.setInt(1, g);
+                    stats.setInt(2, player);
+                    stats.setInt(3, movesPerGame / 2);
+                    stats.setInt(4, g % (movesPerGame / 2 + 1));
+                    stats.setDouble(5, 100.0 * (g % (movesPerGame / 2 + 1)) / Math.max(1, movesPerGame / 2));
+                    stats.addBatch();
+                    for (int slot = 0; slot < 8; slot++) {
+                        unit.setInt(1, g);
+                        unit.setInt(2, 1 + slot % 4);
+                        unit.setInt(3, player);
+                        unit.setInt(4, slot % 6);
+                        unit.setInt(5, (slot + g) % 6);
+                        unit.addBatch();
+                    }
+                }
+                for (int m = 0; m < movesPerGame; m++) {
+                    move.setInt(1, g);
+                    move.setInt(2, 1 + m / 2);
+                    move.setInt(3, 1 + m % 2);
+                    move.setInt(4, (m * 5 + g) % 6);
+                    move.setInt(5, (m * 3 + g) % 6);
+                    move.setInt(6, (m + g) % 3 == 0 ? 1 : 0);
+                    move.setLong(7, time - 300_000 + m * 9_000L);
+                    move.addBatch();
+                }
+                if (g % 1000 == 0) {
+                    game.executeBatch();
+                    stats.executeBatch();
+                    unit.executeBatch();
+                    move.executeBatch();
+                }
+            }
+            game.executeBatch();
+            stats.executeBatch();
+            unit.executeBatch();
+            move.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void delete(File file) {
+        file.delete();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+    }
+}
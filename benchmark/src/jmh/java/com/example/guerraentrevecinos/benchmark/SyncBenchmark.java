@@ -0,0 +1,65 @@
+package com.example.guerraentrevecinos.benchmark;
+
+import com.example.guerraentrevecinos.sync.SimulatedPlayer;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole multiplayer game between two SimulatedPlayers over the loopback
+ * transport, played in virtual time. The score is the CPU both phones and
+ * the in-memory server spend on the protocol; the Traffic counters are what
+ * the same games would have moved over the network. Divide them by games or
+ * turns for per-game and per-turn figures.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SyncBenchmark {
+
+    // One-way delay of both clients, it changes how the two sides' writes interleave
+    @Param({"0", "80"})
+    public long latencyMillis;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Traffic {
+        public long games;
+        public long turns;
+        public long messages;
+        public long bytesSent;
+        public long bytesReceived;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            games = 0;
+            turns = 0;
+            messages = 0;
+            bytesSent = 0;
+            bytesReceived = 0;
+        }
+    }
+
+    private long seed = 0;
+
+    @Benchmark
+    public SimulatedPlayer.Match playGame(Traffic traffic) {
+        SimulatedPlayer.Match match = new SimulatedPlayer.Match(++seed, latencyMillis, latencyMillis);
+        match.play();
+
+        traffic.games++;
+        traffic.turns += match.host().attacks() + match.guest().attacks();
+        traffic.messages += match.hostTransport.messagesSent() + match.hostTransport.messagesReceived()
+                + match.guestTransport.messagesSent() + match.guestTransport.messagesReceived();
+        traffic.bytesSent += match.hostTransport.bytesSent() + match.guestTransport.bytesSent();
+        traffic.bytesReceived += match.hostTransport.bytesReceived() + match.guestTransport.bytesReceived();
+        return match;
+    }
+}
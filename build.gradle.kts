@@ -78,6 +78,8 @@ dependencies {
     implementation("androidx.multidex:multidex:2.0.1")
 
     testImplementation(libs.junit)
+    // QueryPlanTest runs the DAO queries on a real SQLite
+    testImplementation("org.xerial:sqlite-jdbc:3.46.1.3")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
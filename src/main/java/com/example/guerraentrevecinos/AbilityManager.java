@@ -1,42 +1,20 @@
 package com.example.guerraentrevecinos;
 
 import android.content.Context;
-import android.util.Log;
 import android.widget.ImageView;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-
 public class AbilityManager {
 
-    private final Random random;
-
     public AbilityManager(Context context) {
-        this.random = new Random();
     }
 
-    // Rose change color after hit
-    public void activateRoseColorChange(SetupActivity.UnitPosition rose, ImageView cellView) {
-        if (rose.abilityUsed) return;
-
-        // Random color
-        String[] colors = {"blue", "white", "black"};
-        rose.roseColor = colors[random.nextInt(colors.length)];
-        rose.abilityUsed = true;
-
-        // Update visual immediately
-        int newIcon = getRoseIconByColor(rose.roseColor);
-        cellView.setImageResource(newIcon);
-
+    // Rose changed color after surviving a hit (color is picked by BattleRules)
+    public void showRoseColorChange(SetupActivity.UnitPosition rose, ImageView cellView) {
+        cellView.setImageResource(UnitIcons.rose(rose.roseColor));
     }
 
-    // Dog fear ability
-    public void activateDogFear(SetupActivity.UnitPosition dog, ImageView cellView) {
-        if (dog.abilityUsed) return;
-        dog.dogFearActive = true;
-        dog.abilityUsed = true;
-
+    // Dog fear ability (state is set by BattleRules)
+    public void showDogFear(ImageView cellView) {
         // Visual: Yellow glow + shake
         cellView.setBackgroundColor(android.graphics.Color.parseColor("#FFD54F")); // Yellow
 
@@ -74,89 +52,8 @@ public class AbilityManager {
 
     }
 
-    // Cat teleport to random empty cell
-    public boolean activateCatTeleport(
-            SetupActivity.UnitPosition cat,
-            List<SetupActivity.UnitPosition> allUnits) {
-
-        Log.d("AbilityManager", "Cat teleport activated");
-        Log.d("AbilityManager", "Current position: (" + cat.row + "," + cat.col + ")");
-        Log.d("AbilityManager", "Current health: " + cat.health);
-        Log.d("AbilityManager", "Ability used before: " + cat.abilityUsed);
-
-        if (cat.abilityUsed) {
-            Log.w("AbilityManager", "Cat ability used!");
-            return false;
-        }
-
-        // Find all empty cells
-        List<int[]> emptyCells = new ArrayList<>();
-
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                // Check if cell is empty
-                boolean isEmpty = true;
-
-                for (SetupActivity.UnitPosition unit : allUnits) {
-                    if (unit.row == row && unit.col == col && unit.health > 0) {
-                        isEmpty = false;
-                        break;
-                    }
-                }
-
-                if (isEmpty) {
-                    emptyCells.add(new int[]{row, col});
-                }
-            }
-        }
-
-        Log.d("AbilityManager", "Found " + emptyCells.size() + " empty cells");
-
-        if (emptyCells.isEmpty()) {
-            Log.e("AbilityManager", "Cat teleport failed");
-            return false;
-        }
-
-        // Pick random empty cell
-        Random random = new Random();
-        int[] newPosition = emptyCells.get(random.nextInt(emptyCells.size()));
-        int newRow = newPosition[0];
-        int newCol = newPosition[1];
-
-        Log.d("AbilityManager", "Selected teleport destination: (" + newRow + "," + newCol + ")");
-
-        // Update cat's position
-        cat.row = newRow;
-        cat.col = newCol;
-        cat.abilityUsed = true;
-        cat.health = 1; // Cat survives with 1 HP
-
-        Log.d("AbilityManager", "Cat teleported succesfuly");
-        Log.d("AbilityManager", "New position: (" + cat.row + "," + cat.col + ")");
-        Log.d("AbilityManager", "New health: " + cat.health);
-        Log.d("AbilityManager", "Ability now used: " + cat.abilityUsed);
-
-        return true;
-    }
-
-    // Helper to get rose icon by color
-    private int getRoseIconByColor(String color) {
-        switch (color) {
-            case "red":
-                return R.drawable.rose_red;
-            case "blue":
-                return R.drawable.rose_blue;
-            case "white":
-                return R.drawable.rose_white;
-            case "black":
-                return R.drawable.rose_black;
-            default:
-                return R.drawable.rose_icon;
-        }
-    }
-
     // Helper to get current rose icon
     public int getRoseIcon(SetupActivity.UnitPosition rose) {
-        return getRoseIconByColor(rose.roseColor);
+        return UnitIcons.rose(rose.roseColor);
     }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package com.example.guerraentrevecinos;
 import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.os.Handler;
 import android.util.Log;
 import android.view.View;
 import android.view.animation.OvershootInterpolator;
@@ -13,13 +12,24 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.guerraentrevecinos.database.AppDatabase;
-import com.example.guerraentrevecinos.database.entities.GameStats;
+import com.example.guerraentrevecinos.database.GameWriteBuffer;
 import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.GameJournal;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.GameState;
+import com.example.guerraentrevecinos.engine.HitResult;
+import com.example.guerraentrevecinos.engine.Power;
+import com.example.guerraentrevecinos.engine.TurnTimeline;
+import com.example.guerraentrevecinos.engine.UnitKind;
+import com.example.guerraentrevecinos.engine.ai.MctsOpponent;
+import com.example.guerraentrevecinos.engine.ai.OpponentKnowledge;
 import com.google.android.material.button.MaterialButton;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 public class BattleActivity extends AppCompatActivity {
     private static final int REQUEST_CODE_MINI_DUEL = 100;
@@ -33,10 +43,20 @@ public class BattleActivity extends AppCompatActivity {
     private String gameMode;
     private List<SetupActivity.UnitPosition> playerUnits;
     private List<SetupActivity.UnitPosition> aiUnits;
+    private Garden playerGarden;
+    private Garden aiGarden;
+
+    // Every state change, saved to game_events at the end of each round
+    private final GameJournal journal = new GameJournal();
+    private int journalSaved = 0;
+
+    // Moves, power usages, stats and journal events, committed once per round
+    private GameWriteBuffer writes;
+    private GameRandom random;
     private boolean isPlayerTurn = true;
     private boolean hasAttackedThisTurn = false;
     private int currentRound = 1;
-    private static final int MAX_ROUNDS = 30;
+    private static final int MAX_ROUNDS = BattleRules.MAX_ROUNDS;
 
     // Grid cells
     private ImageView[][] playerCells = new ImageView[8][8];
@@ -55,7 +75,7 @@ public class BattleActivity extends AppCompatActivity {
     private int aiPlayerId;
 
     private PowerManager powerManager;
-    private String selectedPower;
+    private Power selectedPower;
     private MaterialButton btnGardenHose, btnNighttimeRelocation, btnTier2Power;
     private boolean isSelectingUnitForPower = false;
     private String activePowerMode = null;
@@ -64,8 +84,13 @@ public class BattleActivity extends AppCompatActivity {
 
     // Ability manager
     private AbilityManager abilityManager;
-    private int aiAttackCount = 0; // Track number of attacks
-    private static final int AI_HIT_PATTERN = 3; // Hit every 3rd attack
+
+    // All delayed turn steps and animations go through here
+    private TurnTimeline timeline;
+
+    // Search-based AI, it only sees what aiKnowledge has recorded
+    private MctsOpponent aiOpponent;
+    private final OpponentKnowledge aiKnowledge = new OpponentKnowledge();
     private boolean gameEnded = false;
 
     @Override
@@ -73,6 +98,10 @@ public class BattleActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_battle);
 
+        // FAST_FORWARD collapses every delay, for automated runs
+        timeline = new TurnTimeline(new MainThreadScheduler(this),
+                getIntent().getBooleanExtra("FAST_FORWARD", false));
+
         // Initialize database
         database = AppDatabase.getDatabase(this);
 
@@ -84,12 +113,23 @@ public class BattleActivity extends AppCompatActivity {
         gameId = getIntent().getIntExtra("GAME_ID", -1);
         playerId = getIntent().getIntExtra("PLAYER_ID", -1);
         aiPlayerId = getIntent().getIntExtra("AI_PLAYER_ID", -1);
-        selectedPower = getIntent().getStringExtra("SELECTED_POWER");
+        writes = new GameWriteBuffer(gameId);
+        selectedPower = PowerManager.tier2OrDefault(getIntent().getStringExtra("SELECTED_POWER"));
         playerUnits = getIntent().getParcelableArrayListExtra("PLAYER_UNITS");
         aiUnits = getIntent().getParcelableArrayListExtra("AI_UNITS");
+        random = new GameRandom(getIntent().getLongExtra("GAME_SEED", GameRandom.newSeed()))
+                .stream(GameRandom.BATTLE_STREAM);
+
+        // Rules run on the engine; the unit lists mirror it for the UI
+        playerGarden = SetupActivity.UnitPosition.toGarden(playerUnits);
+        aiGarden = SetupActivity.UnitPosition.toGarden(aiUnits);
+        journal.placeAll(GameState.Side.PLAYER, playerGarden);
+        journal.placeAll(GameState.Side.AI, aiGarden);
 
         // Initialize power manager
-        powerManager = new PowerManager(selectedPower != null ? selectedPower : "spy_drone");
+        powerManager = new PowerManager(selectedPower);
+
+        aiOpponent = new MctsOpponent(parseDifficulty(getIntent().getStringExtra("AI_DIFFICULTY")), MAX_ROUNDS);
 
         // Initialize views
         initializeViews();
@@ -119,7 +159,6 @@ public class BattleActivity extends AppCompatActivity {
 
     private void playAttackAnimation() {
         if (neighborSprite == null) return;
-        Handler h = new Handler();
         int[] frames = {
             R.drawable.neighbour_alert,
             R.drawable.neighbour_attack,
@@ -129,7 +168,7 @@ public class BattleActivity extends AppCompatActivity {
         int frameMs = 120;
         for (int i = 0; i < frames.length; i++) {
             final int res = frames[i];
-            h.postDelayed(() -> neighborSprite.setImageResource(res), (long) i * frameMs);
+            timeline.after((long) i * frameMs, () -> neighborSprite.setImageResource(res));
         }
     }
 
@@ -175,12 +214,11 @@ public class BattleActivity extends AppCompatActivity {
                 cell.setPadding(8, 8, 8, 8);
 
                 // Show player units
-                for (SetupActivity.UnitPosition unit : playerUnits) {
-                    if (unit.row == row && unit.col == col) {
-                        cell.setImageResource(getUnitIcon(unit.type));
-                        cell.setTag(unit);
-                        break;
-                    }
+                int slot = playerGarden.slotAt(row, col);
+                if (slot >= 0) {
+                    SetupActivity.UnitPosition unit = playerUnits.get(slot);
+                    cell.setImageResource(UnitIcons.board(this, unit.type, false));
+                    cell.setTag(unit);
                 }
 
                 playerCells[row][col] = cell;
@@ -277,23 +315,18 @@ public class BattleActivity extends AppCompatActivity {
         setEnemyGridClickable(false);
 
         // Check if there's a unit here
-        SetupActivity.UnitPosition hitUnit = null;
-        for (SetupActivity.UnitPosition unit : aiUnits) {
-            if (unit.row == row && unit.col == col && unit.health > 0) {
-                hitUnit = unit;
-                break;
-            }
-        }
+        int slot = aiGarden.slotAt(row, col);
 
-        if (hitUnit != null) {
+        if (slot >= 0) {
             // HIT! Launch mini-duel
             playAttackAnimation();
-            launchMiniDuel(row, col, hitUnit.type, true);
+            launchMiniDuel(row, col, aiGarden.type(slot), true);
         } else {
             // MISS - empty cell
+            journal.miss(GameState.Side.AI, Garden.cell(row, col));
             playAttackAnimation();
             showMissOnEnemyGrid(row, col);
-            new Handler().postDelayed(this::endPlayerTurn, 1500);
+            timeline.after(1500, this::endPlayerTurn);
         }
     }
 
@@ -327,6 +360,9 @@ public class BattleActivity extends AppCompatActivity {
         // Pass Garden Hose status
         intent.putExtra("GARDEN_HOSE_ACTIVE", powerManager.isGardenHoseActive());
 
+        // AI duel numbers come from the game seed too
+        intent.putExtra(MiniDuelActivity.EXTRA_DUEL_SEED, random.nextSeed());
+
         startActivityForResult(intent, REQUEST_CODE_MINI_DUEL);
     }
 
@@ -351,302 +387,118 @@ public class BattleActivity extends AppCompatActivity {
 
             String result;
             if (isPlayerAttacking) {
-                if (wasHit) {
-                    result = "destroyed";
-                    destroyEnemyUnit(row, col);
-                } else {
-                    result = "damaged";
-                    damageEnemyUnit(row, col);
-                }
+                result = wasHit ? "destroyed" : "damaged";
+                hitEnemyUnit(row, col, wasHit);
 
                 saveMoveToDatabase(row, col, wasHit, attackerChoice, defenderChoice, result);
-                new Handler().postDelayed(this::endPlayerTurn, 1500);
+                timeline.after(1500, this::endPlayerTurn);
             } else {
-                if (wasHit) {
-                    result = "destroyed";
-                    destroyPlayerUnit(currentAITarget);
-                } else {
-                    result = "damaged";
-                    damagePlayerUnit(currentAITarget);
-                }
+                result = wasHit ? "destroyed" : "damaged";
+                hitPlayerUnit(currentAITarget, wasHit);
 
                 saveMoveToDatabase(row, col, wasHit, attackerChoice, defenderChoice, result);
-                new Handler().postDelayed(this::startNextRound, 1500);
+                timeline.after(1500, this::startNextRound);
             }
         }
     }
 
-    private void damageEnemyUnit(int row, int col) {
-        SetupActivity.UnitPosition unit = null;
-        for (SetupActivity.UnitPosition u : aiUnits) {
-            if (u.row == row && u.col == col && u.health > 0) {
-                unit = u;
-                break;
-            }
-        }
-
-        if (unit != null) {
-            unit.health--;
-
-            Log.d("BattleActivity", "Enemy unit damaged. HP: 2 → " + unit.health);
-
-            ImageView cell = enemyCells[row][col];
-            enemyRevealedCells[row][col] = true;
-
-            // Check if unit died from partial hit
-            if (unit.health <= 0) {
-                Log.d("BattleActivity", "Enemy unit died from partial hit!");
+    private void hitEnemyUnit(int row, int col, boolean directHit) {
+        int slot = aiGarden.slotAt(row, col);
+        if (slot < 0) return;
 
-                // Cat teleport on death
-                if (unit.type.equals("cat") && !unit.abilityUsed) {
-                    Log.d("BattleActivity", "🐱 AI Cat teleporting after partial hit death!");
+        SetupActivity.UnitPosition unit = aiUnits.get(slot);
+        HitResult hit = BattleRules.applyHit(aiGarden, slot, directHit, false, random);
+        unit.syncFrom(aiGarden, slot);
+        journal.hit(GameState.Side.AI, Garden.cell(row, col), hit, aiGarden, slot);
 
-                    boolean teleported = abilityManager.activateCatTeleport(unit, aiUnits);
+        Log.d("BattleActivity", "Enemy " + unit.type + " hit: " + hit + ", HP now " + unit.health);
 
-                    if (teleported) {
-                        final int newRow = unit.row;
-                        final int newCol = unit.col;
-                        unit.health = 1;
+        ImageView cell = enemyCells[row][col];
+        enemyRevealedCells[row][col] = true;
 
-                        // Clear old position
-                        cell.setBackgroundColor(Color.parseColor("#C5E1A5"));
-                        cell.setImageDrawable(null);
-                        cell.setAlpha(1f);
+        switch (hit) {
+            case TELEPORTED: {
+                Log.d("BattleActivity", "🐱 AI Cat teleported: (" + row + "," + col + ") → (" +
+                        unit.row + "," + unit.col + ")");
 
-                        // Show at new position
-                        ImageView newCell = enemyCells[newRow][newCol];
-                        enemyRevealedCells[newRow][newCol] = true;
-                        newCell.setBackgroundColor(Color.parseColor("#FFA500"));
-                        newCell.setImageResource(R.drawable.cat_enemy);
-                        newCell.setAlpha(1f);
+                // Clear old position
+                cell.setBackgroundColor(Color.parseColor("#C5E1A5")); // Light green
+                cell.setImageDrawable(null);
+                cell.setAlpha(1f);
 
-                        newCell.setScaleX(0.3f);
-                        newCell.setScaleY(0.3f);
-                        newCell.animate()
-                                .scaleX(1f)
-                                .scaleY(1f)
-                                .rotation(720f)
-                                .setDuration(600)
-                                .start();
+                // Show at new position
+                ImageView newCell = enemyCells[unit.row][unit.col];
+                enemyRevealedCells[unit.row][unit.col] = true;
+                newCell.setBackgroundColor(Color.parseColor("#FFA500")); // Orange
+                newCell.setImageResource(R.drawable.cat_enemy);
+                newCell.setAlpha(1f);
 
-                        return; // Don't show destruction
-                    }
-                }
+                // Teleport animation
+                newCell.setScaleX(0.3f);
+                newCell.setScaleY(0.3f);
+                newCell.animate()
+                        .scaleX(1f)
+                        .scaleY(1f)
+                        .rotation(720f)
+                        .setDuration(600)
+                        .start();
+                break;
+            }
 
-                // Regular death
-                unit.health = 0;
+            case DESTROYED:
                 cell.setBackgroundColor(Color.parseColor("#FF0000"));
                 showDeathEffect(cell);
-
                 checkWinCondition();
-                return;
-            }
-
-            // Survived with 1 HP
-            if (unit.type.equals("rose") && !unit.abilityUsed) {
-                abilityManager.activateRoseColorChange(unit, cell);
-            }
-
-            cell.setBackgroundColor(Color.parseColor("#FFA500")); // Orange
-
-            if (unit.type.equals("rose")) {
-                cell.setImageResource(abilityManager.getRoseIcon(unit));
-            } else {
-                cell.setImageResource(getUnitIcon(unit.type, true));
-            }
-            cell.setAlpha(1f);
-        }
-    }
-
-    private void destroyEnemyUnit(int row, int col) {
-        SetupActivity.UnitPosition unit = null;
-        for (SetupActivity.UnitPosition u : aiUnits) {
-            if (u.row == row && u.col == col && u.health > 0) {
-                unit = u;
                 break;
-            }
-        }
-
-        if (unit != null) {
-            // Cat teleport
-            if (unit.type.equals("cat") && !unit.abilityUsed) {
-                Log.d("BattleActivity", "🐱 AI Cat teleporting!");
-
-                final int oldRow = unit.row;
-                final int oldCol = unit.col;
-
-                boolean teleported = abilityManager.activateCatTeleport(unit, aiUnits);
-
-                if (teleported) {
-                    final int newRow = unit.row;
-                    final int newCol = unit.col;
-                    unit.health = 1;
-
-                    Log.d("BattleActivity", "✅ Cat teleported: (" + oldRow + "," + oldCol + ") → (" +
-                            newRow + "," + newCol + ")");
-
-                    // Clear old position
-                    ImageView oldCell = enemyCells[oldRow][oldCol];
-                    enemyRevealedCells[oldRow][oldCol] = true;
-                    oldCell.setBackgroundColor(Color.parseColor("#C5E1A5")); // Light green
-                    oldCell.setImageDrawable(null);
-                    oldCell.setAlpha(1f);
-
-                    // Show at new position
-                    ImageView newCell = enemyCells[newRow][newCol];
-                    enemyRevealedCells[newRow][newCol] = true;
-                    newCell.setBackgroundColor(Color.parseColor("#FFA500")); // Orange
-                    newCell.setImageResource(R.drawable.cat_enemy);
-                    newCell.setAlpha(1f);
-
-                    // Teleport animation
-                    newCell.setScaleX(0.3f);
-                    newCell.setScaleY(0.3f);
-                    newCell.animate()
-                            .scaleX(1f)
-                            .scaleY(1f)
-                            .rotation(720f)
-                            .setDuration(600)
-                            .start();
-
-                    return; // Don't destroy - cat survived
-                }
-            }
-
-            // Unit destroyed
-            unit.health = 0;
-
-            ImageView cell = enemyCells[row][col];
-            enemyRevealedCells[row][col] = true;
 
-            cell.setBackgroundColor(Color.parseColor("#FF0000"));
-            showDeathEffect(cell);
-
-            checkWinCondition();
+            default:
+                // Survived with 1 HP
+                cell.setBackgroundColor(Color.parseColor("#FFA500")); // Orange
+                cell.setImageResource(UnitIcons.of(this, unit, true));
+                cell.setAlpha(1f);
+                break;
         }
     }
 
-    private void damagePlayerUnit(SetupActivity.UnitPosition unit) {
-        if (powerManager.isUnitProtected(unit)) {
-            ImageView cell = playerCells[unit.row][unit.col];
-            cell.setBackgroundColor(Color.parseColor("#608FBC8F"));
-
-            ImageView finalCell = cell;
-            cell.animate()
-                    .scaleX(1.3f)
-                    .scaleY(1.3f)
-                    .setDuration(200)
-                    .withEndAction(() -> {
-                        finalCell.animate().scaleX(1f).scaleY(1f).setDuration(200).start();
-                    })
-                    .start();
-
-            powerManager.removeFenceProtection();
-            return;
+    private MctsOpponent.Difficulty parseDifficulty(String difficulty) {
+        if (difficulty == null) return MctsOpponent.Difficulty.NORMAL;
+        try {
+            return MctsOpponent.Difficulty.valueOf(difficulty);
+        } catch (IllegalArgumentException e) {
+            Log.w("BattleActivity", "Unknown AI difficulty " + difficulty);
+            return MctsOpponent.Difficulty.NORMAL;
         }
+    }
 
-        unit.health--;
+    // The process may be killed once paused, keep what the buffer holds
+    @Override
+    protected void onPause() {
+        super.onPause();
+        flushWrites();
+    }
 
-        Log.d("BattleActivity", "Player unit damaged. HP: 2 → " + unit.health);
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        flushWrites();
+        timeline.close();
+        if (aiOpponent != null) aiOpponent.shutdown();
+    }
 
+    private void hitPlayerUnit(SetupActivity.UnitPosition unit, boolean directHit) {
         ImageView cell = playerCells[unit.row][unit.col];
 
-        // Check if died from partial hit
-        if (unit.health <= 0) {
-            Log.d("BattleActivity", "Player unit died from partial hit!");
-
-            // Cat teleport
-            if (unit.type.equals("cat") && !unit.abilityUsed) {
-                Log.d("BattleActivity", "🐱 Player Cat teleporting!");
-
-                final int oldRow = unit.row;
-                final int oldCol = unit.col;
-
-                boolean teleported = abilityManager.activateCatTeleport(unit, playerUnits);
-
-                if (teleported) {
-                    final int newRow = unit.row;
-                    final int newCol = unit.col;
-                    unit.health = 1;
-
-                    Log.d("BattleActivity", "✅ Player cat teleported: (" + oldRow + "," + oldCol +
-                            ") → (" + newRow + "," + newCol + ")");
-
-                    // Clear old cell
-                    ImageView oldCell = playerCells[oldRow][oldCol];
-                    oldCell.setImageDrawable(null);
-                    oldCell.setTag(null);
-                    oldCell.setBackgroundColor(Color.parseColor("#608FBC8F")); // Green
-
-                    // Show at new position
-                    ImageView newCell = playerCells[newRow][newCol];
-                    newCell.setImageResource(SkinManager.isCatSkinActive(this) ? R.drawable.cat_skin : R.drawable.cat_icon);
-                    newCell.setTag(unit);
-                    newCell.setBackgroundColor(Color.parseColor("#4CAF50")); // Bright green
-
-                    // Animation
-                    newCell.setScaleX(0.3f);
-                    newCell.setScaleY(0.3f);
-                    newCell.setAlpha(0f);
-                    newCell.animate()
-                            .scaleX(1f)
-                            .scaleY(1f)
-                            .alpha(1f)
-                            .rotation(720f)
-                            .setDuration(600)
-                            .start();
-
-                    return; // Don't destroy
-                }
-            }
-
-            // Regular death
-            unit.health = 0;
-            cell.setBackgroundColor(Color.parseColor("#8B4513"));
-            showDeathEffect(cell);
-
-            checkWinCondition();
-            return;
-        }
-
-        // Survived with 1 HP
-        if (unit.type.equals("rose") && !unit.abilityUsed) {
-            abilityManager.activateRoseColorChange(unit, cell);
-        }
-
-        cell.setBackgroundColor(Color.parseColor("#FFA500"));
-
-        if (unit.type.equals("rose")) {
-            cell.setImageResource(abilityManager.getRoseIcon(unit));
-        } else {
-            cell.setImageResource(getUnitIcon(unit.type));
-        }
-
-        if (unit.type.equals("dog") && !unit.abilityUsed) {
-            abilityManager.activateDogFear(unit, cell);
-        } else {
-            cell.animate()
-                    .alpha(0.5f)
-                    .setDuration(200)
-                    .withEndAction(() -> {
-                        cell.animate().alpha(1f).setDuration(200).start();
-                    })
-                    .start();
-        }
-    }
-
-    private void destroyPlayerUnit(SetupActivity.UnitPosition unit) {
         if (powerManager.isUnitProtected(unit)) {
-            ImageView cell = playerCells[unit.row][unit.col];
+            aiKnowledge.recordBlocked(Garden.cell(unit.row, unit.col), UnitKind.fromKey(unit.type));
+            journal.blocked(GameState.Side.PLAYER, Garden.cell(unit.row, unit.col));
             cell.setBackgroundColor(Color.parseColor("#608FBC8F"));
 
-            ImageView finalCell = cell;
             cell.animate()
                     .scaleX(1.3f)
                     .scaleY(1.3f)
                     .setDuration(200)
                     .withEndAction(() -> {
-                        finalCell.animate().scaleX(1f).scaleY(1f).setDuration(200).start();
+                        cell.animate().scaleX(1f).scaleY(1f).setDuration(200).start();
                     })
                     .start();
 
@@ -654,52 +506,84 @@ public class BattleActivity extends AppCompatActivity {
             return;
         }
 
-        // Cat teleport in case of direct hit
-        if (unit.type.equals("cat") && !unit.abilityUsed) {
-            Log.d("BattleActivity", "🐱 Player Cat teleporting (direct hit)!");
+        int slot = playerGarden.slotAt(unit.row, unit.col);
+        if (slot < 0) return;
+
+        final int oldRow = unit.row;
+        final int oldCol = unit.col;
 
-            final int oldRow = unit.row;
-            final int oldCol = unit.col;
+        HitResult hit = BattleRules.applyHit(playerGarden, slot, directHit, true, random);
+        unit.syncFrom(playerGarden, slot);
+        aiKnowledge.recordHit(Garden.cell(oldRow, oldCol), playerGarden.kind(slot), hit,
+                Garden.cell(unit.row, unit.col), unit.health);
+        journal.hit(GameState.Side.PLAYER, Garden.cell(oldRow, oldCol), hit, playerGarden, slot);
 
-            boolean teleported = abilityManager.activateCatTeleport(unit, playerUnits);
+        Log.d("BattleActivity", "Player " + unit.type + " hit: " + hit + ", HP now " + unit.health);
 
-            if (teleported) {
-                final int newRow = unit.row;
-                final int newCol = unit.col;
-                unit.health = 1;
+        switch (hit) {
+            case TELEPORTED: {
+                Log.d("BattleActivity", "✅ Player cat teleported: (" + oldRow + "," + oldCol +
+                        ") → (" + unit.row + "," + unit.col + ")");
 
                 // Clear old cell
-                ImageView oldCell = playerCells[oldRow][oldCol];
-                oldCell.setImageDrawable(null);
-                oldCell.setTag(null);
-                oldCell.setBackgroundColor(Color.parseColor("#608FBC8F"));
+                cell.setImageDrawable(null);
+                cell.setTag(null);
+                cell.setBackgroundColor(Color.parseColor("#608FBC8F")); // Green
 
                 // Show at new position
-                ImageView newCell = playerCells[newRow][newCol];
+                ImageView newCell = playerCells[unit.row][unit.col];
                 newCell.setImageResource(SkinManager.isCatSkinActive(this) ? R.drawable.cat_skin : R.drawable.cat_icon);
                 newCell.setTag(unit);
-                newCell.setBackgroundColor(Color.parseColor("#4CAF50"));
+                newCell.setBackgroundColor(Color.parseColor("#4CAF50")); // Bright green
 
+                // Animation
                 newCell.setScaleX(0.3f);
                 newCell.setScaleY(0.3f);
+                newCell.setAlpha(0f);
                 newCell.animate()
                         .scaleX(1f)
                         .scaleY(1f)
+                        .alpha(1f)
                         .rotation(720f)
                         .setDuration(600)
                         .start();
-
-                return;
+                break;
             }
-        }
 
-        unit.health = 0;
+            case DESTROYED:
+                cell.setBackgroundColor(Color.parseColor("#8B4513"));
+                showDeathEffect(cell);
+                checkWinCondition();
+                break;
 
-        ImageView cell = playerCells[unit.row][unit.col];
-        cell.setBackgroundColor(Color.parseColor("#8B4513"));
-        showDeathEffect(cell);
+            case ROSE_COLOR_CHANGED:
+                cell.setBackgroundColor(Color.parseColor("#FFA500"));
+                abilityManager.showRoseColorChange(unit, cell);
+                blinkCell(cell);
+                break;
+
+            case DOG_FEAR:
+                cell.setBackgroundColor(Color.parseColor("#FFA500"));
+                cell.setImageResource(UnitIcons.board(this, unit.type, false));
+                abilityManager.showDogFear(cell);
+                break;
 
-        checkWinCondition();
+            default:
+                cell.setBackgroundColor(Color.parseColor("#FFA500"));
+                cell.setImageResource(UnitIcons.of(this, unit, false));
+                blinkCell(cell);
+                break;
+        }
+    }
+
+    private void blinkCell(ImageView cell) {
+        cell.animate()
+                .alpha(0.5f)
+                .setDuration(200)
+                .withEndAction(() -> {
+                    cell.animate().alpha(1f).setDuration(200).start();
+                })
+                .start();
     }
 
     private void showMissOnEnemyGrid(int row, int col) {
@@ -725,114 +609,76 @@ public class BattleActivity extends AppCompatActivity {
         enemyGardenSection.setVisibility(View.GONE);
         playerGardenSection.setVisibility(View.VISIBLE);
 
-        new Handler().postDelayed(this::aiTakeTurn, 2000);
+        timeline.after(2000, this::aiTakeTurn);
     }
 
     private void aiTakeTurn() {
         if (gameEnded) return;
-        List<SetupActivity.UnitPosition> aliveUnits = new ArrayList<>();
-        SetupActivity.UnitPosition fearedDog = null;
-        for (SetupActivity.UnitPosition unit : playerUnits) {
-            if (unit.health > 0) {
-                if (unit.type.equals("dog") && unit.dogFearActive) {
-                    fearedDog = unit;
-                    continue;
-                }
-                aliveUnits.add(unit);
-            }
+        if (!playerGarden.hasUnitsLeft()) {
+            endGame(false);
+            return;
         }
 
-        // Clear fear before any early return so it lasts exactly one AI turn
-        if (fearedDog != null) {
+        // Search off the main thread on a snapshot of what the AI has seen
+        OpponentKnowledge snapshot = aiKnowledge.snapshot(currentRound,
+                playerGarden.aliveCount(), playerGarden.dogFearMask());
+        aiOpponent.chooseTargetAsync(new Garden(aiGarden), snapshot, random.nextSeed(),
+                targetCell -> runOnUiThread(() -> aiAttack(targetCell)));
+    }
+
+    private void aiAttack(int targetCell) {
+        if (gameEnded || isFinishing() || isDestroyed()) return;
+
+        int targetRow = Garden.rowOf(targetCell);
+        int targetCol = Garden.colOf(targetCell);
+        int targetSlot = playerGarden.slotAt(targetRow, targetCol);
+
+        Log.d("BattleActivity", "AI (" + aiOpponent.getDifficulty() + ") attacks (" + targetRow + "," + targetCol + ")");
+
+        // Fear lasts exactly one AI turn
+        if (playerGarden.dogFearMask() != 0) journal.fearCleared(GameState.Side.PLAYER);
+        for (int slot = 0; slot < playerGarden.unitCount(); slot++) {
+            if (!playerGarden.isDogFearActive(slot)) continue;
+            playerGarden.setDogFear(slot, false);
+            SetupActivity.UnitPosition fearedDog = playerUnits.get(slot);
             fearedDog.dogFearActive = false;
             ImageView fearCell = playerCells[fearedDog.row][fearedDog.col];
             fearCell.setBackgroundColor(fearedDog.health == 1 ?
                     Color.parseColor("#FFA500") : Color.parseColor("#608FBC8F"));
         }
 
-        if (aliveUnits.isEmpty()) {
-            for (SetupActivity.UnitPosition unit : playerUnits) {
-                if (unit.health > 0) aliveUnits.add(unit);
-            }
-            if (aliveUnits.isEmpty()) {
-                endGame(false);
-                return;
-            }
-        }
-
-        Random random = new Random();
+        if (targetSlot < 0) {
+            // MISS: the rock lands on an empty cell
+            aiKnowledge.recordMiss(targetCell);
+            journal.miss(GameState.Side.PLAYER, targetCell);
+            currentAITarget = null; // No actual target
 
-        // AI attacking pattern
-        aiAttackCount++;
-        boolean shouldHit = (aiAttackCount % AI_HIT_PATTERN == 0);
-
-        Log.d("BattleActivity", "AI Attack #" + aiAttackCount + ", Should hit: " + shouldHit);
-
-        if (shouldHit) {
-            // HIT: Target a real unit
-            currentAITarget = aliveUnits.get(random.nextInt(aliveUnits.size()));
-
-            Log.d("BattleActivity", "AI targeting unit at (" + currentAITarget.row + "," + currentAITarget.col + ")");
-
-        } else {
-            // MISS: Pick an empty cell
-            List<int[]> emptyCells = new ArrayList<>();
-
-            for (int row = 0; row < 8; row++) {
-                for (int col = 0; col < 8; col++) {
-                    boolean isEmpty = true;
-
-                    for (SetupActivity.UnitPosition unit : playerUnits) {
-                        if (unit.row == row && unit.col == col && unit.health > 0) {
-                            isEmpty = false;
-                            break;
-                        }
-                    }
-
-                    if (isEmpty) {
-                        emptyCells.add(new int[]{row, col});
-                    }
-                }
-            }
-
-            if (!emptyCells.isEmpty()) {
-                // Pick random empty cell
-                int[] emptyCell = emptyCells.get(random.nextInt(emptyCells.size()));
-
-                Log.d("BattleActivity", "AI intentionally missing at (" + emptyCell[0] + "," + emptyCell[1] + ")");
-
-                // Create fake "target" for miss
-                currentAITarget = null; // No actual target
-
-                playAttackAnimation();
-                showRockFalling(emptyCell[0], emptyCell[1]);
-
-                // Just show splash and continue
-                new Handler().postDelayed(() -> {
-                    showSplashOnPlayerGrid(emptyCell[0], emptyCell[1]);
+            playAttackAnimation();
+            showRockFalling(targetRow, targetCol);
 
-                    // Save miss to database
-                    saveMoveToDatabase(emptyCell[0], emptyCell[1], false, -1, -1, "miss");
+            // Just show splash and continue
+            timeline.after(1500, () -> {
+                showSplashOnPlayerGrid(targetRow, targetCol);
 
-                    new Handler().postDelayed(this::startNextRound, 1500);
-                }, 1500);
+                // Save miss to database
+                saveMoveToDatabase(targetRow, targetCol, false, -1, -1, "miss");
 
-                return; // Exit early - no duel needed
+                timeline.after(1500, this::startNextRound);
+            });
 
-            } else {
-                // No empty cells - forced to hit
-                currentAITarget = aliveUnits.get(random.nextInt(aliveUnits.size()));
-                Log.d("BattleActivity", "No empty cells - AI forced to hit");
-            }
+            return; // Exit early - no duel needed
         }
 
+        // HIT: Target a real unit
+        currentAITarget = playerUnits.get(targetSlot);
+
         playAttackAnimation();
         showRockFalling(currentAITarget.row, currentAITarget.col);
 
-        new Handler().postDelayed(() -> {
+        timeline.after(1500, () -> {
             launchMiniDuel(currentAITarget.row, currentAITarget.col,
                     currentAITarget.type, false);
-        }, 1500);
+        });
     }
 
     private void showSplashOnPlayerGrid(int row, int col) {
@@ -850,9 +696,9 @@ public class BattleActivity extends AppCompatActivity {
         int originalColor = Color.parseColor("#608FBC8F");
         cell.setBackgroundColor(Color.parseColor("#FF6B6B"));
 
-        new Handler().postDelayed(() -> {
+        timeline.after(300, () -> {
             cell.setBackgroundColor(originalColor);
-        }, 300);
+        });
 
         cell.animate()
                 .translationX(-10f)
@@ -870,6 +716,8 @@ public class BattleActivity extends AppCompatActivity {
 
     private void startNextRound() {
         if (gameEnded) return;
+        journal.endRound();
+        flushWrites();
         currentRound++;
         updateRoundCounter();
 
@@ -877,24 +725,7 @@ public class BattleActivity extends AppCompatActivity {
         updatePowerButtons();
 
         if (currentRound > MAX_ROUNDS) {
-            int playerAlive = 0;
-            int aiAlive = 0;
-
-            for (SetupActivity.UnitPosition unit : playerUnits) {
-                if (unit.health > 0) playerAlive++;
-            }
-
-            for (SetupActivity.UnitPosition unit : aiUnits) {
-                if (unit.health > 0) aiAlive++;
-            }
-
-            if (playerAlive > aiAlive) {
-                endGame(true);
-            } else if (aiAlive > playerAlive) {
-                endGame(false);
-            } else {
-                endGame(true);
-            }
+            endGame(BattleRules.firstPlayerWinsOnRoundLimit(playerGarden, aiGarden));
             return;
         }
 
@@ -902,28 +733,12 @@ public class BattleActivity extends AppCompatActivity {
     }
 
     private void checkWinCondition() {
-        boolean aiHasUnits = false;
-        for (SetupActivity.UnitPosition unit : aiUnits) {
-            if (unit.health > 0) {
-                aiHasUnits = true;
-                break;
-            }
-        }
-
-        if (!aiHasUnits) {
+        if (!aiGarden.hasUnitsLeft()) {
             endGame(true);
             return;
         }
 
-        boolean playerHasUnits = false;
-        for (SetupActivity.UnitPosition unit : playerUnits) {
-            if (unit.health > 0) {
-                playerHasUnits = true;
-                break;
-            }
-        }
-
-        if (!playerHasUnits) {
+        if (!playerGarden.hasUnitsLeft()) {
             endGame(false);
         }
     }
@@ -932,23 +747,13 @@ public class BattleActivity extends AppCompatActivity {
         if (gameEnded) return;
         gameEnded = true;
 
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            try {
-                int winnerId = playerWon ? playerId : aiPlayerId;
-
-                database.gameDao().finishGame(gameId, winnerId, System.currentTimeMillis());
-
-                GameStats playerStats = database.gameStatsDao().getStatsByGameAndPlayer(gameId, playerId);
-                if (playerStats != null && playerStats.getTotalAttacks() > 0) {
-                    float accuracy = (playerStats.getSuccessfulHits() * 100f) / playerStats.getTotalAttacks();
-                    playerStats.setAccuracyPercentage(accuracy);
-                    database.gameStatsDao().update(playerStats);
-                }
-
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        // Accuracy is kept up to date by trg_calculate_accuracy
+        if (gameId >= 0) {
+            bufferJournal();
+            writes.finish(database, playerWon ? playerId : aiPlayerId,
+                    Math.min(currentRound, MAX_ROUNDS), System.currentTimeMillis());
+            Log.d("BattleActivity", "DB executors: " + AppDatabase.executorMetrics());
+        }
 
         String message = playerWon ? "🎉 YOU WIN!" : "💀 YOU LOSE!";
 
@@ -977,68 +782,34 @@ public class BattleActivity extends AppCompatActivity {
         tvRoundCounter.setText("Round: " + currentRound + "/" + MAX_ROUNDS);
     }
 
-    private int getUnitIcon(String unitType, boolean isEnemy) {
-        switch (unitType) {
-            case "sunflower":
-                return (!isEnemy && SkinManager.isSunflowerSkinActive(this))
-                        ? R.drawable.sunflower_skin : R.drawable.sunflower_icon;
-            case "rose":
-                return R.drawable.rose_red;
-            case "dog":
-                return (!isEnemy && SkinManager.isDogSkinActive(this))
-                        ? R.drawable.dog_skin : R.drawable.dog_icon;
-            case "cat":
-                if (isEnemy) return R.drawable.cat_enemy;
-                return SkinManager.isCatSkinActive(this) ? R.drawable.cat_skin : R.drawable.cat_icon;
-            default:
-                return R.drawable.sunflower_icon;
+    // Moves the events recorded since the last flush into the write buffer
+    private void bufferJournal() {
+        for (int seq = journalSaved; seq < journal.size(); seq++) {
+            writes.event(seq, journal.code(seq));
         }
+        journalSaved = journal.size();
     }
 
-    private int getUnitIcon(String unitType) {
-        return getUnitIcon(unitType, false);
+    private void flushWrites() {
+        if (gameId < 0) return;
+        bufferJournal();
+        writes.flush(database);
     }
 
     private void saveMoveToDatabase(int targetRow, int targetCol, boolean wasHit,
                                     int attackerChoice, int defenderChoice, String result) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            try {
-                Move move = new Move(
-                        gameId,
-                        currentRound,
-                        isPlayerTurn ? playerId : aiPlayerId,
-                        targetRow,
-                        targetCol,
-                        wasHit,
-                        attackerChoice,
-                        defenderChoice,
-                        result
-                );
-                database.moveDao().insert(move);
-
-                if (wasHit) {
-                    database.gameStatsDao().incrementSuccessfulHits(
-                            gameId,
-                            isPlayerTurn ? playerId : aiPlayerId
-                    );
-                }
-
-                database.gameStatsDao().incrementTotalAttacks(
-                        gameId,
-                        isPlayerTurn ? playerId : aiPlayerId
-                );
-
-                if (result.equals("destroyed")) {
-                    database.gameStatsDao().incrementUnitsDestroyed(
-                            gameId,
-                            isPlayerTurn ? playerId : aiPlayerId
-                    );
-                }
-
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        if (gameId < 0) return;
+        writes.move(new Move(
+                gameId,
+                currentRound,
+                isPlayerTurn ? playerId : aiPlayerId,
+                targetRow,
+                targetCol,
+                wasHit,
+                attackerChoice,
+                defenderChoice,
+                result
+        ));
     }
 
     private void setupPowerButtons() {
@@ -1047,22 +818,13 @@ public class BattleActivity extends AppCompatActivity {
         btnTier2Power = findViewById(R.id.btnTier2Power);
 
         // Set power icon based on selection
-        switch (selectedPower) {
-            case "spy_drone":
-                btnTier2Power.setText("🐝\nSpy");
-                break;
-            case "fence_shield":
-                btnTier2Power.setText("🛡️\nFence");
-                break;
-            case "fertilizer":
-                btnTier2Power.setText("🌱\nHeal");
-                break;
-        }
+        btnTier2Power.setText(selectedPower.icon() + "\n" + selectedPower.label());
 
         // Garden Hose button
         btnGardenHose.setOnClickListener(v -> {
             if (powerManager.canUseGardenHose() && isPlayerTurn && !hasAttackedThisTurn) {
                 powerManager.activateGardenHose();
+                journal.hose(GameState.Side.PLAYER);
                 updatePowerButtons();
             }
         });
@@ -1086,17 +848,7 @@ public class BattleActivity extends AppCompatActivity {
     }
 
     private void handleTier2PowerClick() {
-        switch (selectedPower) {
-            case "spy_drone":
-                activateUnitSelectionMode("spy");
-                break;
-            case "fence_shield":
-                activateUnitSelectionMode("fence");
-                break;
-            case "fertilizer":
-                activateUnitSelectionMode("fertilizer");
-                break;
-        }
+        activateUnitSelectionMode(selectedPower.selectionMode());
     }
 
     private void activateUnitSelectionMode(String powerMode) {
@@ -1158,22 +910,8 @@ public class BattleActivity extends AppCompatActivity {
         }
 
         // Tier 2 Power
-        String icon = "";
-        String name = "";
-        switch (selectedPower) {
-            case "spy_drone":
-                icon = "🐝";
-                name = "Spy";
-                break;
-            case "fence_shield":
-                icon = "🛡️";
-                name = "Fence";
-                break;
-            case "fertilizer":
-                icon = "🌱";
-                name = "Heal";
-                break;
-        }
+        String icon = selectedPower.icon();
+        String name = selectedPower.label();
 
         if (powerManager.canUseTier2Power() && !hasAttackedThisTurn) {
             btnTier2Power.setEnabled(true);
@@ -1190,19 +928,11 @@ public class BattleActivity extends AppCompatActivity {
     private void onPlayerCellClickedForPower(int row, int col) {
         if (!isSelectingUnitForPower) return;
 
-        ImageView cell = playerCells[row][col];
-        SetupActivity.UnitPosition unit = null;
-
-        for (SetupActivity.UnitPosition u : playerUnits) {
-            if (u.row == row && u.col == col && u.health > 0) {
-                unit = u;
-                break;
-            }
-        }
-
-        if (unit == null) {
+        int slot = playerGarden.slotAt(row, col);
+        if (slot < 0) {
             return;
         }
+        SetupActivity.UnitPosition unit = playerUnits.get(slot);
 
         switch (activePowerMode) {
             case "move":
@@ -1228,7 +958,7 @@ public class BattleActivity extends AppCompatActivity {
                 .show();
 
         // Show second dialog for left/right
-        new Handler().postDelayed(() -> {
+        timeline.after(100, () -> {
             new androidx.appcompat.app.AlertDialog.Builder(this)
                     .setTitle("🌙 Move " + unit.type)
                     .setMessage("Or choose:")
@@ -1236,29 +966,23 @@ public class BattleActivity extends AppCompatActivity {
                     .setNegativeButton("➡️ Right", (dialog, which) -> moveUnit(unit, 0, 1))
                     .setNeutralButton("Cancel", (dialog, which) -> cancelPowerMode())
                     .show();
-        }, 100);
+        });
     }
 
     private void moveUnit(SetupActivity.UnitPosition unit, int rowOffset, int colOffset) {
         int newRow = unit.row + rowOffset;
         int newCol = unit.col + colOffset;
 
-        // Validate move
-        if (newRow < 0 || newRow >= 8 || newCol < 0 || newCol >= 8) {
+        // Validate move (off the board or occupied cells are rejected)
+        int slot = playerGarden.slotAt(unit.row, unit.col);
+        ImageView oldCell = playerCells[unit.row][unit.col];
+        if (slot < 0 || !playerGarden.moveUnit(slot, newRow, newCol)) {
             cancelPowerMode();
             return;
         }
-
-        // Check if new position is occupied
-        for (SetupActivity.UnitPosition u : playerUnits) {
-            if (u.row == newRow && u.col == newCol && u.health > 0) {
-                cancelPowerMode();
-                return;
-            }
-        }
-
-        // Actually move the unit!
-        ImageView oldCell = playerCells[unit.row][unit.col];
+        journal.move(GameState.Side.PLAYER, Garden.cell(unit.row, unit.col), Garden.cell(newRow, newCol));
+        // The AI sees the power used, not which unit moved
+        aiKnowledge.recordRelocation();
 
         // Clear old cell
         oldCell.setImageDrawable(null);
@@ -1266,12 +990,11 @@ public class BattleActivity extends AppCompatActivity {
         oldCell.setBackgroundColor(Color.parseColor("#608FBC8F"));
 
         // Update unit position
-        unit.row = newRow;
-        unit.col = newCol;
+        unit.syncFrom(playerGarden, slot);
 
         // Update new cell
         ImageView newCell = playerCells[newRow][newCol];
-        newCell.setImageResource(getUnitIcon(unit.type));
+        newCell.setImageResource(UnitIcons.board(this, unit.type, false));
         newCell.setTag(unit);
 
         // Animate move
@@ -1296,6 +1019,7 @@ public class BattleActivity extends AppCompatActivity {
         // Set fence protection
         powerManager.setFenceProtectedUnit(unit);
         powerManager.useTier2Power();
+        journal.fence(GameState.Side.PLAYER, Garden.cell(unit.row, unit.col));
 
         ImageView cell = playerCells[unit.row][unit.col];
 
@@ -1330,7 +1054,10 @@ public class BattleActivity extends AppCompatActivity {
         }
 
         // Heal the unit
-        unit.health = 2;
+        int slot = playerGarden.slotAt(unit.row, unit.col);
+        playerGarden.setHealth(slot, Garden.MAX_HEALTH);
+        unit.syncFrom(playerGarden, slot);
+        journal.heal(GameState.Side.PLAYER, Garden.cell(unit.row, unit.col));
 
         ImageView cell = playerCells[unit.row][unit.col];
 
@@ -1338,11 +1065,7 @@ public class BattleActivity extends AppCompatActivity {
         cell.setBackgroundColor(Color.parseColor("#608FBC8F"));
 
         // Update icon
-        if (unit.type.equals("rose")) {
-            cell.setImageResource(abilityManager.getRoseIcon(unit));
-        } else {
-            cell.setImageResource(getUnitIcon(unit.type));
-        }
+        cell.setImageResource(UnitIcons.of(this, unit, false));
 
         // Healing animation
         cell.animate()
@@ -1372,6 +1095,7 @@ public class BattleActivity extends AppCompatActivity {
     }
 
     private void revealAreaWithSpyDrone(int centerRow, int centerCol) {
+        journal.spy(GameState.Side.AI, Garden.cell(centerRow, centerCol));
         for (int row = centerRow - 1; row <= centerRow + 1; row++) {
             for (int col = centerCol - 1; col <= centerCol + 1; col++) {
                 if (row >= 0 && row < 8 && col >= 0 && col < 8) {
@@ -1380,18 +1104,12 @@ public class BattleActivity extends AppCompatActivity {
                     if (!enemyRevealedCells[row][col]) {
                         enemyRevealedCells[row][col] = true;
 
-                        boolean hasUnit = false;
-                        for (SetupActivity.UnitPosition unit : aiUnits) {
-                            if (unit.row == row && unit.col == col && unit.health > 0) {
-                                cell.setBackgroundColor(Color.parseColor("#FFE082"));
-                                cell.setImageResource(getUnitIcon(unit.type, true));
-                                cell.setAlpha(1f);
-                                hasUnit = true;
-                                break;
-                            }
-                        }
-
-                        if (!hasUnit) {
+                        int slot = aiGarden.slotAt(row, col);
+                        if (slot >= 0) {
+                            cell.setBackgroundColor(Color.parseColor("#FFE082"));
+                            cell.setImageResource(UnitIcons.board(this, aiGarden.type(slot), true));
+                            cell.setAlpha(1f);
+                        } else {
                             cell.setBackgroundColor(Color.parseColor("#C5E1A5"));
                             cell.setAlpha(1f);
                         }
@@ -1420,22 +1138,7 @@ public class BattleActivity extends AppCompatActivity {
     }
 
     private void savePowerUsageToDatabase(String powerName) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            try {
-                com.example.guerraentrevecinos.database.entities.PowerUsage powerUsage =
-                        new com.example.guerraentrevecinos.database.entities.PowerUsage(
-                                gameId,
-                                playerId,
-                                powerName,
-                                currentRound
-                        );
-                database.powerUsageDao().insert(powerUsage);
-
-                database.gameStatsDao().incrementPowersUsed(gameId, playerId);
-
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        });
+        if (gameId < 0) return;
+        writes.powerUsed(new PowerUsage(gameId, playerId, powerName, currentRound));
     }
 }
\ No newline at end of file
@@ -1,17 +1,29 @@
 package com.example.guerraentrevecinos;
 
 import android.util.Log;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.sync.GameSyncTransport;
+import com.example.guerraentrevecinos.sync.RoomSnapshot;
+import com.example.guerraentrevecinos.sync.RoomUpdate;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.ChildEventListener;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.ServerValue;
 import com.google.firebase.database.ValueEventListener;
 import androidx.annotation.NonNull;
-import java.util.Random;
+import java.util.HashMap;
+import java.util.Map;
 
-public class FirebaseManager {
+/**
+ * Firebase Realtime Database backend of GameSyncTransport. Rooms live
+ * under games/{roomCode}; snapshots are copied into RoomSnapshots so the
+ * screens never touch the SDK types.
+ */
+public class FirebaseManager implements GameSyncTransport {
 
     private static final String TAG = "FirebaseManager";
     private static FirebaseManager instance;
@@ -19,6 +31,9 @@ public class FirebaseManager {
     private DatabaseReference gamesRef;
     private FirebaseAuth auth;
     private boolean isInitialized = false;
+    private final GameRandom random = new GameRandom(GameRandom.newSeed());
+    // Detaches the SDK listener registered for each room, node or child listener
+    private final Map<Object, Runnable> listenerRemovals = new HashMap<>();
 
     private FirebaseManager() {
         try {
@@ -58,6 +73,7 @@ public class FirebaseManager {
         return instance;
     }
 
+    @Override
     public boolean isInitialized() {
         return isInitialized;
     }
@@ -82,6 +98,7 @@ public class FirebaseManager {
         }
     }
 
+    @Override
     public String getCurrentUserId() {
         if (auth == null) {
             Log.e(TAG, "FirebaseAuth is null when getting user ID!");
@@ -91,9 +108,9 @@ public class FirebaseManager {
         return user != null ? user.getUid() : null;
     }
 
+    @Override
     public String generateRoomCode() {
         String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        Random random = new Random();
         StringBuilder code = new StringBuilder();
         for (int i = 0; i < 6; i++) {
             code.append(chars.charAt(random.nextInt(chars.length())));
@@ -101,7 +118,8 @@ public class FirebaseManager {
         return code.toString();
     }
 
-    public void createRoom(String roomCode, String playerName, OnRoomCreatedListener listener) {
+    @Override
+    public void createRoom(String roomCode, String playerName, RoomCallback listener) {
         if (!isInitialized) {
             Log.e(TAG, "Firebase not initialized!");
             listener.onFailure("Firebase not initialized. Please restart the app.");
@@ -128,7 +146,7 @@ public class FirebaseManager {
         }
     }
 
-    private void createRoomInternal(String roomCode, String playerName, OnRoomCreatedListener listener) {
+    private void createRoomInternal(String roomCode, String playerName, RoomCallback listener) {
         try {
             FirebaseGameRoom room = new FirebaseGameRoom(roomCode);
             room.player1 = new FirebaseGameRoom.PlayerData(getCurrentUserId(), playerName);
@@ -150,7 +168,8 @@ public class FirebaseManager {
         }
     }
 
-    public void joinRoom(String roomCode, String playerName, OnRoomJoinedListener listener) {
+    @Override
+    public void joinRoom(String roomCode, String playerName, RoomCallback listener) {
         if (!isInitialized) {
             Log.e(TAG, "Firebase not initialized!");
             listener.onFailure("Firebase not initialized. Please restart the app.");
@@ -189,20 +208,108 @@ public class FirebaseManager {
         }
     }
 
-    public void listenToRoom(String roomCode, ValueEventListener listener) {
+    @Override
+    public void listenToRoom(String roomCode, RoomListener listener) {
+        listenToNode(roomCode, "", listener);
+    }
+
+    @Override
+    public void listenToNode(String roomCode, String path, RoomListener listener) {
         if (!isInitialized || gamesRef == null) {
             Log.e(TAG, "Cannot listen to room - Firebase not initialized!");
             return;
         }
-        gamesRef.child(roomCode).addValueEventListener(listener);
+        DatabaseReference ref = roomRef(roomCode, path);
+        ValueEventListener valueListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                listener.onRoomChanged(RoomSnapshot.of(roomCode, path, snapshot.getValue()));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onCancelled(error.getMessage());
+            }
+        };
+        listenerRemovals.put(listener, () -> ref.removeEventListener(valueListener));
+        ref.addValueEventListener(valueListener);
     }
 
-    public void removeRoomListener(String roomCode, ValueEventListener listener) {
-        if (gamesRef != null) {
-            gamesRef.child(roomCode).removeEventListener(listener);
+    @Override
+    public void removeRoomListener(String roomCode, RoomListener listener) {
+        Runnable removal = listenerRemovals.remove(listener);
+        if (removal != null) removal.run();
+    }
+
+    @Override
+    public void listenToChildren(String roomCode, String path, ChildListener listener) {
+        if (!isInitialized || gamesRef == null) {
+            Log.e(TAG, "Cannot listen to room - Firebase not initialized!");
+            return;
         }
+        DatabaseReference ref = roomRef(roomCode, path);
+        ChildEventListener childListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snapshot, String previousChildName) {
+                listener.onChildAdded(childOf(roomCode, path, snapshot));
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snapshot, String previousChildName) {
+                listener.onChildChanged(childOf(roomCode, path, snapshot));
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+                listener.onChildRemoved(childOf(roomCode, path, snapshot));
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snapshot, String previousChildName) {
+                // Only ordered queries move children
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onCancelled(error.getMessage());
+            }
+        };
+        listenerRemovals.put(listener, () -> ref.removeEventListener(childListener));
+        ref.addChildEventListener(childListener);
+    }
+
+    @Override
+    public void removeChildListener(String roomCode, ChildListener listener) {
+        Runnable removal = listenerRemovals.remove(listener);
+        if (removal != null) removal.run();
+    }
+
+    // Converts just the child the event is about, never the node around it
+    private static RoomSnapshot childOf(String roomCode, String path, DataSnapshot child) {
+        String childPath = path.isEmpty() ? child.getKey() : path + "/" + child.getKey();
+        return RoomSnapshot.of(roomCode, childPath, child.getValue());
     }
 
+    @Override
+    public void read(String roomCode, String path, ValueCallback callback) {
+        if (!isInitialized || gamesRef == null) {
+            callback.onCancelled("Firebase not initialized");
+            return;
+        }
+        roomRef(roomCode, path).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                callback.onValue(RoomSnapshot.of(roomCode, path, snapshot.getValue()));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                callback.onCancelled(error.getMessage());
+            }
+        });
+    }
+
+    @Override
     public void setPlayerReady(String roomCode, boolean isPlayer1, boolean ready) {
         if (!isInitialized || gamesRef == null) {
             Log.e(TAG, "Cannot set player ready - Firebase not initialized!");
@@ -212,6 +319,7 @@ public class FirebaseManager {
         gamesRef.child(roomCode).child(path).setValue(ready);
     }
 
+    @Override
     public void updateGameState(String roomCode, FirebaseGameRoom.GameStateData gameState) {
         if (!isInitialized || gamesRef == null) {
             Log.e(TAG, "Cannot update game state - Firebase not initialized!");
@@ -220,6 +328,7 @@ public class FirebaseManager {
         gamesRef.child(roomCode).child("gameState").setValue(gameState.toMap());
     }
 
+    @Override
     public void sendAction(String roomCode, FirebaseGameRoom.LastActionData action) {
         if (!isInitialized || gamesRef == null) {
             Log.e(TAG, "Cannot send action - Firebase not initialized!");
@@ -228,19 +337,64 @@ public class FirebaseManager {
         gamesRef.child(roomCode).child("lastAction").setValue(action.toMap());
     }
 
+    @Override
+    public void sendDuelChoice(String roomCode, Map<String, Object> choices, WriteCallback callback) {
+        updateChildren(roomCode, "currentDuel", choices, callback);
+    }
+
+    @Override
+    public void setValue(String roomCode, String path, Object value, WriteCallback callback) {
+        if (!isInitialized || gamesRef == null) {
+            callback.onComplete("Firebase not initialized");
+            return;
+        }
+        roomRef(roomCode, path).setValue(value, (error, ref) ->
+                callback.onComplete(error != null ? error.getMessage() : null));
+    }
+
+    @Override
+    public void updateChildren(String roomCode, String path, Map<String, Object> values, WriteCallback callback) {
+        if (!isInitialized || gamesRef == null) {
+            callback.onComplete("Firebase not initialized");
+            return;
+        }
+        roomRef(roomCode, path).updateChildren(values, (error, ref) ->
+                callback.onComplete(error != null ? error.getMessage() : null));
+    }
+
+    @Override
+    public void removeValue(String roomCode, String path, WriteCallback callback) {
+        setValue(roomCode, path, null, callback);
+    }
+
+    @Override
+    public void commit(String roomCode, RoomUpdate update, WriteCallback callback) {
+        if (!isInitialized || gamesRef == null) {
+            callback.onComplete("Firebase not initialized");
+            return;
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (Map.Entry<String, Object> entry : update.values().entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof RoomUpdate.Increment) {
+                value = ServerValue.increment(((RoomUpdate.Increment) value).delta());
+            }
+            values.put(entry.getKey(), value);
+        }
+        // Slash paths under one parent are applied atomically by the server
+        gamesRef.child(roomCode).updateChildren(values, (error, ref) ->
+                callback.onComplete(error != null ? error.getMessage() : null));
+    }
+
+    @Override
     public void deleteRoom(String roomCode) {
         if (gamesRef != null) {
             gamesRef.child(roomCode).removeValue();
         }
     }
 
-    public interface OnRoomCreatedListener {
-        void onSuccess(String roomCode);
-        void onFailure(String error);
-    }
-
-    public interface OnRoomJoinedListener {
-        void onSuccess(String roomCode);
-        void onFailure(String error);
+    private DatabaseReference roomRef(String roomCode, String path) {
+        DatabaseReference room = gamesRef.child(roomCode);
+        return path.isEmpty() ? room : room.child(path);
     }
-}
\ No newline at end of file
+}
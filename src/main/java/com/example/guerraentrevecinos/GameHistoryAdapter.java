@@ -16,6 +16,27 @@ public class GameHistoryAdapter extends RecyclerView.Adapter<GameHistoryAdapter.
         this.games = games;
     }
 
+    // Older games, at the bottom as the user scrolls
+    public void append(List<GameHistoryItem> page) {
+        int start = games.size();
+        games.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
+    // Games finished since the list was loaded, at the top
+    public void prepend(List<GameHistoryItem> newer) {
+        games.addAll(0, newer);
+        notifyItemRangeInserted(0, newer.size());
+    }
+
+    public GameHistoryItem first() {
+        return games.isEmpty() ? null : games.get(0);
+    }
+
+    public GameHistoryItem last() {
+        return games.isEmpty() ? null : games.get(games.size() - 1);
+    }
+
     @NonNull
     @Override
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
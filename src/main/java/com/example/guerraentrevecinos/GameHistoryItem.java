@@ -7,15 +7,17 @@ public class GameHistoryItem {
     private int unitsDestroyed;
     private int rounds;
     private String date;
+    private long finishedAt; // paging key together with gameId
 
     public GameHistoryItem(int gameId, boolean isWin, float accuracy,
-                           int unitsDestroyed, int rounds, String date) {
+                           int unitsDestroyed, int rounds, String date, long finishedAt) {
         this.gameId = gameId;
         this.isWin = isWin;
         this.accuracy = accuracy;
         this.unitsDestroyed = unitsDestroyed;
         this.rounds = rounds;
         this.date = date;
+        this.finishedAt = finishedAt;
     }
 
     // Getters
@@ -25,4 +27,5 @@ public class GameHistoryItem {
     public int getUnitsDestroyed() { return unitsDestroyed; }
     public int getRounds() { return rounds; }
     public String getDate() { return date; }
+    public long getFinishedAt() { return finishedAt; }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.os.Bundle;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.guerraentrevecinos.databinding.ActivityGameModeBinding;
+import com.example.guerraentrevecinos.engine.ai.MctsOpponent;
 
 public class GameModeActivity extends AppCompatActivity {
 
@@ -18,12 +19,7 @@ public class GameModeActivity extends AppCompatActivity {
         // Solo Mode
         binding.btnSoloMode.setOnClickListener(v -> {
             animateButtonPress(v);
-            v.postDelayed(() -> {
-                // Go to power selection first
-                Intent intent = new Intent(this, PowerSelectionActivity.class);
-                intent.putExtra("GAME_MODE", "SOLO");
-                startActivity(intent);
-            }, 150);
+            v.postDelayed(this::chooseDifficulty, 150);
         });
 
         // Multiplayer Mode
@@ -38,6 +34,22 @@ public class GameModeActivity extends AppCompatActivity {
         });
     }
 
+    // The AI's thinking time per move, BattleActivity reads it back as an MctsOpponent.Difficulty
+    private void chooseDifficulty() {
+        MctsOpponent.Difficulty[] levels = MctsOpponent.Difficulty.values();
+        String[] labels = {"🌱 Easy", "🌻 Normal", "🌵 Hard"};
+        new androidx.appcompat.app.AlertDialog.Builder(this)
+                .setTitle("Computer difficulty")
+                .setItems(labels, (dialog, which) -> {
+                    // Go to power selection first
+                    Intent intent = new Intent(this, PowerSelectionActivity.class);
+                    intent.putExtra("GAME_MODE", "SOLO");
+                    intent.putExtra("AI_DIFFICULTY", levels[which].name());
+                    startActivity(intent);
+                })
+                .show();
+    }
+
     private void animateButtonPress(android.view.View button) {
         button.animate()
                 .scaleX(0.95f)
@@ -3,6 +3,8 @@ package com.example.guerraentrevecinos;
 import android.content.Intent;
 import android.os.Bundle;
 import androidx.appcompat.app.AppCompatActivity;
+import com.example.guerraentrevecinos.database.AppDatabase;
+import com.example.guerraentrevecinos.database.GameArchiver;
 import com.example.guerraentrevecinos.databinding.ActivityMainBinding;
 
 public class MainActivity extends AppCompatActivity {
@@ -15,6 +17,11 @@ public class MainActivity extends AppCompatActivity {
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
+        // Pack old finished games into the archive, in the background on the write executor
+        if (savedInstanceState == null) {
+            GameArchiver.compactInBackground(AppDatabase.getDatabase(this));
+        }
+
         // Start Game button
         binding.btnStartGame.setOnClickListener(v -> {
             animateButtonPress(v);
@@ -0,0 +1,45 @@
+package com.example.guerraentrevecinos;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.example.guerraentrevecinos.engine.TurnTimeline;
+
+/**
+ * Runs timeline steps on the main looper with one shared Handler. Bound to
+ * the owner's lifecycle: once it is destroyed queued steps are removed and
+ * new ones are dropped, so nothing fires into a dead activity.
+ */
+public class MainThreadScheduler implements TurnTimeline.Scheduler, DefaultLifecycleObserver {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Object token = new Object();
+    private boolean destroyed = false;
+
+    public MainThreadScheduler(LifecycleOwner owner) {
+        owner.getLifecycle().addObserver(this);
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        if (destroyed) return;
+        handler.postAtTime(task, token, SystemClock.uptimeMillis() + delayMillis);
+    }
+
+    @Override
+    public void cancelAll() {
+        handler.removeCallbacksAndMessages(token);
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        destroyed = true;
+        cancelAll();
+        owner.getLifecycle().removeObserver(this);
+    }
+}
@@ -9,15 +9,14 @@ import android.view.animation.BounceInterpolator;
 import android.view.animation.OvershootInterpolator;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.guerraentrevecinos.databinding.ActivityMiniDuelBinding;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.sync.GameSyncTransport;
+import com.example.guerraentrevecinos.sync.RoomSnapshot;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 
 public class MiniDuelActivity extends AppCompatActivity {
 
@@ -29,6 +28,7 @@ public class MiniDuelActivity extends AppCompatActivity {
     private int enemySecondChoice = -1; // For Garden Hose
     private boolean isPlayerAttacking;
     private boolean isGardenHoseActive = false;
+    private GameRandom random;
 
     public static final String EXTRA_UNIT_TYPE = "UNIT_TYPE";
     public static final String EXTRA_TARGET_ROW = "TARGET_ROW";
@@ -36,12 +36,13 @@ public class MiniDuelActivity extends AppCompatActivity {
     public static final String EXTRA_WAS_HIT = "WAS_HIT";
     public static final String EXTRA_IS_MULTIPLAYER = "IS_MULTIPLAYER";
     public static final String EXTRA_ROOM_CODE = "ROOM_CODE";
+    public static final String EXTRA_DUEL_SEED = "DUEL_SEED";
 
     // Multiplayer
     private boolean isMultiplayer = false;
     private String roomCode;
-    private FirebaseManager firebaseManager;
-    private ValueEventListener duelListener;
+    private GameSyncTransport transport;
+    private GameSyncTransport.RoomListener duelListener;
     private boolean choiceLocked = false;
     private Handler timeoutHandler = new Handler();
 
@@ -56,6 +57,7 @@ public class MiniDuelActivity extends AppCompatActivity {
         isGardenHoseActive = getIntent().getBooleanExtra("GARDEN_HOSE_ACTIVE", false);
         isMultiplayer = getIntent().getBooleanExtra(EXTRA_IS_MULTIPLAYER, false);
         roomCode = getIntent().getStringExtra(EXTRA_ROOM_CODE);
+        random = new GameRandom(getIntent().getLongExtra(EXTRA_DUEL_SEED, GameRandom.newSeed()));
 
         Log.d(TAG, "=== MINI DUEL STARTED ===");
         Log.d(TAG, "Unit: " + unitType);
@@ -65,7 +67,7 @@ public class MiniDuelActivity extends AppCompatActivity {
         Log.d(TAG, "Room: " + roomCode);
 
         if (unitType != null) {
-            binding.unitImage.setImageResource(getUnitIcon(unitType));
+            binding.unitImage.setImageResource(UnitIcons.portrait(this, unitType));
         }
 
         // Set title
@@ -83,7 +85,7 @@ public class MiniDuelActivity extends AppCompatActivity {
         }
 
         if (isMultiplayer && roomCode != null) {
-            firebaseManager = FirebaseManager.getInstance();
+            transport = FirebaseManager.getInstance();
             setupMultiplayerDuel();
         }
 
@@ -92,12 +94,10 @@ public class MiniDuelActivity extends AppCompatActivity {
     }
 
     private void setupMultiplayerDuel() {
-        // Listen for opponent's choice
-        duelListener = new ValueEventListener() {
+        // Listen for opponent's choice, on currentDuel alone rather than the whole room
+        duelListener = new GameSyncTransport.RoomListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                DataSnapshot duel = snapshot.child("currentDuel");
-
+            public void onRoomChanged(RoomSnapshot duel) {
                 if (!duel.exists() || !choiceLocked) return;
 
                 Integer attackChoice = duel.child("attackerChoice").getValue(Integer.class);
@@ -125,7 +125,7 @@ public class MiniDuelActivity extends AppCompatActivity {
                     }
 
                     // Stop listening and reveal result
-                    firebaseManager.removeRoomListener(roomCode, duelListener);
+                    transport.removeRoomListener(roomCode, duelListener);
 
                     runOnUiThread(() -> {
                         timeoutHandler.removeCallbacksAndMessages(null);
@@ -135,8 +135,8 @@ public class MiniDuelActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Duel listener error: " + error.getMessage());
+            public void onCancelled(String error) {
+                Log.e(TAG, "Duel listener error: " + error);
                 runOnUiThread(() -> {
                     Toast.makeText(MiniDuelActivity.this,
                             "Connection error", Toast.LENGTH_SHORT).show();
@@ -145,7 +145,7 @@ public class MiniDuelActivity extends AppCompatActivity {
             }
         };
 
-        firebaseManager.listenToRoom(roomCode, duelListener);
+        transport.listenToNode(roomCode, "currentDuel", duelListener);
 
         // Timeout after 30 seconds
         timeoutHandler.postDelayed(() -> {
@@ -321,13 +321,13 @@ public class MiniDuelActivity extends AppCompatActivity {
             saveChoiceToFirebase();
         } else {
             // Solo mode
-            enemyChoice = new Random().nextInt(4) + 1;
+            enemyChoice = random.nextInt(BattleRules.DUEL_NUMBERS) + 1;
 
             // Enemy uses Garden Hose if defending against it
             if (isGardenHoseActive && !isPlayerAttacking) {
-                enemySecondChoice = new Random().nextInt(4) + 1;
+                enemySecondChoice = random.nextInt(BattleRules.DUEL_NUMBERS) + 1;
                 while (enemySecondChoice == enemyChoice) {
-                    enemySecondChoice = new Random().nextInt(4) + 1;
+                    enemySecondChoice = random.nextInt(BattleRules.DUEL_NUMBERS) + 1;
                 }
             }
 
@@ -348,23 +348,11 @@ public class MiniDuelActivity extends AppCompatActivity {
             duelData.put("defenderChoice", playerChoice);
         }
 
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                snapshot.getRef().child("currentDuel").updateChildren(duelData)
-                        .addOnSuccessListener(aVoid -> {
-                            Log.d(TAG, "Choice saved: " + duelData);
-                        })
-                        .addOnFailureListener(e -> {
-                            Log.e(TAG, "Save failed: " + e.getMessage());
-                        });
-
-                snapshot.getRef().removeEventListener(this);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error: " + error.getMessage());
+        transport.sendDuelChoice(roomCode, duelData, error -> {
+            if (error == null) {
+                Log.d(TAG, "Choice saved: " + duelData);
+            } else {
+                Log.e(TAG, "Save failed: " + error);
             }
         });
     }
@@ -372,20 +360,13 @@ public class MiniDuelActivity extends AppCompatActivity {
     private void revealResult() {
         boolean wasHit;
 
-        // Calculate result
-        if (isGardenHoseActive) {
-            if (isPlayerAttacking) {
-                // Attacker with hose
-                wasHit = (enemyChoice == playerChoice ||
-                        enemyChoice == playerSecondChoice);
-            } else {
-                // Defender against hose
-                wasHit = (playerChoice == enemyChoice ||
-                        playerChoice == enemySecondChoice);
-            }
+        // Calculate result (second number only counts with the Garden Hose)
+        if (isPlayerAttacking) {
+            wasHit = BattleRules.isDirectHit(playerChoice,
+                    isGardenHoseActive ? playerSecondChoice : BattleRules.NO_CHOICE, enemyChoice);
         } else {
-            // Normal: exact match
-            wasHit = (playerChoice == enemyChoice);
+            wasHit = BattleRules.isDirectHit(enemyChoice,
+                    isGardenHoseActive ? enemySecondChoice : BattleRules.NO_CHOICE, playerChoice);
         }
 
         Log.d(TAG, "=== RESULT ===");
@@ -565,22 +546,12 @@ public class MiniDuelActivity extends AppCompatActivity {
         finish();
     }
 
-    private int getUnitIcon(String unitType) {
-        switch (unitType) {
-            case "sunflower": return SkinManager.isSunflowerSkinActive(this) ? R.drawable.sunflower_skin : R.drawable.sunflower_icon;
-            case "rose": return R.drawable.rose_icon;
-            case "dog": return SkinManager.isDogSkinActive(this) ? R.drawable.dog_skin : R.drawable.dog_icon;
-            case "cat": return SkinManager.isCatSkinActive(this) ? R.drawable.cat_skin : R.drawable.cat_icon;
-            default: return R.drawable.sunflower_icon;
-        }
-    }
-
     @Override
     protected void onDestroy() {
         super.onDestroy();
         timeoutHandler.removeCallbacksAndMessages(null);
-        if (duelListener != null && firebaseManager != null && roomCode != null) {
-            firebaseManager.removeRoomListener(roomCode, duelListener);
+        if (duelListener != null && transport != null && roomCode != null) {
+            transport.removeRoomListener(roomCode, duelListener);
         }
     }
 }
\ No newline at end of file
@@ -11,12 +11,20 @@ import android.widget.GridLayout;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.GameJournal;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.GameState;
+import com.example.guerraentrevecinos.engine.HitResult;
+import com.example.guerraentrevecinos.engine.Power;
+import com.example.guerraentrevecinos.engine.UnitKind;
+import com.example.guerraentrevecinos.sync.BattleModel;
+import com.example.guerraentrevecinos.sync.BattleRoom;
+import com.example.guerraentrevecinos.sync.GameSyncTransport;
+import com.example.guerraentrevecinos.sync.RoomSnapshot;
 import com.google.android.material.button.MaterialButton;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -36,10 +44,17 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
     // Game State
     private List<SetupActivity.UnitPosition> playerUnits;
     private List<SetupActivity.UnitPosition> enemyUnits;
+    private Garden playerGarden;
+    private Garden enemyGarden;
+    private final GameRandom random = new GameRandom(GameRandom.newSeed());
     private boolean isMyTurn = false;
     private boolean hasAttackedThisTurn = false;
     private int currentRound = 1;
-    private static final int MAX_ROUNDS = 30;
+    private static final int MAX_ROUNDS = BattleRules.MAX_ROUNDS;
+
+    // In memory only, multiplayer games have no games row. PLAYER is this phone's garden, journaled in full;
+    // AI is the opponent's, which only this phone's misses and spy areas reach. Its phone journals the rest.
+    private final GameJournal journal = new GameJournal();
 
     // Grid cells
     private ImageView[][] playerCells = new ImageView[8][8];
@@ -47,16 +62,17 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
     private boolean[][] enemyRevealedCells = new boolean[8][8];
 
     // Multiplayer
-    private FirebaseManager firebaseManager;
+    private GameSyncTransport transport;
+    private BattleRoom battleRoom;
     private String roomCode;
     private boolean isHost;
     private String myPlayerKey;
     private String opponentPlayerKey;
-    private ValueEventListener roomListener;
+    private BattleModel battleModel;
 
     // Powers
     private PowerManager powerManager;
-    private String selectedPower;
+    private Power selectedPower;
     private AbilityManager abilityManager;
     private ImageView neighborSprite;
 
@@ -81,7 +97,7 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
             // Get data
             roomCode = getIntent().getStringExtra("ROOM_CODE");
             isHost = getIntent().getBooleanExtra("IS_HOST", false);
-            selectedPower = getIntent().getStringExtra("SELECTED_POWER");
+            selectedPower = PowerManager.tier2OrDefault(getIntent().getStringExtra("SELECTED_POWER"));
             playerUnits = getIntent().getParcelableArrayListExtra("PLAYER_UNITS");
 
             Log.d(TAG, "Room Code: " + roomCode);
@@ -99,6 +115,8 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
 
             // Initialize empty enemy units
             enemyUnits = new ArrayList<>();
+            playerGarden = SetupActivity.UnitPosition.toGarden(playerUnits);
+            journal.placeAll(GameState.Side.PLAYER, playerGarden);
 
             myPlayerKey = isHost ? "player1" : "player2";
             opponentPlayerKey = isHost ? "player2" : "player1";
@@ -107,16 +125,18 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
             Log.d(TAG, "Opponent Key: " + opponentPlayerKey);
 
             // Initialize managers
-            firebaseManager = FirebaseManager.getInstance();
+            transport = FirebaseManager.getInstance();
 
-            if (!firebaseManager.isInitialized()) {
+            if (!transport.isInitialized()) {
                 Log.e(TAG, "ERROR: Firebase not initialized!");
                 Toast.makeText(this, "Firebase connection error", Toast.LENGTH_LONG).show();
                 finish();
                 return;
             }
 
-            powerManager = new PowerManager(selectedPower != null ? selectedPower : "spy_drone");
+            battleRoom = new BattleRoom(transport, roomCode, isHost);
+
+            powerManager = new PowerManager(selectedPower);
             abilityManager = new AbilityManager(this);
 
             // Initialize views
@@ -130,15 +150,12 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                 initializeGameState();
             }
 
-            // Listen for game updates FIRST
+            // Listen for game updates FIRST, opponent units arrive through it too
             listenForGameUpdates();
 
-            // THEN store units and load opponent units
+            // THEN store units
             // Wait 1 second to ensure listener is ready
-            new Handler().postDelayed(() -> {
-                storeMyUnitsInFirebase();
-                loadOpponentUnits();
-            }, 1000);
+            new Handler().postDelayed(this::storeMyUnitsInFirebase, 1000);
 
             Log.d(TAG, "onCreate completed successfully");
 
@@ -149,62 +166,6 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         }
     }
 
-    private void loadOpponentUnits() {
-        Log.d(TAG, "loadOpponentUnits START");
-        Log.d(TAG, "Looking for " + opponentPlayerKey + " units");
-
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                DataSnapshot opponentUnitsSnapshot = snapshot.child("units").child(opponentPlayerKey);
-
-                if (!opponentUnitsSnapshot.exists()) {
-                    Log.w(TAG, "Opponent units not found yet, will keep listening...");
-                    // Don't remove listener - keep waiting for opponent
-                    return;
-                }
-
-                enemyUnits.clear();
-                int loadedCount = 0;
-
-                for (DataSnapshot unitSnapshot : opponentUnitsSnapshot.getChildren()) {
-                    try {
-                        Integer row = unitSnapshot.child("row").getValue(Integer.class);
-                        Integer col = unitSnapshot.child("col").getValue(Integer.class);
-                        String type = unitSnapshot.child("type").getValue(String.class);
-                        Integer health = unitSnapshot.child("health").getValue(Integer.class);
-
-                        if (row != null && col != null && type != null && health != null) {
-                            SetupActivity.UnitPosition unit = new SetupActivity.UnitPosition(row, col, type, health);
-                            String roseColor = unitSnapshot.child("roseColor").getValue(String.class);
-                            Boolean abilityUsed = unitSnapshot.child("abilityUsed").getValue(Boolean.class);
-                            if (roseColor != null) unit.roseColor = roseColor;
-                            if (abilityUsed != null) unit.abilityUsed = abilityUsed;
-                            enemyUnits.add(unit);
-                            loadedCount++;
-                            Log.d(TAG, "Loaded: " + type + " at (" + row + "," + col + ")");
-                        } else {
-                            Log.w(TAG, "Incomplete unit data: " + unitSnapshot.getKey());
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error loading unit: " + e.getMessage());
-                    }
-                }
-
-                Log.d(TAG, "LOADED " + loadedCount + " opponent units");
-
-                // loadedCount logged above
-
-                // Keep listener active to detect unit updates (health changes, etc.)
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Failed to load opponent units: " + error.getMessage());
-            }
-        });
-    }
-
     private void storeMyUnitsInFirebase() {
         Log.d(TAG, "storeMyUnitsInFirebase START");
         Log.d(TAG, "Storing " + playerUnits.size() + " units as " + myPlayerKey);
@@ -214,67 +175,25 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
             return;
         }
 
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (!snapshot.exists()) {
-                    Log.e(TAG, "ERROR: Room doesn't exist!");
-                    snapshot.getRef().removeEventListener(this);
-                    return;
-                }
-
-                Log.d(TAG, "Room exists, storing units...");
-
-                // Store all units in one batch
-                Map<String, Object> allUnits = new HashMap<>();
-
-                for (int i = 0; i < playerUnits.size(); i++) {
-                    SetupActivity.UnitPosition unit = playerUnits.get(i);
-
-                    Map<String, Object> unitData = new HashMap<>();
-                    unitData.put("row", unit.row);
-                    unitData.put("col", unit.col);
-                    unitData.put("type", unit.type);
-                    unitData.put("health", unit.health);
-
-                    allUnits.put(String.valueOf(i), unitData);
-                }
-
-                // Write all at once
-                snapshot.getRef().child("units").child(myPlayerKey).setValue(allUnits)
-                        .addOnSuccessListener(aVoid -> {
-                            Log.d(TAG, "SUCCESS: Stored all " + playerUnits.size() + " units");
-                        })
-                        .addOnFailureListener(e -> {
-                            Log.e(TAG, "FAILED to store units: " + e.getMessage());
-                            e.printStackTrace();
-
-                            runOnUiThread(() -> {
-                                Toast.makeText(MultiplayerBattleActivity.this,
-                                        "Error saving units: " + e.getMessage(),
-                                        Toast.LENGTH_LONG).show();
-                            });
-
-                            // Retry after 2 seconds
-                            new Handler().postDelayed(() -> {
-                                Log.d(TAG, "Retrying unit storage...");
-                                storeMyUnitsInFirebase();
-                            }, 2000);
-                        });
-
-                snapshot.getRef().removeEventListener(this);
+        // Store all units in one batch
+        battleRoom.storeUnits(playerGarden, error -> {
+            if (error == null) {
+                Log.d(TAG, "SUCCESS: Stored all " + playerUnits.size() + " units");
+                return;
             }
+            Log.e(TAG, "FAILED to store units: " + error);
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Firebase error storing units: " + error.getMessage());
+            runOnUiThread(() -> {
+                Toast.makeText(MultiplayerBattleActivity.this,
+                        "Error saving units: " + error,
+                        Toast.LENGTH_LONG).show();
+            });
 
-                runOnUiThread(() -> {
-                    Toast.makeText(MultiplayerBattleActivity.this,
-                            "Connection error: " + error.getMessage(),
-                            Toast.LENGTH_LONG).show();
-                });
-            }
+            // Retry after 2 seconds
+            new Handler().postDelayed(() -> {
+                Log.d(TAG, "Retrying unit storage...");
+                storeMyUnitsInFirebase();
+            }, 2000);
         });
     }
 
@@ -295,22 +214,13 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         btnNighttimeRelocation = findViewById(R.id.btnNighttimeRelocation);
         btnTier2Power = findViewById(R.id.btnTier2Power);
 
-        switch (selectedPower) {
-            case "spy_drone":
-                btnTier2Power.setText("🐝\nSpy");
-                break;
-            case "fence_shield":
-                btnTier2Power.setText("🛡️\nFence");
-                break;
-            case "fertilizer":
-                btnTier2Power.setText("🌱\nHeal");
-                break;
-        }
+        btnTier2Power.setText(selectedPower.icon() + "\n" + selectedPower.label());
 
         // Implement power button clicks
         btnGardenHose.setOnClickListener(v -> {
             if (powerManager.canUseGardenHose() && isMyTurn) {
                 powerManager.activateGardenHose();
+                journal.hose(GameState.Side.PLAYER);
                 updatePowerButtons();
             }
         });
@@ -331,17 +241,7 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
     }
 
     private void handleTier2PowerClick() {
-        switch (selectedPower) {
-            case "spy_drone":
-                activateUnitSelectionMode("spy");
-                break;
-            case "fence_shield":
-                activateUnitSelectionMode("fence");
-                break;
-            case "fertilizer":
-                activateUnitSelectionMode("fertilizer");
-                break;
-        }
+        activateUnitSelectionMode(selectedPower.selectionMode());
     }
 
     private boolean isSelectingUnitForPower = false;
@@ -406,12 +306,11 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                 cell.setScaleType(ImageView.ScaleType.CENTER_INSIDE);
                 cell.setPadding(8, 8, 8, 8);
 
-                for (SetupActivity.UnitPosition unit : playerUnits) {
-                    if (unit.row == row && unit.col == col) {
-                        cell.setImageResource(getUnitIcon(unit.type, false));
-                        cell.setTag(unit);
-                        break;
-                    }
+                int slot = playerGarden.slotAt(row, col);
+                if (slot >= 0) {
+                    SetupActivity.UnitPosition unit = playerUnits.get(slot);
+                    cell.setImageResource(UnitIcons.board(this, unit.type, false));
+                    cell.setTag(unit);
                 }
 
                 playerCells[row][col] = cell;
@@ -478,429 +377,292 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
 
     private void initializeGameState() {
         Log.d(TAG, "Host initializing game state");
-        FirebaseGameRoom.GameStateData gameState = new FirebaseGameRoom.GameStateData();
-        gameState.currentRound = 1;
-        gameState.currentTurn = "player1"; // Host goes first
-        gameState.player1UnitsRemaining = 7;
-        gameState.player2UnitsRemaining = 7;
-
-        firebaseManager.updateGameState(roomCode, gameState);
+        battleRoom.initializeGameState();
     }
 
     private void listenForGameUpdates() {
         Log.d(TAG, "Starting to listen for game updates");
 
-        roomListener = new ValueEventListener() {
+        // Only the changed field, unit or action arrives, and only its part of the screen is touched
+        battleModel = new BattleModel(battleRoom, new BattleModel.Listener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (!snapshot.exists()) {
-                    Log.e(TAG, "Room snapshot doesn't exist");
-                    Toast.makeText(MultiplayerBattleActivity.this,
-                            "Game ended", Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
+            public void onRoundChanged(int round) {
+                for (int ended = currentRound; ended < round; ended++) journal.endRound();
+                currentRound = round;
+                updateRoundCounter();
+                powerManager.decrementCooldowns();
+                updatePowerButtons();
+            }
 
-                Log.d(TAG, "Received game update");
+            @Override
+            public void onTurnChanged(boolean myTurn) {
+                isMyTurn = myTurn;
+                hasAttackedThisTurn = false;
+                waitingForDuelResult = false;
+                updateTurnIndicator();
+                setEnemyGridClickable(isMyTurn);
+                Log.d(TAG, "Turn changed. My turn: " + isMyTurn);
+            }
 
-                // DEBUG: Print Firebase structure
-                Log.d(TAG, "FIREBASE SNAPSHOT");
+            @Override
+            public void onEnemyUnitAdded(int slot) {
+                // Slots are handed out in order, so enemyUnits stays aligned with the garden
+                SetupActivity.UnitPosition unit = new SetupActivity.UnitPosition(enemyGarden.row(slot),
+                        enemyGarden.col(slot), enemyGarden.type(slot), enemyGarden.health(slot));
+                unit.syncFrom(enemyGarden, slot);
+                enemyUnits.add(unit);
+                Log.d(TAG, "Loaded: " + unit.type + " at (" + unit.row + "," + unit.col + ")");
+            }
 
-                if (snapshot.child("activeFears").exists()) {
-                    Log.d(TAG, "Active Fears:");
-                    for (DataSnapshot fear : snapshot.child("activeFears").getChildren()) {
-                        Log.d(TAG, "  - " + fear.getKey());
-                    }
-                } else {
-                    Log.d(TAG, "No active fears");
-                }
+            @Override
+            public void onEnemyUnitMoved(int slot, int fromRow, int fromCol) {
+                SetupActivity.UnitPosition unit = enemyUnits.get(slot);
+                unit.syncFrom(enemyGarden, slot);
+                showEnemyCatTeleport(unit, fromRow, fromCol);
+            }
 
-                Log.d(TAG, "My Units (" + myPlayerKey + "):");
-                DataSnapshot myUnits = snapshot.child("units").child(myPlayerKey);
-                if (myUnits.exists()) {
-                    for (DataSnapshot unit : myUnits.getChildren()) {
-                        String type = unit.child("type").getValue(String.class);
-                        Integer row = unit.child("row").getValue(Integer.class);
-                        Integer col = unit.child("col").getValue(Integer.class);
-                        Log.d(TAG, "  - " + type + " at (" + row + "," + col + ")");
-                    }
+            @Override
+            public void onEnemyUnitChanged(int slot) {
+                SetupActivity.UnitPosition unit = enemyUnits.get(slot);
+                unit.syncFrom(enemyGarden, slot);
+                if ("rose".equals(unit.type) && enemyRevealedCells[unit.row][unit.col]) {
+                    enemyCells[unit.row][unit.col].setImageResource(abilityManager.getRoseIcon(unit));
                 }
+            }
 
-                Log.d(TAG, "Opponent Units (" + opponentPlayerKey + "):");
-                DataSnapshot oppUnits = snapshot.child("units").child(opponentPlayerKey);
-                if (oppUnits.exists()) {
-                    for (DataSnapshot unit : oppUnits.getChildren()) {
-                        String type = unit.child("type").getValue(String.class);
-                        Integer row = unit.child("row").getValue(Integer.class);
-                        Integer col = unit.child("col").getValue(Integer.class);
-                        Log.d(TAG, "  - " + type + " at (" + row + "," + col + ")");
-                    }
+            @Override
+            public void onEnemyUnitRemoved(int slot) {
+                SetupActivity.UnitPosition unit = enemyUnits.get(slot);
+                unit.syncFrom(enemyGarden, slot);
+                Log.d(TAG, "ENEMY " + unit.type + " DIED at (" + unit.row + "," + unit.col + ")");
+
+                // Only update if the cell still shows it (might already be updated by attack result)
+                ImageView deadCell = enemyCells[unit.row][unit.col];
+                if (deadCell.getTag() != null) {
+                    deadCell.setBackgroundColor(Color.parseColor("#8B4513"));
+                    deadCell.setTag(null);
+                    showDeathEffect(deadCell);
                 }
+            }
 
+            @Override
+            public void onLastAction(RoomSnapshot action) {
+                String actionPlayer = action.child("player").getValue(String.class);
+                String actionType = action.child("type").getValue(String.class);
+                Long timestamp = action.child("timestamp").getValue(Long.class);
+
+                // The cell comes from the other phone, the gardens throw on one off the board
+                Integer actionRow = action.child("targetRow").getValue(Integer.class);
+                Integer actionCol = action.child("targetCol").getValue(Integer.class);
+                if (actionRow != null && actionCol != null && !Garden.inBounds(actionRow, actionCol)) {
+                    Log.w(TAG, "Ignoring " + actionType + " outside the garden: (" + actionRow + "," + actionCol + ")");
+                    return;
+                }
 
-                // 1. UPDATE GAME STATE (Turn & Round)
-                DataSnapshot gameStateSnapshot = snapshot.child("gameState");
-                String currentTurn = gameStateSnapshot.child("currentTurn").getValue(String.class);
-                Integer round = gameStateSnapshot.child("currentRound").getValue(Integer.class);
+                if (timestamp != null && timestamp > lastProcessedActionTimestamp) {
+                    Log.d(TAG, "====================================");
+                    Log.d(TAG, "NEW Action Detected");
+                    Log.d(TAG, "Player: " + actionPlayer);
+                    Log.d(TAG, "Type: " + actionType);
+                    Log.d(TAG, "Timestamp: " + timestamp);
+                    Log.d(TAG, "My State - Waiting: " + waitingForDuelResult +
+                            ", Is Attacker: " + iAmAttackerInCurrentDuel);
+                    Log.d(TAG, "====================================");
 
-                Log.d(TAG, "Current turn: " + currentTurn + ", My turn: " + myPlayerKey + ", Round: " + round);
+                    // 1. DEFENDER: Opponent attacked me
+                    if (opponentPlayerKey.equals(actionPlayer) &&
+                            "attack".equals(actionType) &&
+                            !waitingForDuelResult) {
 
-                if (round != null && round != currentRound) {
-                    currentRound = round;
-                    updateRoundCounter();
-                    powerManager.decrementCooldowns();
-                    updatePowerButtons();
-                }
+                        Integer targetRow = action.child("targetRow").getValue(Integer.class);
+                        Integer targetCol = action.child("targetCol").getValue(Integer.class);
 
-                boolean newIsMyTurn = myPlayerKey.equals(currentTurn);
-                if (newIsMyTurn != isMyTurn) {
-                    isMyTurn = newIsMyTurn;
-                    hasAttackedThisTurn = false;
-                    waitingForDuelResult = false;
-                    updateTurnIndicator();
-                    setEnemyGridClickable(isMyTurn);
-                    Log.d(TAG, "Turn changed. My turn: " + isMyTurn);
-                }
+                        if (targetRow != null && targetCol != null) {
+                            Log.d(TAG, ">>> I'M DEFENDING at (" + targetRow + "," + targetCol + ")");
 
-                // 2. CAT TELEPORT - Listen for Unit Position Changes
-                DataSnapshot opponentUnitsSnapshot = snapshot.child("units").child(opponentPlayerKey);
-                if (opponentUnitsSnapshot.exists() && enemyUnits != null && !enemyUnits.isEmpty()) {
-
-                    // Rebuild enemy units from Firebase
-                    List<SetupActivity.UnitPosition> updatedEnemyUnits = new ArrayList<>();
-
-                    for (DataSnapshot unitSnap : opponentUnitsSnapshot.getChildren()) {
-                        String type = unitSnap.child("type").getValue(String.class);
-                        Integer row = unitSnap.child("row").getValue(Integer.class);
-                        Integer col = unitSnap.child("col").getValue(Integer.class);
-                        Integer health = unitSnap.child("health").getValue(Integer.class);
-
-                        if (type != null && row != null && col != null && health != null && health > 0) {
-                            SetupActivity.UnitPosition u = new SetupActivity.UnitPosition(row, col, type, health);
-                            String roseColor = unitSnap.child("roseColor").getValue(String.class);
-                            Boolean abilityUsed = unitSnap.child("abilityUsed").getValue(Boolean.class);
-                            if (roseColor != null) u.roseColor = roseColor;
-                            if (abilityUsed != null) u.abilityUsed = abilityUsed;
-                            updatedEnemyUnits.add(u);
-                        }
-                    }
-
-                    // Check for cat changes
-                    for (SetupActivity.UnitPosition updatedUnit : updatedEnemyUnits) {
-                        if ("cat".equals(updatedUnit.type)) {
+                            lastProcessedActionTimestamp = timestamp;
 
-                            // Find old cat in our local list
-                            SetupActivity.UnitPosition oldCat = null;
-                            for (SetupActivity.UnitPosition localUnit : enemyUnits) {
-                                if ("cat".equals(localUnit.type) && localUnit.health > 0) {
-                                    oldCat = localUnit;
-                                    break;
-                                }
-                            }
+                            final SetupActivity.UnitPosition hitUnit = findUnitAtPosition(targetRow, targetCol);
 
-                            // Cat moved?
-                            if (oldCat != null &&
-                                    (oldCat.row != updatedUnit.row || oldCat.col != updatedUnit.col)) {
+                            if (hitUnit != null) {
+                                Log.d(TAG, ">>> HIT! Unit: " + hitUnit.type + " - Launching DEFENDER duel");
 
-                                final int oldRow = oldCat.row;
-                                final int oldCol = oldCat.col;
-                                final int newRow = updatedUnit.row;
-                                final int newCol = updatedUnit.col;
-                                final SetupActivity.UnitPosition finalUpdatedUnit = updatedUnit;
+                                // Set state BEFORE launching duel
+                                waitingForDuelResult = true;
+                                iAmAttackerInCurrentDuel = false;
+                                pendingAttackRow = targetRow;
+                                pendingAttackCol = targetCol;
+                                pendingUnitType = hitUnit.type;
 
-                                Log.d(TAG, "ENEMY CAT TELEPORTED!");
-                                Log.d(TAG, "From: (" + oldRow + "," + oldCol + ")");
-                                Log.d(TAG, "To: (" + newRow + "," + newCol + ")");
+                                showRockFalling(targetRow, targetCol);
+                                runOnUiThread(() -> playAttackAnimation());
 
-                                runOnUiThread(() -> {
-                                    // Clear old position
-                                    ImageView oldCell = enemyCells[oldRow][oldCol];
-                                    oldCell.setImageDrawable(null);
-                                    oldCell.setTag(null);
+                                // Notify attacker we're ready
+                                battleRoom.confirmHit(targetRow, targetCol, hitUnit.type);
 
-                                    if (enemyRevealedCells[oldRow][oldCol]) {
-                                        oldCell.setBackgroundColor(Color.parseColor("#C5E1A5"));
+                                final int finalRow = targetRow;
+                                final int finalCol = targetCol;
+                                final String finalUnitType = hitUnit.type;
+
+                                // Launch defender duel after delay
+                                new Handler().postDelayed(() -> {
+                                    // Double-check we're still in the right state
+                                    if (waitingForDuelResult && !iAmAttackerInCurrentDuel) {
+                                        Log.d(TAG, ">>> Launching DEFENDER MiniDuel NOW");
+                                        launchMiniDuel(finalRow, finalCol, finalUnitType, false);
                                     } else {
-                                        oldCell.setBackgroundColor(Color.parseColor("#999999"));
+                                        Log.w(TAG, ">>> CANCELLED DEFENDER launch - state changed");
                                     }
+                                }, 1500);
 
-                                    // Show at new position
-                                    ImageView newCell = enemyCells[newRow][newCol];
-                                    enemyRevealedCells[newRow][newCol] = true;
-
-                                    newCell.setBackgroundColor(Color.parseColor("#FFA500"));
-                                    newCell.setImageResource(R.drawable.cat_icon);
-                                    newCell.setTag(finalUpdatedUnit);
-                                    newCell.setAlpha(1f);
-
-                                    // Animate
-                                    newCell.setScaleX(0.1f);
-                                    newCell.setScaleY(0.1f);
-                                    newCell.setRotation(0f);
-
-                                    ImageView finalNewCell = newCell;
-                                    newCell.animate()
-                                            .scaleX(1.2f)
-                                            .scaleY(1.2f)
-                                            .rotation(720f)
-                                            .setDuration(500)
-                                            .withEndAction(() -> {
-                                                finalNewCell.animate()
-                                                        .scaleX(1f)
-                                                        .scaleY(1f)
-                                                        .setDuration(200)
-                                                        .start();
-                                            })
-                                            .start();
-
-                                    Log.d(TAG, "Enemy cat teleported to (" + newRow + "," + newCol + ")");
-                                });
-
-                                break;
-                            }
-                        }
-                    }
+                            } else {
+                                // Miss
+                                Log.d(TAG, ">>> MISS at (" + targetRow + "," + targetCol + ")");
+                                journal.miss(GameState.Side.PLAYER, Garden.cell(targetRow, targetCol));
 
-                    // Check if cat was removed (died after teleport)
-                    SetupActivity.UnitPosition oldCat = null;
-                    for (SetupActivity.UnitPosition localUnit : enemyUnits) {
-                        if ("cat".equals(localUnit.type) && localUnit.health > 0) {
-                            oldCat = localUnit;
-                            break;
+                                battleRoom.confirmMiss(targetRow, targetCol);
+                            }
                         }
                     }
 
-                    // Cat existed before but not now = died
-                    if (oldCat != null) {
-                        boolean catStillExists = false;
-                        for (SetupActivity.UnitPosition u : updatedEnemyUnits) {
-                            if ("cat".equals(u.type)) {
-                                catStillExists = true;
-                                break;
-                            }
-                        }
+                    // 2. ATTACKER: Defender confirmed hit
+                    else if (opponentPlayerKey.equals(actionPlayer) &&
+                            "duel_ready".equals(actionType) &&
+                            waitingForDuelResult &&
+                            iAmAttackerInCurrentDuel) {
 
-                        if (!catStillExists) {
-                            final int deadCatRow = oldCat.row;
-                            final int deadCatCol = oldCat.col;
+                        Integer targetRow = action.child("targetRow").getValue(Integer.class);
+                        Integer targetCol = action.child("targetCol").getValue(Integer.class);
+                        String unitType = action.child("unitType").getValue(String.class);
 
-                            Log.d(TAG, "ENEMY CAT DIED at (" + deadCatRow + "," + deadCatCol + ")");
+                        if (targetRow != null && targetCol != null) {
+                            Log.d(TAG, ">>> Defender confirmed HIT! Launching ATTACKER duel");
 
-                            runOnUiThread(() -> {
-                                ImageView deadCell = enemyCells[deadCatRow][deadCatCol];
+                            lastProcessedActionTimestamp = timestamp;
 
-                                // Only update if cell shows cat (might already be updated by attack result)
-                                if (deadCell.getTag() != null) {
-                                    deadCell.setBackgroundColor(Color.parseColor("#8B4513"));
-                                    deadCell.setTag(null);
-                                    showDeathEffect(deadCell);
+                            final int finalRow = targetRow;
+                            final int finalCol = targetCol;
+                            final String finalUnitType = UnitKind.fromKey(unitType) != null ? unitType : "sunflower";
 
-                                    Log.d(TAG, "Showed cat death animation");
+                            runOnUiThread(() -> {
+                                // One final check before launching
+                                if (waitingForDuelResult && iAmAttackerInCurrentDuel) {
+                                    Log.d(TAG, ">>> Launching ATTACKER MiniDuel NOW");
+                                    launchMiniDuel(finalRow, finalCol, finalUnitType, true);
+                                } else {
+                                    Log.w(TAG, ">>> CANCELLED ATTACKER launch - state changed");
                                 }
                             });
                         }
                     }
 
-                    // Check for rose color changes and update enemy grid
-                    for (SetupActivity.UnitPosition updatedUnit : updatedEnemyUnits) {
-                        if ("rose".equals(updatedUnit.type)) {
-                            for (SetupActivity.UnitPosition localUnit : enemyUnits) {
-                                if ("rose".equals(localUnit.type) &&
-                                        localUnit.row == updatedUnit.row &&
-                                        localUnit.col == updatedUnit.col &&
-                                        !localUnit.roseColor.equals(updatedUnit.roseColor)) {
-
-                                    final int roseRow = updatedUnit.row;
-                                    final int roseCol = updatedUnit.col;
-                                    final SetupActivity.UnitPosition finalRose = updatedUnit;
-
-                                    runOnUiThread(() -> {
-                                        if (enemyRevealedCells[roseRow][roseCol]) {
-                                            enemyCells[roseRow][roseCol].setImageResource(
-                                                    abilityManager.getRoseIcon(finalRose));
-                                        }
-                                    });
-                                    break;
-                                }
-                            }
-                        }
-                    }
+                    // 3. ATTACKER: Defender confirmed miss
+                    else if (opponentPlayerKey.equals(actionPlayer) &&
+                            "miss".equals(actionType) &&
+                            waitingForDuelResult &&
+                            iAmAttackerInCurrentDuel) {
 
-                    // Update local list
-                    enemyUnits = updatedEnemyUnits;
-                }
+                        Integer targetRow = action.child("targetRow").getValue(Integer.class);
+                        Integer targetCol = action.child("targetCol").getValue(Integer.class);
 
-                // 3. CHECK FOR PENDING ACTIONS
-                DataSnapshot lastActionSnapshot = snapshot.child("lastAction");
-                if (lastActionSnapshot.exists()) {
-                    String actionPlayer = lastActionSnapshot.child("player").getValue(String.class);
-                    String actionType = lastActionSnapshot.child("type").getValue(String.class);
-                    Long timestamp = lastActionSnapshot.child("timestamp").getValue(Long.class);
-
-                    if (timestamp != null && timestamp > lastProcessedActionTimestamp) {
-                        Log.d(TAG, "====================================");
-                        Log.d(TAG, "NEW Action Detected");
-                        Log.d(TAG, "Player: " + actionPlayer);
-                        Log.d(TAG, "Type: " + actionType);
-                        Log.d(TAG, "Timestamp: " + timestamp);
-                        Log.d(TAG, "My State - Waiting: " + waitingForDuelResult +
-                                ", Is Attacker: " + iAmAttackerInCurrentDuel);
-                        Log.d(TAG, "====================================");
-
-                        // 1. DEFENDER: Opponent attacked me
-                        if (opponentPlayerKey.equals(actionPlayer) &&
-                                "attack".equals(actionType) &&
-                                !waitingForDuelResult) {
-
-                            Integer targetRow = lastActionSnapshot.child("targetRow").getValue(Integer.class);
-                            Integer targetCol = lastActionSnapshot.child("targetCol").getValue(Integer.class);
-
-                            if (targetRow != null && targetCol != null) {
-                                Log.d(TAG, ">>> I'M DEFENDING at (" + targetRow + "," + targetCol + ")");
-
-                                lastProcessedActionTimestamp = timestamp;
-
-                                final SetupActivity.UnitPosition hitUnit = findUnitAtPosition(targetRow, targetCol);
-
-                                if (hitUnit != null) {
-                                    Log.d(TAG, ">>> HIT! Unit: " + hitUnit.type + " - Launching DEFENDER duel");
-
-                                    // Set state BEFORE launching duel
-                                    waitingForDuelResult = true;
-                                    iAmAttackerInCurrentDuel = false;
-                                    pendingAttackRow = targetRow;
-                                    pendingAttackCol = targetCol;
-                                    pendingUnitType = hitUnit.type;
-
-                                    showRockFalling(targetRow, targetCol);
-                                    runOnUiThread(() -> playAttackAnimation());
-
-                                    // Notify attacker we're ready
-                                    FirebaseGameRoom.LastActionData responseAction = new FirebaseGameRoom.LastActionData();
-                                    responseAction.type = "duel_ready";
-                                    responseAction.player = myPlayerKey;
-                                    responseAction.targetRow = targetRow;
-                                    responseAction.targetCol = targetCol;
-                                    responseAction.unitType = hitUnit.type;
-                                    responseAction.timestamp = System.currentTimeMillis();
-
-                                    firebaseManager.sendAction(roomCode, responseAction);
-
-                                    final int finalRow = targetRow;
-                                    final int finalCol = targetCol;
-                                    final String finalUnitType = hitUnit.type;
-
-                                    // Launch defender duel after delay
-                                    new Handler().postDelayed(() -> {
-                                        // Double-check we're still in the right state
-                                        if (waitingForDuelResult && !iAmAttackerInCurrentDuel) {
-                                            Log.d(TAG, ">>> Launching DEFENDER MiniDuel NOW");
-                                            launchMiniDuel(finalRow, finalCol, finalUnitType, false);
-                                        } else {
-                                            Log.w(TAG, ">>> CANCELLED DEFENDER launch - state changed");
-                                        }
-                                    }, 1500);
+                        Log.d(TAG, ">>> Defender confirmed MISS");
 
-                                } else {
-                                    // Miss
-                                    Log.d(TAG, ">>> MISS at (" + targetRow + "," + targetCol + ")");
+                        lastProcessedActionTimestamp = timestamp;
 
-                                    FirebaseGameRoom.LastActionData missAction = new FirebaseGameRoom.LastActionData();
-                                    missAction.type = "miss";
-                                    missAction.player = myPlayerKey;
-                                    missAction.targetRow = targetRow;
-                                    missAction.targetCol = targetCol;
-                                    missAction.timestamp = System.currentTimeMillis();
+                        if (targetRow != null && targetCol != null) {
+                            final int finalRow = targetRow;
+                            final int finalCol = targetCol;
 
-                                    firebaseManager.sendAction(roomCode, missAction);
-                                }
-                            }
+                            journal.miss(GameState.Side.AI, Garden.cell(targetRow, targetCol));
+                            runOnUiThread(() -> showMissOnEnemyGrid(finalRow, finalCol));
                         }
 
-                        // 2. ATTACKER: Defender confirmed hit
-                        else if (opponentPlayerKey.equals(actionPlayer) &&
-                                "duel_ready".equals(actionType) &&
-                                waitingForDuelResult &&
-                                iAmAttackerInCurrentDuel) {
-
-                            Integer targetRow = lastActionSnapshot.child("targetRow").getValue(Integer.class);
-                            Integer targetCol = lastActionSnapshot.child("targetCol").getValue(Integer.class);
-                            String unitType = lastActionSnapshot.child("unitType").getValue(String.class);
-
-                            if (targetRow != null && targetCol != null) {
-                                Log.d(TAG, ">>> Defender confirmed HIT! Launching ATTACKER duel");
-
-                                lastProcessedActionTimestamp = timestamp;
+                        waitingForDuelResult = false;
+                        iAmAttackerInCurrentDuel = false;
+                        new Handler().postDelayed(() -> endMyTurn(), 1500);
+                    }
+                } else {
+                    // Old action - ignore
+                    if (timestamp != null) {
+                        Log.d(TAG, "Ignoring old action: timestamp=" + timestamp +
+                                ", lastProcessed=" + lastProcessedActionTimestamp);
+                    }
+                }
+            }
 
-                                final int finalRow = targetRow;
-                                final int finalCol = targetCol;
-                                final String finalUnitType = unitType != null ? unitType : "sunflower";
+            @Override
+            public void onGameOver(boolean iWon) {
+                endGame(iWon);
+            }
 
-                                runOnUiThread(() -> {
-                                    // One final check before launching
-                                    if (waitingForDuelResult && iAmAttackerInCurrentDuel) {
-                                        Log.d(TAG, ">>> Launching ATTACKER MiniDuel NOW");
-                                        launchMiniDuel(finalRow, finalCol, finalUnitType, true);
-                                    } else {
-                                        Log.w(TAG, ">>> CANCELLED ATTACKER launch - state changed");
-                                    }
-                                });
-                            }
-                        }
+            @Override
+            public void onRoomClosed() {
+                Log.e(TAG, "Room doesn't exist anymore");
+                Toast.makeText(MultiplayerBattleActivity.this,
+                        "Game ended", Toast.LENGTH_SHORT).show();
+                finish();
+            }
 
-                        // 3. ATTACKER: Defender confirmed miss
-                        else if (opponentPlayerKey.equals(actionPlayer) &&
-                                "miss".equals(actionType) &&
-                                waitingForDuelResult &&
-                                iAmAttackerInCurrentDuel) {
+            @Override
+            public void onCancelled(String error) {
+                Log.e(TAG, "Firebase listener cancelled: " + error);
+                Toast.makeText(MultiplayerBattleActivity.this,
+                        "Connection error", Toast.LENGTH_SHORT).show();
+            }
+        });
 
-                            Integer targetRow = lastActionSnapshot.child("targetRow").getValue(Integer.class);
-                            Integer targetCol = lastActionSnapshot.child("targetCol").getValue(Integer.class);
+        enemyGarden = battleModel.enemyGarden();
+        battleModel.start();
+    }
 
-                            Log.d(TAG, ">>> Defender confirmed MISS");
+    private void showEnemyCatTeleport(SetupActivity.UnitPosition cat, int oldRow, int oldCol) {
+        int newRow = cat.row;
+        int newCol = cat.col;
 
-                            lastProcessedActionTimestamp = timestamp;
+        Log.d(TAG, "ENEMY CAT TELEPORTED!");
+        Log.d(TAG, "From: (" + oldRow + "," + oldCol + ")");
+        Log.d(TAG, "To: (" + newRow + "," + newCol + ")");
 
-                            if (targetRow != null && targetCol != null) {
-                                final int finalRow = targetRow;
-                                final int finalCol = targetCol;
+        // Clear old position
+        ImageView oldCell = enemyCells[oldRow][oldCol];
+        oldCell.setImageDrawable(null);
+        oldCell.setTag(null);
 
-                                runOnUiThread(() -> showMissOnEnemyGrid(finalRow, finalCol));
-                            }
+        if (enemyRevealedCells[oldRow][oldCol]) {
+            oldCell.setBackgroundColor(Color.parseColor("#C5E1A5"));
+        } else {
+            oldCell.setBackgroundColor(Color.parseColor("#999999"));
+        }
 
-                            waitingForDuelResult = false;
-                            iAmAttackerInCurrentDuel = false;
-                            new Handler().postDelayed(() -> endMyTurn(), 1500);
-                        }
-                    } else {
-                        // Old action - ignore
-                        if (timestamp != null) {
-                            Log.d(TAG, "Ignoring old action: timestamp=" + timestamp +
-                                    ", lastProcessed=" + lastProcessedActionTimestamp);
-                        }
-                    }
-                }
+        // Show at new position
+        ImageView newCell = enemyCells[newRow][newCol];
+        enemyRevealedCells[newRow][newCol] = true;
 
-                // CHECK WIN CONDITION
-                Integer p1Units = gameStateSnapshot.child("player1UnitsRemaining").getValue(Integer.class);
-                Integer p2Units = gameStateSnapshot.child("player2UnitsRemaining").getValue(Integer.class);
+        newCell.setBackgroundColor(Color.parseColor("#FFA500"));
+        newCell.setImageResource(R.drawable.cat_icon);
+        newCell.setTag(cat);
+        newCell.setAlpha(1f);
 
-                if (p1Units != null && p1Units == 0) {
-                    endGame(!isHost);
-                } else if (p2Units != null && p2Units == 0) {
-                    endGame(isHost);
-                }
-            }
+        // Animate
+        newCell.setScaleX(0.1f);
+        newCell.setScaleY(0.1f);
+        newCell.setRotation(0f);
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Firebase listener cancelled: " + error.getMessage());
-                Toast.makeText(MultiplayerBattleActivity.this,
-                        "Connection error", Toast.LENGTH_SHORT).show();
-            }
-        };
+        newCell.animate()
+                .scaleX(1.2f)
+                .scaleY(1.2f)
+                .rotation(720f)
+                .setDuration(500)
+                .withEndAction(() -> {
+                    newCell.animate()
+                            .scaleX(1f)
+                            .scaleY(1f)
+                            .setDuration(200)
+                            .start();
+                })
+                .start();
 
-        firebaseManager.listenToRoom(roomCode, roomListener);
+        Log.d(TAG, "Enemy cat teleported to (" + newRow + "," + newCol + ")");
     }
 
     private void onEnemyCellClicked(int row, int col) {
@@ -936,13 +698,8 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
             Log.d(TAG, "Revealed: " + enemyRevealedCells[row][col]);
 
             // Check if there's a unit at this position
-            SetupActivity.UnitPosition unitHere = null;
-            for (SetupActivity.UnitPosition u : enemyUnits) {
-                if (u.row == row && u.col == col && u.health > 0) {
-                    unitHere = u;
-                    break;
-                }
-            }
+            int slot = enemyGarden.slotAt(row, col);
+            SetupActivity.UnitPosition unitHere = slot >= 0 ? enemyUnits.get(slot) : null;
 
             if (unitHere != null) {
                 Log.d(TAG, "Unit found: " + unitHere.type + " (HP: " + unitHere.health + ")");
@@ -953,103 +710,54 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         });
     }
 
-    private void removeUnitFromFirebase(String playerKey, int row, int col) {
-        Log.d(TAG, "Removing dead unit from Firebase: " + playerKey + " at (" + row + "," + col + ")");
-
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                DataSnapshot unitsSnapshot = snapshot.child("units").child(playerKey);
-
-                // Find and remove the unit
-                for (DataSnapshot unitSnap : unitsSnapshot.getChildren()) {
-                    Integer snapRow = unitSnap.child("row").getValue(Integer.class);
-                    Integer snapCol = unitSnap.child("col").getValue(Integer.class);
-
-                    if (snapRow != null && snapCol != null &&
-                            snapRow == row && snapCol == col) {
-
-                        unitSnap.getRef().removeValue()
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d(TAG, "Removed dead unit from Firebase");
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e(TAG, "Failed to remove unit: " + e.getMessage());
-                                });
-
-                        break;
-                    }
-                }
-
-                snapshot.getRef().removeEventListener(this);
-            }
+    private void removeUnitFromFirebase(int slot, int row, int col) {
+        Log.d(TAG, "Removing dead unit from Firebase: " + myPlayerKey + " at (" + row + "," + col + ")");
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error removing unit: " + error.getMessage());
+        // Also counts it off my units remaining, the opponent never touches that counter
+        battleRoom.destroyUnit(slot, error -> {
+            if (error == null) {
+                Log.d(TAG, "Removed dead unit from Firebase");
+            } else {
+                Log.e(TAG, "Failed to remove unit: " + error);
             }
         });
     }
 
 
     private void checkDogFearAndAttack(int row, int col) {
-        String fearId = opponentPlayerKey + "_" + row + "_" + col;
+        Log.d(TAG, "Checking fear: " + opponentPlayerKey + "_" + row + "_" + col);
 
-        Log.d(TAG, "Checking fear: " + fearId);
-
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                DataSnapshot fear = snapshot.child("dogFears").child(fearId);
-
-                if (fear.exists()) {
-                    Integer fearRow = fear.child("row").getValue(Integer.class);
-                    Integer fearCol = fear.child("col").getValue(Integer.class);
-
-                    if (fearRow != null && fearRow == row && fearCol != null && fearCol == col) {
-                        Log.d(TAG, "DOG FEAR BLOCKED!");
+        battleRoom.checkDogFear(row, col, blocked -> {
+            if (!blocked) {
+                // No fear - proceed with attack
+                proceedWithAttack(row, col);
+                return;
+            }
+            Log.d(TAG, "DOG FEAR BLOCKED!");
 
-                        runOnUiThread(() -> {
-                            ImageView cell = enemyCells[row][col];
+            runOnUiThread(() -> {
+                ImageView cell = enemyCells[row][col];
 
-                            // Red flash animation
-                            cell.setBackgroundColor(Color.parseColor("#FF0000"));
-                            cell.animate()
-                                    .translationX(-20f).setDuration(50)
+                // Red flash animation
+                cell.setBackgroundColor(Color.parseColor("#FF0000"));
+                cell.animate()
+                        .translationX(-20f).setDuration(50)
+                        .withEndAction(() -> {
+                            cell.animate().translationX(20f).setDuration(50)
                                     .withEndAction(() -> {
-                                        cell.animate().translationX(20f).setDuration(50)
-                                                .withEndAction(() -> {
-                                                    cell.animate().translationX(0f).setDuration(50).start();
-                                                }).start();
+                                        cell.animate().translationX(0f).setDuration(50).start();
                                     }).start();
+                        }).start();
 
-                            // Restore color
-                            new Handler().postDelayed(() -> {
-                                if (enemyRevealedCells[row][col]) {
-                                    cell.setBackgroundColor(Color.parseColor("#FFE082"));
-                                } else {
-                                    cell.setBackgroundColor(Color.parseColor("#999999"));
-                                }
-                            }, 300);
-                        });
-
-                        // Remove fear
-                        fear.getRef().removeValue();
-                        snapshot.getRef().removeEventListener(this);
-                        return;
+                // Restore color
+                new Handler().postDelayed(() -> {
+                    if (enemyRevealedCells[row][col]) {
+                        cell.setBackgroundColor(Color.parseColor("#FFE082"));
+                    } else {
+                        cell.setBackgroundColor(Color.parseColor("#999999"));
                     }
-                }
-
-                // No fear - proceed with attack
-                snapshot.getRef().removeEventListener(this);
-                proceedWithAttack(row, col);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Fear check error: " + error.getMessage());
-                proceedWithAttack(row, col);
-            }
+                }, 300);
+            });
         });
     }
 
@@ -1070,50 +778,18 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
 
         Log.d(TAG, "Garden Hose active: " + gardenHoseActive);
 
-        // Create duel data
-        Map<String, Object> duelData = new HashMap<>();
-        duelData.put("attackerChoice", null);
-        duelData.put("defenderChoice", null);
-        duelData.put("gardenHoseActive", gardenHoseActive);
-        if (gardenHoseActive) {
-            duelData.put("attackerSecondChoice", null);
-        }
-
-        // Send attack action
-        FirebaseGameRoom.LastActionData action = new FirebaseGameRoom.LastActionData();
-        action.type = "attack";
-        action.player = myPlayerKey;
-        action.targetRow = row;
-        action.targetCol = col;
-        action.timestamp = System.currentTimeMillis();
-
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                // Initialize duel
-                snapshot.getRef().child("currentDuel").setValue(duelData)
-                        .addOnSuccessListener(aVoid -> {
-                            // Send action
-                            snapshot.getRef().child("lastAction").setValue(action.toMap())
-                                    .addOnSuccessListener(a -> {
-                                        Log.d(TAG, "Attack sent successfully");
-                                    });
-                        });
-
-                snapshot.getRef().removeEventListener(this);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Attack error: " + error.getMessage());
-                runOnUiThread(() -> {
-                    hasAttackedThisTurn = false;
-                    waitingForDuelResult = false;
-                    setEnemyGridClickable(true);
-                });
+        battleRoom.attack(row, col, gardenHoseActive, error -> {
+            if (error == null) {
+                Log.d(TAG, "Attack sent successfully");
+                return;
             }
+            Log.e(TAG, "Attack error: " + error);
+            runOnUiThread(() -> {
+                hasAttackedThisTurn = false;
+                waitingForDuelResult = false;
+                setEnemyGridClickable(true);
+            });
         });
-
     }
 
     private void launchMiniDuel(int row, int col, String unitType, boolean isPlayerAttacking) {
@@ -1132,11 +808,10 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         isDuelActivityLaunched = true;
 
         // Get Garden Hose status from Firebase
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
+        battleRoom.readDuel(new GameSyncTransport.ValueCallback() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Boolean gardenHose = snapshot.child("currentDuel")
-                        .child("gardenHoseActive").getValue(Boolean.class);
+            public void onValue(RoomSnapshot duel) {
+                Boolean gardenHose = duel.child("gardenHoseActive").getValue(Boolean.class);
 
                 boolean hoseActive = (gardenHose != null && gardenHose);
 
@@ -1152,13 +827,11 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                 intent.putExtra(MiniDuelActivity.EXTRA_ROOM_CODE, roomCode);
 
                 startActivityForResult(intent, REQUEST_CODE_MINI_DUEL);
-
-                snapshot.getRef().removeEventListener(this);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error launching duel: " + error.getMessage());
+            public void onCancelled(String error) {
+                Log.e(TAG, "Error launching duel: " + error);
                 isDuelActivityLaunched = false;
             }
         });
@@ -1189,18 +862,7 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                 Log.d(TAG, "Garden Hose deactivated");
             }
 
-            // Clear duel data
-            firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    snapshot.getRef().child("currentDuel").removeValue();
-                    snapshot.getRef().removeEventListener(this);
-                }
-
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {}
-            });
-
+            // The attacker's endTurn clears the duel, removing it here could cut off its MiniDuel
             // Process result
             if (iAmAttackerInCurrentDuel) {
                 handleMyAttackResult(row, col, wasHit);
@@ -1223,18 +885,21 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         waitingForDuelResult = false;
         iAmAttackerInCurrentDuel = false;
 
-        SetupActivity.UnitPosition unit = findUnitAtPosition(row, col);
+        int slot = playerGarden.slotAt(row, col);
 
-        if (unit == null) {
+        if (slot < 0) {
             Log.w(TAG, "No unit at (" + row + "," + col + ")");
             return;
         }
 
+        SetupActivity.UnitPosition unit = playerUnits.get(slot);
+
         runOnUiThread(() -> {
-            ImageView cell = playerCells[unit.row][unit.col];
+            ImageView cell = playerCells[row][col];
 
             // Check Fence Protection FIRST
             if (powerManager.isUnitProtected(unit)) {
+                journal.blocked(GameState.Side.PLAYER, Garden.cell(row, col));
                 cell.setBackgroundColor(Color.parseColor("#8FBC8F"));
 
                 ImageView finalCell = cell;
@@ -1255,72 +920,45 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                 return;
             }
 
-            // DIRECT HIT - Unit would be destroyed
-            if (wasHit) {
-                // CAT TELEPORT before destruction
-                if (unit.type.equals("cat") && !unit.abilityUsed) {
-                    Log.d(TAG, "Cat teleporting after DIRECT HIT!");
-                    executeCatTeleport(unit, cell);
-                    return; // Don't destroy the cat
-                }
-
-                // Unit destroyed (not cat or ability already used)
-                unit.health = 0;
-                updateUnitsRemaining(myPlayerKey, -1);
-                removeUnitFromFirebase(myPlayerKey, unit.row, unit.col);
-
-                cell.setBackgroundColor(Color.parseColor("#8B4513"));
-                showDeathEffect(cell);
-            }
-
-            // PARTIAL HIT - Damaged
-            else {
-                unit.health--; // Reduce HP
-
-                Log.d(TAG, "Unit damaged. HP: 2 → " + unit.health);
+            HitResult hit = BattleRules.applyHit(playerGarden, slot, wasHit, true, random);
+            unit.syncFrom(playerGarden, slot);
+            journal.hit(GameState.Side.PLAYER, Garden.cell(row, col), hit, playerGarden, slot);
 
-                // Did partial hit kill the unit?
-                if (unit.health <= 0) {
-                    Log.d(TAG, "Unit died from partial hit!");
+            Log.d(TAG, "Unit " + unit.type + " hit: " + hit + ", HP now " + unit.health);
 
-                    // CAT TELEPORT on partial hit death
-                    if (unit.type.equals("cat") && !unit.abilityUsed) {
-                        Log.d(TAG, "Cat teleporting after PARTIAL HIT death!");
-                        executeCatTeleport(unit, cell);
-                        return; // Don't destroy the cat
-                    }
+            switch (hit) {
+                case TELEPORTED:
+                    showCatTeleport(unit, row, col, cell);
+                    break;
 
-                    // Regular unit destroyed by partial hit
-                    unit.health = 0;
-                    updateUnitsRemaining(myPlayerKey, -1);
-                    removeUnitFromFirebase(opponentPlayerKey, row, col);
+                case DESTROYED:
+                    removeUnitFromFirebase(slot, row, col);
 
                     cell.setBackgroundColor(Color.parseColor("#8B4513")); // Brown
                     showDeathEffect(cell);
+                    break;
 
-                    return; // Exit early - unit is dead
-                }
-
-                // Unit survived with 1 HP - show damage
-                cell.setBackgroundColor(Color.parseColor("#FFA500")); // Orange
-
-                // Rose color change ability
-                if (unit.type.equals("rose") && !unit.abilityUsed) {
-                    Log.d(TAG, "Rose changing color");
-                    abilityManager.activateRoseColorChange(unit, cell);
-                    saveRoseColorToFirebase(unit.row, unit.col, unit.roseColor);
-                }
-
-                // Dog fear activation (only if survived)
-                if (unit.type.equals("dog") && !unit.abilityUsed) {
+                case DOG_FEAR:
+                    // Unit survived with 1 HP - dog scares the attacker away
+                    cell.setBackgroundColor(Color.parseColor("#FFA500")); // Orange
                     Log.d(TAG, "Dog activating fear");
                     new Handler().postDelayed(() -> {
-                        abilityManager.activateDogFear(unit, cell);
+                        abilityManager.showDogFear(cell);
                         saveDogFearToFirebase(unit.row, unit.col);
                     }, 400);
-                } else {
-                    cell.setImageResource(unit.type.equals("rose") ?
-                            abilityManager.getRoseIcon(unit) : getUnitIcon(unit.type, false));
+                    break;
+
+                default:
+                    // Unit survived with 1 HP - show damage
+                    cell.setBackgroundColor(Color.parseColor("#FFA500")); // Orange
+
+                    if (hit == HitResult.ROSE_COLOR_CHANGED) {
+                        Log.d(TAG, "Rose changing color");
+                        abilityManager.showRoseColorChange(unit, cell);
+                        saveRoseColorToFirebase(slot, unit.roseColor);
+                    }
+
+                    cell.setImageResource(UnitIcons.of(this, unit, false));
 
                     ImageView finalCell1 = cell;
                     cell.animate()
@@ -1333,33 +971,15 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                                         .start();
                             })
                             .start();
-                }
+                    break;
             }
         });
     }
 
-    private void executeCatTeleport(SetupActivity.UnitPosition cat, ImageView oldCellView) {
-        final int oldRow = cat.row;
-        final int oldCol = cat.col;
-
-        boolean teleported = abilityManager.activateCatTeleport(cat, playerUnits);
-
-        if (!teleported) {
-            Log.e(TAG, "Cat teleport FAILED - no empty cells!");
-
-            // Cat dies if can't teleport
-            cat.health = 0;
-            updateUnitsRemaining(myPlayerKey, -1);
-
-            oldCellView.setBackgroundColor(Color.parseColor("#8B4513"));
-            showDeathEffect(oldCellView);
-            return;
-        }
-
-        // Teleport succeeded!
+    // Visuals for a cat that BattleRules already moved to its new cell
+    private void showCatTeleport(SetupActivity.UnitPosition cat, int oldRow, int oldCol, ImageView oldCellView) {
         final int newRow = cat.row;
         final int newCol = cat.col;
-        cat.health = 1; // Cat survives with 1 HP
 
         Log.d(TAG, "Cat teleported: (" + oldRow + "," + oldCol + ") → (" +
                 newRow + "," + newCol + ")");
@@ -1409,16 +1029,11 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
     }
 
     private void removeDeadEnemyUnit(int row, int col) {
-        // Remove from enemyUnits list
-        SetupActivity.UnitPosition toRemove = null;
-        for (SetupActivity.UnitPosition u : enemyUnits) {
-            if (u.row == row && u.col == col) {
-                toRemove = u;
-                break;
-            }
-        }
-        if (toRemove != null) {
-            enemyUnits.remove(toRemove);
+        // Mark dead in the enemy garden (slots stay aligned with enemyUnits)
+        int slot = enemyGarden.slotAt(row, col);
+        if (slot >= 0) {
+            enemyGarden.setHealth(slot, 0);
+            enemyUnits.get(slot).syncFrom(enemyGarden, slot);
             Log.d(TAG, "Removed dead unit from enemyUnits at (" + row + "," + col + ")");
         }
     }
@@ -1426,56 +1041,19 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
     private void saveDogFearToFirebase(int row, int col) {
         String fearId = myPlayerKey + "_" + row + "_" + col;
 
-        Map<String, Object> fearData = new HashMap<>();
-        fearData.put("row", row);
-        fearData.put("col", col);
-        fearData.put("timestamp", System.currentTimeMillis());
-
         Log.d(TAG, "Saving dog fear: " + fearId);
 
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                snapshot.getRef().child("dogFears").child(fearId).setValue(fearData)
-                        .addOnSuccessListener(aVoid -> {
-                            Log.d(TAG, "Dog fear saved: " + fearId);
-                        })
-                        .addOnFailureListener(e -> {
-                            Log.e(TAG, "Dog fear save failed: " + e.getMessage());
-                        });
-
-                snapshot.getRef().removeEventListener(this);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error: " + error.getMessage());
+        battleRoom.saveDogFear(row, col, error -> {
+            if (error == null) {
+                Log.d(TAG, "Dog fear saved: " + fearId);
+            } else {
+                Log.e(TAG, "Dog fear save failed: " + error);
             }
         });
     }
 
-    private void saveRoseColorToFirebase(int row, int col, String color) {
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                DataSnapshot unitsSnapshot = snapshot.child("units").child(myPlayerKey);
-                for (DataSnapshot unitSnap : unitsSnapshot.getChildren()) {
-                    Integer r = unitSnap.child("row").getValue(Integer.class);
-                    Integer c = unitSnap.child("col").getValue(Integer.class);
-                    if (r != null && r == row && c != null && c == col) {
-                        unitSnap.getRef().child("roseColor").setValue(color);
-                        unitSnap.getRef().child("abilityUsed").setValue(true);
-                        break;
-                    }
-                }
-                snapshot.getRef().removeEventListener(this);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error saving rose color: " + error.getMessage());
-            }
-        });
+    private void saveRoseColorToFirebase(int slot, String color) {
+        battleRoom.saveRoseColor(slot, color);
     }
 
     private void saveCatTeleportToFirebase(int oldRow, int oldCol, int newRow, int newCol) {
@@ -1483,75 +1061,14 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         Log.d(TAG, "Old: (" + oldRow + "," + oldCol + ")");
         Log.d(TAG, "New: (" + newRow + "," + newCol + ")");
 
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                DataSnapshot unitsSnapshot = snapshot.child("units").child(myPlayerKey);
-
-                if (!unitsSnapshot.exists()) {
-                    Log.e(TAG, "No units found for " + myPlayerKey);
-                    snapshot.getRef().removeEventListener(this);
-                    return;
-                }
-
-                boolean catFound = false;
-
-                // Find the cat by OLD position (since that's what's in Firebase)
-                for (DataSnapshot unitSnap : unitsSnapshot.getChildren()) {
-                    String type = unitSnap.child("type").getValue(String.class);
-                    Integer snapRow = unitSnap.child("row").getValue(Integer.class);
-                    Integer snapCol = unitSnap.child("col").getValue(Integer.class);
-
-                    Log.d(TAG, "Checking unit: " + type + " at (" + snapRow + "," + snapCol + ")");
-
-                    // Match by type AND old position
-                    if ("cat".equals(type) &&
-                            snapRow != null && snapCol != null &&
-                            snapRow == oldRow && snapCol == oldCol) {
-
-                        catFound = true;
-                        Log.d(TAG, "Found cat at old position! Updating...");
-
-                        // Update to new position
-                        Map<String, Object> updates = new HashMap<>();
-                        updates.put("row", newRow);
-                        updates.put("col", newCol);
-                        updates.put("health", 1); // Cat survives with 1 HP
-                        updates.put("timestamp", System.currentTimeMillis()); // Track when it moved
-
-                        unitSnap.getRef().updateChildren(updates)
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d(TAG, "Cat position updated in Firebase!");
-                                    Log.d(TAG, "New position: (" + newRow + "," + newCol + ")");
-
-                                    // Verify the update
-                                    unitSnap.getRef().get().addOnSuccessListener(verifySnap -> {
-                                        Integer verifyRow = verifySnap.child("row").getValue(Integer.class);
-                                        Integer verifyCol = verifySnap.child("col").getValue(Integer.class);
-                                        Log.d(TAG, "   Verified in DB: (" + verifyRow + "," + verifyCol + ")");
-                                    });
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e(TAG, "Failed to update cat position: " + e.getMessage());
-                                    e.printStackTrace();
-                                });
-
-                        break; // Found and updated, stop searching
-                    }
-                }
-
-                if (!catFound) {
-                    Log.e(TAG, "Cat not found at old position (" + oldRow + "," + oldCol + ")");
-                    Log.e(TAG, "This means the cat might have already been updated");
-                    Log.e(TAG, "Or the old position is incorrect");
-                }
-
-                snapshot.getRef().removeEventListener(this);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Firebase error saving cat teleport: " + error.getMessage());
+        // BattleRules already moved the cat, its slot is the key of its entry
+        int slot = playerGarden.slotAt(newRow, newCol);
+        battleRoom.saveCatTeleport(slot, newRow, newCol, error -> {
+            if (error == null) {
+                Log.d(TAG, "Cat position updated in Firebase!");
+                Log.d(TAG, "New position: (" + newRow + "," + newCol + ")");
+            } else {
+                Log.e(TAG, "Failed to update cat position: " + error);
             }
         });
     }
@@ -1564,43 +1081,23 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         String choiceKey = isAttacker ? "attackerChoice" : "defenderChoice";
 
         // First update the choice value
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Log.d(TAG, "Saving " + choiceKey + " = " + choice);
-
-                snapshot.getRef().child("lastAction").child(choiceKey).setValue(choice)
-                        .addOnSuccessListener(aVoid -> {
-                            Log.d(TAG, "Choice saved successfully: " + choiceKey + " = " + choice);
-
-                            // Verify it was saved
-                            snapshot.getRef().child("lastAction").child(choiceKey).get()
-                                    .addOnSuccessListener(dataSnapshot -> {
-                                        Integer savedValue = dataSnapshot.getValue(Integer.class);
-                                        Log.d(TAG, "Verification - " + choiceKey + " in DB: " + savedValue);
-                                    });
-
-                            // Then update the action type to trigger listener
-                            FirebaseGameRoom.LastActionData choiceAction = new FirebaseGameRoom.LastActionData();
-                            choiceAction.type = isAttacker ? "attacker_choice" : "defender_choice";
-                            choiceAction.player = myPlayerKey;
-                            choiceAction.targetRow = row;
-                            choiceAction.targetCol = col;
-                            choiceAction.timestamp = System.currentTimeMillis();
-
-                            firebaseManager.sendAction(roomCode, choiceAction);
-                        })
-                        .addOnFailureListener(e -> {
-                            Log.e(TAG, "Failed to save choice: " + e.getMessage());
-                        });
-
-                snapshot.getRef().removeEventListener(this);
+        Log.d(TAG, "Saving " + choiceKey + " = " + choice);
+        transport.setValue(roomCode, "lastAction/" + choiceKey, choice, error -> {
+            if (error != null) {
+                Log.e(TAG, "Failed to save choice: " + error);
+                return;
             }
+            Log.d(TAG, "Choice saved successfully: " + choiceKey + " = " + choice);
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error sending choice: " + error.getMessage());
-            }
+            // Then update the action type to trigger listener
+            FirebaseGameRoom.LastActionData choiceAction = new FirebaseGameRoom.LastActionData();
+            choiceAction.type = isAttacker ? "attacker_choice" : "defender_choice";
+            choiceAction.player = myPlayerKey;
+            choiceAction.targetRow = row;
+            choiceAction.targetCol = col;
+            choiceAction.timestamp = battleRoom.timestamp();
+
+            transport.sendAction(roomCode, choiceAction);
         });
 
         Log.d(TAG, "Choice sent, waiting for opponent");
@@ -1617,9 +1114,8 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
             ImageView cell = enemyCells[row][col];
             enemyRevealedCells[row][col] = true;
 
+            // The defender counts its own losses, a cat may still escape this hit
             if (wasHit) {
-                updateUnitsRemaining(opponentPlayerKey, -1);
-
                 // Remove from local enemyUnits list
                 removeDeadEnemyUnit(row, col);
 
@@ -1628,27 +1124,26 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                 showDeathEffect(cell);
             } else {
                 // Partial hit - reduce HP in enemyUnits
-                for (SetupActivity.UnitPosition u : enemyUnits) {
-                    if (u.row == row && u.col == col) {
-                        u.health--;
-                        Log.d(TAG, "Enemy unit damaged. HP now: " + u.health);
-
-                        // If died from partial hit
-                        if (u.health <= 0) {
-                            Log.d(TAG, "Enemy unit died from partial hit!");
-                            removeDeadEnemyUnit(row, col);
-                            updateUnitsRemaining(opponentPlayerKey, -1);
-
-                            cell.setBackgroundColor(Color.parseColor("#FF0000"));
-                            cell.setTag(null);
-                            showDeathEffect(cell);
-                        } else {
-                            // Still alive - show damage
-                            cell.setBackgroundColor(Color.parseColor("#FFA500"));
-                            cell.setImageResource("rose".equals(u.type) ? abilityManager.getRoseIcon(u) : getUnitIcon(u.type, true));
-                            cell.setAlpha(1f);
-                        }
-                        break;
+                int slot = enemyGarden.slotAt(row, col);
+                if (slot >= 0) {
+                    SetupActivity.UnitPosition u = enemyUnits.get(slot);
+                    enemyGarden.setHealth(slot, enemyGarden.health(slot) - 1);
+                    u.syncFrom(enemyGarden, slot);
+                    Log.d(TAG, "Enemy unit damaged. HP now: " + u.health);
+
+                    // If died from partial hit
+                    if (u.health <= 0) {
+                        Log.d(TAG, "Enemy unit died from partial hit!");
+                        removeDeadEnemyUnit(row, col);
+
+                        cell.setBackgroundColor(Color.parseColor("#FF0000"));
+                        cell.setTag(null);
+                        showDeathEffect(cell);
+                    } else {
+                        // Still alive - show damage
+                        cell.setBackgroundColor(Color.parseColor("#FFA500"));
+                        cell.setImageResource(UnitIcons.of(this, u, true));
+                        cell.setAlpha(1f);
                     }
                 }
 
@@ -1678,103 +1173,26 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         clearAction.player = myPlayerKey;
         clearAction.duelPending = false;
         clearAction.wasHit = false;
-        clearAction.timestamp = System.currentTimeMillis();
+        clearAction.timestamp = battleRoom.timestamp();
 
-        firebaseManager.sendAction(roomCode, clearAction);
-    }
-
-    private void clearChoices() {
-        Log.d(TAG, "CLEARING DUEL CHOICES");
-
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                // Clear all duel-related data
-                snapshot.getRef().child("lastAction").child("attackerChoice").removeValue();
-                snapshot.getRef().child("lastAction").child("defenderChoice").removeValue();
-                snapshot.getRef().child("lastAction").child("attackerSecondChoice").removeValue();
-                snapshot.getRef().child("lastAction").child("gardenHoseActive").removeValue();
-
-                // Also clear duelPending flag
-                snapshot.getRef().child("lastAction").child("duelPending").setValue(false);
-
-                Log.d(TAG, "Choices and duel flags cleared");
-                snapshot.getRef().removeEventListener(this);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Failed to clear choices: " + error.getMessage());
-            }
-        });
+        transport.sendAction(roomCode, clearAction);
     }
 
     private void endMyTurn() {
         Log.d(TAG, "ENDING MY TURN");
         Log.d(TAG, "My player key: " + myPlayerKey + ", Switching to: " + opponentPlayerKey);
 
-        // Reset local state immediately
+        // Reset local state
         waitingForDuelResult = false;
         hasAttackedThisTurn = false;
 
-        String newTurn = opponentPlayerKey;
-
-        // Small delay to ensure choices are cleared
-        new Handler().postDelayed(() -> {
-            firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-                @Override
-                public void onDataChange(@NonNull DataSnapshot snapshot) {
-                    // FIX: Update turn
-                    snapshot.getRef().child("gameState").child("currentTurn").setValue(newTurn)
-                            .addOnSuccessListener(aVoid -> {
-                                Log.d(TAG, "Turn switched to: " + newTurn);
-
-                                // FIX: Increment round if back to player1
-                                if ("player1".equals(newTurn)) {
-                                    Integer currentRound = snapshot.child("gameState")
-                                            .child("currentRound").getValue(Integer.class);
-                                    if (currentRound != null) {
-                                        int nextRound = currentRound + 1;
-                                        snapshot.getRef().child("gameState")
-                                                .child("currentRound")
-                                                .setValue(nextRound)
-                                                .addOnSuccessListener(a -> {
-                                                    Log.d(TAG, "Round incremented to: " + nextRound);
-                                                });
-                                    }
-                                }
-                            })
-                            .addOnFailureListener(e -> {
-                                Log.e(TAG, "Failed to switch turn: " + e.getMessage());
-                            });
-
-                    snapshot.getRef().removeEventListener(this);
-                }
-
-                @Override
-                public void onCancelled(@NonNull DatabaseError error) {
-                    Log.e(TAG, "Failed to end turn: " + error.getMessage());
-                }
-            });
-        }, 500);
-    }
-
-    private void updateUnitsRemaining(String playerKey, int change) {
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String unitsKey = playerKey + "UnitsRemaining";
-                Integer current = snapshot.child("gameState").child(unitsKey).getValue(Integer.class);
-
-                if (current != null) {
-                    snapshot.getRef().child("gameState").child(unitsKey).setValue(current + change);
-                }
-
-                snapshot.getRef().removeEventListener(this);
+        // Duel, choices and turn in one write
+        battleRoom.endTurn(error -> {
+            if (error == null) {
+                Log.d(TAG, "Turn switched to: " + opponentPlayerKey);
+            } else {
+                Log.e(TAG, "Failed to switch turn: " + error);
             }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
         });
     }
 
@@ -1890,22 +1308,8 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         }
 
         // Tier 2 Power
-        String icon = "";
-        String name = "";
-        switch (selectedPower) {
-            case "spy_drone":
-                icon = "🐝";
-                name = "Spy";
-                break;
-            case "fence_shield":
-                icon = "🛡️";
-                name = "Fence";
-                break;
-            case "fertilizer":
-                icon = "🌱";
-                name = "Heal";
-                break;
-        }
+        String icon = selectedPower.icon();
+        String name = selectedPower.label();
 
         if (powerManager.canUseTier2Power() && canUsePowers) {
             btnTier2Power.setEnabled(true);
@@ -1945,6 +1349,7 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
     }
 
     private void endGame(boolean iWon) {
+        Log.d(TAG, "Game over after " + journal.size() + " journal events");
         String message = iWon ? "🎉 YOU WIN!" : "💀 YOU LOSE!";
 
         new androidx.appcompat.app.AlertDialog.Builder(this)
@@ -1953,7 +1358,7 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                 .setCancelable(false)
                 .setPositiveButton("Main Menu", (dialog, which) -> {
                     if (isHost) {
-                        firebaseManager.deleteRoom(roomCode);
+                        transport.deleteRoom(roomCode);
                     }
 
                     Intent intent = new Intent(this, MainActivity.class);
@@ -1964,36 +1369,10 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                 .show();
     }
 
-    private int getUnitIcon(String unitType, boolean isEnemy) {
-        switch (unitType) {
-            case "sunflower":
-                return (!isEnemy && SkinManager.isSunflowerSkinActive(this))
-                        ? R.drawable.sunflower_skin : R.drawable.sunflower_icon;
-            case "rose":
-                return R.drawable.rose_red;
-            case "dog":
-                return (!isEnemy && SkinManager.isDogSkinActive(this))
-                        ? R.drawable.dog_skin : R.drawable.dog_icon;
-            case "cat":
-                if (isEnemy) return R.drawable.cat_enemy;
-                return SkinManager.isCatSkinActive(this) ? R.drawable.cat_skin : R.drawable.cat_icon;
-            default:
-                return R.drawable.sunflower_icon;
-        }
-    }
-
-    private int getUnitIcon(String unitType) {
-        return getUnitIcon(unitType, false);
-    }
-
     // Helper method to find unit at position
     private SetupActivity.UnitPosition findUnitAtPosition(int row, int col) {
-        for (SetupActivity.UnitPosition unit : playerUnits) {
-            if (unit.row == row && unit.col == col && unit.health > 0) {
-                return unit;
-            }
-        }
-        return null;
+        int slot = playerGarden.slotAt(row, col);
+        return slot >= 0 ? playerUnits.get(slot) : null;
     }
 
     // Power handlers
@@ -2064,21 +1443,17 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         int newRow = unit.row + rowOffset;
         int newCol = unit.col + colOffset;
 
-        // Validate move
-        if (newRow < 0 || newRow >= 8 || newCol < 0 || newCol >= 8) {
-            cancelPowerMode();
-            return;
-        }
+        // Store old position
+        int oldRow = unit.row;
+        int oldCol = unit.col;
 
-        // Check if new position is occupied
-        if (findUnitAtPosition(newRow, newCol) != null) {
+        // Validate move (off the board or occupied cells are rejected)
+        int slot = playerGarden.slotAt(oldRow, oldCol);
+        if (slot < 0 || !playerGarden.moveUnit(slot, newRow, newCol)) {
             cancelPowerMode();
             return;
         }
-
-        // Store old position
-        int oldRow = unit.row;
-        int oldCol = unit.col;
+        journal.move(GameState.Side.PLAYER, Garden.cell(oldRow, oldCol), Garden.cell(newRow, newCol));
 
         // Clear old cell
         ImageView oldCell = playerCells[oldRow][oldCol];
@@ -2087,12 +1462,11 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         oldCell.setBackgroundColor(Color.parseColor("#8FBC8F"));
 
         // Update unit position
-        unit.row = newRow;
-        unit.col = newCol;
+        unit.syncFrom(playerGarden, slot);
 
         // Update new cell
         ImageView newCell = playerCells[newRow][newCol];
-        newCell.setImageResource(getUnitIcon(unit.type, true));
+        newCell.setImageResource(UnitIcons.board(this, unit.type, true));
         newCell.setTag(unit);
 
         // Animate move
@@ -2110,23 +1484,7 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         Log.d(TAG, unit.type + " moved from (" + oldRow + "," + oldCol + ") to (" + newRow + "," + newCol + ")");
 
         // Save power usage to Firebase
-        FirebaseGameRoom.LastActionData powerAction = new FirebaseGameRoom.LastActionData();
-        powerAction.type = "power_used";
-        powerAction.player = myPlayerKey;
-        powerAction.timestamp = System.currentTimeMillis();
-
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                snapshot.getRef().child("lastAction").child("powerType").setValue("nighttime_relocation");
-                snapshot.getRef().removeEventListener(this);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
-        });
-
-        firebaseManager.sendAction(roomCode, powerAction);
+        battleRoom.sendPowerUsed("nighttime_relocation");
 
         // Return to enemy garden after move
         cancelPowerMode();
@@ -2145,23 +1503,20 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         int newRow = unit.row + rowOffset;
         int newCol = unit.col + colOffset;
 
-        if (newRow < 0 || newRow >= 8 || newCol < 0 || newCol >= 8) {
-            return;
-        }
-
-        if (findUnitAtPosition(newRow, newCol) != null) {
+        int slot = playerGarden.slotAt(unit.row, unit.col);
+        ImageView oldCell = playerCells[unit.row][unit.col];
+        if (slot < 0 || !playerGarden.moveUnit(slot, newRow, newCol)) {
             return;
         }
+        journal.move(GameState.Side.PLAYER, Garden.cell(unit.row, unit.col), Garden.cell(newRow, newCol));
 
-        ImageView oldCell = playerCells[unit.row][unit.col];
         oldCell.setImageDrawable(null);
         oldCell.setTag(null);
 
-        unit.row = newRow;
-        unit.col = newCol;
+        unit.syncFrom(playerGarden, slot);
 
         ImageView newCell = playerCells[newRow][newCol];
-        newCell.setImageResource(getUnitIcon(unit.type, true));
+        newCell.setImageResource(UnitIcons.board(this, unit.type, true));
         newCell.setTag(unit);
         newCell.setScaleX(0.3f);
         newCell.setScaleY(0.3f);
@@ -2175,6 +1530,7 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
     private void handleFenceShield(SetupActivity.UnitPosition unit) {
         powerManager.setFenceProtectedUnit(unit);
         powerManager.useTier2Power();
+        journal.fence(GameState.Side.PLAYER, Garden.cell(unit.row, unit.col));
 
         ImageView cell = playerCells[unit.row][unit.col];
         cell.setBackgroundColor(Color.parseColor("#4DB6AC"));
@@ -2188,7 +1544,10 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
             return;
         }
 
-        unit.health = 2;
+        int slot = playerGarden.slotAt(unit.row, unit.col);
+        playerGarden.setHealth(slot, Garden.MAX_HEALTH);
+        unit.syncFrom(playerGarden, slot);
+        journal.heal(GameState.Side.PLAYER, Garden.cell(unit.row, unit.col));
 
         ImageView cell = playerCells[unit.row][unit.col];
         cell.setBackgroundColor(Color.parseColor("#8FBC8F"));
@@ -2201,45 +1560,8 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         updatePowerButtons();
     }
 
+    // The model already holds every opponent unit the room lists, no fetch needed
     private void revealAreaWithSpyDrone(int centerRow, int centerCol) {
-        // Fetch fresh data from Firebase first so the reveal is accurate even on first use
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                snapshot.getRef().removeEventListener(this);
-
-                DataSnapshot opponentUnitsSnapshot = snapshot.child("units").child(opponentPlayerKey);
-                if (opponentUnitsSnapshot.exists()) {
-                    List<SetupActivity.UnitPosition> freshUnits = new ArrayList<>();
-                    for (DataSnapshot unitSnap : opponentUnitsSnapshot.getChildren()) {
-                        String type = unitSnap.child("type").getValue(String.class);
-                        Integer r = unitSnap.child("row").getValue(Integer.class);
-                        Integer c = unitSnap.child("col").getValue(Integer.class);
-                        Integer health = unitSnap.child("health").getValue(Integer.class);
-                        if (type != null && r != null && c != null && health != null && health > 0) {
-                            SetupActivity.UnitPosition u = new SetupActivity.UnitPosition(r, c, type, health);
-                            String roseColor = unitSnap.child("roseColor").getValue(String.class);
-                            Boolean abilityUsed = unitSnap.child("abilityUsed").getValue(Boolean.class);
-                            if (roseColor != null) u.roseColor = roseColor;
-                            if (abilityUsed != null) u.abilityUsed = abilityUsed;
-                            freshUnits.add(u);
-                        }
-                    }
-                    enemyUnits = freshUnits;
-                }
-
-                runOnUiThread(() -> performSpyDroneReveal(centerRow, centerCol));
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Spy drone fetch failed: " + error.getMessage());
-                runOnUiThread(() -> performSpyDroneReveal(centerRow, centerCol));
-            }
-        });
-    }
-
-    private void performSpyDroneReveal(int centerRow, int centerCol) {
         for (int row = centerRow - 1; row <= centerRow + 1; row++) {
             for (int col = centerCol - 1; col <= centerCol + 1; col++) {
                 if (row >= 0 && row < 8 && col >= 0 && col < 8) {
@@ -2248,20 +1570,15 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                     if (!enemyRevealedCells[row][col]) {
                         enemyRevealedCells[row][col] = true;
 
-                        boolean hasUnit = false;
-                        for (SetupActivity.UnitPosition unit : enemyUnits) {
-                            if (unit.row == row && unit.col == col && unit.health > 0) {
-                                cell.setBackgroundColor(Color.parseColor("#FFE082")); // Yellow
-                                int icon = "rose".equals(unit.type) ? abilityManager.getRoseIcon(unit) : getUnitIcon(unit.type, true);
-                                cell.setImageResource(icon);
-                                cell.setAlpha(1f);
-                                hasUnit = true;
-                                Log.d(TAG, "Spy Drone revealed unit: " + unit.type + " at (" + row + "," + col + ")");
-                                break;
-                            }
-                        }
-
-                        if (!hasUnit) {
+                        int slot = enemyGarden.slotAt(row, col);
+                        if (slot >= 0) {
+                            SetupActivity.UnitPosition unit = enemyUnits.get(slot);
+                            cell.setBackgroundColor(Color.parseColor("#FFE082")); // Yellow
+                            int icon = UnitIcons.of(this, unit, true);
+                            cell.setImageResource(icon);
+                            cell.setAlpha(1f);
+                            Log.d(TAG, "Spy Drone revealed unit: " + unit.type + " at (" + row + "," + col + ")");
+                        } else {
                             cell.setBackgroundColor(Color.parseColor("#C5E1A5")); // Light green
                             cell.setAlpha(1f);
                         }
@@ -2278,24 +1595,9 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
         }
 
         powerManager.useTier2Power();
+        journal.spy(GameState.Side.AI, Garden.cell(centerRow, centerCol));
 
-        FirebaseGameRoom.LastActionData powerAction = new FirebaseGameRoom.LastActionData();
-        powerAction.type = "power_used";
-        powerAction.player = myPlayerKey;
-        powerAction.timestamp = System.currentTimeMillis();
-
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snap) {
-                snap.getRef().child("lastAction").child("powerType").setValue("spy_drone");
-                snap.getRef().removeEventListener(this);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
-        });
-
-        firebaseManager.sendAction(roomCode, powerAction);
+        battleRoom.sendPowerUsed(Power.SPY_DRONE.key());
         cancelPowerMode();
         updatePowerButtons();
     }
@@ -2329,8 +1631,8 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (roomListener != null) {
-            firebaseManager.removeRoomListener(roomCode, roomListener);
+        if (battleModel != null) {
+            battleModel.stop();
         }
     }
 
@@ -2352,13 +1654,12 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
 
 
     private void updateUnitPositionInFirebase(int newRow, int newCol, int health, String unitType) {
-        firebaseManager.listenToRoom(roomCode, new ValueEventListener() {
+        transport.read(roomCode, "units/" + myPlayerKey, new GameSyncTransport.ValueCallback() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                DataSnapshot unitsSnapshot = snapshot.child("units").child(myPlayerKey);
+            public void onValue(RoomSnapshot unitsSnapshot) {
 
                 // Find the cat unit and update its position
-                for (DataSnapshot unitSnapshot : unitsSnapshot.getChildren()) {
+                for (RoomSnapshot unitSnapshot : unitsSnapshot.getChildren()) {
                     String type = unitSnapshot.child("type").getValue(String.class);
 
                     if (unitType.equals(type)) {
@@ -2368,24 +1669,22 @@ public class MultiplayerBattleActivity extends AppCompatActivity {
                         updates.put("col", newCol);
                         updates.put("health", health);
 
-                        unitSnapshot.getRef().updateChildren(updates)
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d(TAG, "Unit position updated in Firebase");
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e(TAG, "Failed to update unit position: " + e.getMessage());
-                                });
+                        transport.updateChildren(roomCode, unitSnapshot.getPath(), updates, error -> {
+                            if (error == null) {
+                                Log.d(TAG, "Unit position updated in Firebase");
+                            } else {
+                                Log.e(TAG, "Failed to update unit position: " + error);
+                            }
+                        });
 
                         break; // Found and updated, exit loop
                     }
                 }
-
-                snapshot.getRef().removeEventListener(this);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error updating unit position: " + error.getMessage());
+            public void onCancelled(String error) {
+                Log.e(TAG, "Error updating unit position: " + error);
             }
         });
     }
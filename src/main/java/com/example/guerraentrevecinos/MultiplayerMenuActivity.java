@@ -6,12 +6,13 @@ import android.util.Log;
 import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.guerraentrevecinos.databinding.ActivityMultiplayerMenuBinding;
+import com.example.guerraentrevecinos.sync.GameSyncTransport;
 
 public class MultiplayerMenuActivity extends AppCompatActivity {
 
     private static final String TAG = "MultiplayerMenuActivity";
     private ActivityMultiplayerMenuBinding binding;
-    private FirebaseManager firebaseManager;
+    private GameSyncTransport transport;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -24,10 +25,10 @@ public class MultiplayerMenuActivity extends AppCompatActivity {
             Log.d(TAG, "Activity created, initializing Firebase...");
 
             // Initialize Firebase Manager
-            firebaseManager = FirebaseManager.getInstance();
+            transport = FirebaseManager.getInstance();
 
             // Check if Firebase is initialized
-            if (!firebaseManager.isInitialized()) {
+            if (!transport.isInitialized()) {
                 Toast.makeText(this, "Firebase initialization failed. Check your connection.",
                         Toast.LENGTH_LONG).show();
                 Log.e(TAG, "Firebase not initialized!");
@@ -55,11 +56,11 @@ public class MultiplayerMenuActivity extends AppCompatActivity {
             binding.btnCreateRoom.setEnabled(false);
             binding.btnCreateRoom.setText("Creating...");
 
-            String roomCode = firebaseManager.generateRoomCode();
+            String roomCode = transport.generateRoomCode();
             Log.d(TAG, "Generated room code: " + roomCode);
 
-            firebaseManager.createRoom(roomCode, "Player 1",
-                    new FirebaseManager.OnRoomCreatedListener() {
+            transport.createRoom(roomCode, "Player 1",
+                    new GameSyncTransport.RoomCallback() {
                         @Override
                         public void onSuccess(String code) {
                             Log.d(TAG, "Room created successfully: " + code);
@@ -103,8 +104,8 @@ public class MultiplayerMenuActivity extends AppCompatActivity {
             binding.btnJoinRoom.setEnabled(false);
             binding.btnJoinRoom.setText("Joining...");
 
-            firebaseManager.joinRoom(roomCode, "Player 2",
-                    new FirebaseManager.OnRoomJoinedListener() {
+            transport.joinRoom(roomCode, "Player 2",
+                    new GameSyncTransport.RoomCallback() {
                         @Override
                         public void onSuccess(String code) {
                             runOnUiThread(() -> {
@@ -10,12 +10,10 @@ import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.guerraentrevecinos.FirebaseManager;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
+import com.example.guerraentrevecinos.sync.GameSyncTransport;
+import com.example.guerraentrevecinos.sync.RoomSnapshot;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -42,11 +40,11 @@ public class MultiplayerSetupActivity extends AppCompatActivity {
     private List<SetupActivity.UnitPosition> playerUnits = new ArrayList<>();
 
     // Multiplayer
-    private FirebaseManager firebaseManager;
+    private GameSyncTransport transport;
     private String roomCode;
     private boolean isHost;
     private String selectedPower;
-    private ValueEventListener roomListener;
+    private GameSyncTransport.RoomListener roomListener;
     private boolean opponentReady = false;
 
     @Override
@@ -54,7 +52,7 @@ public class MultiplayerSetupActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_setup);
 
-        firebaseManager = FirebaseManager.getInstance();
+        transport = FirebaseManager.getInstance();
         roomCode = getIntent().getStringExtra("ROOM_CODE");
         isHost = getIntent().getBooleanExtra("IS_HOST", false);
         selectedPower = getIntent().getStringExtra("SELECTED_POWER");
@@ -260,15 +258,15 @@ public class MultiplayerSetupActivity extends AppCompatActivity {
                     Toast.makeText(this, "Ready! Waiting for opponent...", Toast.LENGTH_LONG).show();
 
                     // Mark ready in Firebase
-                    firebaseManager.setPlayerReady(roomCode, isHost, true);
+                    transport.setPlayerReady(roomCode, isHost, true);
                 })
                 .start();
     }
 
     private void listenForOpponent() {
-        roomListener = new ValueEventListener() {
+        roomListener = new GameSyncTransport.RoomListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
+            public void onRoomChanged(RoomSnapshot snapshot) {
                 if (!snapshot.exists()) return;
 
                 String playerKey = isHost ? "player2" : "player1";
@@ -289,19 +287,19 @@ public class MultiplayerSetupActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onCancelled(String error) {
                 Toast.makeText(MultiplayerSetupActivity.this,
                         "Connection error", Toast.LENGTH_SHORT).show();
             }
         };
 
-        firebaseManager.listenToRoom(roomCode, roomListener);
+        transport.listenToRoom(roomCode, roomListener);
     }
 
     private void startMultiplayerBattle() {
         // Remove listener
         if (roomListener != null) {
-            firebaseManager.removeRoomListener(roomCode, roomListener);
+            transport.removeRoomListener(roomCode, roomListener);
         }
 
         // Launch multiplayer battle
@@ -333,7 +331,7 @@ public class MultiplayerSetupActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         if (roomListener != null) {
-            firebaseManager.removeRoomListener(roomCode, roomListener);
+            transport.removeRoomListener(roomCode, roomListener);
         }
     }
 }
\ No newline at end of file
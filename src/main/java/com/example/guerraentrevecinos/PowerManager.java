@@ -1,39 +1,34 @@
 package com.example.guerraentrevecinos;
 
+import com.example.guerraentrevecinos.engine.Power;
+import com.example.guerraentrevecinos.engine.PowerCooldowns;
+
 public class PowerManager {
 
-    // Tier 1 Powers
-    private int gardenHoseCooldown = 0;
-    private int nighttimeRelocationCooldown = 0;
+    // Cooldowns for tier 1 powers and the tier 2 power
+    private final PowerCooldowns cooldowns;
 
     // Tier 2 Power
-    private String tier2Power;
-    private int tier2PowerCooldown = 0;
-
-    // Cooldown constants
-    private static final int GARDEN_HOSE_COOLDOWN = 3;
-    private static final int NIGHTTIME_RELOCATION_COOLDOWN = 5;
-    private static final int SPY_DRONE_COOLDOWN = 4;
-    private static final int FENCE_SHIELD_COOLDOWN = 6;
-    private static final int FERTILIZER_COOLDOWN = 7;
+    private final Power tier2Power;
 
     // Active effects
     private boolean gardenHoseActive = false;
     private SetupActivity.UnitPosition fenceProtectedUnit = null;
 
-    public PowerManager(String tier2Power) {
+    public PowerManager(Power tier2Power) {
         this.tier2Power = tier2Power;
+        this.cooldowns = PowerCooldowns.defaults(tier2Power);
     }
 
     // Garden Hose activate and set cooldown
     public boolean canUseGardenHose() {
-        return gardenHoseCooldown <= 0 && !gardenHoseActive;
+        return cooldowns.canUseGardenHose() && !gardenHoseActive;
     }
 
     public void activateGardenHose() {
         if (canUseGardenHose()) {
             gardenHoseActive = true;
-            gardenHoseCooldown = GARDEN_HOSE_COOLDOWN;
+            cooldowns.useGardenHose();
         }
     }
 
@@ -48,30 +43,20 @@ public class PowerManager {
 
     // Nighttime Relocation (Move unit)
     public boolean canUseNighttimeRelocation() {
-        return nighttimeRelocationCooldown <= 0;
+        return cooldowns.canUseNighttimeRelocation();
     }
 
     public void useNighttimeRelocation() {
-        nighttimeRelocationCooldown = NIGHTTIME_RELOCATION_COOLDOWN;
+        cooldowns.useNighttimeRelocation();
     }
 
     // Tier 2 Power
     public boolean canUseTier2Power() {
-        return tier2PowerCooldown <= 0;
+        return cooldowns.canUseTier2Power();
     }
 
     public void useTier2Power() {
-        switch (tier2Power) {
-            case "spy_drone":
-                tier2PowerCooldown = SPY_DRONE_COOLDOWN;
-                break;
-            case "fence_shield":
-                tier2PowerCooldown = FENCE_SHIELD_COOLDOWN;
-                break;
-            case "fertilizer":
-                tier2PowerCooldown = FERTILIZER_COOLDOWN;
-                break;
-        }
+        cooldowns.useTier2Power();
     }
 
     // Fence Shield
@@ -91,25 +76,29 @@ public class PowerManager {
 
     // Reduce cooldowns each round
     public void decrementCooldowns() {
-        if (gardenHoseCooldown > 0) gardenHoseCooldown--;
-        if (nighttimeRelocationCooldown > 0) nighttimeRelocationCooldown--;
-        if (tier2PowerCooldown > 0) tier2PowerCooldown--;
+        cooldowns.decrement();
     }
 
     // Getters for UI
     public int getGardenHoseCooldown() {
-        return gardenHoseCooldown;
+        return cooldowns.getGardenHose();
     }
 
     public int getNighttimeRelocationCooldown() {
-        return nighttimeRelocationCooldown;
+        return cooldowns.getNighttimeRelocation();
     }
 
     public int getTier2PowerCooldown() {
-        return tier2PowerCooldown;
+        return cooldowns.getTier2();
     }
 
-    public String getTier2Power() {
+    public Power getTier2Power() {
         return tier2Power;
     }
+
+    // Tier 2 power picked in PowerSelectionActivity, Spy Drone if none or unknown
+    public static Power tier2OrDefault(String key) {
+        Power power = Power.fromKey(key);
+        return power != null && power.isTier2() ? power : Power.SPY_DRONE;
+    }
 }
\ No newline at end of file
@@ -44,6 +44,7 @@ public class PowerSelectionActivity extends AppCompatActivity {
             Intent intent = new Intent(this, SetupActivity.class);
             intent.putExtra("GAME_MODE", gameMode);
             intent.putExtra("SELECTED_POWER", selectedPower);
+            intent.putExtra("AI_DIFFICULTY", getIntent().getStringExtra("AI_DIFFICULTY"));
             // Pass multiplayer data
             if (gameMode.equals("MULTIPLAYER")) {
                 intent.putExtra("ROOM_CODE", roomCode);
@@ -4,6 +4,8 @@ import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.View;
 import android.widget.GridLayout;
 import android.widget.ImageButton;
@@ -14,16 +16,21 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.guerraentrevecinos.database.AppDatabase;
 import com.example.guerraentrevecinos.database.entities.Game;
-import com.example.guerraentrevecinos.database.entities.GameStats;
 import com.example.guerraentrevecinos.database.entities.GameUnit;
 import com.example.guerraentrevecinos.database.entities.Player;
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.UnitCatalog;
+import com.example.guerraentrevecinos.engine.UnitKind;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 public class SetupActivity extends AppCompatActivity {
 
+    private static final String TAG = "SetupActivity";
+
     // UI Components
     private GridLayout gameGrid;
     private View unitSelectionMenu;
@@ -167,7 +174,7 @@ public class SetupActivity extends AppCompatActivity {
     private void placeUnit(int row, int col, String unitType) {
         ImageView cell = gridCells[row][col];
 
-        int iconResource = getUnitIcon(unitType);
+        int iconResource = UnitIcons.portrait(this, unitType);
         cell.setImageResource(iconResource);
         cell.setTag(unitType);
 
@@ -260,8 +267,13 @@ public class SetupActivity extends AppCompatActivity {
     }
 
     private void startBattle() {
+        long startedAt = SystemClock.elapsedRealtime();
+
+        // Every random choice in this game derives from its seed
+        long gameSeed = GameRandom.newSeed();
+
         // Generate AI unit positions
-        List<UnitPosition> aiUnits = generateAIUnits();
+        List<UnitPosition> aiUnits = generateAIUnits(new GameRandom(gameSeed).stream(GameRandom.SETUP_STREAM));
 
         // Save game to database in background thread
         AppDatabase.databaseWriteExecutor.execute(() -> {
@@ -280,54 +292,30 @@ public class SetupActivity extends AppCompatActivity {
                     aiPlayer = database.playerDao().getPlayerById((int) aiPlayerId);
                 }
 
-                // 3. Create new game
+                // 3. Create the game with both armies and their stats in one transaction
                 Game game = new Game(humanPlayer.getPlayerId(), aiPlayer.getPlayerId(), "solo_vs_ai");
-                long gameId = database.gameDao().insert(game);
-
-                // 4. Save player units
-                for (UnitPosition unit : playerUnits) {
-                    int unitTypeId = database.unitDao().getUnitIdByType(unit.type);
-                    GameUnit gameUnit = new GameUnit(
-                            (int) gameId,
-                            unitTypeId,
-                            humanPlayer.getPlayerId(),
-                            unit.row,
-                            unit.col,
-                            2 // Initial health
-                    );
-                    database.gameUnitDao().insert(gameUnit);
-                }
-
-                // 5. Save AI units
-                for (UnitPosition unit : aiUnits) {
-                    int unitTypeId = database.unitDao().getUnitIdByType(unit.type);
-                    GameUnit gameUnit = new GameUnit(
-                            (int) gameId,
-                            unitTypeId,
-                            aiPlayer.getPlayerId(),
-                            unit.row,
-                            unit.col,
-                            2 // Initial health
-                    );
-                    database.gameUnitDao().insert(gameUnit);
-                }
-
-                // 6. Initialize game stats for both players
-                database.gameStatsDao().insert(new GameStats((int) gameId, humanPlayer.getPlayerId()));
-                database.gameStatsDao().insert(new GameStats((int) gameId, aiPlayer.getPlayerId()));
-
-                // 7. Launch battle activity
+                game.setSeed(gameSeed);
+                UnitCatalog catalog = database.getUnitCatalog();
+                List<GameUnit> units = new ArrayList<>();
+                addGameUnits(units, playerUnits, humanPlayer.getPlayerId(), catalog);
+                addGameUnits(units, aiUnits, aiPlayer.getPlayerId(), catalog);
+                int gameId = database.gameSetupDao().createGame(game, units);
+
+                // 4. Launch battle activity
                 Player finalHumanPlayer = humanPlayer;
                 Player finalAiPlayer = aiPlayer;
                 runOnUiThread(() -> {
                     Intent intent = new Intent(SetupActivity.this, BattleActivity.class);
                     intent.putExtra("GAME_MODE", gameMode);
-                    intent.putExtra("GAME_ID", (int) gameId);
+                    intent.putExtra("GAME_ID", gameId);
                     intent.putExtra("PLAYER_ID", finalHumanPlayer.getPlayerId());
                     intent.putExtra("AI_PLAYER_ID", finalAiPlayer.getPlayerId());
+                    intent.putExtra("GAME_SEED", gameSeed);
+                    intent.putExtra("AI_DIFFICULTY", getIntent().getStringExtra("AI_DIFFICULTY"));
                     intent.putExtra("SELECTED_POWER", getIntent().getStringExtra("SELECTED_POWER"));
                     intent.putParcelableArrayListExtra("PLAYER_UNITS", new ArrayList<>(playerUnits));
                     intent.putParcelableArrayListExtra("AI_UNITS", new ArrayList<>(aiUnits));
+                    Log.d(TAG, "Battle launch " + (SystemClock.elapsedRealtime() - startedAt) + " ms after setup");
                     startActivity(intent);
                     finish();
                 });
@@ -343,51 +331,26 @@ public class SetupActivity extends AppCompatActivity {
         });
     }
 
-    private List<UnitPosition> generateAIUnits() {
-        List<UnitPosition> aiUnits = new ArrayList<>();
-        Random random = new Random();
-
-        String[] unitTypes = {"sunflower", "sunflower", "sunflower", "rose", "rose", "dog", "cat"};
-
-        for (String unitType : unitTypes) {
-            int row, col;
-            boolean validPosition;
-
-            do {
-                row = random.nextInt(8);
-                col = random.nextInt(8);
+    // Game id is filled in by GameSetupDao.createGame
+    private static void addGameUnits(List<GameUnit> out, List<UnitPosition> army, int ownerId, UnitCatalog catalog) {
+        for (UnitPosition unit : army) {
+            out.add(new GameUnit(0, catalog.unitId(UnitKind.fromKey(unit.type)), ownerId,
+                    unit.row, unit.col, Garden.MAX_HEALTH));
+        }
+    }
 
-                // Check if position is already taken
-                validPosition = true;
-                for (UnitPosition unit : aiUnits) {
-                    if (unit.row == row && unit.col == col) {
-                        validPosition = false;
-                        break;
-                    }
-                }
-            } while (!validPosition);
+    private List<UnitPosition> generateAIUnits(GameRandom random) {
+        Garden garden = new Garden();
+        BattleRules.placeArmy(garden, random);
 
-            aiUnits.add(new UnitPosition(row, col, unitType, 2));
+        List<UnitPosition> aiUnits = new ArrayList<>();
+        for (int slot = 0; slot < garden.unitCount(); slot++) {
+            aiUnits.add(new UnitPosition(garden.row(slot), garden.col(slot), garden.type(slot), Garden.MAX_HEALTH));
         }
 
         return aiUnits;
     }
 
-    private int getUnitIcon(String unitType) {
-        switch (unitType) {
-            case "sunflower":
-                return SkinManager.isSunflowerSkinActive(this) ? R.drawable.sunflower_skin : R.drawable.sunflower_icon;
-            case "rose":
-                return R.drawable.rose_icon;
-            case "dog":
-                return SkinManager.isDogSkinActive(this) ? R.drawable.dog_skin : R.drawable.dog_icon;
-            case "cat":
-                return SkinManager.isCatSkinActive(this) ? R.drawable.cat_skin : R.drawable.cat_icon;
-            default:
-                return R.drawable.sunflower_icon;
-        }
-    }
-
     // Inner class to store unit positions
     public static class UnitPosition implements android.os.Parcelable {
         public int row;
@@ -407,6 +370,30 @@ public class SetupActivity extends AppCompatActivity {
             this.health = health;
         }
 
+        // Builds an engine garden where slot n is units.get(n)
+        public static Garden toGarden(List<UnitPosition> units) {
+            Garden garden = new Garden();
+            for (UnitPosition unit : units) {
+                int slot = garden.addUnit(unit.row, unit.col, unit.type, unit.health);
+                garden.setRoseColor(slot, unit.roseColor);
+                garden.setAbilityUsed(slot, unit.abilityUsed);
+                garden.setDogFear(slot, unit.dogFearActive);
+            }
+            return garden;
+        }
+
+        // Copies the engine state of this unit's slot back onto the parcelable copy
+        public void syncFrom(Garden garden, int slot) {
+            row = garden.row(slot);
+            col = garden.col(slot);
+            health = garden.health(slot);
+            roseColor = garden.roseColor(slot);
+            if (health > 0) {
+                abilityUsed = garden.isAbilityUsed(slot);
+                dogFearActive = garden.isDogFearActive(slot);
+            }
+        }
+
         protected UnitPosition(android.os.Parcel in) {
             row = in.readInt();
             col = in.readInt();
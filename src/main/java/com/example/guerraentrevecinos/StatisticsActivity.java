@@ -1,16 +1,24 @@
 package com.example.guerraentrevecinos;
 
+import android.net.Uri;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.TextView;
+import android.widget.Toast;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.guerraentrevecinos.database.AppDatabase;
-import com.example.guerraentrevecinos.database.entities.Game;
-import com.example.guerraentrevecinos.database.entities.GameStats;
+import com.example.guerraentrevecinos.database.HistoryBackup;
+import com.example.guerraentrevecinos.database.dao.StatisticsDao;
 import com.example.guerraentrevecinos.database.entities.Player;
+import com.example.guerraentrevecinos.database.entities.PlayerSummary;
 import com.google.android.material.button.MaterialButton;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -19,12 +27,23 @@ import java.util.Locale;
 
 public class StatisticsActivity extends AppCompatActivity {
 
+    // History is paged by (finished_at, game_id), the next page loads this many rows before the end
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5;
+
     // UI Components
     private TextView tvTotalGames, tvTotalWins, tvTotalLosses, tvWinRate;
     private TextView tvBestAccuracy, tvMostUnitsDestroyed, tvTotalAttacks;
     private TextView tvNoGames;
     private RecyclerView rvRecentGames;
     private MaterialButton btnBack;
+    private MaterialButton btnExportHistory, btnImportHistory;
+
+    // Backup file picked through the system document UI
+    private final ActivityResultLauncher<String> exportLauncher = registerForActivityResult(
+            new ActivityResultContracts.CreateDocument("application/octet-stream"), this::exportHistory);
+    private final ActivityResultLauncher<String[]> importLauncher = registerForActivityResult(
+            new ActivityResultContracts.OpenDocument(), this::importHistory);
 
     // Database
     private AppDatabase database;
@@ -32,6 +51,9 @@ public class StatisticsActivity extends AppCompatActivity {
     // Data
     private List<GameHistoryItem> gameHistoryList = new ArrayList<>();
     private GameHistoryAdapter adapter;
+    private int playerId;
+    private boolean loadingPage = false;
+    private boolean reachedEnd = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,6 +74,9 @@ public class StatisticsActivity extends AppCompatActivity {
 
         // Back button
         btnBack.setOnClickListener(v -> finish());
+
+        btnExportHistory.setOnClickListener(v -> exportLauncher.launch("guerra_history.bak"));
+        btnImportHistory.setOnClickListener(v -> importLauncher.launch(new String[]{"*/*"}));
     }
 
     private void initializeViews() {
@@ -65,6 +90,8 @@ public class StatisticsActivity extends AppCompatActivity {
         tvNoGames = findViewById(R.id.tvNoGames);
         rvRecentGames = findViewById(R.id.rvRecentGames);
         btnBack = findViewById(R.id.btnBack);
+        btnExportHistory = findViewById(R.id.btnExportHistory);
+        btnImportHistory = findViewById(R.id.btnImportHistory);
     }
 
     private void setupRecyclerView() {
@@ -74,7 +101,7 @@ public class StatisticsActivity extends AppCompatActivity {
     }
 
     private void loadStatistics() {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
+        AppDatabase.databaseReadExecutor.execute(() -> {
             try {
                 // Get human player
                 Player player = database.playerDao().getPlayerById(1);
@@ -90,160 +117,157 @@ public class StatisticsActivity extends AppCompatActivity {
                     return;
                 }
 
-                final Player finalPlayer = player;
-
-                // Get overall stats
-                int totalGames = player.getTotalGames();
-                int totalWins = player.getTotalWins();
-                int totalLosses = player.getTotalLosses();
-                float winRate = totalGames > 0 ? (totalWins * 100f / totalGames) : 0f;
-
-                // Get win streak
-                int winStreak = database.gameDao().getCurrentWinStreak(player.getPlayerId(), 10);
-
-                // Get fastest win
-                Integer fastestWin = database.gameDao().getFastestWinRounds(player.getPlayerId());
-                int fastestWinRounds = (fastestWin != null) ? fastestWin : 0;
-
-                // Calculate stats properly
-                List<Game> finishedGames = database.gameDao().getAllFinishedGames();
-                float bestAccuracy = 0f;
-                int mostUnitsDestroyed = 0;
-                int totalAttacks = 0;
-                int totalSuccessfulHits = 0;
-
-                for (Game game : finishedGames) {
-                    // Only count games where player participated
-                    if (game.getPlayer1Id() == player.getPlayerId() ||
-                            game.getPlayer2Id() == player.getPlayerId()) {
-
-                        GameStats stats = database.gameStatsDao()
-                                .getStatsByGameAndPlayer(game.getGameId(), player.getPlayerId());
-
-                        if (stats != null) {
-                            // Calculate accuracy if not set
-                            if (stats.getTotalAttacks() > 0) {
-                                float gameAccuracy = (stats.getSuccessfulHits() * 100f) / stats.getTotalAttacks();
-                                stats.setAccuracyPercentage(gameAccuracy);
-
-                                // Update in database
-                                database.gameStatsDao().update(stats);
-
-                                // Track best
-                                if (gameAccuracy > bestAccuracy) {
-                                    bestAccuracy = gameAccuracy;
-                                }
-                            }
-
-                            if (stats.getUnitsDestroyed() > mostUnitsDestroyed) {
-                                mostUnitsDestroyed = stats.getUnitsDestroyed();
-                            }
-
-                            totalAttacks += stats.getTotalAttacks();
-                            totalSuccessfulHits += stats.getSuccessfulHits();
-                        }
-                    }
-                }
+                int id = player.getPlayerId();
+                runOnUiThread(() -> observeStatistics(id));
 
-                // Calculate overall accuracy
-                float overallAccuracy = totalAttacks > 0 ?
-                        (totalSuccessfulHits * 100f) / totalAttacks : 0f;
-
-                // Get recent games
-                List<Game> recentGames = database.gameDao().getRecentGames();
-                gameHistoryList.clear();
-
-                for (Game game : recentGames) {
-                    if (game.getPlayer1Id() == player.getPlayerId() ||
-                            game.getPlayer2Id() == player.getPlayerId()) {
-
-                        boolean isWin = (game.getWinnerId() != null &&
-                                game.getWinnerId() == player.getPlayerId());
-
-                        GameStats stats = database.gameStatsDao()
-                                .getStatsByGameAndPlayer(game.getGameId(), player.getPlayerId());
-
-                        float accuracy = 0f;
-                        int unitsDestroyed = 0;
-
-                        if (stats != null) {
-                            // Recalculate accuracy for display
-                            if (stats.getTotalAttacks() > 0) {
-                                accuracy = (stats.getSuccessfulHits() * 100f) / stats.getTotalAttacks();
-                            }
-                            unitsDestroyed = stats.getUnitsDestroyed();
-                        }
-
-                        String date = formatDate(game.getFinishedAt());
-
-                        gameHistoryList.add(new GameHistoryItem(
-                                game.getGameId(),
-                                isWin,
-                                accuracy,
-                                unitsDestroyed,
-                                game.getCurrentRound(),
-                                date
-                        ));
-                    }
+            } catch (Exception e) {
+                e.printStackTrace();
+                runOnUiThread(() -> showNoGamesState());
+            }
+        });
+    }
+
+    // Summary and history follow the database, a game finished elsewhere shows up without a reload
+    private void observeStatistics(int id) {
+        playerId = id;
+
+        // Totals, bests and streaks in one primary-key lookup
+        database.statisticsDao().observePlayerSummary(playerId).observe(this, summary -> {
+            if (summary == null || summary.getTotalGames() == 0) {
+                showNoGamesState();
+            } else {
+                showStatistics(summary);
+            }
+        });
+
+        database.statisticsDao().observeLatestFinish(playerId).observe(this, latest -> {
+            if (latest != null) loadNewerGames();
+        });
+
+        rvRecentGames.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (dy > 0 && layoutManager.findLastVisibleItemPosition() >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
                 }
+            }
+        });
+    }
 
-                // Update UI
-                final int finalTotalGames = totalGames;
-                final int finalTotalWins = totalWins;
-                final int finalTotalLosses = totalLosses;
-                final float finalWinRate = winRate;
-                final float finalBestAccuracy = bestAccuracy;
-                final int finalMostUnitsDestroyed = mostUnitsDestroyed;
-                final int finalTotalAttacks = totalAttacks;
-                final int finalWinStreak = winStreak;
-                final int finalFastestWin = fastestWinRounds;
-                final float finalOverallAccuracy = overallAccuracy;
+    // First page, or whatever finished after the newest game shown
+    private void loadNewerGames() {
+        GameHistoryItem first = adapter.first();
+        if (first == null) {
+            reachedEnd = false;
+            loadNextPage();
+            return;
+        }
+        AppDatabase.databaseReadExecutor.execute(() -> {
+            List<GameHistoryItem> newer = toItems(database.statisticsDao()
+                    .getHistoryNewerThan(playerId, first.getFinishedAt(), first.getGameId()));
+            if (newer.isEmpty()) return;
+            runOnUiThread(() -> {
+                // Skip if an earlier emission already added them
+                if (adapter.first() == first) adapter.prepend(newer);
+            });
+        });
+    }
+
+    // Next page below the oldest game shown, one at a time
+    private void loadNextPage() {
+        if (loadingPage || reachedEnd) return;
+        loadingPage = true;
+
+        GameHistoryItem last = adapter.last();
+        long finishedAt = last != null ? last.getFinishedAt() : Long.MAX_VALUE;
+        int gameId = last != null ? last.getGameId() : Integer.MAX_VALUE;
+
+        AppDatabase.databaseReadExecutor.execute(() -> {
+            List<GameHistoryItem> page = toItems(database.statisticsDao()
+                    .getHistoryPage(playerId, finishedAt, gameId, PAGE_SIZE));
+            runOnUiThread(() -> {
+                adapter.append(page);
+                reachedEnd = page.size() < PAGE_SIZE;
+                loadingPage = false;
+            });
+        });
+    }
+
+    // A reader: the export reads one snapshot and does not queue behind or block game writes
+    private void exportHistory(Uri uri) {
+        if (uri == null) return;
+        AppDatabase.databaseReadExecutor.execute(() -> {
+            try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                long games = HistoryBackup.export(database, out);
+                runOnUiThread(() -> showToast("Exported " + games + " games"));
+            } catch (Exception e) {
+                e.printStackTrace();
+                runOnUiThread(() -> showToast("Export failed"));
+            }
+        });
+    }
 
+    private void importHistory(Uri uri) {
+        if (uri == null) return;
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            try (InputStream in = getContentResolver().openInputStream(uri)) {
+                long games = HistoryBackup.importFrom(database, in);
                 runOnUiThread(() -> {
-                    if (finalTotalGames == 0) {
-                        showNoGamesState();
-                    } else {
-                        showStatistics(finalTotalGames, finalTotalWins, finalTotalLosses,
-                                finalWinRate, finalBestAccuracy, finalOverallAccuracy,
-                                finalMostUnitsDestroyed, finalTotalAttacks,
-                                finalWinStreak, finalFastestWin);
-                    }
+                    showToast("Imported " + games + " games");
+                    // Imported games can sit anywhere in the history, reload it from the top
+                    recreate();
                 });
-
             } catch (Exception e) {
                 e.printStackTrace();
-                runOnUiThread(() -> showNoGamesState());
+                runOnUiThread(() -> showToast("Import failed"));
             }
         });
     }
 
-    private void showStatistics(int totalGames, int totalWins, int totalLosses,
-                                float winRate, float bestAccuracy, float overallAccuracy,
-                                int mostUnitsDestroyed, int totalAttacks,
-                                int winStreak, int fastestWin) {
+    private void showToast(String message) {
+        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+    }
+
+    private List<GameHistoryItem> toItems(List<StatisticsDao.HistoryRow> rows) {
+        List<GameHistoryItem> items = new ArrayList<>(rows.size());
+        for (StatisticsDao.HistoryRow row : rows) {
+            boolean isWin = row.winnerId != null && row.winnerId == playerId;
+            long finishedAt = row.finishedAt != null ? row.finishedAt : 0L;
+            items.add(new GameHistoryItem(
+                    row.gameId,
+                    isWin,
+                    row.getAccuracy(),
+                    row.unitsDestroyed,
+                    row.currentRound,
+                    formatDate(row.finishedAt),
+                    finishedAt
+            ));
+        }
+        return items;
+    }
+
+    private void showStatistics(PlayerSummary summary) {
         // Overall stats
-        tvTotalGames.setText(String.valueOf(totalGames));
-        tvTotalWins.setText(String.valueOf(totalWins));
-        tvTotalLosses.setText(String.valueOf(totalLosses));
-        tvWinRate.setText(String.format(Locale.getDefault(), "%.0f%%", winRate));
+        tvTotalGames.setText(String.valueOf(summary.getTotalGames()));
+        tvTotalWins.setText(String.valueOf(summary.getTotalWins()));
+        tvTotalLosses.setText(String.valueOf(summary.getTotalLosses()));
+        tvWinRate.setText(String.format(Locale.getDefault(), "%.0f%%", summary.getWinRate()));
 
         // Show BEST accuracy
-        tvBestAccuracy.setText(String.format(Locale.getDefault(), "%.0f%%", bestAccuracy));
-        tvMostUnitsDestroyed.setText(String.valueOf(mostUnitsDestroyed));
-        tvTotalAttacks.setText(String.valueOf(totalAttacks));
+        tvBestAccuracy.setText(String.format(Locale.getDefault(), "%.0f%%", summary.getBestAccuracy()));
+        tvMostUnitsDestroyed.setText(String.valueOf(summary.getMostUnitsDestroyed()));
+        tvTotalAttacks.setText(String.valueOf(summary.getTotalAttacks()));
 
         // Win streak
         TextView tvWinStreak = findViewById(R.id.tvWinStreak);
         if (tvWinStreak != null) {
-            tvWinStreak.setText(String.valueOf(winStreak));
+            tvWinStreak.setText(String.valueOf(summary.getCurrentWinStreak()));
         }
 
         // Show/hide views
         tvNoGames.setVisibility(View.GONE);
         rvRecentGames.setVisibility(View.VISIBLE);
-
-        // Update adapter
-        adapter.notifyDataSetChanged();
     }
 
     private void showNoGamesState() {
@@ -0,0 +1,65 @@
+package com.example.guerraentrevecinos;
+
+import android.content.Context;
+
+import com.example.guerraentrevecinos.engine.RoseColor;
+import com.example.guerraentrevecinos.engine.UnitKind;
+
+/**
+ * Drawables for units, looked up by UnitKind and RoseColor ordinal instead
+ * of the per-screen getUnitIcon switches.
+ */
+public final class UnitIcons {
+
+    // By UnitKind ordinal: sunflower, rose, dog, cat
+    private static final int[] BOARD = {
+            R.drawable.sunflower_icon, R.drawable.rose_red, R.drawable.dog_icon, R.drawable.cat_icon
+    };
+    private static final int[] ENEMY = {
+            R.drawable.sunflower_icon, R.drawable.rose_red, R.drawable.dog_icon, R.drawable.cat_enemy
+    };
+    // Shop skins, 0 where the kind has none
+    private static final int[] SKIN = {
+            R.drawable.sunflower_skin, 0, R.drawable.dog_skin, R.drawable.cat_skin
+    };
+
+    // By RoseColor ordinal: red, blue, white, black
+    private static final int[] ROSES = {
+            R.drawable.rose_red, R.drawable.rose_blue, R.drawable.rose_white, R.drawable.rose_black
+    };
+
+    private UnitIcons() {}
+
+    // Icon on a battle board. Skins only show on the player's own garden.
+    public static int board(Context context, String unitType, boolean isEnemy) {
+        UnitKind kind = UnitKind.fromKey(unitType);
+        if (kind == null) return R.drawable.sunflower_icon;
+        if (isEnemy) return ENEMY[kind.ordinal()];
+        return skinned(context, kind);
+    }
+
+    // Board icon that also shows a rose's current color
+    public static int of(Context context, SetupActivity.UnitPosition unit, boolean isEnemy) {
+        if (UnitKind.fromKey(unit.type) == UnitKind.ROSE) return rose(unit.roseColor);
+        return board(context, unit.type, isEnemy);
+    }
+
+    // Large icon for setup and the mini-duel, where the rose is drawn uncolored
+    public static int portrait(Context context, String unitType) {
+        UnitKind kind = UnitKind.fromKey(unitType);
+        if (kind == null) return R.drawable.sunflower_icon;
+        if (kind == UnitKind.ROSE) return R.drawable.rose_icon;
+        return skinned(context, kind);
+    }
+
+    public static int rose(String color) {
+        RoseColor rose = RoseColor.fromKey(color);
+        return rose != null ? ROSES[rose.ordinal()] : R.drawable.rose_icon;
+    }
+
+    private static int skinned(Context context, UnitKind kind) {
+        int skin = SKIN[kind.ordinal()];
+        if (skin != 0 && SkinManager.isSkinActive(context, kind.key())) return skin;
+        return BOARD[kind.ordinal()];
+    }
+}
@@ -6,21 +6,19 @@ import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Toast;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import com.example.guerraentrevecinos.databinding.ActivityWaitingRoomBinding;
 import com.example.guerraentrevecinos.FirebaseManager;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.ValueEventListener;
+import com.example.guerraentrevecinos.sync.GameSyncTransport;
+import com.example.guerraentrevecinos.sync.RoomSnapshot;
 
 public class WaitingRoomActivity extends AppCompatActivity {
 
     private ActivityWaitingRoomBinding binding;
-    private FirebaseManager firebaseManager;
+    private GameSyncTransport transport;
     private String roomCode;
     private boolean isHost;
-    private ValueEventListener roomListener;
+    private GameSyncTransport.RoomListener roomListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -28,7 +26,7 @@ public class WaitingRoomActivity extends AppCompatActivity {
         binding = ActivityWaitingRoomBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
-        firebaseManager = FirebaseManager.getInstance();
+        transport = FirebaseManager.getInstance();
         roomCode = getIntent().getStringExtra("ROOM_CODE");
         isHost = getIntent().getBooleanExtra("IS_HOST", false);
 
@@ -52,9 +50,9 @@ public class WaitingRoomActivity extends AppCompatActivity {
     }
 
     private void listenForOpponent() {
-        roomListener = new ValueEventListener() {
+        roomListener = new GameSyncTransport.RoomListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
+            public void onRoomChanged(RoomSnapshot snapshot) {
                 if (!snapshot.exists()) {
                     // Room was deleted
                     Toast.makeText(WaitingRoomActivity.this,
@@ -86,25 +84,25 @@ public class WaitingRoomActivity extends AppCompatActivity {
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onCancelled(String error) {
                 Toast.makeText(WaitingRoomActivity.this,
-                        "Connection error: " + error.getMessage(),
+                        "Connection error: " + error,
                         Toast.LENGTH_SHORT).show();
             }
         };
 
-        firebaseManager.listenToRoom(roomCode, roomListener);
+        transport.listenToRoom(roomCode, roomListener);
     }
 
     private void cancelAndLeave() {
         // Remove listener
         if (roomListener != null) {
-            firebaseManager.removeRoomListener(roomCode, roomListener);
+            transport.removeRoomListener(roomCode, roomListener);
         }
 
         // If host, delete room
         if (isHost) {
-            firebaseManager.deleteRoom(roomCode);
+            transport.deleteRoom(roomCode);
         }
 
         finish();
@@ -114,7 +112,7 @@ public class WaitingRoomActivity extends AppCompatActivity {
     protected void onDestroy() {
         super.onDestroy();
         if (roomListener != null) {
-            firebaseManager.removeRoomListener(roomCode, roomListener);
+            transport.removeRoomListener(roomCode, roomListener);
         }
     }
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 package com.example.guerraentrevecinos.database;
 
 import android.content.Context;
+import android.database.Cursor;
 import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import com.example.guerraentrevecinos.database.dao.*;
 import com.example.guerraentrevecinos.database.entities.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.example.guerraentrevecinos.engine.UnitCatalog;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Database(
         entities = {
@@ -19,9 +23,12 @@ import java.util.concurrent.Executors;
                 GameUnit.class,
                 Move.class,
                 PowerUsage.class,
-                GameStats.class
+                GameStats.class,
+                GameEvent.class,
+                PlayerSummary.class,
+                GameArchive.class
         },
-        version = 1,
+        version = 7,
         exportSchema = false
 )
 public abstract class AppDatabase extends RoomDatabase {
@@ -34,14 +41,44 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract MoveDao moveDao();
     public abstract PowerUsageDao powerUsageDao();
     public abstract GameStatsDao gameStatsDao();
+    public abstract GameEventDao gameEventDao();
+    public abstract GameSetupDao gameSetupDao();
+    public abstract GameWriteDao gameWriteDao();
+    public abstract StatisticsDao statisticsDao();
+    public abstract GameArchiveDao gameArchiveDao();
 
     // Singleton instance
     private static volatile AppDatabase INSTANCE;
 
-    // Executor for database operations
-    private static final int NUMBER_OF_THREADS = 4;
-    public static final ExecutorService databaseWriteExecutor =
-            Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    // All writes go through one thread, so they commit in the order they were issued.
+    // Reads get their own pool: under WAL they don't wait for the writer, or behind it.
+    private static final int NUMBER_OF_READERS = 2;
+    public static final MeteredExecutor databaseWriteExecutor = MeteredExecutor.ordered("db-writer");
+    public static final MeteredExecutor databaseReadExecutor =
+            MeteredExecutor.pool("db-reader", NUMBER_OF_READERS);
+
+    // Built from RoomSchema by PrepackagedDatabase (test sources), regenerate it after a schema change
+    private static final String ASSET = "databases/guerra_vecinos.db";
+
+    // Unit kinds from the seeded units table, read once per process
+    private static volatile UnitCatalog unitCatalog;
+
+    // Catalog of the units table. Call off the main thread.
+    public UnitCatalog getUnitCatalog() {
+        UnitCatalog catalog = unitCatalog;
+        if (catalog != null) return catalog;
+
+        synchronized (AppDatabase.class) {
+            if (unitCatalog != null) return unitCatalog;
+            catalog = new UnitCatalog();
+            List<Unit> units = unitDao().getAllUnits();
+            for (Unit unit : units) {
+                catalog.put(unit.getUnitType(), unit.getUnitId(), unit.getUnitName(), unit.getBaseHealth());
+            }
+            if (catalog.isComplete()) unitCatalog = catalog;
+            return catalog;
+        }
+    }
 
     // Get database instance
     public static AppDatabase getDatabase(final Context context) {
@@ -53,7 +90,12 @@ public abstract class AppDatabase extends RoomDatabase {
                                     AppDatabase.class,
                                     "guerra_vecinos_database"
                             )
-                            .addCallback(roomDatabaseCallback)
+                            .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                            .setQueryExecutor(databaseReadExecutor)
+                            // Schema, triggers and seed rows ship prebuilt, a fresh install does no setup work
+                            .createFromAsset(ASSET)
+                            .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+                                    MIGRATION_6_7)
                             .build();
                 }
             }
@@ -61,63 +103,161 @@ public abstract class AppDatabase extends RoomDatabase {
         return INSTANCE;
     }
 
-    // Callback to seed database on creation
-    private static RoomDatabase.Callback roomDatabaseCallback = new RoomDatabase.Callback() {
+    // Queue depth and wait/run latency of both executors, for logging
+    public static String executorMetrics() {
+        return databaseWriteExecutor + "; " + databaseReadExecutor;
+    }
+
+    // v2: games.seed for reproducible games
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE games ADD COLUMN seed INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    // v3: game_events journal, one packed event per row
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
         @Override
-        public void onCreate(@NonNull SupportSQLiteDatabase db) {
-            super.onCreate(db);
-
-            // Trigger 1a: increment total_games for player1 on new game
-            db.execSQL("CREATE TRIGGER trg_total_games_p1 " +
-                    "AFTER INSERT ON games FOR EACH ROW BEGIN " +
-                    "UPDATE players SET total_games = total_games + 1 WHERE player_id = NEW.player1_id; END");
-
-            // Trigger 1b: increment total_games for player2 on new game
-            db.execSQL("CREATE TRIGGER trg_total_games_p2 " +
-                    "AFTER INSERT ON games FOR EACH ROW BEGIN " +
-                    "UPDATE players SET total_games = total_games + 1 WHERE player_id = NEW.player2_id; END");
-
-            // Trigger 2a: increment wins for the winner when game finishes
-            db.execSQL("CREATE TRIGGER trg_update_wins " +
-                    "AFTER UPDATE OF winner_id ON games FOR EACH ROW " +
-                    "WHEN NEW.winner_id IS NOT NULL AND OLD.winner_id IS NULL BEGIN " +
-                    "UPDATE players SET total_wins = total_wins + 1 WHERE player_id = NEW.winner_id; END");
-
-            // Trigger 2b: increment losses for the loser when game finishes
-            db.execSQL("CREATE TRIGGER trg_update_losses " +
-                    "AFTER UPDATE OF winner_id ON games FOR EACH ROW " +
-                    "WHEN NEW.winner_id IS NOT NULL AND OLD.winner_id IS NULL BEGIN " +
-                    "UPDATE players SET total_losses = total_losses + 1 " +
-                    "WHERE player_id = CASE WHEN NEW.winner_id = NEW.player1_id THEN NEW.player2_id ELSE NEW.player1_id END; END");
-
-            // Trigger 3: recalculate accuracy whenever attacks or hits change
-            db.execSQL("CREATE TRIGGER trg_calculate_accuracy " +
-                    "AFTER UPDATE OF total_attacks, successful_hits ON game_stats FOR EACH ROW " +
-                    "WHEN NEW.total_attacks > 0 BEGIN " +
-                    "UPDATE game_stats SET accuracy_percentage = (CAST(NEW.successful_hits AS REAL) / NEW.total_attacks) * 100 " +
-                    "WHERE stat_id = NEW.stat_id; END");
-
-            // Seed initial data
-            databaseWriteExecutor.execute(() -> {
-                // Seed units
-                UnitDao unitDao = INSTANCE.unitDao();
-
-                unitDao.insert(new Unit("sunflower", "Sunflower", 2,
-                        false, "Standard unit"));
-
-                unitDao.insert(new Unit("rose", "Rose", 2,
-                        true, "Changes color after being hit"));
-
-                unitDao.insert(new Unit("dog", "Dog", 2,
-                        true, "Fear: Can't be attacked twice in a row"));
-
-                unitDao.insert(new Unit("cat", "Cat", 2,
-                        true, "Teleports to random space after hit"));
-
-                // Create default AI player
-                PlayerDao playerDao = INSTANCE.playerDao();
-                playerDao.insert(new Player("Computer", true));
-            });
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS game_events (" +
+                    "event_id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "game_id INTEGER NOT NULL, " +
+                    "seq INTEGER NOT NULL, " +
+                    "code INTEGER NOT NULL, " +
+                    "FOREIGN KEY(game_id) REFERENCES games(game_id) ON UPDATE NO ACTION ON DELETE CASCADE)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS index_game_events_game_id_seq ON game_events (game_id, seq)");
         }
     };
+
+    // v4: player_summary, backfilled from the finished games so far
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS player_summary (" +
+                    "player_id INTEGER NOT NULL, " +
+                    "total_games INTEGER NOT NULL DEFAULT 0, " +
+                    "total_wins INTEGER NOT NULL DEFAULT 0, " +
+                    "total_losses INTEGER NOT NULL DEFAULT 0, " +
+                    "current_win_streak INTEGER NOT NULL DEFAULT 0, " +
+                    "best_win_streak INTEGER NOT NULL DEFAULT 0, " +
+                    "best_accuracy REAL NOT NULL DEFAULT 0, " +
+                    "most_units_destroyed INTEGER NOT NULL DEFAULT 0, " +
+                    "fastest_win INTEGER, " +
+                    "total_attacks INTEGER NOT NULL DEFAULT 0, " +
+                    "successful_hits INTEGER NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY(player_id), " +
+                    "FOREIGN KEY(player_id) REFERENCES players(player_id) ON UPDATE NO ACTION ON DELETE CASCADE)");
+
+            db.execSQL("INSERT INTO player_summary (player_id, total_games, total_wins, total_losses, " +
+                    "best_accuracy, most_units_destroyed, fastest_win, total_attacks, successful_hits) " +
+                    "SELECT p.player_id, p.total_games, p.total_wins, p.total_losses, " +
+                    "COALESCE(MAX(CASE WHEN s.total_attacks > 0 THEN s.successful_hits * 100.0 / s.total_attacks END), 0), " +
+                    "COALESCE(MAX(s.units_destroyed), 0), " +
+                    "MIN(CASE WHEN g.winner_id = p.player_id THEN g.current_round END), " +
+                    "COALESCE(SUM(s.total_attacks), 0), " +
+                    "COALESCE(SUM(s.successful_hits), 0) " +
+                    "FROM players p " +
+                    "LEFT JOIN (game_stats s JOIN games g ON g.game_id = s.game_id AND g.game_status = 'finished') " +
+                    "ON s.player_id = p.player_id " +
+                    "GROUP BY p.player_id");
+
+            // Streaks depend on game order, replay the finished games oldest first
+            Map<Integer, int[]> streaks = new HashMap<>(); // player -> {current, best}
+            try (Cursor cursor = db.query("SELECT player1_id, player2_id, winner_id FROM games " +
+                    "WHERE game_status = 'finished' AND winner_id IS NOT NULL ORDER BY finished_at ASC")) {
+                while (cursor.moveToNext()) {
+                    int winnerId = cursor.getInt(2);
+                    for (int column = 0; column < 2; column++) {
+                        int[] streak = streaks.computeIfAbsent(cursor.getInt(column), id -> new int[2]);
+                        streak[0] = cursor.getInt(column) == winnerId ? streak[0] + 1 : 0;
+                        streak[1] = Math.max(streak[1], streak[0]);
+                    }
+                }
+            }
+            for (Map.Entry<Integer, int[]> entry : streaks.entrySet()) {
+                db.execSQL("UPDATE player_summary SET current_win_streak = ?, best_win_streak = ? WHERE player_id = ?",
+                        new Object[]{entry.getValue()[0], entry.getValue()[1], entry.getKey()});
+            }
+
+            createSummaryTriggers(db);
+        }
+    };
+
+    // v5: history is paged newest first over finished games
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_games_game_status_finished_at ON games (game_status, finished_at)");
+        }
+    };
+
+    // v6: composite indices for the per-game, per-player lookups, checked by QueryPlanTest
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // Single-column game_id indices are prefixes of the composite ones
+            db.execSQL("DROP INDEX IF EXISTS index_game_stats_game_id");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_game_stats_game_id_player_id ON game_stats (game_id, player_id)");
+            db.execSQL("DROP INDEX IF EXISTS index_moves_game_id");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_moves_game_id_round_number ON moves (game_id, round_number)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_moves_game_id_attacking_player_id_was_hit " +
+                    "ON moves (game_id, attacking_player_id, was_hit)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_games_winner_id_game_status ON games (winner_id, game_status)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_units_unit_type ON units (unit_type)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS index_players_is_ai ON players (is_ai)");
+        }
+    };
+
+    // v7: game_archives, finished games' detail rows packed by GameArchiver
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS game_archives (" +
+                    "game_id INTEGER NOT NULL, " +
+                    "format INTEGER NOT NULL, " +
+                    "data BLOB NOT NULL, " +
+                    "raw_size INTEGER NOT NULL, " +
+                    "archived_at INTEGER NOT NULL, " +
+                    "PRIMARY KEY(game_id), " +
+                    "FOREIGN KEY(game_id) REFERENCES games(game_id) ON UPDATE NO ACTION ON DELETE CASCADE)");
+        }
+    };
+
+    // Keep player_summary in step with players and games, so reading it is one primary-key lookup
+    static void createSummaryTriggers(SupportSQLiteDatabase db) {
+        // Every player gets a summary row
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_summary_player " +
+                "AFTER INSERT ON players FOR EACH ROW BEGIN " +
+                "INSERT OR IGNORE INTO player_summary (player_id) VALUES (NEW.player_id); END");
+
+        // Started games, same as trg_total_games_p1/p2
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_summary_games " +
+                "AFTER INSERT ON games FOR EACH ROW BEGIN " +
+                "UPDATE player_summary SET total_games = total_games + 1 " +
+                "WHERE player_id IN (NEW.player1_id, NEW.player2_id); END");
+
+        // Finished game: results, streaks and this game's stats for both players.
+        // SET expressions all read the old row, so best_win_streak sees the old current streak.
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS trg_summary_finish " +
+                "AFTER UPDATE OF winner_id ON games FOR EACH ROW " +
+                "WHEN NEW.winner_id IS NOT NULL AND OLD.winner_id IS NULL BEGIN " +
+                "UPDATE player_summary SET " +
+                "total_wins = total_wins + (player_id = NEW.winner_id), " +
+                "total_losses = total_losses + (player_id != NEW.winner_id), " +
+                "current_win_streak = CASE WHEN player_id = NEW.winner_id THEN current_win_streak + 1 ELSE 0 END, " +
+                "best_win_streak = MAX(best_win_streak, CASE WHEN player_id = NEW.winner_id THEN current_win_streak + 1 ELSE 0 END), " +
+                "fastest_win = CASE WHEN player_id = NEW.winner_id " +
+                "THEN MIN(COALESCE(fastest_win, NEW.current_round), NEW.current_round) ELSE fastest_win END, " +
+                "best_accuracy = MAX(best_accuracy, COALESCE((SELECT MAX(s.successful_hits * 100.0 / s.total_attacks) " +
+                "FROM game_stats s WHERE s.game_id = NEW.game_id AND s.player_id = player_summary.player_id " +
+                "AND s.total_attacks > 0), 0)), " +
+                "most_units_destroyed = MAX(most_units_destroyed, COALESCE((SELECT MAX(s.units_destroyed) " +
+                "FROM game_stats s WHERE s.game_id = NEW.game_id AND s.player_id = player_summary.player_id), 0)), " +
+                "total_attacks = total_attacks + COALESCE((SELECT SUM(s.total_attacks) " +
+                "FROM game_stats s WHERE s.game_id = NEW.game_id AND s.player_id = player_summary.player_id), 0), " +
+                "successful_hits = successful_hits + COALESCE((SELECT SUM(s.successful_hits) " +
+                "FROM game_stats s WHERE s.game_id = NEW.game_id AND s.player_id = player_summary.player_id), 0) " +
+                "WHERE player_id IN (NEW.player1_id, NEW.player2_id); END");
+    }
 }
\ No newline at end of file
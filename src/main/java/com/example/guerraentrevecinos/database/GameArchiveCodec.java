@@ -0,0 +1,189 @@
+package com.example.guerraentrevecinos.database;
+
+import com.example.guerraentrevecinos.database.entities.GameUnit;
+import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+import com.example.guerraentrevecinos.engine.GameJournal;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Packs a finished game's detail rows into one deflated blob for the
+ * game_archives table. Row ids are dropped, everything else round-trips.
+ * Timestamps are stored as deltas from the previous row, so the stream is
+ * mostly small repeated values and deflates to a fraction of its size.
+ */
+public final class GameArchiveCodec {
+
+    // Bump when the layout changes, decode keeps reading the older formats
+    public static final int FORMAT = 1;
+
+    private GameArchiveCodec() {
+    }
+
+    /** Detail rows of one game, from the live tables or decoded from its archive. */
+    public static final class Detail {
+        public final int gameId;
+        public final List<GameUnit> units;
+        public final List<Move> moves;
+        public final List<PowerUsage> powerUsages;
+        public final List<Integer> eventCodes; // GameJournal codes in seq order
+
+        public Detail(int gameId, List<GameUnit> units, List<Move> moves,
+                      List<PowerUsage> powerUsages, List<Integer> eventCodes) {
+            this.gameId = gameId;
+            this.units = Collections.unmodifiableList(units);
+            this.moves = Collections.unmodifiableList(moves);
+            this.powerUsages = Collections.unmodifiableList(powerUsages);
+            this.eventCodes = Collections.unmodifiableList(eventCodes);
+        }
+
+        // Replays the game together with games.seed
+        public GameJournal journal() {
+            return GameJournal.of(eventCodes);
+        }
+    }
+
+    /** Encoded blob plus its size before compression. */
+    public static final class Packed {
+        public final byte[] data;
+        public final int rawSize;
+
+        Packed(byte[] data, int rawSize) {
+            this.data = data;
+            this.rawSize = rawSize;
+        }
+    }
+
+    public static Packed encode(Detail detail) {
+        try {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(raw);
+
+            out.writeShort(detail.units.size());
+            for (GameUnit unit : detail.units) {
+                out.writeInt(unit.getUnitTypeId());
+                out.writeInt(unit.getOwnerPlayerId());
+                out.writeByte(unit.getGridRow());
+                out.writeByte(unit.getGridCol());
+                out.writeByte(unit.getCurrentHealth());
+                out.writeBoolean(unit.isDestroyed());
+            }
+
+            long previous = 0;
+            out.writeShort(detail.moves.size());
+            for (Move move : detail.moves) {
+                out.writeShort(move.getRoundNumber());
+                out.writeInt(move.getAttackingPlayerId());
+                out.writeByte(move.getTargetRow());
+                out.writeByte(move.getTargetCol());
+                out.writeBoolean(move.isWasHit());
+                out.writeByte(move.getAttackerChoice());
+                out.writeByte(move.getDefenderChoice());
+                writeString(out, move.getDuelResult());
+                out.writeLong(move.getTimestamp() - previous);
+                previous = move.getTimestamp();
+            }
+
+            previous = 0;
+            out.writeShort(detail.powerUsages.size());
+            for (PowerUsage usage : detail.powerUsages) {
+                out.writeInt(usage.getPlayerId());
+                writeString(out, usage.getPowerName());
+                out.writeShort(usage.getUsedAtRound());
+                out.writeLong(usage.getTimestamp() - previous);
+                previous = usage.getTimestamp();
+            }
+
+            out.writeShort(detail.eventCodes.size());
+            for (int code : detail.eventCodes) out.writeInt(code);
+            out.flush();
+
+            ByteArrayOutputStream packed = new ByteArrayOutputStream(raw.size() / 4 + 16);
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(packed, deflater)) {
+                raw.writeTo(deflate);
+            } finally {
+                deflater.end();
+            }
+            return new Packed(packed.toByteArray(), raw.size());
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't archive game " + detail.gameId, e);
+        }
+    }
+
+    public static Detail decode(int gameId, int format, byte[] data) {
+        if (format != FORMAT) {
+            throw new IllegalStateException("Unknown archive format " + format + " for game " + gameId);
+        }
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int count = in.readUnsignedShort();
+            List<GameUnit> units = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int unitTypeId = in.readInt();
+                int owner = in.readInt();
+                int row = in.readUnsignedByte();
+                int col = in.readUnsignedByte();
+                GameUnit unit = new GameUnit(gameId, unitTypeId, owner, row, col, in.readUnsignedByte());
+                unit.setDestroyed(in.readBoolean());
+                units.add(unit);
+            }
+
+            long timestamp = 0;
+            count = in.readUnsignedShort();
+            List<Move> moves = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int round = in.readUnsignedShort();
+                int attacker = in.readInt();
+                int row = in.readUnsignedByte();
+                int col = in.readUnsignedByte();
+                boolean hit = in.readBoolean();
+                int attackerChoice = in.readUnsignedByte();
+                int defenderChoice = in.readUnsignedByte();
+                Move move = new Move(gameId, round, attacker, row, col, hit,
+                        attackerChoice, defenderChoice, readString(in));
+                timestamp += in.readLong();
+                move.setTimestamp(timestamp);
+                moves.add(move);
+            }
+
+            timestamp = 0;
+            count = in.readUnsignedShort();
+            List<PowerUsage> powerUsages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int playerId = in.readInt();
+                String powerName = readString(in);
+                PowerUsage usage = new PowerUsage(gameId, playerId, powerName, in.readUnsignedShort());
+                timestamp += in.readLong();
+                usage.setTimestamp(timestamp);
+                powerUsages.add(usage);
+            }
+
+            count = in.readUnsignedShort();
+            List<Integer> eventCodes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) eventCodes.add(in.readInt());
+
+            return new Detail(gameId, units, moves, powerUsages, eventCodes);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt archive for game " + gameId, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
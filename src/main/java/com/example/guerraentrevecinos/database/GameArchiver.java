@@ -0,0 +1,74 @@
+package com.example.guerraentrevecinos.database;
+
+import android.database.Cursor;
+import android.util.Log;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background compaction: finished games older than {@link #ARCHIVE_AFTER_MS}
+ * are packed into game_archives a batch at a time, then the freed pages are
+ * handed back to the file system with an incremental vacuum where the
+ * database was created with auto_vacuum = INCREMENTAL.
+ *
+ * Runs on the write executor, one batch per task, so battle writes queued in
+ * the meantime wait for at most one batch.
+ */
+public final class GameArchiver {
+
+    private static final String TAG = "GameArchiver";
+
+    // Recent games keep their rows in the live tables
+    public static final long ARCHIVE_AFTER_MS = TimeUnit.DAYS.toMillis(7);
+
+    private static final int BATCH_SIZE = 20;
+
+    // PRAGMA auto_vacuum value for INCREMENTAL
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private GameArchiver() {
+    }
+
+    public static void compactInBackground(AppDatabase database) {
+        long finishedBefore = System.currentTimeMillis() - ARCHIVE_AFTER_MS;
+        AppDatabase.databaseWriteExecutor.execute(() -> compactBatch(database, finishedBefore, 0));
+    }
+
+    private static void compactBatch(AppDatabase database, long finishedBefore, int archivedSoFar) {
+        try {
+            List<Integer> gameIds = database.gameArchiveDao().getArchivableGameIds(finishedBefore, BATCH_SIZE);
+            if (!gameIds.isEmpty()) {
+                database.gameArchiveDao().archive(gameIds, System.currentTimeMillis());
+            }
+            int archived = archivedSoFar + gameIds.size();
+            if (gameIds.size() == BATCH_SIZE) {
+                // Back of the queue, behind whatever was written meanwhile
+                AppDatabase.databaseWriteExecutor.execute(() -> compactBatch(database, finishedBefore, archived));
+            } else if (archived > 0) {
+                reclaimSpace(database.getOpenHelper().getWritableDatabase());
+                Log.d(TAG, "Archived " + archived + " games");
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void reclaimSpace(SupportSQLiteDatabase db) {
+        // Installs older than the prepackaged database: switching modes takes a full VACUUM, which would hold
+        // every game write behind it, so their freed pages stay on the free list for new rows instead
+        if (pragma(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) return;
+        // Each step frees one page, so read the cursor to the end
+        try (Cursor cursor = db.query("PRAGMA incremental_vacuum")) {
+            while (cursor.moveToNext()) {
+                // nothing to read
+            }
+        }
+    }
+
+    private static long pragma(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        }
+    }
+}
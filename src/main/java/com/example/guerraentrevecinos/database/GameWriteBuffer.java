@@ -0,0 +1,135 @@
+package com.example.guerraentrevecinos.database;
+
+import com.example.guerraentrevecinos.database.entities.GameEvent;
+import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Write-behind buffer for one game. Moves, power usages, journal events and
+ * stat counters pile up in memory on the UI thread, and {@link #flush} hands
+ * them to the write executor as a single transaction. BattleActivity flushes
+ * at the end of every round, at the end of the game and when it is paused.
+ *
+ * Not thread-safe: record and flush from the same thread.
+ */
+public final class GameWriteBuffer {
+
+    // Stat delta columns, in GameWriteDao.addStatDeltas order
+    public static final int ATTACKS = 0;
+    public static final int HITS = 1;
+    public static final int DESTROYED = 2;
+    public static final int POWERS = 3;
+
+    private final int gameId;
+
+    private List<Move> moves = new ArrayList<>();
+    private List<PowerUsage> powerUsages = new ArrayList<>();
+    private List<GameEvent> events = new ArrayList<>();
+
+    // Player ids with pending stat deltas and their counters, a game only has two
+    private final int[] statPlayers = new int[2];
+    private final int[][] statDeltas = new int[2][4];
+    private int statCount = 0;
+
+    public GameWriteBuffer(int gameId) {
+        this.gameId = gameId;
+    }
+
+    public int getGameId() {
+        return gameId;
+    }
+
+    public void move(Move move) {
+        moves.add(move);
+        int[] deltas = deltasFor(move.getAttackingPlayerId());
+        deltas[ATTACKS]++;
+        if (move.isWasHit()) deltas[HITS]++;
+        if ("destroyed".equals(move.getDuelResult())) deltas[DESTROYED]++;
+    }
+
+    public void powerUsed(PowerUsage powerUsage) {
+        powerUsages.add(powerUsage);
+        deltasFor(powerUsage.getPlayerId())[POWERS]++;
+    }
+
+    public void event(int seq, int code) {
+        events.add(new GameEvent(gameId, seq, code));
+    }
+
+    public boolean isEmpty() {
+        return moves.isEmpty() && powerUsages.isEmpty() && events.isEmpty() && statCount == 0;
+    }
+
+    // Everything recorded so far, leaves the buffer empty
+    public Batch drain() {
+        Batch batch = new Batch(gameId, moves, powerUsages, events);
+        for (int i = 0; i < statCount; i++) {
+            batch.statPlayers.add(statPlayers[i]);
+            batch.statDeltas.add(statDeltas[i].clone());
+            Arrays.fill(statDeltas[i], 0);
+        }
+        statCount = 0;
+        moves = new ArrayList<>();
+        powerUsages = new ArrayList<>();
+        events = new ArrayList<>();
+        return batch;
+    }
+
+    // Commits the pending writes in one transaction on the write executor
+    public void flush(AppDatabase database) {
+        if (isEmpty()) return;
+        Batch batch = drain();
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            try {
+                database.gameWriteDao().commit(batch);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Last flush and the game result in one transaction, round is the one the game ended in
+    public void finish(AppDatabase database, int winnerId, int round, long finishedAt) {
+        Batch batch = drain();
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            try {
+                database.gameWriteDao().commitAndFinish(batch, winnerId, round, finishedAt);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private int[] deltasFor(int playerId) {
+        for (int i = 0; i < statCount; i++) {
+            if (statPlayers[i] == playerId) return statDeltas[i];
+        }
+        if (statCount == statPlayers.length) {
+            throw new IllegalStateException("Stats for more than two players in game " + gameId);
+        }
+        statPlayers[statCount] = playerId;
+        return statDeltas[statCount++];
+    }
+
+    /** One round's worth of writes, owned by the executor once drained. */
+    public static final class Batch {
+
+        public final int gameId;
+        public final List<Move> moves;
+        public final List<PowerUsage> powerUsages;
+        public final List<GameEvent> events;
+        public final List<Integer> statPlayers = new ArrayList<>(2);
+        public final List<int[]> statDeltas = new ArrayList<>(2);
+
+        Batch(int gameId, List<Move> moves, List<PowerUsage> powerUsages, List<GameEvent> events) {
+            this.gameId = gameId;
+            this.moves = Collections.unmodifiableList(moves);
+            this.powerUsages = Collections.unmodifiableList(powerUsages);
+            this.events = Collections.unmodifiableList(events);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.guerraentrevecinos.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Exports and imports the whole game history in HistoryFormat. Run the
+ * export on AppDatabase.databaseReadExecutor, it reads from a snapshot and
+ * never holds up game writes. Run the import on databaseWriteExecutor so it
+ * is ordered with the game writes.
+ */
+public final class HistoryBackup {
+
+    // Large transactions, one journal sync per this many imported games
+    private static final int GAMES_PER_TRANSACTION = 5000;
+
+    // Export cursors hold this many games' rows, well inside a cursor window
+    private static final int GAMES_PER_PAGE = 500;
+
+    private HistoryBackup() {
+    }
+
+    // Returns the number of games written. The pages are read inside one deferred read transaction: they see
+    // one WAL snapshot, and no write lock is taken, so games keep saving while the export runs.
+    public static long export(AppDatabase database, OutputStream out) throws IOException {
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        db.beginTransactionReadOnly();
+        try {
+            return HistoryFormat.export((sql, args) -> {
+                Object[] bindArgs = new Object[args.length];
+                for (int i = 0; i < args.length; i++) bindArgs[i] = args[i];
+                return new CursorRows(db.query(sql, bindArgs));
+            }, GAMES_PER_PAGE, out);
+        } finally {
+            // Nothing written, ending it without success just releases the snapshot
+            db.endTransaction();
+        }
+    }
+
+    // Adds the backup's games to this database and returns how many. Stats and summaries update through
+    // the triggers. Games are committed in batches, a failed import keeps the batches before the failure.
+    public static long importFrom(AppDatabase database, InputStream in) throws IOException {
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        try {
+            return HistoryFormat.importInto(in, new DatabaseTarget(db), GAMES_PER_TRANSACTION);
+        } finally {
+            if (db.inTransaction()) db.endTransaction();
+            // Writes bypassed the DAOs, tell LiveData observers
+            database.getInvalidationTracker().refreshVersionsAsync();
+        }
+    }
+
+    private static final class CursorRows implements HistoryFormat.Rows {
+        private final Cursor cursor;
+
+        CursorRows(Cursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override public boolean next() { return cursor.moveToNext(); }
+        @Override public int type(int column) { return cursor.getType(column); }
+        @Override public long getLong(int column) { return cursor.getLong(column); }
+        @Override public double getDouble(int column) { return cursor.getDouble(column); }
+        @Override public String getString(int column) { return cursor.getString(column); }
+        @Override public byte[] getBlob(int column) { return cursor.getBlob(column); }
+        @Override public void close() { cursor.close(); }
+    }
+
+    private static final class DatabaseTarget implements HistoryFormat.Target {
+        private final SupportSQLiteDatabase db;
+
+        DatabaseTarget(SupportSQLiteDatabase db) {
+            this.db = db;
+        }
+
+        @Override
+        public HistoryFormat.Statement compile(String sql) {
+            SupportSQLiteStatement statement = db.compileStatement(sql);
+            return new HistoryFormat.Statement() {
+                @Override public void bindNull(int index) { statement.bindNull(index); }
+                @Override public void bindLong(int index, long value) { statement.bindLong(index, value); }
+                @Override public void bindDouble(int index, double value) { statement.bindDouble(index, value); }
+                @Override public void bindString(int index, String value) { statement.bindString(index, value); }
+                @Override public void bindBlob(int index, byte[] value) { statement.bindBlob(index, value); }
+                @Override public long executeInsert() { return statement.executeInsert(); }
+                @Override public void execute() { statement.executeUpdateDelete(); }
+            };
+        }
+
+        // One human and one AI per install, match on that rather than on ids or names
+        @Override
+        public long localPlayer(String name, boolean ai) {
+            try (Cursor cursor = db.query("SELECT player_id FROM players WHERE is_ai = ? ORDER BY player_id LIMIT 1",
+                    new Object[]{ai ? 1 : 0})) {
+                if (cursor.moveToFirst()) return cursor.getLong(0);
+            }
+            ContentValues values = new ContentValues();
+            values.put("player_name", name);
+            values.put("is_ai", ai);
+            values.put("total_games", 0);
+            values.put("total_wins", 0);
+            values.put("total_losses", 0);
+            values.put("created_at", System.currentTimeMillis());
+            return db.insert("players", SQLiteDatabase.CONFLICT_ABORT, values);
+        }
+
+        @Override
+        public void beginTransaction() {
+            db.beginTransaction();
+        }
+
+        @Override
+        public void commitTransaction() {
+            db.setTransactionSuccessful();
+            db.endTransaction();
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package com.example.guerraentrevecinos.database;
+
+import com.example.guerraentrevecinos.database.entities.GameUnit;
+import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Backup file for a whole game history. Export reads every table in keyset
+ * pages of games, all inside one read transaction, and import binds rows
+ * straight into compiled inserts, so neither side holds more than a page,
+ * whatever the history size.
+ *
+ * Layout: magic, version, the players, then every game's games row followed
+ * by all of its rows in the child tables. Each row is its table's index and
+ * one typed value per column: a type byte, then a zigzag varint, an 8-byte
+ * double, or a varint length and the UTF-8 text or blob bytes.
+ *
+ * Player ids are remapped to the importing install's players, in the player
+ * columns and inside the game_archives blobs, which are decoded and
+ * re-encoded with GameArchiveCodec.
+ *
+ * Pure Java: HistoryBackup adapts it to Room, the tests and benchmark to JDBC.
+ */
+public final class HistoryFormat {
+
+    private static final int MAGIC = 0x47455648; // "GEVH"
+    public static final int VERSION = 1;
+
+    // Value types, the same numbers as Cursor.FIELD_TYPE_*
+    public static final int TYPE_NULL = 0;
+    public static final int TYPE_INTEGER = 1;
+    public static final int TYPE_FLOAT = 2;
+    public static final int TYPE_STRING = 3;
+    public static final int TYPE_BLOB = 4;
+
+    private static final int END = 0x7F;
+
+    /** Exported columns of one table, its key column first. */
+    public static final class Table {
+        public final String name;
+        final String[] columns;
+        final String orderBy;
+        final boolean[] playerColumn;
+
+        Table(String name, String orderBy, String[] columns, String... playerColumns) {
+            this.name = name;
+            this.orderBy = orderBy;
+            this.columns = columns;
+            this.playerColumn = new boolean[columns.length];
+            for (String player : playerColumns) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i].equals(player)) playerColumn[i] = true;
+                }
+            }
+        }
+
+        // Export order: by game, in the order of an index on game_id where there is one
+        public String selectSql() {
+            return "SELECT " + String.join(", ", columns) + " FROM " + name + " ORDER BY " + orderBy;
+        }
+
+        // The rows with a key in (?, ?], a range seek on that index
+        String pageSql() {
+            return "SELECT " + String.join(", ", columns) + " FROM " + name
+                    + " WHERE " + columns[0] + " > ? AND " + columns[0] + " <= ? ORDER BY " + orderBy;
+        }
+
+        // Key of the page's last row after ?, ? rows on
+        String pageEndSql() {
+            return "SELECT " + columns[0] + " FROM " + name + " WHERE " + columns[0] + " > ? ORDER BY "
+                    + columns[0] + " LIMIT 1 OFFSET ?";
+        }
+
+        // Games get a new game_id on import, child rows keep every column
+        String insertSql() {
+            int from = this == GAMES ? 1 : 0;
+            StringBuilder sql = new StringBuilder("INSERT INTO ").append(name).append(" (");
+            StringBuilder values = new StringBuilder();
+            for (int i = from; i < columns.length; i++) {
+                if (i > from) {
+                    sql.append(", ");
+                    values.append(", ");
+                }
+                sql.append(columns[i]);
+                values.append('?');
+            }
+            return sql.append(") VALUES (").append(values).append(')').toString();
+        }
+    }
+
+    public static final Table PLAYERS = new Table("players", "player_id",
+            new String[]{"player_id", "player_name", "is_ai"});
+
+    public static final Table GAMES = new Table("games", "game_id",
+            new String[]{"game_id", "player1_id", "player2_id", "winner_id", "game_mode", "game_status",
+                    "current_round", "max_rounds", "created_at", "finished_at", "seed"},
+            "player1_id", "player2_id", "winner_id");
+
+    // Columns in the order importArchive reads them
+    public static final Table ARCHIVES = new Table("game_archives", "game_id",
+            new String[]{"game_id", "format", "data", "raw_size", "archived_at"});
+
+    // Every table hanging off games.game_id, game_id first
+    public static final Table[] CHILDREN = {
+            new Table("game_stats", "game_id, player_id",
+                    new String[]{"game_id", "player_id", "total_attacks", "successful_hits", "units_destroyed",
+                            "powers_used", "accuracy_percentage"},
+                    "player_id"),
+            new Table("game_units", "game_id",
+                    new String[]{"game_id", "unit_type_id", "owner_player_id", "grid_row", "grid_col",
+                            "current_health", "is_destroyed"},
+                    "owner_player_id"),
+            new Table("moves", "game_id, round_number",
+                    new String[]{"game_id", "round_number", "attacking_player_id", "target_row", "target_col",
+                            "was_hit", "attacker_choice", "defender_choice", "duel_result", "timestamp"},
+                    "attacking_player_id"),
+            new Table("power_usages", "game_id",
+                    new String[]{"game_id", "player_id", "power_name", "used_at_round", "timestamp"},
+                    "player_id"),
+            new Table("game_events", "game_id, seq",
+                    new String[]{"game_id", "seq", "code"}),
+            ARCHIVES,
+    };
+
+    // Record tags: PLAYERS, GAMES, then CHILDREN in order
+    private static final int PLAYER_TAG = 0;
+    private static final int GAME_TAG = 1;
+    private static final int FIRST_CHILD_TAG = 2;
+
+    private HistoryFormat() {
+    }
+
+    /** A query result being read forward, like a Cursor or ResultSet. */
+    public interface Rows extends Closeable {
+        boolean next() throws IOException;
+        int type(int column); // TYPE_*
+        long getLong(int column);
+        double getDouble(int column);
+        String getString(int column);
+        byte[] getBlob(int column);
+    }
+
+    /** The database an export reads from, inside one read transaction. */
+    public interface Source {
+        Rows query(String sql, long... args) throws IOException;
+    }
+
+    /** A compiled statement, bind indices are 1-based. */
+    public interface Statement {
+        void bindNull(int index);
+        void bindLong(int index, long value);
+        void bindDouble(int index, double value);
+        void bindString(int index, String value);
+        void bindBlob(int index, byte[] value);
+        long executeInsert() throws IOException; // new rowid
+        void execute() throws IOException;
+    }
+
+    /** The database an import writes to. */
+    public interface Target {
+        Statement compile(String sql) throws IOException;
+        // Local id for an exported player, created if there is none
+        long localPlayer(String name, boolean ai) throws IOException;
+        void beginTransaction() throws IOException;
+        void commitTransaction() throws IOException;
+    }
+
+    // Streams everything, gamesPerPage games and their child rows at a time
+    public static long export(Source source, int gamesPerPage, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+
+        for (long after = Long.MIN_VALUE; after != Long.MAX_VALUE; ) {
+            long end = pageEnd(source, PLAYERS, after, gamesPerPage);
+            try (Rows players = source.query(PLAYERS.pageSql(), after, end)) {
+                while (players.next()) writeRow(data, PLAYER_TAG, PLAYERS, players);
+            }
+            after = end;
+        }
+
+        long count = 0;
+        Rows[] children = new Rows[CHILDREN.length];
+        for (long after = Long.MIN_VALUE; after != Long.MAX_VALUE; ) {
+            long end = pageEnd(source, GAMES, after, gamesPerPage);
+            try (Rows games = source.query(GAMES.pageSql(), after, end)) {
+                for (int c = 0; c < children.length; c++) {
+                    children[c] = source.query(CHILDREN[c].pageSql(), after, end);
+                }
+                count += writeGames(data, games, children);
+            } finally {
+                for (int c = 0; c < children.length; c++) {
+                    if (children[c] != null) children[c].close();
+                    children[c] = null;
+                }
+            }
+            after = end;
+        }
+        data.writeByte(END);
+        data.flush();
+        return count;
+    }
+
+    // Last key of the page after the given one, or Long.MAX_VALUE when the table ends first
+    private static long pageEnd(Source source, Table table, long after, int pageSize) throws IOException {
+        try (Rows end = source.query(table.pageEndSql(), after, pageSize - 1)) {
+            return end.next() ? end.getLong(0) : Long.MAX_VALUE;
+        }
+    }
+
+    // One page of games, children in CHILDREN order over the same game_id range and sorted like their selectSql
+    private static long writeGames(DataOutputStream data, Rows games, Rows[] children) throws IOException {
+        boolean[] hasRow = new boolean[children.length];
+        for (int c = 0; c < children.length; c++) hasRow[c] = children[c].next();
+
+        long count = 0;
+        while (games.next()) {
+            long gameId = games.getLong(0);
+            writeRow(data, GAME_TAG, GAMES, games);
+            for (int c = 0; c < children.length; c++) {
+                Rows child = children[c];
+                // Rows of a game that no longer exists can't be imported, skip them
+                while (hasRow[c] && child.getLong(0) < gameId) hasRow[c] = child.next();
+                while (hasRow[c] && child.getLong(0) == gameId) {
+                    writeRow(data, FIRST_CHILD_TAG + c, CHILDREN[c], child);
+                    hasRow[c] = child.next();
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    // Adds every game in the file, committing every gamesPerTransaction games. Returns the games imported.
+    // Games are inserted unfinished and finished once their rows are in, so the stats triggers count them.
+    public static long importInto(InputStream in, Target target, int gamesPerTransaction) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (data.readInt() != MAGIC) throw new IllegalArgumentException("Not a history backup");
+        int version = data.readUnsignedShort();
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported backup version " + version);
+
+        Statement insertGame = target.compile(GAMES.insertSql());
+        Statement finishGame = target.compile("UPDATE games SET winner_id = ? WHERE game_id = ?");
+        Statement[] insertChild = new Statement[CHILDREN.length];
+        for (int c = 0; c < CHILDREN.length; c++) insertChild[c] = target.compile(CHILDREN[c].insertSql());
+
+        Map<Long, Long> players = new HashMap<>();
+        long gameId = -1;
+        Long winnerId = null;
+        long count = 0;
+
+        target.beginTransaction();
+        for (int tag = data.readUnsignedByte(); tag != END; tag = data.readUnsignedByte()) {
+            if (tag == PLAYER_TAG) {
+                long exportedId = readLong(data);
+                String name = readString(data);
+                boolean ai = readLong(data) != 0;
+                players.put(exportedId, target.localPlayer(name, ai));
+            } else if (tag == GAME_TAG) {
+                finish(finishGame, gameId, winnerId);
+                if (count > 0 && count % gamesPerTransaction == 0) {
+                    target.commitTransaction();
+                    target.beginTransaction();
+                }
+                skipValue(data); // exported game_id
+                for (int i = 1; i < GAMES.columns.length; i++) {
+                    if (GAMES.columns[i].equals("winner_id")) {
+                        winnerId = readPlayer(data, players);
+                        insertGame.bindNull(i);
+                    } else {
+                        bindValue(data, insertGame, i, GAMES.playerColumn[i], players);
+                    }
+                }
+                gameId = insertGame.executeInsert();
+                count++;
+            } else if (tag - FIRST_CHILD_TAG < CHILDREN.length) {
+                if (gameId < 0) throw new IllegalArgumentException("Rows before the first game");
+                int c = tag - FIRST_CHILD_TAG;
+                Table table = CHILDREN[c];
+                Statement insert = insertChild[c];
+                skipValue(data);
+                insert.bindLong(1, gameId);
+                if (table == ARCHIVES) {
+                    importArchive(data, insert, gameId, players);
+                } else {
+                    for (int i = 1; i < table.columns.length; i++) {
+                        bindValue(data, insert, i + 1, table.playerColumn[i], players);
+                    }
+                }
+                insert.executeInsert();
+            } else {
+                throw new IllegalArgumentException("Unknown record " + tag);
+            }
+        }
+        finish(finishGame, gameId, winnerId);
+        target.commitTransaction();
+        return count;
+    }
+
+    private static void finish(Statement finishGame, long gameId, Long winnerId) throws IOException {
+        if (gameId < 0 || winnerId == null) return;
+        finishGame.bindLong(1, winnerId);
+        finishGame.bindLong(2, gameId);
+        finishGame.execute();
+    }
+
+    // The archived rows name players by id like the live tables, so the blob is remapped and re-encoded
+    private static void importArchive(DataInputStream in, Statement insert, long gameId,
+                                      Map<Long, Long> players) throws IOException {
+        int format = (int) readLong(in);
+        int type = in.readUnsignedByte();
+        if (type != TYPE_BLOB) throw new IllegalArgumentException("Expected archive data, got type " + type);
+        byte[] data = readBytes(in);
+        skipValue(in); // raw_size, the same once re-encoded
+
+        GameArchiveCodec.Detail detail;
+        try {
+            detail = GameArchiveCodec.decode((int) gameId, format, data);
+        } catch (IllegalStateException e) {
+            throw new IllegalArgumentException("Bad archive in backup", e);
+        }
+        for (GameUnit unit : detail.units) {
+            unit.setOwnerPlayerId((int) localPlayer(players, unit.getOwnerPlayerId()));
+        }
+        for (Move move : detail.moves) {
+            move.setAttackingPlayerId((int) localPlayer(players, move.getAttackingPlayerId()));
+        }
+        for (PowerUsage usage : detail.powerUsages) {
+            usage.setPlayerId((int) localPlayer(players, usage.getPlayerId()));
+        }
+        GameArchiveCodec.Packed packed = GameArchiveCodec.encode(detail);
+
+        insert.bindLong(2, GameArchiveCodec.FORMAT);
+        insert.bindBlob(3, packed.data);
+        insert.bindLong(4, packed.rawSize);
+        bindValue(in, insert, 5, false, players);
+    }
+
+    private static void writeRow(DataOutputStream out, int tag, Table table, Rows rows) throws IOException {
+        out.writeByte(tag);
+        for (int i = 0; i < table.columns.length; i++) {
+            int type = rows.type(i);
+            out.writeByte(type);
+            switch (type) {
+                case TYPE_NULL:
+                    break;
+                case TYPE_INTEGER:
+                    writeVarLong(out, rows.getLong(i));
+                    break;
+                case TYPE_FLOAT:
+                    out.writeDouble(rows.getDouble(i));
+                    break;
+                case TYPE_STRING:
+                    writeBytes(out, rows.getString(i).getBytes(StandardCharsets.UTF_8));
+                    break;
+                case TYPE_BLOB:
+                    writeBytes(out, rows.getBlob(i));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown column type " + type + " in " + table.name);
+            }
+        }
+    }
+
+    private static void bindValue(DataInputStream in, Statement statement, int index,
+                                  boolean player, Map<Long, Long> players) throws IOException {
+        int type = in.readUnsignedByte();
+        switch (type) {
+            case TYPE_NULL:
+                statement.bindNull(index);
+                break;
+            case TYPE_INTEGER:
+                long value = readVarLong(in);
+                statement.bindLong(index, player ? localPlayer(players, value) : value);
+                break;
+            case TYPE_FLOAT:
+                statement.bindDouble(index, in.readDouble());
+                break;
+            case TYPE_STRING:
+                statement.bindString(index, new String(readBytes(in), StandardCharsets.UTF_8));
+                break;
+            case TYPE_BLOB:
+                statement.bindBlob(index, readBytes(in));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown value type " + type);
+        }
+    }
+
+    private static Long readPlayer(DataInputStream in, Map<Long, Long> players) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type == TYPE_NULL) return null;
+        if (type != TYPE_INTEGER) throw new IllegalArgumentException("Player id of type " + type);
+        return localPlayer(players, readVarLong(in));
+    }
+
+    private static long localPlayer(Map<Long, Long> players, long exportedId) {
+        Long local = players.get(exportedId);
+        if (local == null) throw new IllegalArgumentException("Unknown player " + exportedId);
+        return local;
+    }
+
+    private static long readLong(DataInputStream in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type != TYPE_INTEGER) throw new IllegalArgumentException("Expected an integer, got type " + type);
+        return readVarLong(in);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type == TYPE_NULL) return null;
+        if (type != TYPE_STRING) throw new IllegalArgumentException("Expected text, got type " + type);
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void skipValue(DataInputStream in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type == TYPE_INTEGER) readVarLong(in);
+        else if (type == TYPE_FLOAT) in.readDouble();
+        else if (type == TYPE_STRING || type == TYPE_BLOB) readBytes(in);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE) throw new IllegalArgumentException("Bad length " + length);
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    // Zigzag, so small negative numbers stay short too
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long bits = (value << 1) ^ (value >> 63);
+        while ((bits & ~0x7FL) != 0) {
+            out.writeByte((int) (bits & 0x7F) | 0x80);
+            bits >>>= 7;
+        }
+        out.writeByte((int) bits);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long bits = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            bits |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return (bits >>> 1) ^ -(bits & 1);
+        }
+        throw new EOFException("Varint longer than 10 bytes");
+    }
+}
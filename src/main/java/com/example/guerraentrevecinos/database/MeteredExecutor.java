@@ -0,0 +1,111 @@
+package com.example.guerraentrevecinos.database;
+
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed thread pool that tracks how deep its queue gets, how long tasks wait
+ * before starting and how long they run. With one thread it is an ordered
+ * queue: tasks run one at a time in the order they were submitted.
+ */
+public final class MeteredExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong finished = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong totalRunNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    private MeteredExecutor(String name, int threads) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), namedThreads(name));
+        this.name = name;
+    }
+
+    // One thread, tasks run in submission order
+    public static MeteredExecutor ordered(String name) {
+        return new MeteredExecutor(name, 1);
+    }
+
+    public static MeteredExecutor pool(String name, int threads) {
+        return new MeteredExecutor(name, threads);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long queuedAt = System.nanoTime();
+        super.execute(() -> {
+            long startedAt = System.nanoTime();
+            record(totalWaitNanos, maxWaitNanos, startedAt - queuedAt);
+            try {
+                task.run();
+            } finally {
+                record(totalRunNanos, maxRunNanos, System.nanoTime() - startedAt);
+                finished.incrementAndGet();
+            }
+        });
+        maxQueueDepth.accumulateAndGet(getQueue().size(), Math::max);
+    }
+
+    private static void record(AtomicLong total, AtomicLong max, long nanos) {
+        total.addAndGet(nanos);
+        max.accumulateAndGet(nanos, Math::max);
+    }
+
+    public int queueDepth() {
+        return getQueue().size();
+    }
+
+    public int maxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long finishedTasks() {
+        return finished.get();
+    }
+
+    public double averageWaitMillis() {
+        return average(totalWaitNanos);
+    }
+
+    public double maxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    public double averageRunMillis() {
+        return average(totalRunNanos);
+    }
+
+    public double maxRunMillis() {
+        return maxRunNanos.get() / 1e6;
+    }
+
+    private double average(AtomicLong totalNanos) {
+        long count = finished.get();
+        return count == 0 ? 0 : totalNanos.get() / 1e6 / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s: %d done, queue %d (max %d), wait avg %.1f ms max %.1f ms, run avg %.1f ms max %.1f ms",
+                name, finishedTasks(), queueDepth(), maxQueueDepth(),
+                averageWaitMillis(), maxWaitMillis(), averageRunMillis(), maxRunMillis());
+    }
+
+    private static ThreadFactory namedThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
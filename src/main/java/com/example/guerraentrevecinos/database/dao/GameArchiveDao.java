@@ -0,0 +1,85 @@
+package com.example.guerraentrevecinos.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import com.example.guerraentrevecinos.database.GameArchiveCodec;
+import com.example.guerraentrevecinos.database.entities.GameArchive;
+import com.example.guerraentrevecinos.database.entities.GameUnit;
+import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+import java.util.List;
+
+/**
+ * Moves finished games' detail rows into game_archives and reads them back.
+ * games, game_stats and player_summary are left alone, so statistics and
+ * history don't notice a game was archived.
+ */
+@Dao
+public abstract class GameArchiveDao {
+
+    // Oldest first, skips games already archived
+    @Query("SELECT game_id FROM games WHERE game_status = 'finished' AND finished_at < :finishedBefore " +
+            "AND NOT EXISTS (SELECT 1 FROM game_archives a WHERE a.game_id = games.game_id) " +
+            "ORDER BY finished_at ASC LIMIT :limit")
+    public abstract List<Integer> getArchivableGameIds(long finishedBefore, int limit);
+
+    @Query("SELECT * FROM game_archives WHERE game_id = :gameId")
+    public abstract GameArchive getArchive(int gameId);
+
+    @Insert
+    protected abstract void insertArchive(GameArchive archive);
+
+    @Query("SELECT * FROM game_units WHERE game_id = :gameId ORDER BY game_unit_id ASC")
+    protected abstract List<GameUnit> getUnits(int gameId);
+
+    @Query("SELECT * FROM moves WHERE game_id = :gameId ORDER BY move_id ASC")
+    protected abstract List<Move> getMoves(int gameId);
+
+    @Query("SELECT * FROM power_usages WHERE game_id = :gameId ORDER BY power_usage_id ASC")
+    protected abstract List<PowerUsage> getPowerUsages(int gameId);
+
+    @Query("SELECT code FROM game_events WHERE game_id = :gameId ORDER BY seq ASC")
+    protected abstract List<Integer> getEventCodes(int gameId);
+
+    @Query("DELETE FROM game_units WHERE game_id = :gameId")
+    protected abstract void deleteUnits(int gameId);
+
+    @Query("DELETE FROM moves WHERE game_id = :gameId")
+    protected abstract void deleteMoves(int gameId);
+
+    @Query("DELETE FROM power_usages WHERE game_id = :gameId")
+    protected abstract void deletePowerUsages(int gameId);
+
+    @Query("DELETE FROM game_events WHERE game_id = :gameId")
+    protected abstract void deleteEvents(int gameId);
+
+    // Packs each game into one archive row and deletes its detail rows, all in one transaction
+    @Transaction
+    public void archive(List<Integer> gameIds, long archivedAt) {
+        for (int gameId : gameIds) {
+            GameArchiveCodec.Packed packed = GameArchiveCodec.encode(loadLive(gameId));
+            insertArchive(new GameArchive(gameId, GameArchiveCodec.FORMAT, packed.data, packed.rawSize, archivedAt));
+            deleteUnits(gameId);
+            deleteMoves(gameId);
+            deletePowerUsages(gameId);
+            deleteEvents(gameId);
+        }
+    }
+
+    // Detail rows of any game, archived or not. Replay with detail.journal() and games.seed.
+    @Transaction
+    public GameArchiveCodec.Detail loadDetail(int gameId) {
+        GameArchive archive = getArchive(gameId);
+        if (archive != null) {
+            return GameArchiveCodec.decode(gameId, archive.getFormat(), archive.getData());
+        }
+        return loadLive(gameId);
+    }
+
+    private GameArchiveCodec.Detail loadLive(int gameId) {
+        return new GameArchiveCodec.Detail(gameId, getUnits(gameId), getMoves(gameId),
+                getPowerUsages(gameId), getEventCodes(gameId));
+    }
+}
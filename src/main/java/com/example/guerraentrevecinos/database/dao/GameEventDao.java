@@ -0,0 +1,21 @@
+package com.example.guerraentrevecinos.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import com.example.guerraentrevecinos.database.entities.GameEvent;
+import java.util.List;
+
+@Dao
+public interface GameEventDao {
+
+    @Insert
+    void insertAll(List<GameEvent> events);
+
+    // Packed events in journal order, feed to GameJournal.of
+    @Query("SELECT code FROM game_events WHERE game_id = :gameId ORDER BY seq ASC")
+    List<Integer> getCodesByGameId(int gameId);
+
+    @Query("SELECT COUNT(*) FROM game_events WHERE game_id = :gameId")
+    int getEventCount(int gameId);
+}
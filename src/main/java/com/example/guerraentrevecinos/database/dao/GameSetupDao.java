@@ -0,0 +1,42 @@
+package com.example.guerraentrevecinos.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Transaction;
+import com.example.guerraentrevecinos.database.entities.Game;
+import com.example.guerraentrevecinos.database.entities.GameStats;
+import com.example.guerraentrevecinos.database.entities.GameUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything a new game writes before the battle starts, committed as one
+ * transaction: one journal sync instead of one per unit.
+ */
+@Dao
+public abstract class GameSetupDao {
+
+    @Insert
+    protected abstract long insertGame(Game game);
+
+    @Insert
+    protected abstract void insertUnits(List<GameUnit> units);
+
+    @Insert
+    protected abstract void insertStats(List<GameStats> stats);
+
+    // Inserts the game, both armies and a stats row per player, returns the new game id.
+    // Units are stamped with the game id here, whatever they were built with.
+    @Transaction
+    public int createGame(Game game, List<GameUnit> units) {
+        int gameId = (int) insertGame(game);
+        for (GameUnit unit : units) {
+            unit.setGameId(gameId);
+        }
+        insertUnits(units);
+        insertStats(Arrays.asList(
+                new GameStats(gameId, game.getPlayer1Id()),
+                new GameStats(gameId, game.getPlayer2Id())));
+        return gameId;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.guerraentrevecinos.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import com.example.guerraentrevecinos.database.GameWriteBuffer;
+import com.example.guerraentrevecinos.database.entities.GameEvent;
+import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+import java.util.List;
+
+/**
+ * Commits a drained GameWriteBuffer. Stat counters are applied as one
+ * UPDATE per player, so trg_calculate_accuracy fires once per flush
+ * instead of once per attack.
+ */
+@Dao
+public abstract class GameWriteDao {
+
+    @Insert
+    protected abstract void insertMoves(List<Move> moves);
+
+    @Insert
+    protected abstract void insertPowerUsages(List<PowerUsage> powerUsages);
+
+    @Insert
+    protected abstract void insertEvents(List<GameEvent> events);
+
+    @Query("UPDATE game_stats SET total_attacks = total_attacks + :attacks, " +
+            "successful_hits = successful_hits + :hits, " +
+            "units_destroyed = units_destroyed + :destroyed, " +
+            "powers_used = powers_used + :powers " +
+            "WHERE game_id = :gameId AND player_id = :playerId")
+    protected abstract void addStatDeltas(int gameId, int playerId, int attacks, int hits, int destroyed, int powers);
+
+    @Query("UPDATE games SET game_status = 'finished', winner_id = :winnerId, current_round = :round, " +
+            "finished_at = :finishedAt WHERE game_id = :gameId")
+    protected abstract void finishGame(int gameId, int winnerId, int round, long finishedAt);
+
+    @Transaction
+    public void commit(GameWriteBuffer.Batch batch) {
+        if (!batch.moves.isEmpty()) insertMoves(batch.moves);
+        if (!batch.powerUsages.isEmpty()) insertPowerUsages(batch.powerUsages);
+        if (!batch.events.isEmpty()) insertEvents(batch.events);
+        for (int i = 0; i < batch.statPlayers.size(); i++) {
+            int[] deltas = batch.statDeltas.get(i);
+            addStatDeltas(batch.gameId, batch.statPlayers.get(i),
+                    deltas[GameWriteBuffer.ATTACKS], deltas[GameWriteBuffer.HITS],
+                    deltas[GameWriteBuffer.DESTROYED], deltas[GameWriteBuffer.POWERS]);
+        }
+    }
+
+    // Last flush and the result together, so a finished game never misses its final round
+    @Transaction
+    public void commitAndFinish(GameWriteBuffer.Batch batch, int winnerId, int round, long finishedAt) {
+        commit(batch);
+        finishGame(batch.gameId, winnerId, round, finishedAt);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.guerraentrevecinos.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.ColumnInfo;
+import androidx.room.Dao;
+import androidx.room.Query;
+import com.example.guerraentrevecinos.database.entities.PlayerSummary;
+import java.util.List;
+
+/**
+ * Read-only queries behind StatisticsActivity. Each screen section is a
+ * single query, so opening it costs the same however many games are stored.
+ */
+@Dao
+public interface StatisticsDao {
+
+    // Kept current by the trg_summary_* triggers, null if the player doesn't exist
+    @Query("SELECT * FROM player_summary WHERE player_id = :playerId")
+    LiveData<PlayerSummary> observePlayerSummary(int playerId);
+
+    // Finish time of the player's newest game, emits again whenever a game finishes
+    @Query("SELECT MAX(finished_at) FROM games " +
+            "WHERE game_status = 'finished' AND (player1_id = :playerId OR player2_id = :playerId)")
+    LiveData<Long> observeLatestFinish(int playerId);
+
+    // History page of finished games strictly older than the (finished_at, game_id) key, newest first.
+    // The redundant finished_at <= bound lets SQLite start the range on index_games_game_status_finished_at
+    // at the key, the OR alone can't, so a page costs the same at any depth.
+    @Query(HISTORY_ROW +
+            "AND g.finished_at <= :finishedAt " +
+            "AND (g.finished_at < :finishedAt OR (g.finished_at = :finishedAt AND g.game_id < :gameId)) " +
+            "ORDER BY g.finished_at DESC, g.game_id DESC LIMIT :limit")
+    List<HistoryRow> getHistoryPage(int playerId, long finishedAt, int gameId, int limit);
+
+    // Games finished after the (finished_at, game_id) key, newest first. Bounded the same way, so a
+    // refresh reads only the new games instead of everything down to the key.
+    @Query(HISTORY_ROW +
+            "AND g.finished_at >= :finishedAt " +
+            "AND (g.finished_at > :finishedAt OR (g.finished_at = :finishedAt AND g.game_id > :gameId)) " +
+            "ORDER BY g.finished_at DESC, g.game_id DESC")
+    List<HistoryRow> getHistoryNewerThan(int playerId, long finishedAt, int gameId);
+
+    String HISTORY_ROW = "SELECT g.game_id, g.winner_id, g.current_round, g.finished_at, " +
+            "COALESCE(s.total_attacks, 0) AS total_attacks, " +
+            "COALESCE(s.successful_hits, 0) AS successful_hits, " +
+            "COALESCE(s.units_destroyed, 0) AS units_destroyed " +
+            "FROM games g " +
+            "LEFT JOIN game_stats s ON s.game_id = g.game_id AND s.player_id = :playerId " +
+            "WHERE g.game_status = 'finished' AND (g.player1_id = :playerId OR g.player2_id = :playerId) ";
+
+    class HistoryRow {
+        @ColumnInfo(name = "game_id")
+        public int gameId;
+
+        @ColumnInfo(name = "winner_id")
+        public Integer winnerId;
+
+        @ColumnInfo(name = "current_round")
+        public int currentRound;
+
+        @ColumnInfo(name = "finished_at")
+        public Long finishedAt;
+
+        @ColumnInfo(name = "total_attacks")
+        public int totalAttacks;
+
+        @ColumnInfo(name = "successful_hits")
+        public int successfulHits;
+
+        @ColumnInfo(name = "units_destroyed")
+        public int unitsDestroyed;
+
+        public float getAccuracy() {
+            return totalAttacks > 0 ? (successfulHits * 100f) / totalAttacks : 0f;
+        }
+    }
+}
@@ -24,7 +24,9 @@ import androidx.room.PrimaryKey;
         },
         indices = {
                 @Index("player1_id"),
-                @Index("player2_id")
+                @Index("player2_id"),
+                @Index({"winner_id", "game_status"}),
+                @Index({"game_status", "finished_at"}) // history paging
         }
 )
 public class Game {
@@ -60,6 +62,9 @@ public class Game {
     @ColumnInfo(name = "finished_at")
     private Long finishedAt;
 
+    @ColumnInfo(name = "seed", defaultValue = "0")
+    private long seed; // GameRandom seed, replays the game together with its moves
+
     // Constructor
     public Game(int player1Id, int player2Id, String gameMode) {
         this.player1Id = player1Id;
@@ -101,4 +106,7 @@ public class Game {
 
     public Long getFinishedAt() { return finishedAt; }
     public void setFinishedAt(Long finishedAt) { this.finishedAt = finishedAt; }
+
+    public long getSeed() { return seed; }
+    public void setSeed(long seed) { this.seed = seed; }
 }
\ No newline at end of file
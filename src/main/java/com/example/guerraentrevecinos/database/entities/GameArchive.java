@@ -0,0 +1,65 @@
+package com.example.guerraentrevecinos.database.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.PrimaryKey;
+
+// A finished game's moves, power usages, units and journal, packed by GameArchiveCodec
+@Entity(
+        tableName = "game_archives",
+        foreignKeys = {
+                @ForeignKey(
+                        entity = Game.class,
+                        parentColumns = "game_id",
+                        childColumns = "game_id",
+                        onDelete = ForeignKey.CASCADE
+                )
+        }
+)
+public class GameArchive {
+
+    @PrimaryKey
+    @ColumnInfo(name = "game_id")
+    private int gameId;
+
+    @ColumnInfo(name = "format")
+    private int format; // GameArchiveCodec.FORMAT the blob was written with
+
+    @NonNull
+    @ColumnInfo(name = "data", typeAffinity = ColumnInfo.BLOB)
+    private byte[] data;
+
+    @ColumnInfo(name = "raw_size")
+    private int rawSize; // bytes before compression
+
+    @ColumnInfo(name = "archived_at")
+    private long archivedAt;
+
+    // Constructor
+    public GameArchive(int gameId, int format, @NonNull byte[] data, int rawSize, long archivedAt) {
+        this.gameId = gameId;
+        this.format = format;
+        this.data = data;
+        this.rawSize = rawSize;
+        this.archivedAt = archivedAt;
+    }
+
+    // Getters and Setters
+    public int getGameId() { return gameId; }
+    public void setGameId(int gameId) { this.gameId = gameId; }
+
+    public int getFormat() { return format; }
+    public void setFormat(int format) { this.format = format; }
+
+    @NonNull
+    public byte[] getData() { return data; }
+    public void setData(@NonNull byte[] data) { this.data = data; }
+
+    public int getRawSize() { return rawSize; }
+    public void setRawSize(int rawSize) { this.rawSize = rawSize; }
+
+    public long getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(long archivedAt) { this.archivedAt = archivedAt; }
+}
@@ -0,0 +1,55 @@
+package com.example.guerraentrevecinos.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+@Entity(
+        tableName = "game_events",
+        foreignKeys = {
+                @ForeignKey(
+                        entity = Game.class,
+                        parentColumns = "game_id",
+                        childColumns = "game_id",
+                        onDelete = ForeignKey.CASCADE
+                )
+        },
+        indices = {@Index(value = {"game_id", "seq"}, unique = true)}
+)
+public class GameEvent {
+
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "event_id")
+    private int eventId;
+
+    @ColumnInfo(name = "game_id")
+    private int gameId;
+
+    @ColumnInfo(name = "seq")
+    private int seq; // position in the game's journal
+
+    @ColumnInfo(name = "code")
+    private int code; // packed GameJournal event
+
+    // Constructor
+    public GameEvent(int gameId, int seq, int code) {
+        this.gameId = gameId;
+        this.seq = seq;
+        this.code = code;
+    }
+
+    // Getters and Setters
+    public int getEventId() { return eventId; }
+    public void setEventId(int eventId) { this.eventId = eventId; }
+
+    public int getGameId() { return gameId; }
+    public void setGameId(int gameId) { this.gameId = gameId; }
+
+    public int getSeq() { return seq; }
+    public void setSeq(int seq) { this.seq = seq; }
+
+    public int getCode() { return code; }
+    public void setCode(int code) { this.code = code; }
+}
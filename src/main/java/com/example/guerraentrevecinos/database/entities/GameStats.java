@@ -16,7 +16,7 @@ import androidx.room.PrimaryKey;
                         onDelete = ForeignKey.CASCADE
                 )
         },
-        indices = {@Index("game_id")}
+        indices = {@Index({"game_id", "player_id"})}
 )
 public class GameStats {
 
@@ -16,7 +16,10 @@ import androidx.room.PrimaryKey;
                         onDelete = ForeignKey.CASCADE
                 )
         },
-        indices = {@Index("game_id")}
+        indices = {
+                @Index({"game_id", "round_number"}),
+                @Index({"game_id", "attacking_player_id", "was_hit"})
+        }
 )
 public class Move {
 
@@ -2,9 +2,10 @@ package com.example.guerraentrevecinos.database.entities;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "players")
+@Entity(tableName = "players", indices = {@Index("is_ai")})
 public class Player {
 
     @PrimaryKey(autoGenerate = true)
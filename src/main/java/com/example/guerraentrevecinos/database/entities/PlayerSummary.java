@@ -0,0 +1,102 @@
+package com.example.guerraentrevecinos.database.entities;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.PrimaryKey;
+
+// One row per player, kept current by the trg_summary_* triggers in AppDatabase
+@Entity(
+        tableName = "player_summary",
+        foreignKeys = {
+                @ForeignKey(
+                        entity = Player.class,
+                        parentColumns = "player_id",
+                        childColumns = "player_id",
+                        onDelete = ForeignKey.CASCADE
+                )
+        }
+)
+public class PlayerSummary {
+
+    @PrimaryKey
+    @ColumnInfo(name = "player_id")
+    private int playerId;
+
+    @ColumnInfo(name = "total_games", defaultValue = "0")
+    private int totalGames; // started, like players.total_games
+
+    @ColumnInfo(name = "total_wins", defaultValue = "0")
+    private int totalWins;
+
+    @ColumnInfo(name = "total_losses", defaultValue = "0")
+    private int totalLosses;
+
+    @ColumnInfo(name = "current_win_streak", defaultValue = "0")
+    private int currentWinStreak;
+
+    @ColumnInfo(name = "best_win_streak", defaultValue = "0")
+    private int bestWinStreak;
+
+    @ColumnInfo(name = "best_accuracy", defaultValue = "0")
+    private float bestAccuracy;
+
+    @ColumnInfo(name = "most_units_destroyed", defaultValue = "0")
+    private int mostUnitsDestroyed;
+
+    @ColumnInfo(name = "fastest_win")
+    private Integer fastestWin; // rounds, null until the first win
+
+    @ColumnInfo(name = "total_attacks", defaultValue = "0")
+    private int totalAttacks; // finished games only
+
+    @ColumnInfo(name = "successful_hits", defaultValue = "0")
+    private int successfulHits;
+
+    // Constructor
+    public PlayerSummary(int playerId) {
+        this.playerId = playerId;
+    }
+
+    public float getOverallAccuracy() {
+        return totalAttacks > 0 ? (successfulHits * 100f) / totalAttacks : 0f;
+    }
+
+    public float getWinRate() {
+        return totalGames > 0 ? (totalWins * 100f) / totalGames : 0f;
+    }
+
+    // Getters and Setters
+    public int getPlayerId() { return playerId; }
+    public void setPlayerId(int playerId) { this.playerId = playerId; }
+
+    public int getTotalGames() { return totalGames; }
+    public void setTotalGames(int totalGames) { this.totalGames = totalGames; }
+
+    public int getTotalWins() { return totalWins; }
+    public void setTotalWins(int totalWins) { this.totalWins = totalWins; }
+
+    public int getTotalLosses() { return totalLosses; }
+    public void setTotalLosses(int totalLosses) { this.totalLosses = totalLosses; }
+
+    public int getCurrentWinStreak() { return currentWinStreak; }
+    public void setCurrentWinStreak(int currentWinStreak) { this.currentWinStreak = currentWinStreak; }
+
+    public int getBestWinStreak() { return bestWinStreak; }
+    public void setBestWinStreak(int bestWinStreak) { this.bestWinStreak = bestWinStreak; }
+
+    public float getBestAccuracy() { return bestAccuracy; }
+    public void setBestAccuracy(float bestAccuracy) { this.bestAccuracy = bestAccuracy; }
+
+    public int getMostUnitsDestroyed() { return mostUnitsDestroyed; }
+    public void setMostUnitsDestroyed(int mostUnitsDestroyed) { this.mostUnitsDestroyed = mostUnitsDestroyed; }
+
+    public Integer getFastestWin() { return fastestWin; }
+    public void setFastestWin(Integer fastestWin) { this.fastestWin = fastestWin; }
+
+    public int getTotalAttacks() { return totalAttacks; }
+    public void setTotalAttacks(int totalAttacks) { this.totalAttacks = totalAttacks; }
+
+    public int getSuccessfulHits() { return successfulHits; }
+    public void setSuccessfulHits(int successfulHits) { this.successfulHits = successfulHits; }
+}
@@ -2,9 +2,10 @@ package com.example.guerraentrevecinos.database.entities;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "units")
+@Entity(tableName = "units", indices = {@Index("unit_type")})
 public class Unit {
 
     @PrimaryKey(autoGenerate = true)
@@ -0,0 +1,133 @@
+package com.example.guerraentrevecinos.engine;
+
+import java.util.Random;
+
+/**
+ * Game rules shared by solo and multiplayer battles. The activities only
+ * decide what to draw; every state change goes through here.
+ */
+public final class BattleRules {
+
+    public static final int MAX_ROUNDS = 30;
+    public static final int NO_CHOICE = -1;
+    public static final int DUEL_NUMBERS = 4;
+
+    // Solo AI lands a real hit every AI_HIT_PATTERN attacks
+    public static final int AI_HIT_PATTERN = 3;
+
+    private static final UnitKind[] ARMY = {
+            UnitKind.SUNFLOWER, UnitKind.SUNFLOWER, UnitKind.SUNFLOWER,
+            UnitKind.ROSE, UnitKind.ROSE, UnitKind.DOG, UnitKind.CAT
+    };
+
+    // Colors a hit rose can turn, every color after RED
+    private static final int HIT_ROSE_COLORS = RoseColor.VALUES.length - 1;
+
+    private BattleRules() {}
+
+    // Mini-duel: the attack lands fully when the defender picked one of the attacker's numbers
+    public static boolean isDirectHit(int attackerChoice, int attackerSecondChoice, int defenderChoice) {
+        if (defenderChoice == NO_CHOICE) return false;
+        return defenderChoice == attackerChoice ||
+                (attackerSecondChoice != NO_CHOICE && defenderChoice == attackerSecondChoice);
+    }
+
+    /**
+     * Applies the result of a lost mini-duel to the unit in {@code slot}.
+     * A direct hit destroys the unit, otherwise it loses 1 HP. Abilities
+     * trigger here: the cat escapes death once, a surviving rose changes
+     * color and a surviving dog scares the attacker away for a turn.
+     */
+    public static HitResult applyHit(Garden garden, int slot, boolean directHit,
+                                     boolean dogFearEnabled, Random random) {
+        if (!garden.isAlive(slot)) {
+            throw new IllegalStateException("Unit in slot " + slot + " is already dead");
+        }
+
+        UnitKind kind = garden.kind(slot);
+        int health = directHit ? 0 : garden.health(slot) - 1;
+
+        if (health <= 0) {
+            if (kind == UnitKind.CAT && !garden.isAbilityUsed(slot) && teleportCat(garden, slot, random)) {
+                return HitResult.TELEPORTED;
+            }
+            garden.setHealth(slot, 0);
+            return HitResult.DESTROYED;
+        }
+
+        garden.setHealth(slot, health);
+
+        if (garden.isAbilityUsed(slot)) {
+            return HitResult.DAMAGED;
+        }
+
+        switch (kind) {
+            case ROSE:
+                garden.setRoseColor(slot, RoseColor.VALUES[1 + random.nextInt(HIT_ROSE_COLORS)]);
+                garden.setAbilityUsed(slot, true);
+                return HitResult.ROSE_COLOR_CHANGED;
+            case DOG:
+                if (!dogFearEnabled) return HitResult.DAMAGED;
+                garden.setDogFear(slot, true);
+                garden.setAbilityUsed(slot, true);
+                return HitResult.DOG_FEAR;
+            default:
+                return HitResult.DAMAGED;
+        }
+    }
+
+    // Cat jumps to a random empty cell and survives with 1 HP
+    private static boolean teleportCat(Garden garden, int slot, Random random) {
+        int target = garden.randomEmptyCell(random);
+        if (target < 0) return false;
+
+        garden.moveUnit(slot, Garden.rowOf(target), Garden.colOf(target));
+        garden.setHealth(slot, 1);
+        garden.setAbilityUsed(slot, true);
+        return true;
+    }
+
+    // Unit kinds of a full army, the same for every player
+    public static UnitKind[] armyKinds() {
+        return ARMY.clone();
+    }
+
+    // Places a full army on random free cells and returns the first slot used
+    public static int placeArmy(Garden garden, Random random) {
+        int first = garden.unitCount();
+        for (UnitKind kind : ARMY) {
+            int cell = garden.randomEmptyCell(random);
+            if (cell < 0) {
+                throw new IllegalStateException("No room left for " + kind.key());
+            }
+            garden.addUnit(Garden.rowOf(cell), Garden.colOf(cell), kind, Garden.MAX_HEALTH);
+        }
+        return first;
+    }
+
+    /**
+     * Cell the solo AI drops its rock on. Hit turns pick a unit that is not
+     * scared by a dog (any unit if all are), miss turns pick an empty cell and
+     * fall back to a unit when the garden is full. Returns -1 if no units are left.
+     */
+    public static int pickAiTarget(Garden target, boolean shouldHit, Random random) {
+        if (!shouldHit) {
+            int cell = target.randomEmptyCell(random);
+            if (cell >= 0) return cell;
+        }
+        // Rejection sampling stays uniform and O(1) expected: at most a couple of dogs are ever scared
+        long scared = target.dogFearMask();
+        if ((target.occupiedMask() & ~scared) == 0) return target.randomOccupiedCell(random);
+
+        int cell;
+        do {
+            cell = target.randomOccupiedCell(random);
+        } while ((scared & (1L << cell)) != 0);
+        return cell;
+    }
+
+    // Round limit reached: most units alive wins, ties go to the first player
+    public static boolean firstPlayerWinsOnRoundLimit(Garden first, Garden second) {
+        return first.aliveCount() >= second.aliveCount();
+    }
+}
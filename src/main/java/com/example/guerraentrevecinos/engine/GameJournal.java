@@ -0,0 +1,286 @@
+package com.example.guerraentrevecinos.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only log of every state change in a battle: placements, attacks
+ * and their outcomes, powers, fear wearing off and round ends. Each event
+ * is packed into one int, so a 30-round game is a few hundred bytes.
+ *
+ * Events record outcomes, not dice, so {@link #fold(int)} rebuilds the
+ * board without replaying the random streams. Slots are assigned in
+ * placement order, which matches the UnitPosition lists the activities
+ * journal from.
+ */
+public final class GameJournal {
+
+    // Event types
+    public static final int PLACE = 0;         // cell, value = UnitKind ordinal
+    public static final int MISS = 1;          // cell
+    public static final int HIT = 2;           // cell, value = HitResult ordinal, arg = new cell or rose color
+    public static final int BLOCKED = 3;       // cell, the fence took the hit
+    public static final int MOVE = 4;          // cell, arg = target cell
+    public static final int HEAL = 5;          // cell
+    public static final int FENCE = 6;         // cell
+    public static final int SPY = 7;           // cell = center of the 3x3 area
+    public static final int HOSE = 8;
+    public static final int FEAR_CLEARED = 9;
+    public static final int ROUND_END = 10;
+
+    // Layout: type(4) | side(1) | cell(6) | arg(6) | value(4)
+    private static final int SIDE_SHIFT = 4;
+    private static final int CELL_SHIFT = 5;
+    private static final int ARG_SHIFT = 11;
+    private static final int VALUE_SHIFT = 17;
+    private static final int CELL_MASK = 0x3F;
+    private static final int NIBBLE = 0xF;
+
+    private static final HitResult[] HIT_RESULTS = HitResult.values();
+
+    private int[] events = new int[64];
+    private int size = 0;
+
+    public static int encode(int type, GameState.Side side, int cell, int arg, int value) {
+        return type
+                | side.ordinal() << SIDE_SHIFT
+                | (cell & CELL_MASK) << CELL_SHIFT
+                | (arg & CELL_MASK) << ARG_SHIFT
+                | value << VALUE_SHIFT;
+    }
+
+    public static int typeOf(int code) {
+        return code & NIBBLE;
+    }
+
+    public static GameState.Side sideOf(int code) {
+        return (code >>> SIDE_SHIFT & 1) == 0 ? GameState.Side.PLAYER : GameState.Side.AI;
+    }
+
+    public static int cellOf(int code) {
+        return code >>> CELL_SHIFT & CELL_MASK;
+    }
+
+    public static int argOf(int code) {
+        return code >>> ARG_SHIFT & CELL_MASK;
+    }
+
+    public static int valueOf(int code) {
+        return code >>> VALUE_SHIFT & NIBBLE;
+    }
+
+    // Journal read back from storage, in append order
+    public static GameJournal of(List<Integer> codes) {
+        GameJournal journal = new GameJournal();
+        for (int code : codes) journal.append(code);
+        return journal;
+    }
+
+    public void append(int code) {
+        if (size == events.length) events = Arrays.copyOf(events, size * 2);
+        events[size++] = code;
+    }
+
+    // Every alive unit of the garden, in slot order
+    public void placeAll(GameState.Side side, Garden garden) {
+        for (int slot = 0; slot < garden.unitCount(); slot++) {
+            append(encode(PLACE, side, garden.cellOf(slot), 0, garden.kind(slot).ordinal()));
+        }
+    }
+
+    // side is always the garden the event happened in
+    public void miss(GameState.Side side, int cell) {
+        append(encode(MISS, side, cell, 0, 0));
+    }
+
+    // Outcome of BattleRules.applyHit, read back from the garden it was applied to
+    public void hit(GameState.Side side, int cell, HitResult result, Garden after, int slot) {
+        int arg = 0;
+        if (result == HitResult.TELEPORTED) arg = after.cellOf(slot);
+        if (result == HitResult.ROSE_COLOR_CHANGED) arg = after.rose(slot).ordinal();
+        append(encode(HIT, side, cell, arg, result.ordinal()));
+    }
+
+    public void blocked(GameState.Side side, int cell) {
+        append(encode(BLOCKED, side, cell, 0, 0));
+    }
+
+    public void move(GameState.Side side, int from, int to) {
+        append(encode(MOVE, side, from, to, 0));
+    }
+
+    public void heal(GameState.Side side, int cell) {
+        append(encode(HEAL, side, cell, 0, 0));
+    }
+
+    public void fence(GameState.Side side, int cell) {
+        append(encode(FENCE, side, cell, 0, 0));
+    }
+
+    public void spy(GameState.Side side, int centerCell) {
+        append(encode(SPY, side, centerCell, 0, 0));
+    }
+
+    public void hose(GameState.Side side) {
+        append(encode(HOSE, side, 0, 0, 0));
+    }
+
+    public void fearCleared(GameState.Side side) {
+        append(encode(FEAR_CLEARED, side, 0, 0, 0));
+    }
+
+    public void endRound() {
+        append(encode(ROUND_END, GameState.Side.PLAYER, 0, 0, 0));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int code(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Event " + index + " of " + size);
+        }
+        return events[index];
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(events, size);
+    }
+
+    // Board after every event
+    public Board fold() {
+        return fold(Integer.MAX_VALUE);
+    }
+
+    // Board at the start of the given round (1-based), or the latest one if the game is shorter
+    public Board fold(int round) {
+        Board board = new Board();
+        for (int i = 0; i < size; i++) {
+            // Placements come before round 1, anything else in the round is past its start
+            if (board.round >= round && typeOf(events[i]) != PLACE) break;
+            board.apply(events[i]);
+        }
+        return board;
+    }
+
+    /** Both gardens plus what the screens show on top of them, as of some event. */
+    public static final class Board {
+
+        private final Garden player = new Garden();
+        private final Garden ai = new Garden();
+        private int round = 1;
+        private final int[] fenceCell = {-1, -1};
+        private final long[] revealed = new long[2];
+
+        public Garden garden(GameState.Side side) {
+            return side == GameState.Side.PLAYER ? player : ai;
+        }
+
+        public int round() {
+            return round;
+        }
+
+        // Cell the side's fence is guarding, -1 if none
+        public int fenceCell(GameState.Side side) {
+            return fenceCell[side.ordinal()];
+        }
+
+        // Cells of the side's garden the opponent has seen
+        public long revealed(GameState.Side side) {
+            return revealed[side.ordinal()];
+        }
+
+        private void apply(int code) {
+            GameState.Side side = sideOf(code);
+            Garden garden = garden(side);
+            int s = side.ordinal();
+            int cell = cellOf(code);
+
+            switch (typeOf(code)) {
+                case PLACE:
+                    garden.addUnit(Garden.rowOf(cell), Garden.colOf(cell),
+                            UnitKind.byOrdinal(valueOf(code)), Garden.MAX_HEALTH);
+                    break;
+                case MISS:
+                    revealed[s] |= 1L << cell;
+                    break;
+                case HIT:
+                    revealed[s] |= 1L << cell;
+                    applyHit(garden, s, cell, HIT_RESULTS[valueOf(code)], argOf(code));
+                    break;
+                case BLOCKED:
+                    fenceCell[s] = -1;
+                    break;
+                case MOVE:
+                    int target = argOf(code);
+                    garden.moveUnit(slotAt(garden, cell), Garden.rowOf(target), Garden.colOf(target));
+                    if (fenceCell[s] == cell) fenceCell[s] = target;
+                    break;
+                case HEAL:
+                    garden.setHealth(slotAt(garden, cell), Garden.MAX_HEALTH);
+                    break;
+                case FENCE:
+                    fenceCell[s] = cell;
+                    break;
+                case SPY:
+                    revealed[s] |= area(cell);
+                    break;
+                case FEAR_CLEARED:
+                    garden.clearDogFear();
+                    break;
+                case ROUND_END:
+                    round++;
+                    break;
+                default:
+                    // HOSE only affects the next duel
+                    break;
+            }
+        }
+
+        private void applyHit(Garden garden, int s, int cell, HitResult result, int arg) {
+            int slot = slotAt(garden, cell);
+            switch (result) {
+                case DESTROYED:
+                    garden.setHealth(slot, 0);
+                    return;
+                case TELEPORTED:
+                    garden.moveUnit(slot, Garden.rowOf(arg), Garden.colOf(arg));
+                    revealed[s] |= 1L << arg;
+                    break;
+                case ROSE_COLOR_CHANGED:
+                    garden.setRoseColor(slot, RoseColor.byOrdinal(arg));
+                    break;
+                case DOG_FEAR:
+                    garden.setDogFear(slot, true);
+                    break;
+                default:
+                    garden.setHealth(slot, 1);
+                    return;
+            }
+            // Every surviving ability leaves the unit at 1 HP with its ability spent
+            garden.setHealth(slot, 1);
+            garden.setAbilityUsed(slot, true);
+        }
+
+        private static int slotAt(Garden garden, int cell) {
+            int slot = garden.slotAt(Garden.rowOf(cell), Garden.colOf(cell));
+            if (slot < 0) {
+                throw new IllegalStateException("Journal refers to an empty cell: " + cell);
+            }
+            return slot;
+        }
+
+        private static long area(int center) {
+            long area = 0;
+            int centerRow = Garden.rowOf(center);
+            int centerCol = Garden.colOf(center);
+            for (int row = centerRow - 1; row <= centerRow + 1; row++) {
+                for (int col = centerCol - 1; col <= centerCol + 1; col++) {
+                    if (Garden.inBounds(row, col)) area |= 1L << Garden.cell(row, col);
+                }
+            }
+            return area;
+        }
+    }
+}
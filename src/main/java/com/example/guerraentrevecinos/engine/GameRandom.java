@@ -0,0 +1,101 @@
+package com.example.guerraentrevecinos.engine;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeded randomness for one game. Everything random in a game (AI army,
+ * AI targets, abilities, duel numbers) draws from streams of the game seed,
+ * so the seed plus the player's moves replays the game bit for bit.
+ *
+ * Backed by {@link SplittableRandom} instead of the shared atomic seed of
+ * {@link Random}. Not thread-safe: give each thread its own {@link #stream}.
+ */
+public final class GameRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    // Independent streams of one game seed
+    public static final long SETUP_STREAM = 0;
+    public static final long BATTLE_STREAM = 1;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final SplittableRandom source;
+
+    public GameRandom(long seed) {
+        super(0L);
+        this.seed = seed;
+        this.source = new SplittableRandom(seed);
+    }
+
+    // Fresh seed for a new game
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Stream {@code index} of this seed. Depends only on the seed and the
+     * index, not on what was drawn before, so parallel workers get the same
+     * numbers however the work is split.
+     */
+    public GameRandom stream(long index) {
+        return new GameRandom(mix64(seed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    // Seed for a child generator, e.g. one mini-duel, taken from this stream
+    public long nextSeed() {
+        return source.nextLong();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return source.nextInt() >>> (32 - bits);
+    }
+
+    @Override
+    public int nextInt() {
+        return source.nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return source.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return source.nextLong();
+    }
+
+    @Override
+    public double nextDouble() {
+        return source.nextDouble();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return source.nextBoolean();
+    }
+
+    // Reseeding would break replays
+    @Override
+    public synchronized void setSeed(long seed) {
+        if (source != null) {
+            throw new UnsupportedOperationException("GameRandom seed is fixed");
+        }
+    }
+
+    // Stafford variant 13 finalizer, same mixing SplittableRandom uses
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.guerraentrevecinos.engine;
+
+import java.util.Random;
+
+/**
+ * Persistent state of a solo battle. Every transition returns a new state
+ * that shares the untouched garden and arrays with this one, and keeps a
+ * pointer back to it, so undo is {@link #previous()} and a search or replay
+ * scrubber can keep thousands of states alive cheaply.
+ *
+ * Engine-only: BattleActivity plays on mutable Gardens and has no
+ * save/restore path, a game is rebuilt from games.seed and its
+ * GameJournal. This is for search, replay tools and the benchmarks.
+ */
+public final class GameState {
+
+    public enum Side { PLAYER, AI }
+
+    private final GardenSnapshot player;
+    private final GardenSnapshot ai;
+    private final int round;
+    private final HitResult lastHit;
+    private final GameState previous;
+
+    private GameState(GardenSnapshot player, GardenSnapshot ai, int round,
+                      HitResult lastHit, GameState previous) {
+        this.player = player;
+        this.ai = ai;
+        this.round = round;
+        this.lastHit = lastHit;
+        this.previous = previous;
+    }
+
+    public static GameState initial(Garden player, Garden ai) {
+        return new GameState(GardenSnapshot.of(player), GardenSnapshot.of(ai), 1, null, null);
+    }
+
+    public GardenSnapshot garden(Side side) {
+        return side == Side.PLAYER ? player : ai;
+    }
+
+    public int round() {
+        return round;
+    }
+
+    // Result of the hit that produced this state, null for other transitions
+    public HitResult lastHit() {
+        return lastHit;
+    }
+
+    // State before the last transition, null for the initial state
+    public GameState previous() {
+        return previous;
+    }
+
+    // Same position without the history, lets older states be collected
+    public GameState detached() {
+        return new GameState(player, ai, round, lastHit, null);
+    }
+
+    public GameState nextRound() {
+        return new GameState(player.dogFearMask() == 0 ? player : clearFear(player),
+                ai, round + 1, null, this);
+    }
+
+    public GameState hit(Side side, int slot, boolean directHit, boolean dogFearEnabled, Random random) {
+        Garden garden = garden(side).toGarden();
+        HitResult hit = BattleRules.applyHit(garden, slot, directHit, dogFearEnabled, random);
+        return with(side, GardenSnapshot.of(garden, garden(side)), hit);
+    }
+
+    // Nighttime relocation; returns this state if the move is not allowed
+    public GameState move(Side side, int slot, int row, int col) {
+        Garden garden = garden(side).toGarden();
+        if (!garden.moveUnit(slot, row, col)) return this;
+        return with(side, GardenSnapshot.of(garden, garden(side)), null);
+    }
+
+    // Fertilizer
+    public GameState heal(Side side, int slot) {
+        Garden garden = garden(side).toGarden();
+        garden.setHealth(slot, Garden.MAX_HEALTH);
+        return with(side, GardenSnapshot.of(garden, garden(side)), null);
+    }
+
+    public boolean isOver(int maxRounds) {
+        return !player.hasUnitsLeft() || !ai.hasUnitsLeft() || round > maxRounds;
+    }
+
+    private GameState with(Side side, GardenSnapshot garden, HitResult hit) {
+        return side == Side.PLAYER
+                ? new GameState(garden, ai, round, hit, this)
+                : new GameState(player, garden, round, hit, this);
+    }
+
+    private static GardenSnapshot clearFear(GardenSnapshot snapshot) {
+        Garden garden = snapshot.toGarden();
+        garden.clearDogFear();
+        return GardenSnapshot.of(garden, snapshot);
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.guerraentrevecinos.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * One player's 8x8 garden stored as bitboards. Bit {@code i} is the cell at
+ * row {@code i / 8}, column {@code i % 8}.
+ *
+ * Units keep the slot they were added with, so a garden built from a list of
+ * units maps slot {@code n} back to list index {@code n}. Everything here is
+ * plain Java so the rules can run off the UI thread and in JVM tests.
+ */
+public final class Garden {
+
+    public static final int SIZE = 8;
+    public static final int CELLS = SIZE * SIZE;
+    public static final int MAX_HEALTH = 2;
+
+    private static final byte NO_SLOT = -1;
+
+    // Packed per-slot unit byte: kind ordinal in the low two bits, rose color ordinal above it
+    private static final int KIND_MASK = 0b11;
+    private static final int COLOR_SHIFT = 2;
+
+    // Bitboards, one bit per cell
+    private long occupied;     // alive unit on the cell
+    private long damaged;      // alive unit down to 1 HP
+    private long abilityUsed;  // unit on the cell already used its ability
+    private long dogFear;      // dog fear active on the cell
+
+    // Cell -> slot of the alive unit standing there
+    private final byte[] slotAt = new byte[CELLS];
+
+    // Sparse set over cells: cellOrder[0, alive) are occupied, the rest are empty.
+    // orderIndex is the inverse, so both halves can be sampled and updated in O(1).
+    private final byte[] cellOrder = new byte[CELLS];
+    private final byte[] orderIndex = new byte[CELLS];
+    private int alive = 0;
+
+    // Per-slot data
+    private final byte[] units = new byte[CELLS];
+    private final byte[] cells = new byte[CELLS];
+    private int unitCount = 0;
+
+    public Garden() {
+        Arrays.fill(slotAt, NO_SLOT);
+        for (int cell = 0; cell < CELLS; cell++) {
+            cellOrder[cell] = (byte) cell;
+            orderIndex[cell] = (byte) cell;
+        }
+    }
+
+    // Independent copy, used to replay a move on a scratch board
+    public Garden(Garden other) {
+        occupied = other.occupied;
+        damaged = other.damaged;
+        abilityUsed = other.abilityUsed;
+        dogFear = other.dogFear;
+        System.arraycopy(other.slotAt, 0, slotAt, 0, CELLS);
+        System.arraycopy(other.cellOrder, 0, cellOrder, 0, CELLS);
+        System.arraycopy(other.orderIndex, 0, orderIndex, 0, CELLS);
+        alive = other.alive;
+        System.arraycopy(other.units, 0, units, 0, other.unitCount);
+        System.arraycopy(other.cells, 0, cells, 0, other.unitCount);
+        unitCount = other.unitCount;
+    }
+
+    // Cell helpers
+    public static int cell(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    public static int rowOf(int cell) {
+        return cell / SIZE;
+    }
+
+    public static int colOf(int cell) {
+        return cell % SIZE;
+    }
+
+    public static boolean inBounds(int row, int col) {
+        return row >= 0 && row < SIZE && col >= 0 && col < SIZE;
+    }
+
+    private static long bit(int cell) {
+        return 1L << cell;
+    }
+
+    static byte pack(UnitKind kind, RoseColor color) {
+        return (byte) (kind.ordinal() | color.ordinal() << COLOR_SHIFT);
+    }
+
+    static UnitKind kindOf(byte unit) {
+        return UnitKind.VALUES[unit & KIND_MASK];
+    }
+
+    static RoseColor colorOf(byte unit) {
+        return RoseColor.VALUES[unit >>> COLOR_SHIFT];
+    }
+
+    // Same as addUnit(int, int, UnitKind, int) for a stored type key
+    public int addUnit(int row, int col, String type, int health) {
+        UnitKind kind = UnitKind.fromKey(type);
+        if (kind == null) {
+            throw new IllegalArgumentException("Unknown unit type: " + type);
+        }
+        return addUnit(row, col, kind, health);
+    }
+
+    // Adds a unit and returns its slot. Units with no health are kept as dead slots.
+    public int addUnit(int row, int col, UnitKind kind, int health) {
+        if (!inBounds(row, col)) {
+            throw new IllegalArgumentException("Cell out of bounds: (" + row + "," + col + ")");
+        }
+        if (unitCount >= CELLS) {
+            throw new IllegalStateException("Garden is full");
+        }
+
+        int slot = unitCount++;
+        int cell = cell(row, col);
+        units[slot] = pack(kind, RoseColor.RED);
+        cells[slot] = (byte) cell;
+
+        if (health > 0) {
+            if ((occupied & bit(cell)) != 0) {
+                throw new IllegalStateException("Cell already occupied: (" + row + "," + col + ")");
+            }
+            occupied |= bit(cell);
+            occupy(cell);
+            slotAt[cell] = (byte) slot;
+            if (health < MAX_HEALTH) damaged |= bit(cell);
+        }
+        return slot;
+    }
+
+    // O(1) cell queries
+    public int slotAt(int row, int col) {
+        return slotAt[cell(row, col)];
+    }
+
+    public boolean isOccupied(int row, int col) {
+        return (occupied & bit(cell(row, col))) != 0;
+    }
+
+    public long occupiedMask() {
+        return occupied;
+    }
+
+    public long emptyMask() {
+        return ~occupied;
+    }
+
+    public long damagedMask() {
+        return damaged;
+    }
+
+    public long abilityUsedMask() {
+        return abilityUsed;
+    }
+
+    public long dogFearMask() {
+        return dogFear;
+    }
+
+    public int aliveCount() {
+        return alive;
+    }
+
+    public boolean hasUnitsLeft() {
+        return occupied != 0;
+    }
+
+    public int unitCount() {
+        return unitCount;
+    }
+
+    // Per-slot queries
+    public boolean isAlive(int slot) {
+        return slotAt[cells[slot]] == slot;
+    }
+
+    public int cellOf(int slot) {
+        return cells[slot];
+    }
+
+    public int row(int slot) {
+        return rowOf(cells[slot]);
+    }
+
+    public int col(int slot) {
+        return colOf(cells[slot]);
+    }
+
+    public UnitKind kind(int slot) {
+        return kindOf(units[slot]);
+    }
+
+    // Stored key of the unit's kind, as used by UnitPosition and the database
+    public String type(int slot) {
+        return kind(slot).key();
+    }
+
+    public int health(int slot) {
+        if (!isAlive(slot)) return 0;
+        return (damaged & bit(cells[slot])) != 0 ? 1 : MAX_HEALTH;
+    }
+
+    public boolean isAbilityUsed(int slot) {
+        return isAlive(slot) && (abilityUsed & bit(cells[slot])) != 0;
+    }
+
+    public boolean isDogFearActive(int slot) {
+        return isAlive(slot) && (dogFear & bit(cells[slot])) != 0;
+    }
+
+    public RoseColor rose(int slot) {
+        return colorOf(units[slot]);
+    }
+
+    public String roseColor(int slot) {
+        return rose(slot).key();
+    }
+
+    byte packedUnit(int slot) {
+        return units[slot];
+    }
+
+    // Mutations
+    public void setHealth(int slot, int health) {
+        long mask = bit(cells[slot]);
+        if (health <= 0) {
+            if (isAlive(slot)) {
+                slotAt[cells[slot]] = NO_SLOT;
+                vacate(cells[slot]);
+            }
+            occupied &= ~mask;
+            damaged &= ~mask;
+            abilityUsed &= ~mask;
+            dogFear &= ~mask;
+            return;
+        }
+        if (!isAlive(slot)) {
+            throw new IllegalStateException("Cannot heal a dead unit in slot " + slot);
+        }
+        if (health < MAX_HEALTH) {
+            damaged |= mask;
+        } else {
+            damaged &= ~mask;
+        }
+    }
+
+    public void setAbilityUsed(int slot, boolean used) {
+        if (!isAlive(slot)) return;
+        long mask = bit(cells[slot]);
+        abilityUsed = used ? abilityUsed | mask : abilityUsed & ~mask;
+    }
+
+    public void setDogFear(int slot, boolean active) {
+        if (!isAlive(slot)) return;
+        long mask = bit(cells[slot]);
+        dogFear = active ? dogFear | mask : dogFear & ~mask;
+    }
+
+    // Dog fear only lasts one enemy turn
+    public void clearDogFear() {
+        dogFear = 0;
+    }
+
+    public void setRoseColor(int slot, RoseColor color) {
+        units[slot] = pack(kind(slot), color);
+    }
+
+    public void setRoseColor(int slot, String color) {
+        RoseColor rose = RoseColor.fromKey(color);
+        if (rose == null) {
+            throw new IllegalArgumentException("Unknown rose color: " + color);
+        }
+        setRoseColor(slot, rose);
+    }
+
+    // Moves an alive unit, carrying its bits along. Returns false if the target is off the board or taken.
+    public boolean moveUnit(int slot, int row, int col) {
+        if (!isAlive(slot) || !inBounds(row, col)) return false;
+
+        int from = cells[slot];
+        int to = cell(row, col);
+        if (from == to) return true;
+        if ((occupied & bit(to)) != 0) return false;
+
+        occupied = moveBit(occupied, from, to);
+        damaged = moveBit(damaged, from, to);
+        abilityUsed = moveBit(abilityUsed, from, to);
+        dogFear = moveBit(dogFear, from, to);
+
+        slotAt[from] = NO_SLOT;
+        slotAt[to] = (byte) slot;
+        cells[slot] = (byte) to;
+
+        // from sits in the occupied half and to in the empty half, trading places keeps both halves valid
+        swapOrder(orderIndex[from], orderIndex[to]);
+        return true;
+    }
+
+    private static long moveBit(long board, int from, int to) {
+        if ((board & bit(from)) == 0) return board;
+        return (board & ~bit(from)) | bit(to);
+    }
+
+    private void occupy(int cell) {
+        swapOrder(orderIndex[cell], alive);
+        alive++;
+    }
+
+    private void vacate(int cell) {
+        alive--;
+        swapOrder(orderIndex[cell], alive);
+    }
+
+    private void swapOrder(int i, int j) {
+        byte a = cellOrder[i];
+        byte b = cellOrder[j];
+        cellOrder[i] = b;
+        cellOrder[j] = a;
+        orderIndex[b] = (byte) i;
+        orderIndex[a] = (byte) j;
+    }
+
+    // O(1), allocation-free: a uniformly random empty cell, or -1 if the garden is full
+    public int randomEmptyCell(Random random) {
+        if (alive == CELLS) return -1;
+        return cellOrder[alive + random.nextInt(CELLS - alive)];
+    }
+
+    // O(1), allocation-free: the cell of a uniformly random alive unit, or -1 if none are left
+    public int randomOccupiedCell(Random random) {
+        if (alive == 0) return -1;
+        return cellOrder[random.nextInt(alive)];
+    }
+
+    // Picks a uniformly random cell from any bitboard in O(bits set), or -1 if it has no cells set
+    public static int randomCellIn(long mask, Random random) {
+        int count = Long.bitCount(mask);
+        if (count == 0) return -1;
+        return nthSetBit(mask, random.nextInt(count));
+    }
+
+    private static int nthSetBit(long board, int n) {
+        for (int i = 0; i < n; i++) {
+            board &= board - 1;
+        }
+        return Long.numberOfTrailingZeros(board);
+    }
+}
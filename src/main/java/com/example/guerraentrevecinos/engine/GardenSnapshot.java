@@ -0,0 +1,148 @@
+package com.example.guerraentrevecinos.engine;
+
+import java.util.Arrays;
+
+/**
+ * Immutable copy of a {@link Garden}. The bitboards are plain longs; the
+ * per-slot arrays are shared with the snapshot it was derived from unless
+ * the transition changed them, so a chain of snapshots costs a few longs
+ * per step. The packed unit bytes (kind and rose color) only change when a
+ * rose changes color; cells and the cell index are only copied when a unit
+ * moves.
+ */
+public final class GardenSnapshot {
+
+    private final long occupied;
+    private final long damaged;
+    private final long abilityUsed;
+    private final long dogFear;
+    private final int unitCount;
+
+    // Shared, never written after construction
+    private final byte[] units;
+    private final byte[] cells;
+    private final byte[] slotAt;
+
+    private GardenSnapshot(Garden garden, GardenSnapshot base) {
+        occupied = garden.occupiedMask();
+        damaged = garden.damagedMask();
+        abilityUsed = garden.abilityUsedMask();
+        dogFear = garden.dogFearMask();
+        unitCount = garden.unitCount();
+
+        boolean sameUnits = base != null && base.unitCount == unitCount;
+        boolean sameUnitBytes = sameUnits;
+        boolean sameCells = sameUnits;
+        for (int slot = 0; slot < unitCount && (sameUnitBytes || sameCells); slot++) {
+            sameUnitBytes &= base.units[slot] == garden.packedUnit(slot);
+            sameCells &= base.cells[slot] == garden.cellOf(slot);
+        }
+
+        if (sameUnitBytes) {
+            units = base.units;
+        } else {
+            units = new byte[unitCount];
+            for (int slot = 0; slot < unitCount; slot++) units[slot] = garden.packedUnit(slot);
+        }
+
+        if (sameCells) {
+            cells = base.cells;
+            slotAt = base.slotAt;
+        } else {
+            cells = new byte[unitCount];
+            slotAt = new byte[Garden.CELLS];
+            Arrays.fill(slotAt, (byte) -1);
+            for (int slot = 0; slot < unitCount; slot++) {
+                int cell = garden.cellOf(slot);
+                cells[slot] = (byte) cell;
+                if (garden.isAlive(slot)) slotAt[cell] = (byte) slot;
+            }
+        }
+    }
+
+    public static GardenSnapshot of(Garden garden) {
+        return new GardenSnapshot(garden, null);
+    }
+
+    // Snapshot of a garden edited from base, sharing whatever the edit left untouched
+    public static GardenSnapshot of(Garden garden, GardenSnapshot base) {
+        return new GardenSnapshot(garden, base);
+    }
+
+    // Mutable working copy to run the rules on
+    public Garden toGarden() {
+        Garden garden = new Garden();
+        for (int slot = 0; slot < unitCount; slot++) {
+            int cell = cells[slot];
+            garden.addUnit(Garden.rowOf(cell), Garden.colOf(cell), Garden.kindOf(units[slot]), health(slot));
+            garden.setRoseColor(slot, Garden.colorOf(units[slot]));
+            garden.setAbilityUsed(slot, (abilityUsed & (1L << cell)) != 0);
+            garden.setDogFear(slot, (dogFear & (1L << cell)) != 0);
+        }
+        return garden;
+    }
+
+    public int slotAt(int row, int col) {
+        int cell = Garden.cell(row, col);
+        return (occupied & (1L << cell)) != 0 ? slotAt[cell] : -1;
+    }
+
+    public boolean isAlive(int slot) {
+        int cell = cells[slot];
+        return (occupied & (1L << cell)) != 0 && slotAt[cell] == slot;
+    }
+
+    public int health(int slot) {
+        if (!isAlive(slot)) return 0;
+        return (damaged & (1L << cells[slot])) != 0 ? 1 : Garden.MAX_HEALTH;
+    }
+
+    public int cellOf(int slot) {
+        return cells[slot];
+    }
+
+    public UnitKind kind(int slot) {
+        return Garden.kindOf(units[slot]);
+    }
+
+    public String type(int slot) {
+        return kind(slot).key();
+    }
+
+    public RoseColor rose(int slot) {
+        return Garden.colorOf(units[slot]);
+    }
+
+    public String roseColor(int slot) {
+        return rose(slot).key();
+    }
+
+    public int unitCount() {
+        return unitCount;
+    }
+
+    public int aliveCount() {
+        return Long.bitCount(occupied);
+    }
+
+    public boolean hasUnitsLeft() {
+        return occupied != 0;
+    }
+
+    public long occupiedMask() {
+        return occupied;
+    }
+
+    public long dogFearMask() {
+        return dogFear;
+    }
+
+    // True if both snapshots share the given per-slot storage (for tests and memory checks)
+    boolean sharesCellsWith(GardenSnapshot other) {
+        return cells == other.cells;
+    }
+
+    boolean sharesUnitsWith(GardenSnapshot other) {
+        return units == other.units;
+    }
+}
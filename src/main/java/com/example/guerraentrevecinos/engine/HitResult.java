@@ -0,0 +1,14 @@
+package com.example.guerraentrevecinos.engine;
+
+// What happened to a unit after losing a mini-duel
+public enum HitResult {
+    DAMAGED,
+    ROSE_COLOR_CHANGED,
+    DOG_FEAR,
+    TELEPORTED,
+    DESTROYED;
+
+    public boolean unitSurvived() {
+        return this != DESTROYED;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.guerraentrevecinos.engine;
+
+/**
+ * Every power with its cooldown and button text. Tier 1 powers are always
+ * available, one tier 2 power is picked before the game and travels as
+ * {@link #key()} in the SELECTED_POWER extra.
+ */
+public enum Power {
+    GARDEN_HOSE("garden_hose", 1, PowerCooldowns.GARDEN_HOSE_COOLDOWN, "💧", "Hose", "hose"),
+    NIGHTTIME_RELOCATION("nighttime_relocation", 1, PowerCooldowns.NIGHTTIME_RELOCATION_COOLDOWN, "🌙", "Move", "move"),
+    SPY_DRONE("spy_drone", 2, PowerCooldowns.SPY_DRONE_COOLDOWN, "🐝", "Spy", "spy"),
+    FENCE_SHIELD("fence_shield", 2, PowerCooldowns.FENCE_SHIELD_COOLDOWN, "🛡️", "Fence", "fence"),
+    FERTILIZER("fertilizer", 2, PowerCooldowns.FERTILIZER_COOLDOWN, "🌱", "Heal", "fertilizer");
+
+    private final String key;
+    private final int tier;
+    private final int cooldown;
+    private final String icon;
+    private final String label;
+    private final String selectionMode;
+
+    Power(String key, int tier, int cooldown, String icon, String label, String selectionMode) {
+        this.key = key;
+        this.tier = tier;
+        this.cooldown = cooldown;
+        this.icon = icon;
+        this.label = label;
+        this.selectionMode = selectionMode;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public boolean isTier2() {
+        return tier == 2;
+    }
+
+    public int cooldown() {
+        return cooldown;
+    }
+
+    public String icon() {
+        return icon;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    // activePowerMode the battle screens switch into when the power is used
+    public String selectionMode() {
+        return selectionMode;
+    }
+
+    // Power for a stored key, or null if the key is unknown
+    public static Power fromKey(String key) {
+        if (key == null) return null;
+        switch (key) {
+            case "garden_hose":
+                return GARDEN_HOSE;
+            case "nighttime_relocation":
+                return NIGHTTIME_RELOCATION;
+            case "spy_drone":
+                return SPY_DRONE;
+            case "fence_shield":
+                return FENCE_SHIELD;
+            case "fertilizer":
+                return FERTILIZER;
+            default:
+                return null;
+        }
+    }
+}
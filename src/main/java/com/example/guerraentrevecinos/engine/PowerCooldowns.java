@@ -0,0 +1,89 @@
+package com.example.guerraentrevecinos.engine;
+
+/**
+ * Cooldown bookkeeping for one player's powers, counted in rounds. Shared by
+ * PowerManager and the simulator so both tick exactly the same way.
+ */
+public final class PowerCooldowns {
+
+    public static final int GARDEN_HOSE_COOLDOWN = 3;
+    public static final int NIGHTTIME_RELOCATION_COOLDOWN = 5;
+    public static final int SPY_DRONE_COOLDOWN = 4;
+    public static final int FENCE_SHIELD_COOLDOWN = 6;
+    public static final int FERTILIZER_COOLDOWN = 7;
+
+    private final int gardenHoseLength;
+    private final int nighttimeRelocationLength;
+    private final int tier2Length;
+
+    private int gardenHose = 0;
+    private int nighttimeRelocation = 0;
+    private int tier2 = 0;
+
+    public PowerCooldowns(int gardenHoseLength, int nighttimeRelocationLength, int tier2Length) {
+        this.gardenHoseLength = gardenHoseLength;
+        this.nighttimeRelocationLength = nighttimeRelocationLength;
+        this.tier2Length = tier2Length;
+    }
+
+    // Cooldowns the game ships with for the chosen tier 2 power
+    public static PowerCooldowns defaults(Power tier2Power) {
+        return new PowerCooldowns(GARDEN_HOSE_COOLDOWN, NIGHTTIME_RELOCATION_COOLDOWN,
+                defaultTier2Cooldown(tier2Power));
+    }
+
+    public static PowerCooldowns defaults(String tier2Power) {
+        return defaults(Power.fromKey(tier2Power));
+    }
+
+    public static int defaultTier2Cooldown(Power tier2Power) {
+        return tier2Power != null && tier2Power.isTier2() ? tier2Power.cooldown() : 0;
+    }
+
+    public static int defaultTier2Cooldown(String tier2Power) {
+        return defaultTier2Cooldown(Power.fromKey(tier2Power));
+    }
+
+    public boolean canUseGardenHose() {
+        return gardenHose <= 0;
+    }
+
+    public void useGardenHose() {
+        gardenHose = gardenHoseLength;
+    }
+
+    public boolean canUseNighttimeRelocation() {
+        return nighttimeRelocation <= 0;
+    }
+
+    public void useNighttimeRelocation() {
+        nighttimeRelocation = nighttimeRelocationLength;
+    }
+
+    public boolean canUseTier2Power() {
+        return tier2 <= 0;
+    }
+
+    public void useTier2Power() {
+        tier2 = tier2Length;
+    }
+
+    // Called once at the start of every round
+    public void decrement() {
+        if (gardenHose > 0) gardenHose--;
+        if (nighttimeRelocation > 0) nighttimeRelocation--;
+        if (tier2 > 0) tier2--;
+    }
+
+    public int getGardenHose() {
+        return gardenHose;
+    }
+
+    public int getNighttimeRelocation() {
+        return nighttimeRelocation;
+    }
+
+    public int getTier2() {
+        return tier2;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.guerraentrevecinos.engine;
+
+/**
+ * Rose colors. Every rose starts {@link #RED} and turns one of the other
+ * three the first time it survives a hit.
+ */
+public enum RoseColor {
+    RED("red"),
+    BLUE("blue"),
+    WHITE("white"),
+    BLACK("black");
+
+    static final RoseColor[] VALUES = values();
+
+    private final String key;
+
+    RoseColor(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public static RoseColor byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    // Color for a stored key, or null if the key is unknown
+    public static RoseColor fromKey(String key) {
+        if (key == null) return null;
+        switch (key) {
+            case "red":
+                return RED;
+            case "blue":
+                return BLUE;
+            case "white":
+                return WHITE;
+            case "black":
+                return BLACK;
+            default:
+                return null;
+        }
+    }
+}
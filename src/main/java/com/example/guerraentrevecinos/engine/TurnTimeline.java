@@ -0,0 +1,75 @@
+package com.example.guerraentrevecinos.engine;
+
+/**
+ * Sequences the delayed steps of a battle (rock falling, duel launch, next
+ * round, ...) through one scheduler instead of ad hoc Handlers.
+ *
+ * cancelAll() drops every pending step, close() also refuses new ones. In
+ * fast-forward mode every delay collapses to zero, so tests and simulations
+ * can run a whole game without waiting. Not thread-safe: use it from the
+ * thread the scheduler runs tasks on.
+ */
+public final class TurnTimeline {
+
+    /** Runs a task after a delay, on one fixed thread. */
+    public interface Scheduler {
+        void schedule(Runnable task, long delayMillis);
+
+        // Optional: drop queued tasks early instead of letting them no-op
+        default void cancelAll() {}
+    }
+
+    private final Scheduler scheduler;
+    private boolean fastForward;
+    private boolean closed = false;
+
+    // Bumped on cancel so steps queued before it are skipped
+    private int generation = 0;
+    private int pending = 0;
+
+    public TurnTimeline(Scheduler scheduler, boolean fastForward) {
+        this.scheduler = scheduler;
+        this.fastForward = fastForward;
+    }
+
+    public void after(long delayMillis, Runnable step) {
+        if (closed) return;
+
+        int scheduledIn = generation;
+        pending++;
+        scheduler.schedule(() -> {
+            if (scheduledIn != generation) return;
+            pending--;
+            if (!closed) step.run();
+        }, fastForward ? 0 : delayMillis);
+    }
+
+    public void cancelAll() {
+        generation++;
+        pending = 0;
+        scheduler.cancelAll();
+    }
+
+    public void close() {
+        closed = true;
+        cancelAll();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Steps scheduled and not yet run or cancelled
+    public int pendingSteps() {
+        return pending;
+    }
+
+    public boolean isFastForward() {
+        return fastForward;
+    }
+
+    // Only affects steps scheduled from now on
+    public void setFastForward(boolean fastForward) {
+        this.fastForward = fastForward;
+    }
+}
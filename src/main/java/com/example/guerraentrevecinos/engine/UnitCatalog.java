@@ -0,0 +1,51 @@
+package com.example.guerraentrevecinos.engine;
+
+/**
+ * Per-kind data from the seeded units table: row id, display name and base
+ * health, indexed by {@link UnitKind} ordinal. Filled once when the database
+ * is first read, so saving a game no longer queries the units table per unit.
+ * Kinds without a row keep id 0 and the engine defaults.
+ */
+public final class UnitCatalog {
+
+    private final int[] unitIds = new int[UnitKind.VALUES.length];
+    private final String[] names = new String[UnitKind.VALUES.length];
+    private final int[] baseHealth = new int[UnitKind.VALUES.length];
+
+    public UnitCatalog() {
+        for (UnitKind kind : UnitKind.VALUES) {
+            names[kind.ordinal()] = kind.key();
+            baseHealth[kind.ordinal()] = Garden.MAX_HEALTH;
+        }
+    }
+
+    // Records one units row. Returns false and ignores the row if its type is unknown.
+    public boolean put(String unitType, int unitId, String name, int health) {
+        UnitKind kind = UnitKind.fromKey(unitType);
+        if (kind == null) return false;
+        unitIds[kind.ordinal()] = unitId;
+        names[kind.ordinal()] = name;
+        baseHealth[kind.ordinal()] = health;
+        return true;
+    }
+
+    public int unitId(UnitKind kind) {
+        return unitIds[kind.ordinal()];
+    }
+
+    public String name(UnitKind kind) {
+        return names[kind.ordinal()];
+    }
+
+    public int baseHealth(UnitKind kind) {
+        return baseHealth[kind.ordinal()];
+    }
+
+    // True once every kind has a row id
+    public boolean isComplete() {
+        for (int id : unitIds) {
+            if (id == 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.guerraentrevecinos.engine;
+
+/**
+ * The four unit kinds. {@link #key()} is the string stored in the units
+ * table, intents and Firebase; inside the engine a unit is its ordinal.
+ */
+public enum UnitKind {
+    SUNFLOWER("sunflower", false),
+    ROSE("rose", true),
+    DOG("dog", true),
+    CAT("cat", true);
+
+    // values() clones on every call, hot paths index this instead
+    static final UnitKind[] VALUES = values();
+
+    private final String key;
+    private final boolean hasAbility;
+
+    UnitKind(String key, boolean hasAbility) {
+        this.key = key;
+        this.hasAbility = hasAbility;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public boolean hasAbility() {
+        return hasAbility;
+    }
+
+    public static UnitKind byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    // Kind for a stored key, or null if the key is unknown
+    public static UnitKind fromKey(String key) {
+        if (key == null) return null;
+        switch (key) {
+            case "sunflower":
+                return SUNFLOWER;
+            case "rose":
+                return ROSE;
+            case "dog":
+                return DOG;
+            case "cat":
+                return CAT;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.guerraentrevecinos.engine;
+
+import java.util.PriorityQueue;
+
+/**
+ * Single-threaded scheduler on a virtual clock. Tests and simulations drive
+ * it with advanceBy() or runUntilIdle() instead of waiting in real time.
+ */
+public final class VirtualScheduler implements TurnTimeline.Scheduler {
+
+    private static final class Task implements Comparable<Task> {
+        final long dueAt;
+        final long sequence;
+        final Runnable runnable;
+
+        Task(long dueAt, long sequence, Runnable runnable) {
+            this.dueAt = dueAt;
+            this.sequence = sequence;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (dueAt != other.dueAt) return Long.compare(dueAt, other.dueAt);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private long now = 0;
+    private long sequence = 0;
+
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        queue.add(new Task(now + Math.max(0, delayMillis), sequence++, task));
+    }
+
+    @Override
+    public void cancelAll() {
+        queue.clear();
+    }
+
+    // Runs everything due within the next delta milliseconds, in time order
+    public void advanceBy(long deltaMillis) {
+        long until = now + deltaMillis;
+        while (!queue.isEmpty() && queue.peek().dueAt <= until) {
+            Task task = queue.poll();
+            now = task.dueAt;
+            task.runnable.run();
+        }
+        now = until;
+    }
+
+    // Runs tasks, including ones they schedule, until nothing is left. Returns how many ran.
+    public int runUntilIdle() {
+        int ran = 0;
+        while (!queue.isEmpty()) {
+            Task task = queue.poll();
+            now = task.dueAt;
+            task.runnable.run();
+            ran++;
+        }
+        return ran;
+    }
+
+    public long now() {
+        return now;
+    }
+
+    public boolean isIdle() {
+        return queue.isEmpty();
+    }
+}
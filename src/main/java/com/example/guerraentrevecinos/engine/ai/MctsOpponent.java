@@ -0,0 +1,230 @@
+package com.example.guerraentrevecinos.engine.ai;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.HitResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Solo AI that picks its attack with Monte Carlo tree search over the
+ * information it legally has. Each iteration determinizes the hidden
+ * player garden from {@link OpponentKnowledge}, picks a root move with UCB1
+ * and plays the game out with the real {@link BattleRules}.
+ *
+ * Searches are time-boxed and root-parallel: every worker grows its own
+ * statistics until the deadline and the visit counts are summed. Nothing
+ * here touches Android, callbacks arrive on a search thread.
+ */
+public final class MctsOpponent {
+
+    public enum Difficulty {
+        EASY(25, 1),
+        NORMAL(80, 2),
+        HARD(150, 4);
+
+        public final long budgetMillis;
+        public final int threads;
+
+        Difficulty(long budgetMillis, int threads) {
+            this.budgetMillis = budgetMillis;
+            this.threads = threads;
+        }
+    }
+
+    private static final double EXPLORATION = 1.4;
+
+    private final Difficulty difficulty;
+    private final int maxRounds;
+    private final int threads;
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+
+    public MctsOpponent(Difficulty difficulty, int maxRounds) {
+        this.difficulty = difficulty;
+        this.maxRounds = maxRounds;
+        this.threads = Math.max(1, Math.min(difficulty.threads, Runtime.getRuntime().availableProcessors()));
+        this.coordinator = Executors.newSingleThreadExecutor(daemonThreads("mcts-coordinator"));
+        this.workers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, daemonThreads("mcts-worker")) : null;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Searches on a background thread and hands the chosen player-garden cell
+     * to {@code onTarget} from that thread. Both arguments must be copies the
+     * caller no longer mutates.
+     */
+    public void chooseTargetAsync(Garden own, OpponentKnowledge knowledge, long seed, IntConsumer onTarget) {
+        coordinator.execute(() -> onTarget.accept(chooseTarget(own, knowledge, seed)));
+    }
+
+    // Blocking search, returns the chosen cell within about the difficulty's budget
+    public int chooseTarget(Garden own, OpponentKnowledge knowledge, long seed) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(difficulty.budgetMillis);
+        long legal = knowledge.legalTargets();
+        GameRandom root = new GameRandom(seed);
+
+        List<Future<Node>> others = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            GameRandom stream = root.stream(i);
+            others.add(workers.submit(() -> search(own, knowledge, legal, deadline, stream)));
+        }
+
+        Node total = search(own, knowledge, legal, deadline, root.stream(0));
+        for (Future<Node> future : others) {
+            try {
+                total.merge(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("MCTS worker failed", e.getCause());
+            }
+        }
+        return total.mostVisited(legal);
+    }
+
+    public void shutdown() {
+        coordinator.shutdownNow();
+        if (workers != null) workers.shutdownNow();
+    }
+
+    // One worker's root statistics
+    private Node search(Garden own, OpponentKnowledge knowledge, long legal, long deadline, Random random) {
+        Node node = new Node();
+        do {
+            int cell = node.select(legal);
+            Garden player = knowledge.determinize(random);
+            boolean won = playOut(new Garden(own), player, knowledge.knownEmpty(), cell, knowledge.round(), random);
+            node.update(cell, won);
+        } while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted());
+        return node;
+    }
+
+    /**
+     * Plays from the AI's pending attack on {@code firstTarget} to the end of
+     * the game. Both sides follow the same light policy: finish off units
+     * they found, otherwise attack a cell not known to be empty. Returns
+     * true if the AI wins.
+     */
+    private boolean playOut(Garden ai, Garden player, long aiKnownEmpty, int firstTarget, int round, Random random) {
+        long aiKnownUnits = 0;
+        long playerKnownEmpty = 0;
+        long playerKnownUnits = 0;
+        int target = firstTarget;
+
+        while (true) {
+            // AI attack
+            player.clearDogFear();
+            int slot = player.slotAt(Garden.rowOf(target), Garden.colOf(target));
+            if (slot < 0) {
+                aiKnownEmpty |= 1L << target;
+            } else {
+                aiKnownUnits = attack(player, slot, true, aiKnownUnits, random);
+                if (!player.hasUnitsLeft()) return true;
+            }
+
+            round++;
+            if (round > maxRounds) return !BattleRules.firstPlayerWinsOnRoundLimit(player, ai);
+
+            // Player attack
+            int cell = pick(playerKnownUnits, ~playerKnownEmpty, random);
+            slot = ai.slotAt(Garden.rowOf(cell), Garden.colOf(cell));
+            if (slot < 0) {
+                playerKnownEmpty |= 1L << cell;
+            } else {
+                playerKnownUnits = attack(ai, slot, false, playerKnownUnits, random);
+                if (!ai.hasUnitsLeft()) return false;
+            }
+
+            target = pick(aiKnownUnits & ~player.dogFearMask(), ~aiKnownEmpty & ~player.dogFearMask(), random);
+        }
+    }
+
+    // Resolves a duel with uniform numbers on both sides and tracks where the unit is now seen
+    private static long attack(Garden garden, int slot, boolean dogFearEnabled, long knownUnits, Random random) {
+        int cell = garden.cellOf(slot);
+        boolean directHit = random.nextInt(BattleRules.DUEL_NUMBERS) == 0;
+        HitResult hit = BattleRules.applyHit(garden, slot, directHit, dogFearEnabled, random);
+
+        knownUnits &= ~(1L << cell);
+        if (hit.unitSurvived()) knownUnits |= 1L << garden.cellOf(slot);
+        return knownUnits;
+    }
+
+    private static int pick(long preferred, long fallback, Random random) {
+        if (preferred != 0) return Garden.randomCellIn(preferred, random);
+        if (fallback != 0) return Garden.randomCellIn(fallback, random);
+        return random.nextInt(Garden.CELLS);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Root of the search tree: one UCB1 arm per cell
+    private static final class Node {
+        private final int[] visits = new int[Garden.CELLS];
+        private final int[] wins = new int[Garden.CELLS];
+        private int total = 0;
+
+        int select(long legal) {
+            int best = -1;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            double logTotal = Math.log(total + 1);
+
+            for (long cells = legal; cells != 0; cells &= cells - 1) {
+                int cell = Long.numberOfTrailingZeros(cells);
+                if (visits[cell] == 0) return cell;
+
+                double score = (double) wins[cell] / visits[cell] +
+                        EXPLORATION * Math.sqrt(logTotal / visits[cell]);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = cell;
+                }
+            }
+            return best;
+        }
+
+        void update(int cell, boolean won) {
+            visits[cell]++;
+            if (won) wins[cell]++;
+            total++;
+        }
+
+        void merge(Node other) {
+            for (int cell = 0; cell < Garden.CELLS; cell++) {
+                visits[cell] += other.visits[cell];
+                wins[cell] += other.wins[cell];
+            }
+            total += other.total;
+        }
+
+        int mostVisited(long legal) {
+            int best = Long.numberOfTrailingZeros(legal);
+            for (long cells = legal; cells != 0; cells &= cells - 1) {
+                int cell = Long.numberOfTrailingZeros(cells);
+                if (visits[cell] > visits[best]) best = cell;
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.guerraentrevecinos.engine.ai;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.HitResult;
+import com.example.guerraentrevecinos.engine.UnitKind;
+
+import java.util.Random;
+
+/**
+ * What the AI has legally learned about the player's garden: cells it hit
+ * or missed, the unit types shown in mini-duels, announced teleports and
+ * dog fear, and the public units-remaining counter. The search only ever
+ * sees this, never the real garden.
+ */
+public final class OpponentKnowledge {
+
+    private static final UnitKind[] ARMY = BattleRules.armyKinds();
+    private static final int KINDS = UnitKind.values().length;
+
+    private static final long FIRST_COL = 0x0101010101010101L;
+    private static final long LAST_COL = FIRST_COL << (Garden.SIZE - 1);
+
+    private long knownEmpty = 0;
+    private long knownUnits = 0;
+    private long abilityUsed = 0;
+    private final UnitKind[] kinds = new UnitKind[Garden.CELLS];
+    private final int[] health = new int[Garden.CELLS];
+    private final int[] destroyed = new int[KINDS];
+
+    // Public at decision time
+    private long scared = 0;
+    private int playerAlive;
+    private int round = 1;
+
+    public OpponentKnowledge() {
+        playerAlive = ARMY.length;
+    }
+
+    public OpponentKnowledge(OpponentKnowledge other) {
+        knownEmpty = other.knownEmpty;
+        knownUnits = other.knownUnits;
+        abilityUsed = other.abilityUsed;
+        System.arraycopy(other.kinds, 0, kinds, 0, Garden.CELLS);
+        System.arraycopy(other.health, 0, health, 0, Garden.CELLS);
+        System.arraycopy(other.destroyed, 0, destroyed, 0, KINDS);
+        scared = other.scared;
+        playerAlive = other.playerAlive;
+        round = other.round;
+    }
+
+    // Copy for a search, with the public counters of the current turn
+    public OpponentKnowledge snapshot(int round, int playerAlive, long scaredCells) {
+        OpponentKnowledge copy = new OpponentKnowledge(this);
+        copy.round = round;
+        copy.playerAlive = playerAlive;
+        copy.scared = scaredCells;
+        return copy;
+    }
+
+    public void recordMiss(int cell) {
+        forget(cell);
+        knownEmpty |= 1L << cell;
+    }
+
+    /**
+     * The player used nighttime relocation. Which unit moved is hidden, so
+     * every empty cell next to a cell that may hold a unit could be occupied
+     * now, including the step a known unit may have taken.
+     */
+    public void recordRelocation() {
+        knownEmpty &= ~neighbours(~knownEmpty);
+    }
+
+    // Duel shown the unit but a fence absorbed the hit
+    public void recordBlocked(int cell, UnitKind kind) {
+        if ((knownUnits & (1L << cell)) == 0) remember(cell, kind, Garden.MAX_HEALTH);
+    }
+
+    public void recordHit(int cell, UnitKind kind, HitResult hit, int newCell, int newHealth) {
+        boolean usedBefore = (abilityUsed & (1L << cell)) != 0;
+        forget(cell);
+
+        switch (hit) {
+            case DESTROYED:
+                knownEmpty |= 1L << cell;
+                destroyed[kind.ordinal()]++;
+                break;
+            case TELEPORTED:
+                knownEmpty |= 1L << cell;
+                remember(newCell, kind, newHealth);
+                abilityUsed |= 1L << newCell;
+                break;
+            case ROSE_COLOR_CHANGED:
+            case DOG_FEAR:
+                remember(cell, kind, newHealth);
+                abilityUsed |= 1L << cell;
+                break;
+            default:
+                remember(cell, kind, newHealth);
+                if (usedBefore) abilityUsed |= 1L << cell;
+                break;
+        }
+    }
+
+    private void remember(int cell, UnitKind kind, int hp) {
+        long bit = 1L << cell;
+        knownEmpty &= ~bit;
+        knownUnits |= bit;
+        kinds[cell] = kind;
+        health[cell] = hp;
+    }
+
+    private void forget(int cell) {
+        long bit = 1L << cell;
+        knownUnits &= ~bit;
+        abilityUsed &= ~bit;
+        kinds[cell] = null;
+    }
+
+    // Cells one orthogonal step from any cell of the mask
+    static long neighbours(long cells) {
+        return cells << Garden.SIZE | cells >>> Garden.SIZE
+                | (cells << 1) & ~FIRST_COL | (cells >>> 1) & ~LAST_COL;
+    }
+
+    public long knownEmpty() {
+        return knownEmpty;
+    }
+
+    public long knownUnits() {
+        return knownUnits;
+    }
+
+    public long scared() {
+        return scared;
+    }
+
+    public int round() {
+        return round;
+    }
+
+    public int playerAlive() {
+        return playerAlive;
+    }
+
+    // Cells the AI may attack this turn: not known empty and not a scared dog
+    public long legalTargets() {
+        long targets = ~knownEmpty & ~scared;
+        return targets != 0 ? targets : ~scared;
+    }
+
+    /**
+     * One garden consistent with everything known: known units where they were
+     * seen, the rest of the army spread over cells not known to be empty.
+     */
+    public Garden determinize(Random random) {
+        Garden garden = new Garden();
+        int[] remaining = remainingKindCounts();
+
+        long units = knownUnits;
+        while (units != 0 && garden.aliveCount() < playerAlive) {
+            int cell = Long.numberOfTrailingZeros(units);
+            units &= units - 1;
+            int slot = garden.addUnit(Garden.rowOf(cell), Garden.colOf(cell), kinds[cell], health[cell]);
+            if ((abilityUsed & (1L << cell)) != 0) garden.setAbilityUsed(slot, true);
+            if ((scared & (1L << cell)) != 0) garden.setDogFear(slot, true);
+            int kind = kinds[cell].ordinal();
+            if (remaining[kind] > 0) remaining[kind]--;
+        }
+
+        int next = 0;
+        while (garden.aliveCount() < playerAlive) {
+            while (next < ARMY.length && remaining[ARMY[next].ordinal()] == 0) next++;
+            UnitKind kind = next < ARMY.length ? ARMY[next] : UnitKind.SUNFLOWER;
+            if (next < ARMY.length) remaining[kind.ordinal()]--;
+
+            long free = ~knownEmpty & garden.emptyMask();
+            int cell = Garden.randomCellIn(free != 0 ? free : garden.emptyMask(), random);
+            garden.addUnit(Garden.rowOf(cell), Garden.colOf(cell), kind, Garden.MAX_HEALTH);
+        }
+        return garden;
+    }
+
+    // How many of each kind could still be hidden, by UnitKind ordinal
+    private int[] remainingKindCounts() {
+        int[] counts = new int[KINDS];
+        for (UnitKind kind : ARMY) {
+            counts[kind.ordinal()]++;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.max(0, counts[i] - destroyed[i]);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.guerraentrevecinos.engine.sim;
+
+import com.example.guerraentrevecinos.engine.Garden;
+
+import java.util.Random;
+
+/**
+ * Uses every power as soon as it is off cooldown and finishes off revealed
+ * units before exploring.
+ */
+public class GreedyPolicy extends RandomPolicy {
+
+    private static final int[][] STEPS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    @Override
+    public void usePowers(SoloGame game, Random random) {
+        game.useGardenHose();
+
+        Garden own = game.playerGarden();
+        int damaged = firstDamagedSlot(own);
+
+        // Move a wounded unit away from where the AI already found it
+        if (damaged >= 0) {
+            relocate(game, own, damaged, random);
+        }
+
+        switch (game.tier2Power()) {
+            case SPY_DRONE:
+                game.useSpyDrone(Garden.randomCellIn(~game.knownEmptyCells() & ~game.knownEnemyUnits(), random));
+                break;
+            case FENCE_SHIELD:
+                int cell = Garden.randomCellIn(own.occupiedMask(), random);
+                if (damaged >= 0) {
+                    game.useFenceShield(damaged);
+                } else if (cell >= 0) {
+                    game.useFenceShield(own.slotAt(Garden.rowOf(cell), Garden.colOf(cell)));
+                }
+                break;
+            case FERTILIZER:
+                if (damaged >= 0) game.useFertilizer(damaged);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public int chooseAttack(SoloGame game, Random random) {
+        int known = Garden.randomCellIn(game.knownEnemyUnits(), random);
+        return known >= 0 ? known : super.chooseAttack(game, random);
+    }
+
+    // One step in a random direction that is on the board and empty
+    private static void relocate(SoloGame game, Garden own, int slot, Random random) {
+        int start = random.nextInt(STEPS.length);
+        for (int i = 0; i < STEPS.length; i++) {
+            int[] step = STEPS[(start + i) % STEPS.length];
+            int row = own.row(slot) + step[0];
+            int col = own.col(slot) + step[1];
+            if (Garden.inBounds(row, col) && !own.isOccupied(row, col)) {
+                game.useNighttimeRelocation(slot, step[0], step[1]);
+                return;
+            }
+        }
+    }
+
+    private static int firstDamagedSlot(Garden garden) {
+        for (int slot = 0; slot < garden.unitCount(); slot++) {
+            if (garden.isAlive(slot) && garden.health(slot) < Garden.MAX_HEALTH) return slot;
+        }
+        return -1;
+    }
+}
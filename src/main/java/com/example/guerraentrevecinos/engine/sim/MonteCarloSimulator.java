@@ -0,0 +1,48 @@
+package com.example.guerraentrevecinos.engine.sim;
+
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.Power;
+
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Plays many solo games across all cores. Game {@code n} plays on stream
+ * {@code n} of the batch seed, so a batch gives the same report no matter
+ * how the games are split between threads.
+ */
+public final class MonteCarloSimulator {
+
+    private MonteCarloSimulator() {}
+
+    public static SimulationReport run(SimulationConfig config, Supplier<? extends PlayerPolicy> policy,
+                                       long games, long seed) {
+        GameRandom batch = new GameRandom(seed);
+        return LongStream.range(0, games)
+                .parallel()
+                .mapToObj(index -> new SoloGame(config, policy.get(), batch.stream(index)).play())
+                .collect(SimulationReport::new, SimulationReport::add, SimulationReport::merge);
+    }
+
+    // Sweeps the AI hit pattern for each tier 2 power. Args: [games] [seed]
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        Power[] tier2Powers = {Power.SPY_DRONE, Power.FENCE_SHIELD, Power.FERTILIZER};
+        for (Power tier2Power : tier2Powers) {
+            for (int hitPattern = 2; hitPattern <= 4; hitPattern++) {
+                SimulationConfig config = SimulationConfig.defaults(tier2Power).withAiHitPattern(hitPattern);
+
+                long start = System.nanoTime();
+                SimulationReport random = run(config, RandomPolicy::new, games, seed);
+                SimulationReport greedy = run(config, GreedyPolicy::new, games, seed);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+
+                System.out.println(config + " (" + millis + " ms)");
+                System.out.println("  random: " + random);
+                System.out.println("  greedy: " + greedy);
+            }
+        }
+    }
+}
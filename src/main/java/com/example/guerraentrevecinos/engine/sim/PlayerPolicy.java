@@ -0,0 +1,20 @@
+package com.example.guerraentrevecinos.engine.sim;
+
+import java.util.Random;
+
+/**
+ * Decisions the human makes in a solo game. Policies only get what the player
+ * can see: their own garden and what has been revealed of the AI's.
+ * Implementations must be safe to share between threads or be created per game.
+ */
+public interface PlayerPolicy {
+
+    // Start of the player's turn, powers are used through the game's use* methods
+    void usePowers(SoloGame game, Random random);
+
+    // Cell of the AI garden to attack
+    int chooseAttack(SoloGame game, Random random);
+
+    // Mini-duel number, 1..BattleRules.DUEL_NUMBERS
+    int chooseDuelNumber(SoloGame game, Random random);
+}
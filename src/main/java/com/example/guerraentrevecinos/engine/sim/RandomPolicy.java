@@ -0,0 +1,27 @@
+package com.example.guerraentrevecinos.engine.sim;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+
+import java.util.Random;
+
+/**
+ * Baseline player: never uses powers and attacks any cell not known to be empty.
+ */
+public class RandomPolicy implements PlayerPolicy {
+
+    @Override
+    public void usePowers(SoloGame game, Random random) {
+    }
+
+    @Override
+    public int chooseAttack(SoloGame game, Random random) {
+        int cell = Garden.randomCellIn(~game.knownEmptyCells(), random);
+        return cell >= 0 ? cell : random.nextInt(Garden.CELLS);
+    }
+
+    @Override
+    public int chooseDuelNumber(SoloGame game, Random random) {
+        return 1 + random.nextInt(BattleRules.DUEL_NUMBERS);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.guerraentrevecinos.engine.sim;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Power;
+import com.example.guerraentrevecinos.engine.PowerCooldowns;
+
+/**
+ * Balance knobs for one simulated configuration. {@link #defaults(Power)}
+ * matches what the game ships with.
+ */
+public final class SimulationConfig {
+
+    public final Power tier2Power;
+    public final int aiHitPattern;
+    public final int maxRounds;
+    public final int gardenHoseCooldown;
+    public final int nighttimeRelocationCooldown;
+    public final int tier2Cooldown;
+
+    public SimulationConfig(Power tier2Power, int aiHitPattern, int maxRounds,
+                            int gardenHoseCooldown, int nighttimeRelocationCooldown, int tier2Cooldown) {
+        if (aiHitPattern <= 0) {
+            throw new IllegalArgumentException("aiHitPattern must be positive: " + aiHitPattern);
+        }
+        if (maxRounds <= 0) {
+            throw new IllegalArgumentException("maxRounds must be positive: " + maxRounds);
+        }
+        this.tier2Power = tier2Power;
+        this.aiHitPattern = aiHitPattern;
+        this.maxRounds = maxRounds;
+        this.gardenHoseCooldown = gardenHoseCooldown;
+        this.nighttimeRelocationCooldown = nighttimeRelocationCooldown;
+        this.tier2Cooldown = tier2Cooldown;
+    }
+
+    public static SimulationConfig defaults(Power tier2Power) {
+        return new SimulationConfig(tier2Power, BattleRules.AI_HIT_PATTERN, BattleRules.MAX_ROUNDS,
+                PowerCooldowns.GARDEN_HOSE_COOLDOWN, PowerCooldowns.NIGHTTIME_RELOCATION_COOLDOWN,
+                PowerCooldowns.defaultTier2Cooldown(tier2Power));
+    }
+
+    public SimulationConfig withAiHitPattern(int aiHitPattern) {
+        return new SimulationConfig(tier2Power, aiHitPattern, maxRounds,
+                gardenHoseCooldown, nighttimeRelocationCooldown, tier2Cooldown);
+    }
+
+    public SimulationConfig withMaxRounds(int maxRounds) {
+        return new SimulationConfig(tier2Power, aiHitPattern, maxRounds,
+                gardenHoseCooldown, nighttimeRelocationCooldown, tier2Cooldown);
+    }
+
+    public SimulationConfig withCooldowns(int gardenHose, int nighttimeRelocation, int tier2) {
+        return new SimulationConfig(tier2Power, aiHitPattern, maxRounds,
+                gardenHose, nighttimeRelocation, tier2);
+    }
+
+    PowerCooldowns newCooldowns() {
+        return new PowerCooldowns(gardenHoseCooldown, nighttimeRelocationCooldown, tier2Cooldown);
+    }
+
+    @Override
+    public String toString() {
+        return tier2Power + " hitPattern=" + aiHitPattern + " maxRounds=" + maxRounds +
+                " cooldowns=" + gardenHoseCooldown + "/" + nighttimeRelocationCooldown + "/" + tier2Cooldown;
+    }
+}
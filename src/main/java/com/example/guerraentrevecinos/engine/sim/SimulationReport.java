@@ -0,0 +1,64 @@
+package com.example.guerraentrevecinos.engine.sim;
+
+import java.util.Locale;
+
+/**
+ * Totals for a batch of simulated games. Mutable so it can be used as a
+ * parallel stream collector; merge() combines partial results.
+ */
+public final class SimulationReport {
+
+    private long games = 0;
+    private long wins = 0;
+    private long totalRounds = 0;
+    private final long[] powerUses = new long[3];
+
+    public void add(SoloGame game) {
+        games++;
+        if (game.isPlayerWon()) wins++;
+        totalRounds += game.rounds();
+        for (int power = 0; power < powerUses.length; power++) {
+            powerUses[power] += game.powerUses(power);
+        }
+    }
+
+    public void merge(SimulationReport other) {
+        games += other.games;
+        wins += other.wins;
+        totalRounds += other.totalRounds;
+        for (int power = 0; power < powerUses.length; power++) {
+            powerUses[power] += other.powerUses[power];
+        }
+    }
+
+    public long games() {
+        return games;
+    }
+
+    public long wins() {
+        return wins;
+    }
+
+    public double winRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    public double averageRounds() {
+        return games == 0 ? 0 : (double) totalRounds / games;
+    }
+
+    // Average uses per game of SoloGame.GARDEN_HOSE, NIGHTTIME_RELOCATION or TIER2
+    public double averagePowerUses(int power) {
+        return games == 0 ? 0 : (double) powerUses[power] / games;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "games=%d winRate=%.4f avgRounds=%.2f hose=%.2f relocation=%.2f tier2=%.2f",
+                games, winRate(), averageRounds(),
+                averagePowerUses(SoloGame.GARDEN_HOSE),
+                averagePowerUses(SoloGame.NIGHTTIME_RELOCATION),
+                averagePowerUses(SoloGame.TIER2));
+    }
+}
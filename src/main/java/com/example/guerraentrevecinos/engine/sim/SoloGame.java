@@ -0,0 +1,239 @@
+package com.example.guerraentrevecinos.engine.sim;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.HitResult;
+import com.example.guerraentrevecinos.engine.Power;
+import com.example.guerraentrevecinos.engine.PowerCooldowns;
+
+import java.util.Random;
+
+/**
+ * One headless solo-vs-AI game, following the turn order of BattleActivity:
+ * player turn, AI turn, cooldowns tick, next round. All rules come from
+ * {@link BattleRules}; only the human's decisions are delegated to a
+ * {@link PlayerPolicy}.
+ */
+public final class SoloGame {
+
+    // Indices for powerUses()
+    public static final int GARDEN_HOSE = 0;
+    public static final int NIGHTTIME_RELOCATION = 1;
+    public static final int TIER2 = 2;
+
+    private final SimulationConfig config;
+    private final PlayerPolicy policy;
+    private final Random random;
+
+    private final Garden player = new Garden();
+    private final Garden ai = new Garden();
+    private final PowerCooldowns cooldowns;
+
+    // What the player has seen of the AI garden
+    private long knownEnemyUnits = 0;
+    private long knownEmptyCells = 0;
+
+    private boolean gardenHoseActive = false;
+    private int fenceSlot = -1;
+    private int aiAttackCount = 0;
+    private int round = 1;
+    private final int[] powerUses = new int[3];
+
+    private boolean finished = false;
+    private boolean playerWon = false;
+
+    public SoloGame(SimulationConfig config, PlayerPolicy policy, Random random) {
+        this.config = config;
+        this.policy = policy;
+        this.random = random;
+        this.cooldowns = config.newCooldowns();
+
+        BattleRules.placeArmy(player, random);
+        BattleRules.placeArmy(ai, random);
+    }
+
+    // Plays the game to the end
+    public SoloGame play() {
+        while (!finished) {
+            playerTurn();
+            if (!ai.hasUnitsLeft()) {
+                finish(true);
+                break;
+            }
+
+            aiTurn();
+            if (!player.hasUnitsLeft()) {
+                finish(false);
+                break;
+            }
+
+            round++;
+            cooldowns.decrement();
+            if (round > config.maxRounds) {
+                finish(BattleRules.firstPlayerWinsOnRoundLimit(player, ai));
+            }
+        }
+        return this;
+    }
+
+    private void finish(boolean won) {
+        finished = true;
+        playerWon = won;
+    }
+
+    private void playerTurn() {
+        policy.usePowers(this, random);
+
+        int cell = policy.chooseAttack(this, random);
+        int slot = ai.slotAt(Garden.rowOf(cell), Garden.colOf(cell));
+        if (slot < 0) {
+            knownEmptyCells |= 1L << cell;
+            return;
+        }
+
+        int attack = policy.chooseDuelNumber(this, random);
+        int second = BattleRules.NO_CHOICE;
+        if (gardenHoseActive) {
+            do {
+                second = policy.chooseDuelNumber(this, random);
+            } while (second == attack);
+            gardenHoseActive = false;
+        }
+        int defense = 1 + random.nextInt(BattleRules.DUEL_NUMBERS);
+
+        HitResult hit = BattleRules.applyHit(ai, slot, BattleRules.isDirectHit(attack, second, defense), false, random);
+
+        // The player sees where the unit ended up
+        knownEnemyUnits &= ~(1L << cell);
+        if (hit == HitResult.TELEPORTED) {
+            long target = 1L << ai.cellOf(slot);
+            knownEnemyUnits |= target;
+            knownEmptyCells = (knownEmptyCells & ~target) | (1L << cell);
+        } else if (hit.unitSurvived()) {
+            knownEnemyUnits |= 1L << cell;
+        } else {
+            knownEmptyCells |= 1L << cell;
+        }
+    }
+
+    private void aiTurn() {
+        aiAttackCount++;
+        boolean shouldHit = aiAttackCount % config.aiHitPattern == 0;
+
+        int cell = BattleRules.pickAiTarget(player, shouldHit, random);
+        player.clearDogFear();
+
+        int slot = player.slotAt(Garden.rowOf(cell), Garden.colOf(cell));
+        if (slot < 0) return;
+
+        int attack = 1 + random.nextInt(BattleRules.DUEL_NUMBERS);
+        int defense = policy.chooseDuelNumber(this, random);
+
+        if (slot == fenceSlot) {
+            fenceSlot = -1;
+            return;
+        }
+
+        BattleRules.applyHit(player, slot, BattleRules.isDirectHit(attack, BattleRules.NO_CHOICE, defense), true, random);
+    }
+
+    // Powers, each returns false if it could not be used right now
+    public boolean useGardenHose() {
+        if (gardenHoseActive || !cooldowns.canUseGardenHose()) return false;
+        gardenHoseActive = true;
+        cooldowns.useGardenHose();
+        powerUses[GARDEN_HOSE]++;
+        return true;
+    }
+
+    // Same rule as the board: one orthogonal step onto an empty cell
+    public boolean useNighttimeRelocation(int slot, int dRow, int dCol) {
+        if (Math.abs(dRow) + Math.abs(dCol) != 1 || !cooldowns.canUseNighttimeRelocation()) return false;
+        if (!player.isAlive(slot)) return false;
+        if (!player.moveUnit(slot, player.row(slot) + dRow, player.col(slot) + dCol)) return false;
+        cooldowns.useNighttimeRelocation();
+        powerUses[NIGHTTIME_RELOCATION]++;
+        return true;
+    }
+
+    // Reveals the 3x3 area of the AI garden around centerCell
+    public boolean useSpyDrone(int centerCell) {
+        if (centerCell < 0 || !canUseTier2(Power.SPY_DRONE)) return false;
+
+        long area = 0;
+        int centerRow = Garden.rowOf(centerCell);
+        int centerCol = Garden.colOf(centerCell);
+        for (int row = centerRow - 1; row <= centerRow + 1; row++) {
+            for (int col = centerCol - 1; col <= centerCol + 1; col++) {
+                if (Garden.inBounds(row, col)) area |= 1L << Garden.cell(row, col);
+            }
+        }
+        knownEnemyUnits |= area & ai.occupiedMask();
+        knownEmptyCells |= area & ai.emptyMask();
+
+        useTier2();
+        return true;
+    }
+
+    public boolean useFenceShield(int slot) {
+        if (!canUseTier2(Power.FENCE_SHIELD) || !player.isAlive(slot)) return false;
+        fenceSlot = slot;
+        useTier2();
+        return true;
+    }
+
+    public boolean useFertilizer(int slot) {
+        if (!canUseTier2(Power.FERTILIZER) || !player.isAlive(slot)) return false;
+        if (player.health(slot) >= Garden.MAX_HEALTH) return false;
+        player.setHealth(slot, Garden.MAX_HEALTH);
+        useTier2();
+        return true;
+    }
+
+    private boolean canUseTier2(Power power) {
+        return power == config.tier2Power && cooldowns.canUseTier2Power();
+    }
+
+    private void useTier2() {
+        cooldowns.useTier2Power();
+        powerUses[TIER2]++;
+    }
+
+    // Read-only views for policies
+    public Garden playerGarden() {
+        return player;
+    }
+
+    public long knownEnemyUnits() {
+        return knownEnemyUnits;
+    }
+
+    public long knownEmptyCells() {
+        return knownEmptyCells;
+    }
+
+    public Power tier2Power() {
+        return config.tier2Power;
+    }
+
+    public int round() {
+        return round;
+    }
+
+    // Results
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public boolean isPlayerWon() {
+        return playerWon;
+    }
+
+    public int rounds() {
+        return Math.min(round, config.maxRounds);
+    }
+
+    public int powerUses(int power) {
+        return powerUses[power];
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.guerraentrevecinos.sync;
+
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.RoseColor;
+import com.example.guerraentrevecinos.engine.UnitKind;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The battle screen's copy of the room, kept current from child events
+ * rather than by re-reading the room on every change. Each event carries
+ * one game state field, one enemy unit or the last action; the model
+ * applies just that and tells its listener only what actually changed, so
+ * a remote update costs the same however much of the room stayed put.
+ *
+ * Enemy units live in a Garden whose slots are handed out as units arrive,
+ * so they don't match the opponent's own slot numbers.
+ */
+public final class BattleModel {
+
+    /** What changed, called on the transport's callback thread. */
+    public interface Listener {
+        void onRoundChanged(int round);
+
+        void onTurnChanged(boolean myTurn);
+
+        void onEnemyUnitAdded(int slot);
+
+        void onEnemyUnitMoved(int slot, int fromRow, int fromCol);
+
+        // Health, rose color or ability, in place
+        void onEnemyUnitChanged(int slot);
+
+        // The slot keeps its last cell, for the death effect
+        void onEnemyUnitRemoved(int slot);
+
+        void onLastAction(RoomSnapshot action);
+
+        // Once, when either side has no units left
+        void onGameOver(boolean iWon);
+
+        // The room was deleted under us
+        void onRoomClosed();
+
+        void onCancelled(String error);
+    }
+
+    private final BattleRoom room;
+    private final Listener listener;
+    private final Garden enemy = new Garden();
+    // Opponent's unit key to the enemy garden slot showing it
+    private final Map<String, Integer> enemySlots = new HashMap<>();
+
+    private boolean myTurn = false;
+    private int round = 1;
+    private boolean gameOver = false;
+    private boolean closed = false;
+    // Timestamps only increase per sender, so an action is its player and timestamp
+    private String lastActionPlayer = null;
+    private Long lastActionTimestamp = null;
+
+    final GameSyncTransport.ChildListener gameStateListener = new GameSyncTransport.ChildListener() {
+        @Override
+        public void onChildAdded(RoomSnapshot field) {
+            applyGameState(field);
+        }
+
+        @Override
+        public void onChildChanged(RoomSnapshot field) {
+            applyGameState(field);
+        }
+
+        @Override
+        public void onChildRemoved(RoomSnapshot field) {
+            // Game state fields only go away with the room
+            if (closed) return;
+            closed = true;
+            listener.onRoomClosed();
+        }
+
+        @Override
+        public void onCancelled(String error) {
+            listener.onCancelled(error);
+        }
+    };
+
+    final GameSyncTransport.ChildListener enemyUnitsListener = new GameSyncTransport.ChildListener() {
+        @Override
+        public void onChildAdded(RoomSnapshot unit) {
+            applyEnemyUnit(unit);
+        }
+
+        @Override
+        public void onChildChanged(RoomSnapshot unit) {
+            applyEnemyUnit(unit);
+        }
+
+        @Override
+        public void onChildRemoved(RoomSnapshot unit) {
+            removeEnemyUnit(unit.getKey());
+        }
+
+        @Override
+        public void onCancelled(String error) {
+            listener.onCancelled(error);
+        }
+    };
+
+    final GameSyncTransport.RoomListener lastActionListener = new GameSyncTransport.RoomListener() {
+        @Override
+        public void onRoomChanged(RoomSnapshot action) {
+            // Ending a turn clears the duel fields in place, that's the same action again
+            String player = action.child("player").getValue(String.class);
+            Long timestamp = action.child("timestamp").getValue(Long.class);
+            if (timestamp == null) return;
+            if (timestamp.equals(lastActionTimestamp) && Objects.equals(player, lastActionPlayer)) return;
+            lastActionPlayer = player;
+            lastActionTimestamp = timestamp;
+            listener.onLastAction(action);
+        }
+
+        @Override
+        public void onCancelled(String error) {
+            listener.onCancelled(error);
+        }
+    };
+
+    public BattleModel(BattleRoom room, Listener listener) {
+        this.room = room;
+        this.listener = listener;
+    }
+
+    public void start() {
+        room.listen(this);
+    }
+
+    public void stop() {
+        room.stopListening(this);
+    }
+
+    public boolean isMyTurn() {
+        return myTurn;
+    }
+
+    public int round() {
+        return round;
+    }
+
+    /**
+     * The opponent's army as the room lists it. Callers may mark units
+     * dead or damaged locally, the room only ever lowers health again.
+     */
+    public Garden enemyGarden() {
+        return enemy;
+    }
+
+    private void applyGameState(RoomSnapshot field) {
+        switch (field.getKey()) {
+            case "currentTurn":
+                boolean newIsMyTurn = room.myKey().equals(field.getValue(String.class));
+                if (newIsMyTurn != myTurn) {
+                    myTurn = newIsMyTurn;
+                    listener.onTurnChanged(myTurn);
+                }
+                break;
+            case "currentRound":
+                Integer newRound = field.getValue(Integer.class);
+                if (newRound != null && newRound != round) {
+                    round = newRound;
+                    listener.onRoundChanged(round);
+                }
+                break;
+            default:
+                Integer remaining = field.getValue(Integer.class);
+                if (gameOver || remaining == null || remaining > 0) break;
+                if (field.getKey().equals(room.myKey() + "UnitsRemaining")) {
+                    gameOver = true;
+                    listener.onGameOver(false);
+                } else if (field.getKey().equals(room.opponentKey() + "UnitsRemaining")) {
+                    gameOver = true;
+                    listener.onGameOver(true);
+                }
+                break;
+        }
+    }
+
+    private void applyEnemyUnit(RoomSnapshot unit) {
+        String type = unit.child("type").getValue(String.class);
+        Integer row = unit.child("row").getValue(Integer.class);
+        Integer col = unit.child("col").getValue(Integer.class);
+        Integer health = unit.child("health").getValue(Integer.class);
+        if (type == null || row == null || col == null || health == null
+                || UnitKind.fromKey(type) == null || !Garden.inBounds(row, col)) {
+            return;
+        }
+        if (health <= 0) {
+            removeEnemyUnit(unit.getKey());
+            return;
+        }
+        String roseColor = unit.child("roseColor").getValue(String.class);
+        Boolean abilityUsed = unit.child("abilityUsed").getValue(Boolean.class);
+
+        // New to us, or killed here while it escaped there: show it in a fresh slot
+        Integer known = enemySlots.get(unit.getKey());
+        if (known == null || !enemy.isAlive(known)) {
+            if (enemy.isOccupied(row, col)) return;
+            int slot = enemy.addUnit(row, col, type, health);
+            if (roseColor != null && RoseColor.fromKey(roseColor) != null) enemy.setRoseColor(slot, roseColor);
+            if (abilityUsed != null) enemy.setAbilityUsed(slot, abilityUsed);
+            enemySlots.put(unit.getKey(), slot);
+            listener.onEnemyUnitAdded(slot);
+            return;
+        }
+
+        int slot = known;
+        int fromRow = enemy.row(slot);
+        int fromCol = enemy.col(slot);
+        boolean moved = (row != fromRow || col != fromCol) && enemy.moveUnit(slot, row, col);
+        boolean changed = false;
+        // The defender never writes damage, so a higher stored health is older than what we saw
+        if (health < enemy.health(slot)) {
+            enemy.setHealth(slot, health);
+            changed = true;
+        }
+        if (roseColor != null && !roseColor.equals(enemy.roseColor(slot)) && RoseColor.fromKey(roseColor) != null) {
+            enemy.setRoseColor(slot, roseColor);
+            changed = true;
+        }
+        if (abilityUsed != null && abilityUsed != enemy.isAbilityUsed(slot)) {
+            enemy.setAbilityUsed(slot, abilityUsed);
+            changed = true;
+        }
+
+        if (moved) {
+            listener.onEnemyUnitMoved(slot, fromRow, fromCol);
+        } else if (changed) {
+            listener.onEnemyUnitChanged(slot);
+        }
+    }
+
+    private void removeEnemyUnit(String key) {
+        Integer slot = enemySlots.get(key);
+        if (slot == null || !enemy.isAlive(slot)) return;
+        enemy.setHealth(slot, 0);
+        listener.onEnemyUnitRemoved(slot);
+    }
+}
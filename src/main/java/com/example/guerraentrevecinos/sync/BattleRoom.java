@@ -0,0 +1,263 @@
+package com.example.guerraentrevecinos.sync;
+
+import com.example.guerraentrevecinos.FirebaseGameRoom;
+import com.example.guerraentrevecinos.engine.Garden;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * One player's side of the battle protocol: which room nodes each move
+ * writes, and in what order. MultiplayerBattleActivity drives it from the
+ * UI and the sync tests from simulated players, over any transport.
+ */
+public final class BattleRoom {
+
+    public interface FearCheck {
+        void onResult(boolean blocked);
+    }
+
+    private final GameSyncTransport transport;
+    private final String roomCode;
+    private final String myKey;
+    private final String opponentKey;
+    private final LongSupplier clock;
+    private long lastTimestamp = 0;
+
+    public BattleRoom(GameSyncTransport transport, String roomCode, boolean isHost) {
+        this(transport, roomCode, isHost, System::currentTimeMillis);
+    }
+
+    public BattleRoom(GameSyncTransport transport, String roomCode, boolean isHost, LongSupplier clock) {
+        this.transport = transport;
+        this.roomCode = roomCode;
+        this.myKey = isHost ? "player1" : "player2";
+        this.opponentKey = isHost ? "player2" : "player1";
+        this.clock = clock;
+    }
+
+    public GameSyncTransport transport() {
+        return transport;
+    }
+
+    public String roomCode() {
+        return roomCode;
+    }
+
+    public String myKey() {
+        return myKey;
+    }
+
+    public String opponentKey() {
+        return opponentKey;
+    }
+
+    // Action timestamps, strictly increasing so actions sent within one millisecond stay ordered
+    public long timestamp() {
+        lastTimestamp = Math.max(clock.getAsLong(), lastTimestamp + 1);
+        return lastTimestamp;
+    }
+
+    public void listen(GameSyncTransport.RoomListener listener) {
+        transport.listenToRoom(roomCode, listener);
+    }
+
+    public void stopListening(GameSyncTransport.RoomListener listener) {
+        transport.removeRoomListener(roomCode, listener);
+    }
+
+    // Feeds the model field by field and unit by unit; the last action is small enough to take whole
+    public void listen(BattleModel model) {
+        transport.listenToChildren(roomCode, "gameState", model.gameStateListener);
+        transport.listenToChildren(roomCode, "units/" + opponentKey, model.enemyUnitsListener);
+        transport.listenToNode(roomCode, "lastAction", model.lastActionListener);
+    }
+
+    public void stopListening(BattleModel model) {
+        transport.removeChildListener(roomCode, model.gameStateListener);
+        transport.removeChildListener(roomCode, model.enemyUnitsListener);
+        transport.removeRoomListener(roomCode, model.lastActionListener);
+    }
+
+    // Host only, before either side moves
+    public void initializeGameState() {
+        FirebaseGameRoom.GameStateData gameState = new FirebaseGameRoom.GameStateData();
+        gameState.currentRound = 1;
+        gameState.currentTurn = "player1"; // Host goes first
+        gameState.player1UnitsRemaining = 7;
+        gameState.player2UnitsRemaining = 7;
+        transport.updateGameState(roomCode, gameState);
+    }
+
+    // Publishes the army, slot n as units/{myKey}/n
+    public void storeUnits(Garden garden, GameSyncTransport.WriteCallback callback) {
+        transport.read(roomCode, "status", new GameSyncTransport.ValueCallback() {
+            @Override
+            public void onValue(RoomSnapshot status) {
+                if (!status.exists()) {
+                    callback.onComplete("Room doesn't exist");
+                    return;
+                }
+                Map<String, Object> allUnits = new HashMap<>();
+                for (int slot = 0; slot < garden.unitCount(); slot++) {
+                    Map<String, Object> unitData = new HashMap<>();
+                    unitData.put("row", garden.row(slot));
+                    unitData.put("col", garden.col(slot));
+                    unitData.put("type", garden.type(slot));
+                    unitData.put("health", garden.health(slot));
+                    allUnits.put(String.valueOf(slot), unitData);
+                }
+                transport.setValue(roomCode, "units/" + myKey, allUnits, callback);
+            }
+
+            @Override
+            public void onCancelled(String error) {
+                callback.onComplete(error);
+            }
+        });
+    }
+
+    // Reports whether a dog fear on the opponent's cell blocks the attack, and spends it if so
+    public void checkDogFear(int row, int col, FearCheck check) {
+        String fearPath = "dogFears/" + opponentKey + "_" + row + "_" + col;
+        transport.read(roomCode, fearPath, new GameSyncTransport.ValueCallback() {
+            @Override
+            public void onValue(RoomSnapshot fear) {
+                Integer fearRow = fear.child("row").getValue(Integer.class);
+                Integer fearCol = fear.child("col").getValue(Integer.class);
+                if (fearRow != null && fearRow == row && fearCol != null && fearCol == col) {
+                    transport.removeValue(roomCode, fearPath, GameSyncTransport.IGNORE);
+                    check.onResult(true);
+                } else {
+                    check.onResult(false);
+                }
+            }
+
+            @Override
+            public void onCancelled(String error) {
+                check.onResult(false);
+            }
+        });
+    }
+
+    // Opens the duel and announces the attack together, so the defender never sees one without the other
+    public void attack(int row, int col, boolean gardenHoseActive, GameSyncTransport.WriteCallback callback) {
+        Map<String, Object> duelData = new HashMap<>();
+        duelData.put("attackerChoice", null);
+        duelData.put("defenderChoice", null);
+        duelData.put("gardenHoseActive", gardenHoseActive);
+
+        FirebaseGameRoom.LastActionData action = new FirebaseGameRoom.LastActionData();
+        action.type = "attack";
+        action.player = myKey;
+        action.targetRow = row;
+        action.targetCol = col;
+        action.timestamp = timestamp();
+
+        transport.commit(roomCode, new RoomUpdate()
+                .set("currentDuel", duelData)
+                .set("lastAction", action.toMap()), callback);
+    }
+
+    // Defender's answer to an attack: a unit is there, start the duel
+    public void confirmHit(int row, int col, String unitType) {
+        FirebaseGameRoom.LastActionData action = new FirebaseGameRoom.LastActionData();
+        action.type = "duel_ready";
+        action.player = myKey;
+        action.targetRow = row;
+        action.targetCol = col;
+        action.unitType = unitType;
+        action.timestamp = timestamp();
+        transport.sendAction(roomCode, action);
+    }
+
+    // Defender's answer to an attack on an empty cell
+    public void confirmMiss(int row, int col) {
+        FirebaseGameRoom.LastActionData action = new FirebaseGameRoom.LastActionData();
+        action.type = "miss";
+        action.player = myKey;
+        action.targetRow = row;
+        action.targetCol = col;
+        action.timestamp = timestamp();
+        transport.sendAction(roomCode, action);
+    }
+
+    public void readDuel(GameSyncTransport.ValueCallback callback) {
+        transport.read(roomCode, "currentDuel", callback);
+    }
+
+    // Hands the turn over and clears the finished duel in one write, player1 taking it back starts the next round.
+    // The opponent never sees its turn begin with the last duel or its choices still in the room.
+    public void endTurn(GameSyncTransport.WriteCallback callback) {
+        RoomUpdate update = new RoomUpdate()
+                .remove("currentDuel")
+                .remove("lastAction/attackerChoice")
+                .remove("lastAction/defenderChoice")
+                .remove("lastAction/attackerSecondChoice")
+                .remove("lastAction/gardenHoseActive")
+                .set("lastAction/duelPending", false)
+                .set("gameState/currentTurn", opponentKey);
+        if ("player1".equals(opponentKey)) {
+            update.increment("gameState/currentRound", 1);
+        }
+        transport.commit(roomCode, update, callback);
+    }
+
+    // Server-side add, so changes from both phones at once all count
+    public void updateUnitsRemaining(String playerKey, int change, GameSyncTransport.WriteCallback callback) {
+        transport.commit(roomCode, new RoomUpdate()
+                .increment("gameState/" + playerKey + "UnitsRemaining", change), callback);
+    }
+
+    /**
+     * Removes my destroyed unit and counts it off my units remaining, in one
+     * write. Each side counts only its own losses: the attacker can't tell a
+     * kill from a cat escaping, and two writers would count a kill twice.
+     */
+    public void destroyUnit(int slot, GameSyncTransport.WriteCallback callback) {
+        transport.commit(roomCode, new RoomUpdate()
+                .remove(unitPath(slot))
+                .increment("gameState/" + myKey + "UnitsRemaining", -1), callback);
+    }
+
+    public void saveDogFear(int row, int col, GameSyncTransport.WriteCallback callback) {
+        Map<String, Object> fearData = new HashMap<>();
+        fearData.put("row", row);
+        fearData.put("col", col);
+        fearData.put("timestamp", timestamp());
+        String fearId = myKey + "_" + row + "_" + col;
+        transport.setValue(roomCode, "dogFears/" + fearId, fearData, callback);
+    }
+
+    public void saveRoseColor(int slot, String color) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("roseColor", color);
+        updates.put("abilityUsed", true);
+        transport.updateChildren(roomCode, unitPath(slot), updates, GameSyncTransport.IGNORE);
+    }
+
+    public void saveCatTeleport(int slot, int newRow, int newCol, GameSyncTransport.WriteCallback callback) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("row", newRow);
+        updates.put("col", newCol);
+        updates.put("health", 1); // Cat survives with 1 HP
+        updates.put("timestamp", timestamp()); // Track when it moved
+        transport.updateChildren(roomCode, unitPath(slot), updates, callback);
+    }
+
+    // Announces a power, tagged with which one in the same write
+    public void sendPowerUsed(String powerType) {
+        FirebaseGameRoom.LastActionData action = new FirebaseGameRoom.LastActionData();
+        action.type = "power_used";
+        action.player = myKey;
+        action.timestamp = timestamp();
+        Map<String, Object> actionData = action.toMap();
+        actionData.put("powerType", powerType);
+        transport.setValue(roomCode, "lastAction", actionData, GameSyncTransport.IGNORE);
+    }
+
+    // My units are stored by garden slot, so they are written in place without looking them up
+    private String unitPath(int slot) {
+        return "units/" + myKey + "/" + slot;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.guerraentrevecinos.sync;
+
+import com.example.guerraentrevecinos.FirebaseGameRoom;
+import java.util.Map;
+
+/**
+ * Everything the multiplayer screens send to or read from a shared room.
+ * FirebaseManager is the production backend; LoopbackTransport keeps the
+ * rooms in memory so two clients can play inside one JVM.
+ *
+ * A room is a JSON tree laid out like FirebaseGameRoom plus the battle
+ * nodes (units, currentDuel, dogFears). Paths are relative to the room.
+ * Callbacks arrive on the backend's callback thread, the main thread for
+ * Firebase.
+ */
+public interface GameSyncTransport {
+
+    interface RoomCallback {
+        void onSuccess(String roomCode);
+        void onFailure(String error);
+    }
+
+    interface RoomListener {
+        void onRoomChanged(RoomSnapshot room);
+        void onCancelled(String error);
+    }
+
+    // Events for the children of one node, each carrying only that child
+    interface ChildListener {
+        void onChildAdded(RoomSnapshot child);
+        void onChildChanged(RoomSnapshot child);
+        void onChildRemoved(RoomSnapshot child);
+        void onCancelled(String error);
+    }
+
+    // One-time read of a single node
+    interface ValueCallback {
+        void onValue(RoomSnapshot value);
+        void onCancelled(String error);
+    }
+
+    // Completion of a write: error is null when it was committed
+    interface WriteCallback {
+        void onComplete(String error);
+    }
+
+    WriteCallback IGNORE = error -> {
+    };
+
+    boolean isInitialized();
+
+    String getCurrentUserId();
+
+    String generateRoomCode();
+
+    // Room lifecycle
+
+    void createRoom(String roomCode, String playerName, RoomCallback callback);
+
+    void joinRoom(String roomCode, String playerName, RoomCallback callback);
+
+    void deleteRoom(String roomCode);
+
+    /** Calls back with the whole room now and after every change, until removed. */
+    void listenToRoom(String roomCode, RoomListener listener);
+
+    /** Same for the node at path: only changes inside it are downloaded and reported. */
+    void listenToNode(String roomCode, String path, RoomListener listener);
+
+    /** Removes a listener added by listenToRoom or listenToNode. */
+    void removeRoomListener(String roomCode, RoomListener listener);
+
+    /**
+     * Reports each child of the node at path as added, then every child that
+     * is added, changed or removed, with that child's data alone. A removed
+     * child carries its last value.
+     */
+    void listenToChildren(String roomCode, String path, ChildListener listener);
+
+    void removeChildListener(String roomCode, ChildListener listener);
+
+    /** Fetches the node at path once. Only that subtree is downloaded, not the room. */
+    void read(String roomCode, String path, ValueCallback callback);
+
+    // Game messages
+
+    void setPlayerReady(String roomCode, boolean isPlayer1, boolean ready);
+
+    void updateGameState(String roomCode, FirebaseGameRoom.GameStateData gameState);
+
+    void sendAction(String roomCode, FirebaseGameRoom.LastActionData action);
+
+    /** Merges one side's choices into currentDuel without touching the other side's. */
+    void sendDuelChoice(String roomCode, Map<String, Object> choices, WriteCallback callback);
+
+    // Raw writes for the battle nodes without a message of their own
+
+    void setValue(String roomCode, String path, Object value, WriteCallback callback);
+
+    void updateChildren(String roomCode, String path, Map<String, Object> values, WriteCallback callback);
+
+    void removeValue(String roomCode, String path, WriteCallback callback);
+
+    /** Commits every write of the batch as one atomic multi-path update, in one round trip. */
+    void commit(String roomCode, RoomUpdate update, WriteCallback callback);
+}
@@ -0,0 +1,446 @@
+package com.example.guerraentrevecinos.sync;
+
+import com.example.guerraentrevecinos.FirebaseGameRoom;
+import com.example.guerraentrevecinos.engine.TurnTimeline;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory backend. A {@link Server} holds the rooms and every client
+ * connected to it sees them through its own one-way latency. All work runs
+ * on the server's scheduler, so on a VirtualScheduler a networked game plays
+ * out in virtual time on the calling thread. Not thread-safe: use it from
+ * the scheduler's thread.
+ *
+ * Ordering matches the database: a client's writes reach the server in the
+ * order they were made, each client gets events in the order the server
+ * produced them, and a new listener first receives the current room. There
+ * is no local cache, a client sees its own writes after the round trip.
+ *
+ * Messages and JSON bytes are counted both ways. Attaching a listener costs
+ * the node it watches once, later events cost the subtrees written inside
+ * that node, as on the wire. Writes elsewhere in the room cost it nothing.
+ */
+public final class LoopbackTransport implements GameSyncTransport {
+
+    /** The shared database all clients of one test or benchmark talk to. */
+    public static final class Server {
+        private final TurnTimeline.Scheduler scheduler;
+        private final List<Registration> registrations = new ArrayList<>();
+        private Object rooms;
+        private int clients = 0;
+        private int roomCodes = 0;
+
+        public Server(TurnTimeline.Scheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        public LoopbackTransport connect(long latencyMillis) {
+            clients++;
+            return new LoopbackTransport(this, "loopback_user_" + clients, latencyMillis);
+        }
+
+        // The server's copy of a room, for assertions
+        public RoomSnapshot room(String roomCode) {
+            return RoomSnapshot.stored(roomCode, "", RoomTree.get(rooms, new String[]{roomCode}));
+        }
+
+        private Object roomValue(String roomCode) {
+            return RoomTree.get(rooms, new String[]{roomCode});
+        }
+
+        // Applies normalized values by room-relative path as one change, then fans the events out
+        private void write(String roomCode, Map<String, Object> values) {
+            Object before = roomValue(roomCode);
+            Object after = before;
+            List<String[]> paths = new ArrayList<>(values.size());
+            List<Object> written = new ArrayList<>(values.size());
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                String[] keys = RoomTree.split(entry.getKey());
+                Object value = entry.getValue();
+                if (value instanceof RoomUpdate.Increment) {
+                    value = increment(RoomTree.get(after, keys), ((RoomUpdate.Increment) value).delta());
+                }
+                after = RoomTree.set(after, keys, 0, value);
+                paths.add(keys);
+                written.add(value);
+            }
+            if (after == before) return;
+            rooms = RoomTree.set(rooms, new String[]{roomCode}, 0, after);
+
+            for (Registration registration : registrations) {
+                if (registration.roomCode.equals(roomCode)) {
+                    registration.changed(before, after, paths, written);
+                }
+            }
+        }
+
+        // Like the database: numbers add up, anything else is replaced by the delta
+        private static Object increment(Object current, long delta) {
+            if (current instanceof Double) return RoomTree.normalize((Double) current + delta);
+            if (current instanceof Long) return (Long) current + delta;
+            return delta;
+        }
+    }
+
+    // A room, node or child listener and the node it watches
+    private static final class Registration {
+        final LoopbackTransport client;
+        final String roomCode;
+        final String[] keys;
+        final String path;
+        final RoomListener listener;
+        final ChildListener childListener;
+        boolean active = true;
+
+        Registration(LoopbackTransport client, String roomCode, String path,
+                     RoomListener listener, ChildListener childListener) {
+            this.client = client;
+            this.roomCode = roomCode;
+            this.keys = RoomTree.split(path);
+            this.path = String.join("/", keys);
+            this.listener = listener;
+            this.childListener = childListener;
+        }
+
+        // What the listener gets on attaching: the node, or each child as added
+        void attached(Object room) {
+            Object node = RoomTree.get(room, keys);
+            if (listener != null) {
+                client.deliver(RoomTree.jsonSize(node), () -> fireValue(node));
+                return;
+            }
+            List<Runnable> events = new ArrayList<>();
+            if (node instanceof Map) {
+                for (Map.Entry<String, Object> child : RoomTree.asNode(node).entrySet()) {
+                    events.add(() -> childListener.onChildAdded(child(child.getKey(), child.getValue())));
+                }
+            }
+            client.deliver(RoomTree.jsonSize(node), () -> fire(events));
+        }
+
+        /**
+         * Sends the events one write caused below this node. Unchanged
+         * subtrees are shared between versions, so an identical reference
+         * means nothing in it changed and only the written children are
+         * compared, unless a write replaced the whole node. Costs what was written inside the node, or the whole
+         * node when a write replaced it from above.
+         */
+        void changed(Object before, Object after, List<String[]> paths, List<Object> written) {
+            Object nodeBefore = RoomTree.get(before, keys);
+            Object nodeAfter = RoomTree.get(after, keys);
+            if (nodeBefore == nodeAfter) return;
+
+            long bytes = 0;
+            boolean replaced = false;
+            Set<String> childKeys = new LinkedHashSet<>();
+            for (int i = 0; i < paths.size(); i++) {
+                String[] writtenKeys = paths.get(i);
+                if (!overlaps(writtenKeys)) continue;
+                if (writtenKeys.length < keys.length) {
+                    bytes += path.length() + RoomTree.jsonSize(nodeAfter);
+                    replaced = true;
+                    continue;
+                }
+                bytes += String.join("/", writtenKeys).length() + RoomTree.jsonSize(written.get(i));
+                if (writtenKeys.length == keys.length) {
+                    replaced = true;
+                } else {
+                    childKeys.add(writtenKeys[keys.length]);
+                }
+            }
+
+            if (listener != null) {
+                client.deliver(bytes, () -> fireValue(nodeAfter));
+                return;
+            }
+            if (replaced) {
+                childKeys.clear();
+                Set<String> all = new TreeSet<>(RoomTree.KEY_ORDER);
+                if (nodeBefore instanceof Map) all.addAll(RoomTree.asNode(nodeBefore).keySet());
+                if (nodeAfter instanceof Map) all.addAll(RoomTree.asNode(nodeAfter).keySet());
+                childKeys.addAll(all);
+            }
+            List<Runnable> events = new ArrayList<>();
+            for (String key : childKeys) {
+                Object childBefore = RoomTree.get(nodeBefore, new String[]{key});
+                Object childAfter = RoomTree.get(nodeAfter, new String[]{key});
+                if (Objects.equals(childBefore, childAfter)) continue;
+                if (childBefore == null) {
+                    events.add(() -> childListener.onChildAdded(child(key, childAfter)));
+                } else if (childAfter == null) {
+                    events.add(() -> childListener.onChildRemoved(child(key, childBefore)));
+                } else {
+                    events.add(() -> childListener.onChildChanged(child(key, childAfter)));
+                }
+            }
+            client.deliver(bytes, () -> fire(events));
+        }
+
+        private boolean overlaps(String[] writtenKeys) {
+            int shared = Math.min(writtenKeys.length, keys.length);
+            for (int i = 0; i < shared; i++) {
+                if (!writtenKeys[i].equals(keys[i])) return false;
+            }
+            return true;
+        }
+
+        private RoomSnapshot child(String key, Object value) {
+            return RoomSnapshot.stored(key, RoomTree.join(path, key), value);
+        }
+
+        private void fireValue(Object node) {
+            String key = keys.length == 0 ? roomCode : keys[keys.length - 1];
+            if (active) listener.onRoomChanged(RoomSnapshot.stored(key, path, node));
+        }
+
+        // A listener removed halfway through one write's events hears none of the rest
+        private void fire(List<Runnable> events) {
+            for (Runnable event : events) {
+                if (active) event.run();
+            }
+        }
+    }
+
+    private final Server server;
+    private final String userId;
+    private long latencyMillis;
+
+    // Per-direction FIFO: whichever delivery is due first carries the oldest message
+    private final ArrayDeque<Runnable> outbox = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> inbox = new ArrayDeque<>();
+    private final Map<Object, Registration> listeners = new IdentityHashMap<>();
+
+    private long messagesSent;
+    private long bytesSent;
+    private long messagesReceived;
+    private long bytesReceived;
+
+    private LoopbackTransport(Server server, String userId, long latencyMillis) {
+        this.server = server;
+        this.userId = userId;
+        this.latencyMillis = latencyMillis;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    // One-way delay from now on, messages already in flight keep theirs
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public long messagesSent() {
+        return messagesSent;
+    }
+
+    public long bytesSent() {
+        return bytesSent;
+    }
+
+    public long messagesReceived() {
+        return messagesReceived;
+    }
+
+    public long bytesReceived() {
+        return bytesReceived;
+    }
+
+    public void resetStats() {
+        messagesSent = 0;
+        bytesSent = 0;
+        messagesReceived = 0;
+        bytesReceived = 0;
+    }
+
+    @Override
+    public boolean isInitialized() {
+        return true;
+    }
+
+    @Override
+    public String getCurrentUserId() {
+        return userId;
+    }
+
+    @Override
+    public String generateRoomCode() {
+        server.roomCodes++;
+        return String.format("LOOP%02d", server.roomCodes);
+    }
+
+    @Override
+    public void createRoom(String roomCode, String playerName, RoomCallback callback) {
+        FirebaseGameRoom room = new FirebaseGameRoom(roomCode);
+        room.player1 = new FirebaseGameRoom.PlayerData(userId, playerName);
+        Object value = RoomTree.normalize(room.toMap());
+        send(RoomTree.jsonSize(value), () -> {
+            server.write(roomCode, Collections.singletonMap("", value));
+            deliver(0, () -> callback.onSuccess(roomCode));
+        });
+    }
+
+    @Override
+    public void joinRoom(String roomCode, String playerName, RoomCallback callback) {
+        Object player2 = RoomTree.normalize(new FirebaseGameRoom.PlayerData(userId, playerName).toMap());
+        send(RoomTree.jsonSize(player2), () -> {
+            if (server.roomValue(roomCode) == null) {
+                deliver(0, () -> callback.onFailure("Room not found"));
+                return;
+            }
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("player2", player2);
+            values.put("status", "setup");
+            server.write(roomCode, values);
+            deliver(0, () -> callback.onSuccess(roomCode));
+        });
+    }
+
+    @Override
+    public void deleteRoom(String roomCode) {
+        removeValue(roomCode, "", IGNORE);
+    }
+
+    @Override
+    public void listenToRoom(String roomCode, RoomListener listener) {
+        listenToNode(roomCode, "", listener);
+    }
+
+    @Override
+    public void listenToNode(String roomCode, String path, RoomListener listener) {
+        attach(new Registration(this, roomCode, path, listener, null));
+    }
+
+    @Override
+    public void removeRoomListener(String roomCode, RoomListener listener) {
+        detach(listener);
+    }
+
+    @Override
+    public void listenToChildren(String roomCode, String path, ChildListener listener) {
+        attach(new Registration(this, roomCode, path, null, listener));
+    }
+
+    @Override
+    public void removeChildListener(String roomCode, ChildListener listener) {
+        detach(listener);
+    }
+
+    private void attach(Registration registration) {
+        listeners.put(registration.listener != null ? registration.listener : registration.childListener, registration);
+        send(registration.roomCode.length() + registration.path.length(), () -> {
+            server.registrations.add(registration);
+            registration.attached(server.roomValue(registration.roomCode));
+        });
+    }
+
+    private void detach(Object listener) {
+        Registration registration = listeners.remove(listener);
+        if (registration == null) return;
+        // Events already on their way are dropped from here on
+        registration.active = false;
+        send(registration.roomCode.length() + registration.path.length(),
+                () -> server.registrations.remove(registration));
+    }
+
+    @Override
+    public void read(String roomCode, String path, ValueCallback callback) {
+        String[] keys = RoomTree.split(path);
+        String normalizedPath = String.join("/", keys);
+        send(roomCode.length() + normalizedPath.length(), () -> {
+            Object value = RoomTree.get(server.roomValue(roomCode), keys);
+            String key = keys.length == 0 ? roomCode : keys[keys.length - 1];
+            deliver(RoomTree.jsonSize(value), () -> callback.onValue(RoomSnapshot.stored(key, normalizedPath, value)));
+        });
+    }
+
+    @Override
+    public void setPlayerReady(String roomCode, boolean isPlayer1, boolean ready) {
+        setValue(roomCode, isPlayer1 ? "player1/ready" : "player2/ready", ready, IGNORE);
+    }
+
+    @Override
+    public void updateGameState(String roomCode, FirebaseGameRoom.GameStateData gameState) {
+        setValue(roomCode, "gameState", gameState.toMap(), IGNORE);
+    }
+
+    @Override
+    public void sendAction(String roomCode, FirebaseGameRoom.LastActionData action) {
+        setValue(roomCode, "lastAction", action.toMap(), IGNORE);
+    }
+
+    @Override
+    public void sendDuelChoice(String roomCode, Map<String, Object> choices, WriteCallback callback) {
+        updateChildren(roomCode, "currentDuel", choices, callback);
+    }
+
+    @Override
+    public void setValue(String roomCode, String path, Object value, WriteCallback callback) {
+        RoomTree.split(path);
+        write(roomCode, Collections.singletonMap(path, RoomTree.normalize(value)), callback);
+    }
+
+    @Override
+    public void updateChildren(String roomCode, String path, Map<String, Object> values, WriteCallback callback) {
+        RoomTree.split(path);
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            String childPath = String.join("/", RoomTree.split(RoomTree.join(path, entry.getKey())));
+            normalized.put(childPath, RoomTree.normalize(entry.getValue()));
+        }
+        write(roomCode, normalized, callback);
+    }
+
+    @Override
+    public void removeValue(String roomCode, String path, WriteCallback callback) {
+        setValue(roomCode, path, null, callback);
+    }
+
+    @Override
+    public void commit(String roomCode, RoomUpdate update, WriteCallback callback) {
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : update.values().entrySet()) {
+            Object value = entry.getValue();
+            // Increments are resolved on the server, against the value stored there
+            normalized.put(entry.getKey(), value instanceof RoomUpdate.Increment ? value : RoomTree.normalize(value));
+        }
+        write(roomCode, normalized, callback);
+    }
+
+    private void write(String roomCode, Map<String, Object> values, WriteCallback callback) {
+        long bytes = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            bytes += entry.getKey().length() + RoomTree.jsonSize(entry.getValue());
+        }
+        send(bytes, () -> {
+            server.write(roomCode, values);
+            deliver(0, () -> callback.onComplete(null));
+        });
+    }
+
+    private void send(long bytes, Runnable atServer) {
+        messagesSent++;
+        bytesSent += bytes;
+        outbox.add(atServer);
+        server.scheduler.schedule(() -> outbox.poll().run(), latencyMillis);
+    }
+
+    private void deliver(long bytes, Runnable atClient) {
+        inbox.add(() -> {
+            messagesReceived++;
+            bytesReceived += bytes;
+            atClient.run();
+        });
+        server.scheduler.schedule(() -> inbox.poll().run(), latencyMillis);
+    }
+}
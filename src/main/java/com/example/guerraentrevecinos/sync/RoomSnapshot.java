@@ -0,0 +1,104 @@
+package com.example.guerraentrevecinos.sync;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of a room, or of one of its children, as a transport
+ * delivered it. Has the DataSnapshot calls the multiplayer screens use, so
+ * they read the same whichever backend is behind them. Paths are relative
+ * to the room: "" is the room itself, "gameState/currentTurn" a field.
+ */
+public final class RoomSnapshot {
+
+    private final String key;
+    private final String path;
+    private final Object value;
+
+    private RoomSnapshot(String key, String path, Object value) {
+        this.key = key;
+        this.path = path;
+        this.value = value;
+    }
+
+    /** Wraps a room value as the database SDK returns it: maps, lists, strings, booleans, numbers. */
+    public static RoomSnapshot of(String roomCode, Object value) {
+        return new RoomSnapshot(roomCode, "", RoomTree.normalize(value));
+    }
+
+    /** Same for a child of the room, path relative to the room. */
+    public static RoomSnapshot of(String roomCode, String path, Object value) {
+        String[] keys = RoomTree.split(path);
+        String key = keys.length == 0 ? roomCode : keys[keys.length - 1];
+        return new RoomSnapshot(key, String.join("/", keys), RoomTree.normalize(value));
+    }
+
+    // Value already in stored form, shared as is
+    static RoomSnapshot stored(String key, String path, Object value) {
+        return new RoomSnapshot(key, path, value);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean exists() {
+        return value != null;
+    }
+
+    public boolean hasChildren() {
+        return value instanceof Map;
+    }
+
+    public int getChildrenCount() {
+        return value instanceof Map ? ((Map<?, ?>) value).size() : 0;
+    }
+
+    public RoomSnapshot child(String childPath) {
+        String[] keys = RoomTree.split(childPath);
+        if (keys.length == 0) return this;
+        String fullPath = path;
+        for (String childKey : keys) fullPath = RoomTree.join(fullPath, childKey);
+        return new RoomSnapshot(keys[keys.length - 1], fullPath, RoomTree.get(value, keys));
+    }
+
+    // Children in database key order
+    public Iterable<RoomSnapshot> getChildren() {
+        if (!(value instanceof Map)) return Collections.emptyList();
+        Map<String, Object> node = RoomTree.asNode(value);
+        List<RoomSnapshot> children = new ArrayList<>(node.size());
+        for (Map.Entry<String, Object> entry : node.entrySet()) {
+            children.add(new RoomSnapshot(entry.getKey(), RoomTree.join(path, entry.getKey()), entry.getValue()));
+        }
+        return children;
+    }
+
+    /** The stored value: an unmodifiable Map for nodes, else Long, Double, Boolean or String. */
+    public Object getValue() {
+        return value;
+    }
+
+    /** The value converted like DataSnapshot.getValue(Class), null when absent. */
+    public <T> T getValue(Class<T> type) {
+        if (value == null) return null;
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == Integer.class) return type.cast(number.intValue());
+            if (type == Long.class) return type.cast(number.longValue());
+            if (type == Double.class) return type.cast(number.doubleValue());
+        }
+        if (type.isInstance(value)) return type.cast(value);
+        throw new IllegalStateException("Can't read " + (path.isEmpty() ? key : path) + " as " + type.getSimpleName());
+    }
+
+    @Override
+    public String toString() {
+        return "RoomSnapshot{" + (path.isEmpty() ? key : path) + " = " + value + "}";
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.guerraentrevecinos.sync;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * JSON tree with Realtime Database semantics, as the loopback server keeps
+ * it. Nodes are never modified once built: a write copies the nodes on its
+ * path and shares every other subtree, so a snapshot is just a reference.
+ *
+ * Values are normalized the way the database stores them: whole numbers
+ * become Long, lists become nodes keyed "0", "1", ..., and null or empty
+ * nodes are removed together with parents they leave empty.
+ */
+final class RoomTree {
+
+    // Children in database order: integer keys numerically first, then the rest as strings
+    static final Comparator<String> KEY_ORDER = (a, b) -> {
+        boolean aInt = isIndex(a);
+        boolean bInt = isIndex(b);
+        if (aInt && bInt) {
+            int byLength = Integer.compare(a.length(), b.length());
+            return byLength != 0 ? byLength : a.compareTo(b);
+        }
+        if (aInt != bInt) return aInt ? -1 : 1;
+        return a.compareTo(b);
+    };
+
+    private RoomTree() {
+    }
+
+    static String[] split(String path) {
+        if (path == null || path.isEmpty()) return new String[0];
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        if (trimmed.endsWith("/")) trimmed = trimmed.substring(0, trimmed.length() - 1);
+        if (trimmed.isEmpty()) return new String[0];
+        String[] keys = trimmed.split("/");
+        for (String key : keys) {
+            if (key.isEmpty() || key.indexOf('.') >= 0 || key.indexOf('#') >= 0 || key.indexOf('$') >= 0
+                    || key.indexOf('[') >= 0 || key.indexOf(']') >= 0) {
+                throw new IllegalArgumentException("Invalid path " + path);
+            }
+        }
+        return keys;
+    }
+
+    static String join(String parent, String key) {
+        return parent.isEmpty() ? key : parent + "/" + key;
+    }
+
+    // Value at path below node, null when absent
+    static Object get(Object node, String[] keys) {
+        Object current = node;
+        for (String key : keys) {
+            if (!(current instanceof Map)) return null;
+            current = ((Map<?, ?>) current).get(key);
+        }
+        return current;
+    }
+
+    // New tree with value (already normalized) at path; returns node itself when nothing changes
+    static Object set(Object node, String[] keys, int depth, Object value) {
+        if (depth == keys.length) return Objects.equals(node, value) ? node : value;
+        Map<String, Object> children = node instanceof Map ? asNode(node) : Collections.emptyMap();
+        Object child = children.get(keys[depth]);
+        Object updated = set(child, keys, depth + 1, value);
+        if (updated == child) return node;
+
+        TreeMap<String, Object> copy = new TreeMap<>(KEY_ORDER);
+        copy.putAll(children);
+        if (updated == null) {
+            copy.remove(keys[depth]);
+        } else {
+            copy.put(keys[depth], updated);
+        }
+        return copy.isEmpty() ? null : Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Converts a value written by the app to the stored form. Accepts what
+     * the database SDK accepts short of POJOs: maps, lists, strings,
+     * booleans and numbers. Anything else is a programming error.
+     */
+    static Object normalize(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean) return value;
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && Math.abs(d) < 1e15) return (long) d;
+            return d;
+        }
+        if (value instanceof Number) return ((Number) value).longValue();
+        if (value instanceof Map) {
+            TreeMap<String, Object> node = new TreeMap<>(KEY_ORDER);
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                if (split(key).length != 1) throw new IllegalArgumentException("Invalid key " + key);
+                Object child = normalize(entry.getValue());
+                if (child != null) node.put(key, child);
+            }
+            return node.isEmpty() ? null : Collections.unmodifiableMap(node);
+        }
+        if (value instanceof List) {
+            TreeMap<String, Object> node = new TreeMap<>(KEY_ORDER);
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                Object child = normalize(list.get(i));
+                if (child != null) node.put(String.valueOf(i), child);
+            }
+            return node.isEmpty() ? null : Collections.unmodifiableMap(node);
+        }
+        throw new IllegalArgumentException("Can't store " + value.getClass().getName() + " in a room");
+    }
+
+    // Size of the value as JSON text, what it costs on the wire
+    static long jsonSize(Object value) {
+        if (value == null) return 4;
+        if (value instanceof String) return ((String) value).length() + 2;
+        if (value instanceof Map) {
+            Map<String, Object> node = asNode(value);
+            long size = 2 + Math.max(0, node.size() - 1);
+            for (Map.Entry<String, Object> entry : node.entrySet()) {
+                size += entry.getKey().length() + 3 + jsonSize(entry.getValue());
+            }
+            return size;
+        }
+        return String.valueOf(value).length();
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> asNode(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private static boolean isIndex(String key) {
+        int length = key.length();
+        if (length == 0 || length > 10) return false;
+        if (length > 1 && key.charAt(0) == '0') return false;
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return length < 10 || key.compareTo("2147483647") <= 0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.guerraentrevecinos.sync;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes to several nodes of one room that must land together. A transport
+ * commits the whole batch as one multi-path update: other clients see
+ * either none of it or all of it, in a single event, for one round trip.
+ *
+ * Paths are relative to the room. As in the database, no path may be
+ * inside another one of the same batch.
+ */
+public final class RoomUpdate {
+
+    /**
+     * Server-side add, ServerValue.increment on Firebase. Applied to the
+     * value the server holds when the batch lands, so concurrent increments
+     * from any number of clients all count. A missing node counts as 0.
+     */
+    public static final class Increment {
+        private final long delta;
+
+        private Increment(long delta) {
+            this.delta = delta;
+        }
+
+        public long delta() {
+            return delta;
+        }
+
+        // What the SDK puts on the wire
+        @Override
+        public String toString() {
+            return "{\".sv\":{\"increment\":" + delta + "}}";
+        }
+    }
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    public RoomUpdate set(String path, Object value) {
+        String[] keys = RoomTree.split(path);
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("A batch can't replace the whole room");
+        }
+        String normalized = String.join("/", keys);
+        for (String existing : values.keySet()) {
+            if (!existing.equals(normalized)
+                    && (existing.startsWith(normalized + "/") || normalized.startsWith(existing + "/"))) {
+                throw new IllegalArgumentException("Path " + normalized + " overlaps " + existing);
+            }
+        }
+        values.put(normalized, value);
+        return this;
+    }
+
+    public RoomUpdate remove(String path) {
+        return set(path, null);
+    }
+
+    public RoomUpdate increment(String path, long delta) {
+        return set(path, new Increment(delta));
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /** Path to value, in the order they were added; null removes the node. */
+    public Map<String, Object> values() {
+        return Collections.unmodifiableMap(values);
+    }
+}
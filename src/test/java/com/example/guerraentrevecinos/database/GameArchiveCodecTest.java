@@ -0,0 +1,115 @@
+package com.example.guerraentrevecinos.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.guerraentrevecinos.database.entities.GameUnit;
+import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class GameArchiveCodecTest {
+
+    private static final int GAME_ID = 42;
+
+    @Test
+    public void roundTripsEveryDetailRow() {
+        GameArchiveCodec.Detail detail = sampleGame();
+        GameArchiveCodec.Packed packed = GameArchiveCodec.encode(detail);
+        GameArchiveCodec.Detail decoded = GameArchiveCodec.decode(GAME_ID, GameArchiveCodec.FORMAT, packed.data);
+
+        assertEquals(detail.units.size(), decoded.units.size());
+        for (int i = 0; i < detail.units.size(); i++) {
+            GameUnit expected = detail.units.get(i);
+            GameUnit actual = decoded.units.get(i);
+            assertEquals(GAME_ID, actual.getGameId());
+            assertEquals(expected.getUnitTypeId(), actual.getUnitTypeId());
+            assertEquals(expected.getOwnerPlayerId(), actual.getOwnerPlayerId());
+            assertEquals(expected.getGridRow(), actual.getGridRow());
+            assertEquals(expected.getGridCol(), actual.getGridCol());
+            assertEquals(expected.getCurrentHealth(), actual.getCurrentHealth());
+            assertEquals(expected.isDestroyed(), actual.isDestroyed());
+        }
+
+        assertEquals(detail.moves.size(), decoded.moves.size());
+        for (int i = 0; i < detail.moves.size(); i++) {
+            Move expected = detail.moves.get(i);
+            Move actual = decoded.moves.get(i);
+            assertEquals(GAME_ID, actual.getGameId());
+            assertEquals(expected.getRoundNumber(), actual.getRoundNumber());
+            assertEquals(expected.getAttackingPlayerId(), actual.getAttackingPlayerId());
+            assertEquals(expected.getTargetRow(), actual.getTargetRow());
+            assertEquals(expected.getTargetCol(), actual.getTargetCol());
+            assertEquals(expected.isWasHit(), actual.isWasHit());
+            assertEquals(expected.getAttackerChoice(), actual.getAttackerChoice());
+            assertEquals(expected.getDefenderChoice(), actual.getDefenderChoice());
+            assertEquals(expected.getDuelResult(), actual.getDuelResult());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        }
+
+        assertEquals(detail.powerUsages.size(), decoded.powerUsages.size());
+        PowerUsage usage = decoded.powerUsages.get(0);
+        assertEquals("garden_hose", usage.getPowerName());
+        assertEquals(3, usage.getUsedAtRound());
+        assertEquals(detail.powerUsages.get(0).getTimestamp(), usage.getTimestamp());
+        assertNull(decoded.powerUsages.get(1).getPowerName());
+
+        assertEquals(detail.eventCodes, decoded.eventCodes);
+        assertEquals(detail.eventCodes.size(), decoded.journal().size());
+    }
+
+    @Test
+    public void compressesAWholeGame() {
+        GameArchiveCodec.Packed packed = GameArchiveCodec.encode(sampleGame());
+        assertTrue(packed.data.length + " of " + packed.rawSize, packed.data.length * 2 < packed.rawSize);
+    }
+
+    @Test
+    public void emptyGameRoundTrips() {
+        GameArchiveCodec.Detail empty = new GameArchiveCodec.Detail(GAME_ID, Collections.emptyList(),
+                Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        GameArchiveCodec.Detail decoded = GameArchiveCodec.decode(GAME_ID, GameArchiveCodec.FORMAT,
+                GameArchiveCodec.encode(empty).data);
+        assertTrue(decoded.units.isEmpty() && decoded.moves.isEmpty()
+                && decoded.powerUsages.isEmpty() && decoded.eventCodes.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsUnknownFormat() {
+        GameArchiveCodec.decode(GAME_ID, GameArchiveCodec.FORMAT + 1, GameArchiveCodec.encode(sampleGame()).data);
+    }
+
+    // Both armies and a full 30-round game
+    private static GameArchiveCodec.Detail sampleGame() {
+        List<GameUnit> units = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            GameUnit unit = new GameUnit(GAME_ID, 1 + i % 4, 1 + i / 8, i % 8, i / 2, 2 - i % 3);
+            unit.setDestroyed(i % 3 == 2);
+            units.add(unit);
+        }
+        List<Move> moves = new ArrayList<>();
+        List<Integer> codes = new ArrayList<>();
+        long now = 1_700_000_000_000L;
+        for (int round = 1; round <= 30; round++) {
+            for (int player = 1; player <= 2; player++) {
+                Move move = new Move(GAME_ID, round, player, round % 8, (round + player) % 8, round % 3 == 0,
+                        1 + round % 4, 1 + player, round % 3 == 0 ? "destroyed" : "defended");
+                move.setTimestamp(now += 1500 + round * 7);
+                moves.add(move);
+                codes.add(round << 5 | player);
+            }
+        }
+        List<PowerUsage> usages = new ArrayList<>();
+        PowerUsage hose = new PowerUsage(GAME_ID, 1, "garden_hose", 3);
+        hose.setTimestamp(now - 40_000);
+        usages.add(hose);
+        usages.add(new PowerUsage(GAME_ID, 2, null, 9));
+        return new GameArchiveCodec.Detail(GAME_ID, units, moves, usages, codes);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.guerraentrevecinos.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.example.guerraentrevecinos.database.dao.GameArchiveDao;
+import com.example.guerraentrevecinos.database.entities.GameArchive;
+import com.example.guerraentrevecinos.database.entities.GameUnit;
+import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class GameArchiveDaoTest {
+
+    private Connection connection;
+    private JdbcArchiveDao dao;
+
+    @Before
+    public void setUp() throws SQLException, IOException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        RoomSchema.create(connection);
+        HistoryFormatTest.playGames(connection, 3);
+        dao = new JdbcArchiveDao(connection, QueryPlanTest.daoQueries());
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void archivedGame_loadsTheSameDetailAsItsLiveRows() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE game_units SET current_health = 0, is_destroyed = 1 WHERE game_id = 2 "
+                    + "AND owner_player_id = 2");
+        }
+        GameArchiveCodec.Detail live = dao.loadDetail(2);
+        assertNull(dao.getArchive(2));
+
+        dao.archive(Collections.singletonList(2), 99);
+
+        assertNotNull(dao.getArchive(2));
+        assertEquals(0, count("SELECT COUNT(*) FROM game_units WHERE game_id = 2")
+                + count("SELECT COUNT(*) FROM moves WHERE game_id = 2")
+                + count("SELECT COUNT(*) FROM power_usages WHERE game_id = 2")
+                + count("SELECT COUNT(*) FROM game_events WHERE game_id = 2"));
+        assertEquals(6, count("SELECT COUNT(*) FROM moves WHERE game_id = 1"));
+
+        GameArchiveCodec.Detail archived = dao.loadDetail(2);
+        assertEquals(units(live), units(archived));
+        assertEquals(moves(live), moves(archived));
+        assertEquals(powers(live), powers(archived));
+        assertEquals(live.eventCodes, archived.eventCodes);
+        assertEquals(2, archived.units.size());
+        assertEquals(6, archived.moves.size());
+    }
+
+    @Test
+    public void archivableGames_skipRecentAndArchivedOnes() {
+        // playGames finishes game n at 1999 + n
+        assertEquals(Arrays.asList(1, 2), dao.getArchivableGameIds(2002, 10));
+        dao.archive(Collections.singletonList(1), 99);
+        assertEquals(Collections.singletonList(2), dao.getArchivableGameIds(2002, 10));
+        assertEquals(Arrays.asList(2, 3), dao.getArchivableGameIds(Long.MAX_VALUE, 10));
+    }
+
+    // Each row as a list of its archived columns, entities have no equals
+    private static List<List<Object>> units(GameArchiveCodec.Detail detail) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (GameUnit unit : detail.units) {
+            rows.add(Arrays.asList(unit.getGameId(), unit.getUnitTypeId(), unit.getOwnerPlayerId(),
+                    unit.getGridRow(), unit.getGridCol(), unit.getCurrentHealth(), unit.isDestroyed()));
+        }
+        return rows;
+    }
+
+    private static List<List<Object>> moves(GameArchiveCodec.Detail detail) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (Move move : detail.moves) {
+            rows.add(Arrays.asList(move.getGameId(), move.getRoundNumber(), move.getAttackingPlayerId(),
+                    move.getTargetRow(), move.getTargetCol(), move.isWasHit(), move.getAttackerChoice(),
+                    move.getDefenderChoice(), move.getDuelResult(), move.getTimestamp()));
+        }
+        return rows;
+    }
+
+    private static List<List<Object>> powers(GameArchiveCodec.Detail detail) {
+        List<List<Object>> rows = new ArrayList<>();
+        for (PowerUsage usage : detail.powerUsages) {
+            rows.add(Arrays.asList(usage.getGameId(), usage.getPlayerId(), usage.getPowerName(),
+                    usage.getUsedAtRound(), usage.getTimestamp()));
+        }
+        return rows;
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(sql)) {
+            rows.next();
+            return rows.getInt(1);
+        }
+    }
+
+    /** GameArchiveDao over JDBC, running the DAO's own @Query SQL. */
+    private static final class JdbcArchiveDao extends GameArchiveDao {
+        private final Connection connection;
+        private final Map<String, String> queries;
+
+        JdbcArchiveDao(Connection connection, Map<String, String> queries) {
+            this.connection = connection;
+            this.queries = queries;
+        }
+
+        private interface RowReader<T> {
+            T read(ResultSet row) throws SQLException;
+        }
+
+        private PreparedStatement prepare(String method, Object... args) throws SQLException {
+            String sql = queries.get("GameArchiveDao." + method);
+            if (sql == null) throw new IllegalStateException("No @Query on GameArchiveDao." + method);
+            PreparedStatement statement = connection.prepareStatement(sql);
+            for (int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+            return statement;
+        }
+
+        private <T> List<T> query(String method, RowReader<T> reader, Object... args) {
+            try (PreparedStatement statement = prepare(method, args);
+                 ResultSet rows = statement.executeQuery()) {
+                List<T> result = new ArrayList<>();
+                while (rows.next()) result.add(reader.read(rows));
+                return result;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void execute(String method, Object... args) {
+            try (PreparedStatement statement = prepare(method, args)) {
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public List<Integer> getArchivableGameIds(long finishedBefore, int limit) {
+            return query("getArchivableGameIds", row -> row.getInt(1), finishedBefore, limit);
+        }
+
+        @Override
+        public GameArchive getArchive(int gameId) {
+            List<GameArchive> archives = query("getArchive", row -> new GameArchive(row.getInt("game_id"),
+                    row.getInt("format"), row.getBytes("data"), row.getInt("raw_size"),
+                    row.getLong("archived_at")), gameId);
+            return archives.isEmpty() ? null : archives.get(0);
+        }
+
+        // @Insert has no SQL to read, this is what Room generates for it
+        @Override
+        protected void insertArchive(GameArchive archive) {
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO game_archives "
+                    + "(game_id, format, data, raw_size, archived_at) VALUES (?, ?, ?, ?, ?)")) {
+                insert.setInt(1, archive.getGameId());
+                insert.setInt(2, archive.getFormat());
+                insert.setBytes(3, archive.getData());
+                insert.setInt(4, archive.getRawSize());
+                insert.setLong(5, archive.getArchivedAt());
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        protected List<GameUnit> getUnits(int gameId) {
+            return query("getUnits", row -> {
+                GameUnit unit = new GameUnit(row.getInt("game_id"), row.getInt("unit_type_id"),
+                        row.getInt("owner_player_id"), row.getInt("grid_row"), row.getInt("grid_col"),
+                        row.getInt("current_health"));
+                unit.setDestroyed(row.getBoolean("is_destroyed"));
+                return unit;
+            }, gameId);
+        }
+
+        @Override
+        protected List<Move> getMoves(int gameId) {
+            return query("getMoves", row -> {
+                Move move = new Move(row.getInt("game_id"), row.getInt("round_number"),
+                        row.getInt("attacking_player_id"), row.getInt("target_row"), row.getInt("target_col"),
+                        row.getBoolean("was_hit"), row.getInt("attacker_choice"), row.getInt("defender_choice"),
+                        row.getString("duel_result"));
+                move.setTimestamp(row.getLong("timestamp"));
+                return move;
+            }, gameId);
+        }
+
+        @Override
+        protected List<PowerUsage> getPowerUsages(int gameId) {
+            return query("getPowerUsages", row -> {
+                PowerUsage usage = new PowerUsage(row.getInt("game_id"), row.getInt("player_id"),
+                        row.getString("power_name"), row.getInt("used_at_round"));
+                usage.setTimestamp(row.getLong("timestamp"));
+                return usage;
+            }, gameId);
+        }
+
+        @Override
+        protected List<Integer> getEventCodes(int gameId) {
+            return query("getEventCodes", row -> row.getInt(1), gameId);
+        }
+
+        @Override
+        protected void deleteUnits(int gameId) {
+            execute("deleteUnits", gameId);
+        }
+
+        @Override
+        protected void deleteMoves(int gameId) {
+            execute("deleteMoves", gameId);
+        }
+
+        @Override
+        protected void deletePowerUsages(int gameId) {
+            execute("deletePowerUsages", gameId);
+        }
+
+        @Override
+        protected void deleteEvents(int gameId) {
+            execute("deleteEvents", gameId);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.guerraentrevecinos.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.guerraentrevecinos.database.entities.GameUnit;
+import com.example.guerraentrevecinos.database.entities.Move;
+import com.example.guerraentrevecinos.database.entities.PowerUsage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HistoryFormatTest {
+
+    private Connection source;
+    private Connection target;
+
+    @Before
+    public void setUp() throws SQLException {
+        source = DriverManager.getConnection("jdbc:sqlite::memory:");
+        target = DriverManager.getConnection("jdbc:sqlite::memory:");
+        RoomSchema.create(source);
+        RoomSchema.create(target);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        source.close();
+        target.close();
+    }
+
+    @Test
+    public void importRebuildsEveryRowAndTheSummaries() throws Exception {
+        playGames(source, 25);
+        try (Statement statement = source.createStatement()) {
+            // An archived game and one still being played
+            statement.execute("DELETE FROM moves WHERE game_id = 3");
+            archive(source, 3);
+            statement.execute("INSERT INTO games (player1_id, player2_id, game_mode, game_status, current_round, "
+                    + "max_rounds, created_at, seed) VALUES (1, 2, 'solo_vs_ai', 'in_progress', 4, 30, 500, -7)");
+        }
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        // Small pages and transactions, so both are crossed several times
+        assertEquals(26, JdbcHistory.export(source, file, 4));
+        assertEquals(26, JdbcHistory.importFrom(target, new ByteArrayInputStream(file.toByteArray()), 4));
+
+        assertSameRows("SELECT player1_id, player2_id, winner_id, game_mode, game_status, current_round, "
+                + "max_rounds, created_at, finished_at, seed FROM games ORDER BY game_id");
+        for (HistoryFormat.Table table : HistoryFormat.CHILDREN) {
+            assertSameRows(table.selectSql());
+        }
+        assertSameRows("SELECT * FROM player_summary ORDER BY player_id");
+        assertSameRows("SELECT player_id, total_games, total_wins, total_losses FROM players ORDER BY player_id");
+    }
+
+    @Test
+    public void importAddsToAnExistingHistory() throws Exception {
+        playGames(source, 3);
+        playGames(target, 2);
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        JdbcHistory.export(source, file, 100);
+        JdbcHistory.importFrom(target, new ByteArrayInputStream(file.toByteArray()), 100);
+
+        assertEquals("[[1, 5], [2, 5]]",
+                rows(target, "SELECT player_id, total_games FROM player_summary ORDER BY player_id").toString());
+    }
+
+    @Test
+    public void importRemapsThePlayersInsideArchives() throws Exception {
+        playGames(source, 2);
+        archive(source, 2);
+        // Same two players under other ids here: the AI is 3, the human 4
+        try (Statement statement = target.createStatement()) {
+            statement.execute("DELETE FROM players");
+            statement.execute("INSERT INTO players (player_name, is_ai, total_games, total_wins, total_losses, "
+                    + "created_at) VALUES ('Computer', 1, 0, 0, 0, 0), ('You', 0, 0, 0, 0, 0)");
+        }
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        JdbcHistory.export(source, file, 100);
+        JdbcHistory.importFrom(target, new ByteArrayInputStream(file.toByteArray()), 100);
+
+        GameArchiveCodec.Detail detail;
+        try (Statement statement = target.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT format, data, raw_size FROM game_archives")) {
+            rows.next();
+            detail = GameArchiveCodec.decode(2, rows.getInt(1), rows.getBytes(2));
+            assertEquals(GameArchiveCodec.encode(detail).rawSize, rows.getInt(3));
+        }
+        assertEquals(2, detail.units.size());
+        for (GameUnit unit : detail.units) {
+            assertEquals(unit.getUnitTypeId() == 1 ? 4 : 3, unit.getOwnerPlayerId());
+        }
+        assertEquals(6, detail.moves.size());
+        for (Move move : detail.moves) {
+            assertTrue(move.getAttackingPlayerId() == 3 || move.getAttackingPlayerId() == 4);
+        }
+        assertEquals(4, detail.moves.get(0).getAttackingPlayerId());
+        assertEquals(4, detail.powerUsages.get(0).getPlayerId());
+        assertEquals(3, detail.powerUsages.get(1).getPlayerId());
+        assertEquals(Arrays.asList(0, 12345, 24690, 37035), detail.eventCodes);
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws Exception {
+        try {
+            JdbcHistory.importFrom(target, new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6}), 100);
+            fail("Imported a file that is not a backup");
+        } catch (IllegalArgumentException expected) {
+            // not a backup
+        }
+        assertEquals("[[0]]", rows(target, "SELECT COUNT(*) FROM games").toString());
+    }
+
+    // Finished games with stats, units, moves, powers and journal rows, results through the triggers
+    static void playGames(Connection connection, int count) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int i = 0; i < count; i++) {
+                statement.execute("INSERT INTO games (player1_id, player2_id, game_mode, game_status, current_round, "
+                        + "max_rounds, created_at, seed) VALUES (1, 2, 'solo_vs_ai', 'in_progress', 1, 30, "
+                        + (1000 + i) + ", " + (i * 7919L - 50) + ")");
+                long game = lastId(statement);
+                for (int player = 1; player <= 2; player++) {
+                    statement.execute("INSERT INTO game_stats (game_id, player_id, total_attacks, successful_hits, "
+                            + "units_destroyed, powers_used, accuracy_percentage) VALUES (" + game + ", " + player
+                            + ", " + (10 + i) + ", " + (i % 7) + ", " + (i % 5) + ", 1, " + (i % 7) * 100.0 / (10 + i) + ")");
+                    statement.execute("INSERT INTO game_units (game_id, unit_type_id, owner_player_id, grid_row, "
+                            + "grid_col, current_health, is_destroyed) VALUES (" + game + ", " + player + ", " + player
+                            + ", 2, 3, 1, 0)");
+                    statement.execute("INSERT INTO power_usages (game_id, player_id, power_name, used_at_round, "
+                            + "timestamp) VALUES (" + game + ", " + player + ", " + (player == 1 ? "'spy_drone'" : "NULL")
+                            + ", 2, 77)");
+                    for (int round = 1; round <= 3; round++) {
+                        statement.execute("INSERT INTO moves (game_id, round_number, attacking_player_id, target_row, "
+                                + "target_col, was_hit, attacker_choice, defender_choice, duel_result, timestamp) VALUES ("
+                                + game + ", " + round + ", " + player + ", " + round + ", 4, " + (round % 2)
+                                + ", 1, 2, 'défendu', " + (1_700_000_000_000L + round) + ")");
+                    }
+                }
+                for (int seq = 0; seq < 4; seq++) {
+                    statement.execute("INSERT INTO game_events (game_id, seq, code) VALUES (" + game + ", " + seq
+                            + ", " + (seq * 12345) + ")");
+                }
+                statement.execute("UPDATE games SET game_status = 'finished', current_round = " + (5 + i % 9)
+                        + ", finished_at = " + (2000 + i) + ", winner_id = " + (1 + i % 3 / 2) + " WHERE game_id = " + game);
+            }
+        }
+    }
+
+    // Packs a played game's units, moves, powers and journal into game_archives, the moves stay live
+    static void archive(Connection connection, int gameId) throws SQLException {
+        List<GameUnit> units = new ArrayList<>();
+        List<Move> moves = new ArrayList<>();
+        List<PowerUsage> powers = new ArrayList<>();
+        List<Integer> events = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rows = statement.executeQuery("SELECT unit_type_id, owner_player_id, grid_row, grid_col, "
+                    + "current_health FROM game_units WHERE game_id = " + gameId + " ORDER BY game_unit_id")) {
+                while (rows.next()) {
+                    units.add(new GameUnit(gameId, rows.getInt(1), rows.getInt(2), rows.getInt(3), rows.getInt(4),
+                            rows.getInt(5)));
+                }
+            }
+            try (ResultSet rows = statement.executeQuery("SELECT round_number, attacking_player_id, target_row, "
+                    + "target_col, was_hit, attacker_choice, defender_choice, duel_result, timestamp FROM moves "
+                    + "WHERE game_id = " + gameId + " ORDER BY move_id")) {
+                while (rows.next()) {
+                    Move move = new Move(gameId, rows.getInt(1), rows.getInt(2), rows.getInt(3), rows.getInt(4),
+                            rows.getBoolean(5), rows.getInt(6), rows.getInt(7), rows.getString(8));
+                    move.setTimestamp(rows.getLong(9));
+                    moves.add(move);
+                }
+            }
+            try (ResultSet rows = statement.executeQuery("SELECT player_id, power_name, used_at_round, timestamp "
+                    + "FROM power_usages WHERE game_id = " + gameId + " ORDER BY power_usage_id")) {
+                while (rows.next()) {
+                    PowerUsage usage = new PowerUsage(gameId, rows.getInt(1), rows.getString(2), rows.getInt(3));
+                    usage.setTimestamp(rows.getLong(4));
+                    powers.add(usage);
+                }
+            }
+            try (ResultSet rows = statement.executeQuery("SELECT code FROM game_events WHERE game_id = " + gameId
+                    + " ORDER BY seq")) {
+                while (rows.next()) events.add(rows.getInt(1));
+            }
+        }
+        GameArchiveCodec.Packed packed = GameArchiveCodec.encode(
+                new GameArchiveCodec.Detail(gameId, units, moves, powers, events));
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO game_archives "
+                + "(game_id, format, data, raw_size, archived_at) VALUES (?, ?, ?, ?, 99)")) {
+            insert.setInt(1, gameId);
+            insert.setInt(2, GameArchiveCodec.FORMAT);
+            insert.setBytes(3, packed.data);
+            insert.setInt(4, packed.rawSize);
+            insert.executeUpdate();
+        }
+    }
+
+    private static long lastId(Statement statement) throws SQLException {
+        try (ResultSet rows = statement.executeQuery("SELECT last_insert_rowid()")) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    private void assertSameRows(String query) throws SQLException {
+        assertEquals(query, rows(source, query), rows(target, query));
+    }
+
+    private static List<List<Object>> rows(Connection connection, String query) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(query)) {
+            ResultSetMetaData meta = result.getMetaData();
+            while (result.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    Object value = result.getObject(i);
+                    row.add(value instanceof byte[] ? Arrays.toString((byte[]) value) : value);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.guerraentrevecinos.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * HistoryBackup over JDBC, for the tests and HistoryBackupBenchmark. Same
+ * queries, same transactions, sqlite-jdbc instead of Room.
+ */
+public final class JdbcHistory {
+
+    private JdbcHistory() {
+    }
+
+    public static long export(Connection connection, OutputStream out, int gamesPerPage)
+            throws IOException, SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            return HistoryFormat.export((sql, args) -> {
+                try {
+                    PreparedStatement statement = connection.prepareStatement(sql);
+                    for (int i = 0; i < args.length; i++) statement.setLong(i + 1, args[i]);
+                    return new ResultSetRows(statement, statement.executeQuery());
+                } catch (SQLException e) {
+                    throw new IOException(e);
+                }
+            }, gamesPerPage, out);
+        } finally {
+            connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    public static long importFrom(Connection connection, InputStream in, int gamesPerTransaction)
+            throws IOException, SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            return HistoryFormat.importInto(in, new ConnectionTarget(connection), gamesPerTransaction);
+        } finally {
+            if (!connection.getAutoCommit()) connection.rollback();
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static final class ResultSetRows implements HistoryFormat.Rows {
+        private final Statement statement;
+        private final ResultSet rows;
+
+        // type() fetches the value, the getter right after it reuses it
+        private int column = -1;
+        private Object value;
+
+        ResultSetRows(Statement statement, ResultSet rows) {
+            this.statement = statement;
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            column = -1;
+            try {
+                return rows.next();
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public int type(int column) {
+            Object value = get(column);
+            if (value == null) return HistoryFormat.TYPE_NULL;
+            if (value instanceof Integer || value instanceof Long) return HistoryFormat.TYPE_INTEGER;
+            if (value instanceof Number) return HistoryFormat.TYPE_FLOAT;
+            if (value instanceof String) return HistoryFormat.TYPE_STRING;
+            return HistoryFormat.TYPE_BLOB;
+        }
+
+        @Override public long getLong(int column) { return ((Number) get(column)).longValue(); }
+        @Override public double getDouble(int column) { return ((Number) get(column)).doubleValue(); }
+        @Override public String getString(int column) { return (String) get(column); }
+        @Override public byte[] getBlob(int column) { return (byte[]) get(column); }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private Object get(int column) {
+            if (column != this.column) {
+                try {
+                    value = rows.getObject(column + 1);
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                this.column = column;
+            }
+            return value;
+        }
+    }
+
+    private static final class ConnectionTarget implements HistoryFormat.Target {
+        private final Connection connection;
+
+        ConnectionTarget(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public HistoryFormat.Statement compile(String sql) throws IOException {
+            PreparedStatement statement = prepare(sql, Statement.RETURN_GENERATED_KEYS);
+            return new HistoryFormat.Statement() {
+                @Override public void bindNull(int index) { bind(() -> statement.setNull(index, Types.NULL)); }
+                @Override public void bindLong(int index, long value) { bind(() -> statement.setLong(index, value)); }
+                @Override public void bindDouble(int index, double value) { bind(() -> statement.setDouble(index, value)); }
+                @Override public void bindString(int index, String value) { bind(() -> statement.setString(index, value)); }
+                @Override public void bindBlob(int index, byte[] value) { bind(() -> statement.setBytes(index, value)); }
+
+                @Override
+                public long executeInsert() throws IOException {
+                    try {
+                        statement.executeUpdate();
+                        try (ResultSet keys = statement.getGeneratedKeys()) {
+                            return keys.next() ? keys.getLong(1) : -1;
+                        }
+                    } catch (SQLException e) {
+                        throw new IOException(e);
+                    }
+                }
+
+                @Override
+                public void execute() throws IOException {
+                    try {
+                        statement.executeUpdate();
+                    } catch (SQLException e) {
+                        throw new IOException(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public long localPlayer(String name, boolean ai) throws IOException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT player_id FROM players WHERE is_ai = "
+                         + (ai ? 1 : 0) + " ORDER BY player_id LIMIT 1")) {
+                if (rows.next()) return rows.getLong(1);
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+            HistoryFormat.Statement insert = compile("INSERT INTO players (player_name, is_ai, total_games, "
+                    + "total_wins, total_losses, created_at) VALUES (?, ?, 0, 0, 0, 0)");
+            insert.bindString(1, name);
+            insert.bindLong(2, ai ? 1 : 0);
+            return insert.executeInsert();
+        }
+
+        @Override
+        public void beginTransaction() throws IOException {
+            try {
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void commitTransaction() throws IOException {
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private PreparedStatement prepare(String sql, int keys) throws IOException {
+            try {
+                return connection.prepareStatement(sql, keys);
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private interface Binding {
+        void run() throws SQLException;
+    }
+
+    private static void bind(Binding binding) {
+        try {
+            binding.run();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.guerraentrevecinos.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MeteredExecutorTest {
+
+    @Test
+    public void orderedExecutorRunsTasksInSubmissionOrder() throws InterruptedException {
+        MeteredExecutor writer = MeteredExecutor.ordered("test-writer");
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int task = i;
+            writer.execute(() -> order.add(task));
+        }
+        writer.shutdown();
+        assertTrue(writer.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(500, order.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+        assertEquals(500, writer.finishedTasks());
+    }
+
+    @Test
+    public void tracksQueueDepthAndWaitTime() throws InterruptedException {
+        MeteredExecutor writer = MeteredExecutor.ordered("test-writer");
+        CountDownLatch release = new CountDownLatch(1);
+        writer.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            writer.execute(() -> { });
+        }
+        assertEquals(3, writer.maxQueueDepth());
+
+        // Slept well past what is asserted, sleep and nanoTime may disagree by a tick
+        Thread.sleep(50);
+        release.countDown();
+        writer.shutdown();
+        assertTrue(writer.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(0, writer.queueDepth());
+        assertEquals(4, writer.finishedTasks());
+        assertTrue(writer.maxWaitMillis() >= 20);
+        assertTrue(writer.maxRunMillis() >= 20);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.guerraentrevecinos.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Builds the database AppDatabase opens with createFromAsset, from RoomSchema.
+ * Regenerate after a schema change, from the project root:
+ *   java -cp <test classpath> com.example.guerraentrevecinos.database.PrepackagedDatabase
+ * PrepackagedDatabaseTest fails while the committed asset is out of date.
+ */
+public final class PrepackagedDatabase {
+
+    public static final File ASSET = new File("src/main/assets/databases/guerra_vecinos.db");
+
+    // AppDatabase's @Database version. Room validates the asset's tables against
+    // the entities on first open and then adds its room_master_table.
+    public static final int VERSION = 7;
+
+    private PrepackagedDatabase() {
+    }
+
+    public static void write(File file) throws IOException, SQLException {
+        Files.deleteIfExists(file.toPath());
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Can't create " + dir);
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath())) {
+            // Before the first table, so GameArchiver can hand pages back with incremental_vacuum
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA auto_vacuum=INCREMENTAL");
+            }
+            RoomSchema.create(connection);
+            try (Statement statement = connection.createStatement()) {
+                // One self-contained file: rollback journal, no -wal sidecar to ship
+                statement.execute("PRAGMA journal_mode=DELETE");
+                statement.execute("PRAGMA user_version=" + VERSION);
+                statement.execute("VACUUM");
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        File file = args.length > 0 ? new File(args[0]) : ASSET;
+        write(file);
+        System.out.println("Wrote " + file.getPath() + " (" + file.length() + " bytes)");
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.guerraentrevecinos.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class PrepackagedDatabaseTest {
+
+    private static final String OUT_OF_DATE =
+            "Asset is out of date, regenerate it with PrepackagedDatabase.main: ";
+
+    private File expected;
+
+    @Before
+    public void setUp() throws IOException, SQLException {
+        expected = File.createTempFile("guerra-asset", ".db");
+        PrepackagedDatabase.write(expected);
+    }
+
+    @After
+    public void tearDown() {
+        expected.delete();
+    }
+
+    @Test
+    public void versionMatchesAppDatabase() throws IOException {
+        String source = new String(Files.readAllBytes(
+                new File("src/main/java/com/example/guerraentrevecinos/database/AppDatabase.java").toPath()),
+                StandardCharsets.UTF_8);
+        Matcher version = Pattern.compile("version = (\\d+)").matcher(source);
+        assertTrue(version.find());
+        assertEquals(Integer.parseInt(version.group(1)), PrepackagedDatabase.VERSION);
+    }
+
+    @Test
+    public void assetMatchesRoomSchema() throws SQLException {
+        assertTrue("Missing " + PrepackagedDatabase.ASSET, PrepackagedDatabase.ASSET.isFile());
+        String[] queries = {
+                "PRAGMA user_version",
+                "PRAGMA journal_mode",
+                "PRAGMA auto_vacuum",
+                "SELECT type, name, sql FROM sqlite_master ORDER BY type, name",
+                "SELECT * FROM units ORDER BY unit_id",
+                "SELECT * FROM players ORDER BY player_id",
+                "SELECT * FROM player_summary ORDER BY player_id",
+        };
+        for (String query : queries) {
+            assertEquals(OUT_OF_DATE + query, rows(expected, query), rows(PrepackagedDatabase.ASSET, query));
+        }
+    }
+
+    // The rows the seeding callback used to insert after startup, with the human as player 1
+    @Test
+    public void assetIsSeeded() throws SQLException {
+        File asset = PrepackagedDatabase.ASSET;
+        assertEquals(4, rows(asset, "SELECT unit_type FROM units").size());
+        assertEquals("[[0, You], [1, Computer]]",
+                rows(asset, "SELECT is_ai, player_name FROM players ORDER BY player_id").toString());
+        assertEquals(2, rows(asset, "SELECT * FROM player_summary").size());
+        assertEquals(8, rows(asset, "SELECT name FROM sqlite_master WHERE type = 'trigger'").size());
+    }
+
+    private static List<List<String>> rows(File file, String query) throws SQLException {
+        List<List<String>> rows = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file.getPath());
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(query)) {
+            ResultSetMetaData meta = result.getMetaData();
+            while (result.next()) {
+                List<String> row = new ArrayList<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) row.add(result.getString(i));
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.guerraentrevecinos.database;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs EXPLAIN QUERY PLAN on every @Query in the DAOs against a seeded copy
+ * of the schema and fails on full-table scans. Queries are read from the DAO
+ * sources, Room keeps no trace of them at runtime. Plans are the ones a
+ * device database gets, no ANALYZE statistics.
+ */
+public class QueryPlanTest {
+
+    private static final File DAO_DIR = new File("src/main/java/com/example/guerraentrevecinos/database/dao");
+    private static final File ENTITY_DIR = new File("src/main/java/com/example/guerraentrevecinos/database/entities");
+
+    // Dao.method -> why reading the whole table is fine
+    private static final Map<String, String> ALLOWED_SCANS = new HashMap<>();
+    static {
+        ALLOWED_SCANS.put("UnitDao.getAllUnits", "loads the four seeded unit types into UnitCatalog");
+    }
+
+    private static final Pattern QUERY = Pattern.compile(
+            "@Query\\((.*?)\\)\\s*\\n\\s*[\\w<>.,\\s]*?\\s(\\w+)\\(", Pattern.DOTALL);
+    private static final Pattern CONSTANT = Pattern.compile("String (\\w+) = (.*?);\\n", Pattern.DOTALL);
+    private static final Pattern TOKEN = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"|(\\w+)");
+    private static final Pattern PARAMETER = Pattern.compile(":\\w+");
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?\\w+( AS \\w+)?$");
+
+    private static final Pattern TABLE_NAME = Pattern.compile("tableName = \"(\\w+)\"");
+    private static final Pattern INDEX = Pattern.compile("@Index\\((.*?)\\)", Pattern.DOTALL);
+    private static final Pattern COLUMN = Pattern.compile("\"(\\w+)\"");
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        RoomSchema.create(connection);
+        seed(connection);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void noDaoQueryScansAWholeTable() throws IOException, SQLException {
+        Map<String, String> queries = daoQueries();
+        assertFalse("No @Query found under " + DAO_DIR, queries.isEmpty());
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            List<String> plan = explain(query.getValue());
+            for (String step : plan) {
+                if (FULL_SCAN.matcher(step).matches() && !ALLOWED_SCANS.containsKey(query.getKey())) {
+                    failures.add(query.getKey() + ": " + plan);
+                    break;
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            fail("Full-table scans:\n" + String.join("\n", failures));
+        }
+    }
+
+    // Keyset pages must seek to the key, not walk every newer game before it
+    @Test
+    public void historyPages_searchARangeOfTheFinishIndex() throws IOException, SQLException {
+        Map<String, String> queries = daoQueries();
+        String older = "SEARCH g USING INDEX index_games_game_status_finished_at (game_status=? AND finished_at<?)";
+        String newer = "SEARCH g USING INDEX index_games_game_status_finished_at (game_status=? AND finished_at>?)";
+        List<String> page = explain(queries.get("StatisticsDao.getHistoryPage"));
+        List<String> refresh = explain(queries.get("StatisticsDao.getHistoryNewerThan"));
+        assertTrue(page.toString(), page.contains(older));
+        assertTrue(refresh.toString(), refresh.contains(newer));
+    }
+
+    // HistoryBackup's export pages seek their key range instead of rescanning the table per page
+    @Test
+    public void backupPages_searchTheirKeyRange() throws SQLException {
+        List<HistoryFormat.Table> tables = new ArrayList<>(Arrays.asList(HistoryFormat.CHILDREN));
+        tables.add(HistoryFormat.PLAYERS);
+        tables.add(HistoryFormat.GAMES);
+        for (HistoryFormat.Table table : tables) {
+            for (String sql : new String[]{table.pageSql(), table.pageEndSql()}) {
+                List<String> plan = explain(sql);
+                // An INTEGER PRIMARY KEY key shows up as the rowid
+                assertTrue(sql + " " + plan, plan.stream().anyMatch(step -> step.startsWith("SEARCH")
+                        && (step.contains(table.columns[0] + ">?") || step.contains("rowid>?"))));
+            }
+        }
+    }
+
+    // The plans above are only as good as RoomSchema's copy of the entities
+    @Test
+    public void schemaHasEveryEntityTableAndIndex() throws IOException, SQLException {
+        Set<String> existing = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT name FROM sqlite_master")) {
+            while (rows.next()) existing.add(rows.getString(1));
+        }
+
+        for (File file : sources(ENTITY_DIR)) {
+            String source = read(file);
+            Matcher table = TABLE_NAME.matcher(source);
+            if (!table.find()) continue;
+            String name = table.group(1);
+            assertTrue("RoomSchema is missing table " + name, existing.contains(name));
+
+            Matcher index = INDEX.matcher(source);
+            while (index.find()) {
+                List<String> columns = new ArrayList<>();
+                Matcher column = COLUMN.matcher(index.group(1));
+                while (column.find()) columns.add(column.group(1));
+                String indexName = "index_" + name + "_" + String.join("_", columns);
+                assertTrue("RoomSchema is missing " + indexName, existing.contains(indexName));
+            }
+        }
+    }
+
+    // "Dao.method" -> SQL with ? for every :parameter
+    static Map<String, String> daoQueries() throws IOException {
+        Map<String, String> queries = new HashMap<>();
+        for (File file : sources(DAO_DIR)) {
+            String source = read(file);
+            String dao = file.getName().replace(".java", "");
+
+            Map<String, String> constants = new HashMap<>();
+            Matcher constant = CONSTANT.matcher(source);
+            while (constant.find()) {
+                constants.put(constant.group(1), concat(constant.group(2), constants));
+            }
+
+            Matcher query = QUERY.matcher(source);
+            while (query.find()) {
+                String sql = concat(query.group(1), constants);
+                queries.put(dao + "." + query.group(2), PARAMETER.matcher(sql).replaceAll("?"));
+            }
+        }
+        return queries;
+    }
+
+    // Evaluates a "literal" + CONSTANT + ... expression
+    private static String concat(String expression, Map<String, String> constants) {
+        StringBuilder sql = new StringBuilder();
+        Matcher token = TOKEN.matcher(expression);
+        while (token.find()) {
+            if (token.group(1) != null) {
+                sql.append(token.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+            } else if (constants.containsKey(token.group(2))) {
+                sql.append(constants.get(token.group(2)));
+            } else {
+                throw new IllegalStateException("Unknown constant in @Query: " + token.group(2));
+            }
+        }
+        return sql.toString();
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        List<String> plan = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) plan.add(rows.getString("detail"));
+            }
+        }
+        return plan;
+    }
+
+    // A few finished games with stats and moves on top of RoomSchema's seed rows
+    private static void seed(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int game = 1; game <= 20; game++) {
+                statement.execute("INSERT INTO games (player1_id, player2_id, game_mode, game_status, "
+                        + "current_round, max_rounds, created_at, seed) VALUES (1, 2, 'solo_vs_ai', 'in_progress', 1, 30, 0, 0)");
+                for (int player = 1; player <= 2; player++) {
+                    statement.execute("INSERT INTO game_stats (game_id, player_id, total_attacks, successful_hits, "
+                            + "units_destroyed, powers_used, accuracy_percentage) VALUES (" + game + ", " + player + ", 0, 0, 0, 0, 0)");
+                    statement.execute("INSERT INTO moves (game_id, round_number, attacking_player_id, target_row, "
+                            + "target_col, was_hit, attacker_choice, defender_choice, duel_result, timestamp) "
+                            + "VALUES (" + game + ", 1, " + player + ", 0, 0, 1, 1, 2, 'destroyed', 0)");
+                }
+                statement.execute("UPDATE games SET game_status = 'finished', winner_id = " + (1 + game % 2)
+                        + ", current_round = " + game + ", finished_at = " + game + " WHERE game_id = " + game);
+            }
+        }
+    }
+
+    private static List<File> sources(File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".java"));
+        if (files == null) throw new IllegalStateException("Not found: " + dir.getAbsolutePath());
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.guerraentrevecinos.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The app's database as a fresh install gets it at the current AppDatabase
+ * version, triggers and seed rows included. PrepackagedDatabase builds the
+ * shipped asset from it, and JDBC tests and benchmarks run the same SQL the
+ * device does. Keep in sync with the entities and migrations; QueryPlanTest
+ * fails if an entity table or index is missing here.
+ */
+public final class RoomSchema {
+
+    public static final String[] TABLES = {
+            "CREATE TABLE IF NOT EXISTS `players` (`player_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`player_name` TEXT, `is_ai` INTEGER NOT NULL, `total_games` INTEGER NOT NULL, "
+                    + "`total_wins` INTEGER NOT NULL, `total_losses` INTEGER NOT NULL, `created_at` INTEGER NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS `index_players_is_ai` ON `players` (`is_ai`)",
+            "CREATE TABLE IF NOT EXISTS `games` (`game_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`player1_id` INTEGER NOT NULL, `player2_id` INTEGER NOT NULL, `winner_id` INTEGER, "
+                    + "`game_mode` TEXT, `game_status` TEXT, `current_round` INTEGER NOT NULL, "
+                    + "`max_rounds` INTEGER NOT NULL, `created_at` INTEGER NOT NULL, `finished_at` INTEGER, "
+                    + "`seed` INTEGER NOT NULL DEFAULT 0, "
+                    + "FOREIGN KEY(`player1_id`) REFERENCES `players`(`player_id`) ON UPDATE NO ACTION ON DELETE CASCADE, "
+                    + "FOREIGN KEY(`player2_id`) REFERENCES `players`(`player_id`) ON UPDATE NO ACTION ON DELETE CASCADE)",
+            "CREATE INDEX IF NOT EXISTS `index_games_player1_id` ON `games` (`player1_id`)",
+            "CREATE INDEX IF NOT EXISTS `index_games_player2_id` ON `games` (`player2_id`)",
+            "CREATE INDEX IF NOT EXISTS `index_games_winner_id_game_status` ON `games` (`winner_id`, `game_status`)",
+            "CREATE INDEX IF NOT EXISTS `index_games_game_status_finished_at` ON `games` (`game_status`, `finished_at`)",
+            "CREATE TABLE IF NOT EXISTS `units` (`unit_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`unit_type` TEXT, `unit_name` TEXT, `base_health` INTEGER NOT NULL, "
+                    + "`has_special_ability` INTEGER NOT NULL, `ability_description` TEXT)",
+            "CREATE INDEX IF NOT EXISTS `index_units_unit_type` ON `units` (`unit_type`)",
+            "CREATE TABLE IF NOT EXISTS `game_units` (`game_unit_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`game_id` INTEGER NOT NULL, `unit_type_id` INTEGER NOT NULL, `owner_player_id` INTEGER NOT NULL, "
+                    + "`grid_row` INTEGER NOT NULL, `grid_col` INTEGER NOT NULL, `current_health` INTEGER NOT NULL, "
+                    + "`is_destroyed` INTEGER NOT NULL, "
+                    + "FOREIGN KEY(`game_id`) REFERENCES `games`(`game_id`) ON UPDATE NO ACTION ON DELETE CASCADE, "
+                    + "FOREIGN KEY(`unit_type_id`) REFERENCES `units`(`unit_id`) ON UPDATE NO ACTION ON DELETE CASCADE)",
+            "CREATE INDEX IF NOT EXISTS `index_game_units_game_id` ON `game_units` (`game_id`)",
+            "CREATE INDEX IF NOT EXISTS `index_game_units_unit_type_id` ON `game_units` (`unit_type_id`)",
+            "CREATE TABLE IF NOT EXISTS `moves` (`move_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`game_id` INTEGER NOT NULL, `round_number` INTEGER NOT NULL, `attacking_player_id` INTEGER NOT NULL, "
+                    + "`target_row` INTEGER NOT NULL, `target_col` INTEGER NOT NULL, `was_hit` INTEGER NOT NULL, "
+                    + "`attacker_choice` INTEGER NOT NULL, `defender_choice` INTEGER NOT NULL, `duel_result` TEXT, "
+                    + "`timestamp` INTEGER NOT NULL, "
+                    + "FOREIGN KEY(`game_id`) REFERENCES `games`(`game_id`) ON UPDATE NO ACTION ON DELETE CASCADE)",
+            "CREATE INDEX IF NOT EXISTS `index_moves_game_id_round_number` ON `moves` (`game_id`, `round_number`)",
+            "CREATE INDEX IF NOT EXISTS `index_moves_game_id_attacking_player_id_was_hit` "
+                    + "ON `moves` (`game_id`, `attacking_player_id`, `was_hit`)",
+            "CREATE TABLE IF NOT EXISTS `power_usages` (`power_usage_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`game_id` INTEGER NOT NULL, `player_id` INTEGER NOT NULL, `power_name` TEXT, "
+                    + "`used_at_round` INTEGER NOT NULL, `timestamp` INTEGER NOT NULL, "
+                    + "FOREIGN KEY(`game_id`) REFERENCES `games`(`game_id`) ON UPDATE NO ACTION ON DELETE CASCADE)",
+            "CREATE INDEX IF NOT EXISTS `index_power_usages_game_id` ON `power_usages` (`game_id`)",
+            "CREATE TABLE IF NOT EXISTS `game_stats` (`stat_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`game_id` INTEGER NOT NULL, `player_id` INTEGER NOT NULL, `total_attacks` INTEGER NOT NULL, "
+                    + "`successful_hits` INTEGER NOT NULL, `units_destroyed` INTEGER NOT NULL, "
+                    + "`powers_used` INTEGER NOT NULL, `accuracy_percentage` REAL NOT NULL, "
+                    + "FOREIGN KEY(`game_id`) REFERENCES `games`(`game_id`) ON UPDATE NO ACTION ON DELETE CASCADE)",
+            "CREATE INDEX IF NOT EXISTS `index_game_stats_game_id_player_id` ON `game_stats` (`game_id`, `player_id`)",
+            "CREATE TABLE IF NOT EXISTS `game_events` (`event_id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`game_id` INTEGER NOT NULL, `seq` INTEGER NOT NULL, `code` INTEGER NOT NULL, "
+                    + "FOREIGN KEY(`game_id`) REFERENCES `games`(`game_id`) ON UPDATE NO ACTION ON DELETE CASCADE)",
+            "CREATE UNIQUE INDEX IF NOT EXISTS `index_game_events_game_id_seq` ON `game_events` (`game_id`, `seq`)",
+            "CREATE TABLE IF NOT EXISTS `player_summary` (`player_id` INTEGER NOT NULL, "
+                    + "`total_games` INTEGER NOT NULL DEFAULT 0, `total_wins` INTEGER NOT NULL DEFAULT 0, "
+                    + "`total_losses` INTEGER NOT NULL DEFAULT 0, `current_win_streak` INTEGER NOT NULL DEFAULT 0, "
+                    + "`best_win_streak` INTEGER NOT NULL DEFAULT 0, `best_accuracy` REAL NOT NULL DEFAULT 0, "
+                    + "`most_units_destroyed` INTEGER NOT NULL DEFAULT 0, `fastest_win` INTEGER, "
+                    + "`total_attacks` INTEGER NOT NULL DEFAULT 0, `successful_hits` INTEGER NOT NULL DEFAULT 0, "
+                    + "PRIMARY KEY(`player_id`), "
+                    + "FOREIGN KEY(`player_id`) REFERENCES `players`(`player_id`) ON UPDATE NO ACTION ON DELETE CASCADE)",
+            "CREATE TABLE IF NOT EXISTS `game_archives` (`game_id` INTEGER NOT NULL, `format` INTEGER NOT NULL, "
+                    + "`data` BLOB NOT NULL, `raw_size` INTEGER NOT NULL, `archived_at` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`game_id`), "
+                    + "FOREIGN KEY(`game_id`) REFERENCES `games`(`game_id`) ON UPDATE NO ACTION ON DELETE CASCADE)",
+    };
+
+    // Stats bookkeeping, MIGRATION_3_4 adds the trg_summary_* ones to older installs
+    public static final String[] TRIGGERS = {
+            "CREATE TRIGGER trg_total_games_p1 AFTER INSERT ON games FOR EACH ROW BEGIN "
+                    + "UPDATE players SET total_games = total_games + 1 WHERE player_id = NEW.player1_id; END",
+            "CREATE TRIGGER trg_total_games_p2 AFTER INSERT ON games FOR EACH ROW BEGIN "
+                    + "UPDATE players SET total_games = total_games + 1 WHERE player_id = NEW.player2_id; END",
+            "CREATE TRIGGER trg_update_wins AFTER UPDATE OF winner_id ON games FOR EACH ROW "
+                    + "WHEN NEW.winner_id IS NOT NULL AND OLD.winner_id IS NULL BEGIN "
+                    + "UPDATE players SET total_wins = total_wins + 1 WHERE player_id = NEW.winner_id; END",
+            "CREATE TRIGGER trg_update_losses AFTER UPDATE OF winner_id ON games FOR EACH ROW "
+                    + "WHEN NEW.winner_id IS NOT NULL AND OLD.winner_id IS NULL BEGIN "
+                    + "UPDATE players SET total_losses = total_losses + 1 "
+                    + "WHERE player_id = CASE WHEN NEW.winner_id = NEW.player1_id THEN NEW.player2_id ELSE NEW.player1_id END; END",
+            "CREATE TRIGGER trg_calculate_accuracy AFTER UPDATE OF total_attacks, successful_hits ON game_stats FOR EACH ROW "
+                    + "WHEN NEW.total_attacks > 0 BEGIN "
+                    + "UPDATE game_stats SET accuracy_percentage = (CAST(NEW.successful_hits AS REAL) / NEW.total_attacks) * 100 "
+                    + "WHERE stat_id = NEW.stat_id; END",
+            // AppDatabase.createSummaryTriggers
+            "CREATE TRIGGER IF NOT EXISTS trg_summary_player AFTER INSERT ON players FOR EACH ROW BEGIN "
+                    + "INSERT OR IGNORE INTO player_summary (player_id) VALUES (NEW.player_id); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_summary_games AFTER INSERT ON games FOR EACH ROW BEGIN "
+                    + "UPDATE player_summary SET total_games = total_games + 1 "
+                    + "WHERE player_id IN (NEW.player1_id, NEW.player2_id); END",
+            "CREATE TRIGGER IF NOT EXISTS trg_summary_finish AFTER UPDATE OF winner_id ON games FOR EACH ROW "
+                    + "WHEN NEW.winner_id IS NOT NULL AND OLD.winner_id IS NULL BEGIN "
+                    + "UPDATE player_summary SET "
+                    + "total_wins = total_wins + (player_id = NEW.winner_id), "
+                    + "total_losses = total_losses + (player_id != NEW.winner_id), "
+                    + "current_win_streak = CASE WHEN player_id = NEW.winner_id THEN current_win_streak + 1 ELSE 0 END, "
+                    + "best_win_streak = MAX(best_win_streak, CASE WHEN player_id = NEW.winner_id THEN current_win_streak + 1 ELSE 0 END), "
+                    + "fastest_win = CASE WHEN player_id = NEW.winner_id "
+                    + "THEN MIN(COALESCE(fastest_win, NEW.current_round), NEW.current_round) ELSE fastest_win END, "
+                    + "best_accuracy = MAX(best_accuracy, COALESCE((SELECT MAX(s.successful_hits * 100.0 / s.total_attacks) "
+                    + "FROM game_stats s WHERE s.game_id = NEW.game_id AND s.player_id = player_summary.player_id "
+                    + "AND s.total_attacks > 0), 0)), "
+                    + "most_units_destroyed = MAX(most_units_destroyed, COALESCE((SELECT MAX(s.units_destroyed) "
+                    + "FROM game_stats s WHERE s.game_id = NEW.game_id AND s.player_id = player_summary.player_id), 0)), "
+                    + "total_attacks = total_attacks + COALESCE((SELECT SUM(s.total_attacks) "
+                    + "FROM game_stats s WHERE s.game_id = NEW.game_id AND s.player_id = player_summary.player_id), 0), "
+                    + "successful_hits = successful_hits + COALESCE((SELECT SUM(s.successful_hits) "
+                    + "FROM game_stats s WHERE s.game_id = NEW.game_id AND s.player_id = player_summary.player_id), 0) "
+                    + "WHERE player_id IN (NEW.player1_id, NEW.player2_id); END",
+    };
+
+    // Unit types and the two players, ids 1..4 and 1..2. Screens take player 1 as the human.
+    public static final String[] SEED = {
+            "INSERT INTO units (unit_type, unit_name, base_health, has_special_ability, ability_description) VALUES "
+                    + "('sunflower', 'Sunflower', 2, 0, 'Standard unit'), "
+                    + "('rose', 'Rose', 2, 1, 'Changes color after being hit'), "
+                    + "('dog', 'Dog', 2, 1, 'Fear: Can''t be attacked twice in a row'), "
+                    + "('cat', 'Cat', 2, 1, 'Teleports to random space after hit')",
+            "INSERT INTO players (player_name, is_ai, total_games, total_wins, total_losses, created_at) VALUES "
+                    + "('You', 0, 0, 0, 0, 0), ('Computer', 1, 0, 0, 0, 0)",
+    };
+
+    private RoomSchema() {
+    }
+
+    // Room on Android: WAL journal, foreign keys enforced
+    public static void create(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA foreign_keys=ON");
+            for (String sql : TABLES) statement.execute(sql);
+            for (String sql : TRIGGERS) statement.execute(sql);
+            for (String sql : SEED) statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.guerraentrevecinos.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Rules checks that run on the JVM, no device needed.
+ */
+public class BattleRulesTest {
+
+    @Test
+    public void directHit_matchesEitherAttackNumber() {
+        assertTrue(BattleRules.isDirectHit(3, BattleRules.NO_CHOICE, 3));
+        assertTrue(BattleRules.isDirectHit(2, 5, 5));
+        assertFalse(BattleRules.isDirectHit(2, 5, 4));
+        assertFalse(BattleRules.isDirectHit(2, BattleRules.NO_CHOICE, BattleRules.NO_CHOICE));
+    }
+
+    @Test
+    public void partialHit_damagesThenDestroys() {
+        Garden garden = new Garden();
+        int slot = garden.addUnit(1, 1, "sunflower", 2);
+
+        assertEquals(HitResult.DAMAGED, BattleRules.applyHit(garden, slot, false, true, new Random(1)));
+        assertEquals(1, garden.health(slot));
+
+        assertEquals(HitResult.DESTROYED, BattleRules.applyHit(garden, slot, false, true, new Random(1)));
+        assertFalse(garden.isOccupied(1, 1));
+        assertFalse(garden.hasUnitsLeft());
+    }
+
+    @Test
+    public void cat_teleportsOnceThenDies() {
+        Garden garden = new Garden();
+        int cat = garden.addUnit(0, 0, "cat", 2);
+
+        assertEquals(HitResult.TELEPORTED, BattleRules.applyHit(garden, cat, true, true, new Random(7)));
+        assertTrue(garden.isAlive(cat));
+        assertEquals(1, garden.health(cat));
+        assertEquals(cat, garden.slotAt(garden.row(cat), garden.col(cat)));
+        assertFalse(garden.isOccupied(0, 0));
+
+        assertEquals(HitResult.DESTROYED, BattleRules.applyHit(garden, cat, true, true, new Random(7)));
+        assertEquals(0, garden.aliveCount());
+    }
+
+    @Test
+    public void dogFear_onlyWhenEnabled() {
+        Garden garden = new Garden();
+        int dog = garden.addUnit(4, 4, "dog", 2);
+        int otherDog = garden.addUnit(5, 5, "dog", 2);
+
+        assertEquals(HitResult.DOG_FEAR, BattleRules.applyHit(garden, dog, false, true, new Random()));
+        assertTrue(garden.isDogFearActive(dog));
+        assertEquals(HitResult.DAMAGED, BattleRules.applyHit(garden, otherDog, false, false, new Random()));
+        assertFalse(garden.isDogFearActive(otherDog));
+    }
+
+    @Test
+    public void aiTarget_skipsScaredDogAndMissesOnEmptyCell() {
+        Garden garden = new Garden();
+        int dog = garden.addUnit(0, 0, "dog", 2);
+        int rose = garden.addUnit(0, 1, "rose", 2);
+        garden.setDogFear(dog, true);
+
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(garden.cellOf(rose), BattleRules.pickAiTarget(garden, true, random));
+            int miss = BattleRules.pickAiTarget(garden, false, random);
+            assertEquals(-1, garden.slotAt(Garden.rowOf(miss), Garden.colOf(miss)));
+        }
+    }
+
+    @Test
+    public void placeArmy_usesDistinctCells() {
+        Garden garden = new Garden();
+        BattleRules.placeArmy(garden, new Random(5));
+
+        assertEquals(7, garden.unitCount());
+        assertEquals(7, garden.aliveCount());
+    }
+}
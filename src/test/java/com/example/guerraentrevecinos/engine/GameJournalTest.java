@@ -0,0 +1,99 @@
+package com.example.guerraentrevecinos.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameJournalTest {
+
+    @Test
+    public void encode_roundTrips() {
+        int code = GameJournal.encode(GameJournal.HIT, GameState.Side.AI, 63, 17, HitResult.TELEPORTED.ordinal());
+
+        assertEquals(GameJournal.HIT, GameJournal.typeOf(code));
+        assertEquals(GameState.Side.AI, GameJournal.sideOf(code));
+        assertEquals(63, GameJournal.cellOf(code));
+        assertEquals(17, GameJournal.argOf(code));
+        assertEquals(HitResult.TELEPORTED.ordinal(), GameJournal.valueOf(code));
+    }
+
+    @Test
+    public void fold_rebuildsEveryRound() {
+        Random random = new GameRandom(11);
+        Garden player = new Garden();
+        Garden ai = new Garden();
+        BattleRules.placeArmy(player, random);
+        BattleRules.placeArmy(ai, random);
+
+        GameJournal journal = new GameJournal();
+        journal.placeAll(GameState.Side.PLAYER, player);
+        journal.placeAll(GameState.Side.AI, ai);
+
+        // Board at the start of each round, as the live game saw it
+        List<Garden[]> starts = new ArrayList<>();
+        for (int round = 1; round <= BattleRules.MAX_ROUNDS; round++) {
+            starts.add(new Garden[]{new Garden(player), new Garden(ai)});
+            if (!player.hasUnitsLeft() || !ai.hasUnitsLeft()) break;
+
+            attack(ai, GameState.Side.AI, false, journal, random);
+
+            // Relocate or heal a player unit now and then
+            int cell = player.randomOccupiedCell(random);
+            int slot = player.slotAt(Garden.rowOf(cell), Garden.colOf(cell));
+            int to = player.randomEmptyCell(random);
+            if (round % 3 == 0 && player.moveUnit(slot, Garden.rowOf(to), Garden.colOf(to))) {
+                journal.move(GameState.Side.PLAYER, cell, to);
+            } else if (round % 5 == 0 && player.health(slot) == 1) {
+                player.setHealth(slot, Garden.MAX_HEALTH);
+                journal.heal(GameState.Side.PLAYER, cell);
+            }
+
+            if (player.dogFearMask() != 0) {
+                player.clearDogFear();
+                journal.fearCleared(GameState.Side.PLAYER);
+            }
+            attack(player, GameState.Side.PLAYER, true, journal, random);
+            journal.endRound();
+        }
+
+        for (int round = 1; round <= starts.size(); round++) {
+            GameJournal.Board board = journal.fold(round);
+            assertEquals(round, board.round());
+            assertSameGarden(starts.get(round - 1)[0], board.garden(GameState.Side.PLAYER));
+            assertSameGarden(starts.get(round - 1)[1], board.garden(GameState.Side.AI));
+        }
+        assertSameGarden(player, journal.fold().garden(GameState.Side.PLAYER));
+        assertSameGarden(ai, journal.fold().garden(GameState.Side.AI));
+    }
+
+    private static void attack(Garden target, GameState.Side side, boolean dogFear,
+                               GameJournal journal, Random random) {
+        int cell = random.nextInt(Garden.CELLS);
+        int slot = target.slotAt(Garden.rowOf(cell), Garden.colOf(cell));
+        if (slot < 0) {
+            journal.miss(side, cell);
+            return;
+        }
+        HitResult hit = BattleRules.applyHit(target, slot, random.nextInt(4) == 0, dogFear, random);
+        journal.hit(side, cell, hit, target, slot);
+    }
+
+    private static void assertSameGarden(Garden expected, Garden actual) {
+        assertEquals(expected.occupiedMask(), actual.occupiedMask());
+        assertEquals(expected.damagedMask(), actual.damagedMask());
+        assertEquals(expected.abilityUsedMask(), actual.abilityUsedMask());
+        assertEquals(expected.dogFearMask(), actual.dogFearMask());
+        assertEquals(expected.unitCount(), actual.unitCount());
+        for (int slot = 0; slot < expected.unitCount(); slot++) {
+            assertEquals(expected.isAlive(slot), actual.isAlive(slot));
+            if (!expected.isAlive(slot)) continue;
+            assertEquals(expected.cellOf(slot), actual.cellOf(slot));
+            assertEquals(expected.kind(slot), actual.kind(slot));
+            assertEquals(expected.rose(slot), actual.rose(slot));
+        }
+    }
+}
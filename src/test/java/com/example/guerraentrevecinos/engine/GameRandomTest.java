@@ -0,0 +1,51 @@
+package com.example.guerraentrevecinos.engine;
+
+import com.example.guerraentrevecinos.engine.sim.GreedyPolicy;
+import com.example.guerraentrevecinos.engine.sim.SimulationConfig;
+import com.example.guerraentrevecinos.engine.sim.SoloGame;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameRandomTest {
+
+    @Test
+    public void sameSeed_sameSequence() {
+        GameRandom first = new GameRandom(123);
+        GameRandom second = new GameRandom(123);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextInt(64), second.nextInt(64));
+        }
+    }
+
+    @Test
+    public void streams_dependOnlyOnIndex() {
+        GameRandom game = new GameRandom(99);
+        int expected = game.stream(GameRandom.BATTLE_STREAM).nextInt();
+
+        game.nextLong();
+        game.stream(GameRandom.SETUP_STREAM).nextInt();
+
+        assertEquals(expected, game.stream(GameRandom.BATTLE_STREAM).nextInt());
+        assertNotEquals(expected, game.stream(GameRandom.SETUP_STREAM).nextInt());
+    }
+
+    @Test
+    public void seed_replaysWholeGame() {
+        SimulationConfig config = SimulationConfig.defaults(Power.SPY_DRONE);
+
+        SoloGame first = new SoloGame(config, new GreedyPolicy(), new GameRandom(2024)).play();
+        SoloGame replay = new SoloGame(config, new GreedyPolicy(), new GameRandom(2024)).play();
+
+        assertEquals(first.isPlayerWon(), replay.isPlayerWon());
+        assertEquals(first.rounds(), replay.rounds());
+        assertEquals(first.playerGarden().occupiedMask(), replay.playerGarden().occupiedMask());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void seed_cannotBeReset() {
+        new GameRandom(1).setSeed(2);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.guerraentrevecinos.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GameStateTest {
+
+    private static GameState newGame(long seed) {
+        GameRandom random = new GameRandom(seed);
+        Garden player = new Garden();
+        Garden ai = new Garden();
+        BattleRules.placeArmy(player, random);
+        BattleRules.placeArmy(ai, random);
+        return GameState.initial(player, ai);
+    }
+
+    @Test
+    public void hit_leavesPreviousStateUntouched() {
+        GameState start = newGame(1);
+        GameState hit = start.hit(GameState.Side.AI, 0, false, false, new GameRandom(2));
+
+        assertEquals(2, start.garden(GameState.Side.AI).health(0));
+        assertEquals(1, hit.garden(GameState.Side.AI).health(0));
+        assertSame(start, hit.previous());
+        assertEquals(HitResult.DAMAGED, hit.lastHit());
+    }
+
+    @Test
+    public void transitions_shareUntouchedParts() {
+        GameState start = newGame(3);
+        GameState hit = start.hit(GameState.Side.AI, 1, false, false, new GameRandom(4));
+
+        // The player's garden is the same object, the AI's only changed its bitboards
+        assertSame(start.garden(GameState.Side.PLAYER), hit.garden(GameState.Side.PLAYER));
+        GardenSnapshot before = start.garden(GameState.Side.AI);
+        GardenSnapshot after = hit.garden(GameState.Side.AI);
+        assertTrue(after.sharesUnitsWith(before));
+        assertTrue(after.sharesCellsWith(before));
+    }
+
+    @Test
+    public void move_copiesCellsOnly() {
+        GameState start = newGame(5);
+        GardenSnapshot before = start.garden(GameState.Side.PLAYER);
+        int target = before.toGarden().randomEmptyCell(new GameRandom(6));
+
+        GameState moved = start.move(GameState.Side.PLAYER, 0, Garden.rowOf(target), Garden.colOf(target));
+        GardenSnapshot after = moved.garden(GameState.Side.PLAYER);
+
+        assertEquals(target, after.cellOf(0));
+        assertEquals(0, after.slotAt(Garden.rowOf(target), Garden.colOf(target)));
+        assertFalse(after.sharesCellsWith(before));
+        assertTrue(after.sharesUnitsWith(before));
+        assertEquals(before.cellOf(0), start.garden(GameState.Side.PLAYER).cellOf(0));
+    }
+
+    @Test
+    public void undo_walksBackThroughHistory() {
+        GameState state = newGame(7);
+        GameState start = state;
+        GameRandom random = new GameRandom(8);
+        for (int i = 0; i < 1000 && !state.isOver(BattleRules.MAX_ROUNDS); i++) {
+            GardenSnapshot ai = state.garden(GameState.Side.AI);
+            int slot = ai.slotAt(Garden.rowOf(Long.numberOfTrailingZeros(ai.occupiedMask())),
+                    Garden.colOf(Long.numberOfTrailingZeros(ai.occupiedMask())));
+            state = state.hit(GameState.Side.AI, slot, false, false, random).nextRound();
+        }
+
+        int steps = 0;
+        while (state.previous() != null) {
+            state = state.previous();
+            steps++;
+        }
+        assertSame(start, state);
+        assertTrue(steps > 0);
+    }
+}
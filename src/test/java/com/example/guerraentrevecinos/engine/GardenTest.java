@@ -0,0 +1,87 @@
+package com.example.guerraentrevecinos.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GardenTest {
+
+    @Test
+    public void randomCells_stayInTheirHalf() {
+        Random random = new Random(9);
+        Garden garden = new Garden();
+        for (int i = 0; i < 40; i++) {
+            int cell = garden.randomEmptyCell(random);
+            garden.addUnit(Garden.rowOf(cell), Garden.colOf(cell), "sunflower", 2);
+        }
+
+        // Kill and move units around, then check both samplers against the bitboard
+        for (int step = 0; step < 500; step++) {
+            int slot = random.nextInt(garden.unitCount());
+            if (!garden.isAlive(slot)) continue;
+            if (step % 7 == 0) {
+                garden.setHealth(slot, 0);
+            } else {
+                int to = garden.randomEmptyCell(random);
+                assertTrue(garden.moveUnit(slot, Garden.rowOf(to), Garden.colOf(to)));
+            }
+
+            assertEquals(Long.bitCount(garden.occupiedMask()), garden.aliveCount());
+            int empty = garden.randomEmptyCell(random);
+            int occupied = garden.randomOccupiedCell(random);
+            assertFalse(garden.isOccupied(Garden.rowOf(empty), Garden.colOf(empty)));
+            if (garden.hasUnitsLeft()) {
+                assertTrue(garden.isOccupied(Garden.rowOf(occupied), Garden.colOf(occupied)));
+            }
+        }
+    }
+
+    @Test
+    public void fullGarden_hasNoEmptyCell() {
+        Garden garden = new Garden();
+        for (int cell = 0; cell < Garden.CELLS; cell++) {
+            garden.addUnit(Garden.rowOf(cell), Garden.colOf(cell), "rose", 2);
+        }
+
+        assertEquals(-1, garden.randomEmptyCell(new Random()));
+        assertEquals(-1, new Garden().randomOccupiedCell(new Random()));
+    }
+
+    @Test
+    public void copy_isIndependent() {
+        Garden garden = new Garden();
+        int slot = garden.addUnit(2, 3, "dog", 2);
+        Garden copy = new Garden(garden);
+
+        copy.setHealth(slot, 0);
+
+        assertTrue(garden.isAlive(slot));
+        assertEquals(1, garden.aliveCount());
+        assertEquals(0, copy.aliveCount());
+    }
+
+    @Test
+    public void packedUnit_keepsKindAndRoseColor() {
+        Garden garden = new Garden();
+        int rose = garden.addUnit(3, 3, "rose", 2);
+        int cat = garden.addUnit(3, 4, UnitKind.CAT, 1);
+
+        garden.setRoseColor(rose, RoseColor.BLACK);
+        assertEquals(UnitKind.ROSE, garden.kind(rose));
+        assertEquals("black", garden.roseColor(rose));
+        assertEquals(UnitKind.CAT, garden.kind(cat));
+        assertEquals(RoseColor.RED, garden.rose(cat));
+
+        Garden copy = new Garden(garden);
+        copy.setRoseColor(rose, "white");
+        assertEquals(RoseColor.BLACK, garden.rose(rose));
+        assertEquals(UnitKind.ROSE, copy.kind(rose));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addUnit_rejectsUnknownType() {
+        new Garden().addUnit(0, 0, "tulip", 2);
+    }
+}
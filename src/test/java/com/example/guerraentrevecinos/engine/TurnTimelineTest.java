@@ -0,0 +1,66 @@
+package com.example.guerraentrevecinos.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TurnTimelineTest {
+
+    @Test
+    public void steps_runInTimeOrder() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        TurnTimeline timeline = new TurnTimeline(scheduler, false);
+        List<String> log = new ArrayList<>();
+
+        timeline.after(2000, () -> log.add("ai turn"));
+        timeline.after(1500, () -> {
+            log.add("splash");
+            timeline.after(1500, () -> log.add("next round"));
+        });
+
+        scheduler.advanceBy(1999);
+        assertEquals(List.of("splash"), log);
+
+        scheduler.runUntilIdle();
+        assertEquals(List.of("splash", "ai turn", "next round"), log);
+        assertEquals(3000, scheduler.now());
+    }
+
+    @Test
+    public void fastForward_collapsesDelays() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        TurnTimeline timeline = new TurnTimeline(scheduler, true);
+        int[] rounds = {0};
+
+        // 30 rounds of 1.5 s + 2 s steps take no virtual time at all
+        Runnable[] round = new Runnable[1];
+        round[0] = () -> {
+            if (++rounds[0] < 30) timeline.after(1500, () -> timeline.after(2000, round[0]));
+        };
+        timeline.after(1500, round[0]);
+
+        scheduler.runUntilIdle();
+        assertEquals(30, rounds[0]);
+        assertEquals(0, scheduler.now());
+    }
+
+    @Test
+    public void close_dropsPendingAndNewSteps() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        TurnTimeline timeline = new TurnTimeline(scheduler, false);
+        List<String> log = new ArrayList<>();
+
+        timeline.after(100, () -> log.add("stale"));
+        assertEquals(1, timeline.pendingSteps());
+
+        timeline.close();
+        timeline.after(100, () -> log.add("late"));
+        scheduler.runUntilIdle();
+
+        assertTrue(log.isEmpty());
+        assertEquals(0, timeline.pendingSteps());
+    }
+}
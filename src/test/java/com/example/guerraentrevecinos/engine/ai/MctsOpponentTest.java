@@ -0,0 +1,84 @@
+package com.example.guerraentrevecinos.engine.ai;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.HitResult;
+import com.example.guerraentrevecinos.engine.UnitKind;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MctsOpponentTest {
+
+    @Test
+    public void determinize_respectsWhatIsKnown() {
+        OpponentKnowledge knowledge = new OpponentKnowledge();
+        knowledge.recordHit(Garden.cell(2, 2), UnitKind.DOG, HitResult.DAMAGED, Garden.cell(2, 2), 1);
+        knowledge.recordMiss(Garden.cell(0, 0));
+        knowledge.recordHit(Garden.cell(5, 5), UnitKind.ROSE, HitResult.DESTROYED, Garden.cell(5, 5), 0);
+
+        OpponentKnowledge snapshot = knowledge.snapshot(4, 6, 0);
+        GameRandom random = new GameRandom(1);
+        for (int i = 0; i < 200; i++) {
+            Garden garden = snapshot.determinize(random);
+
+            assertEquals(6, garden.aliveCount());
+            assertEquals(1, garden.health(garden.slotAt(2, 2)));
+            assertFalse(garden.isOccupied(0, 0));
+            assertFalse(garden.isOccupied(5, 5));
+        }
+    }
+
+    @Test
+    public void search_neverPicksKnownEmptyOrScaredCells() {
+        Garden own = new Garden();
+        BattleRules.placeArmy(own, new GameRandom(2));
+
+        OpponentKnowledge knowledge = new OpponentKnowledge();
+        for (int cell = 0; cell < 40; cell++) {
+            knowledge.recordMiss(cell);
+        }
+        knowledge.recordHit(45, UnitKind.DOG, HitResult.DOG_FEAR, 45, 1);
+
+        MctsOpponent opponent = new MctsOpponent(MctsOpponent.Difficulty.EASY, BattleRules.MAX_ROUNDS);
+        try {
+            for (int seed = 0; seed < 5; seed++) {
+                int cell = opponent.chooseTarget(new Garden(own), knowledge.snapshot(3, 7, 1L << 45), seed);
+                assertTrue(cell >= 40);
+                assertNotEquals(45, cell);
+            }
+        } finally {
+            opponent.shutdown();
+        }
+    }
+
+    @Test
+    public void asyncSearch_answersWithinBudget() throws InterruptedException {
+        Garden own = new Garden();
+        BattleRules.placeArmy(own, new GameRandom(3));
+        MctsOpponent opponent = new MctsOpponent(MctsOpponent.Difficulty.HARD, BattleRules.MAX_ROUNDS);
+
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicInteger target = new AtomicInteger(-1);
+        long start = System.nanoTime();
+        opponent.chooseTargetAsync(own, new OpponentKnowledge(), 9, cell -> {
+            target.set(cell);
+            done.countDown();
+        });
+
+        try {
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("took " + millis + " ms", millis < MctsOpponent.Difficulty.HARD.budgetMillis + 500);
+            assertTrue(target.get() >= 0 && target.get() < Garden.CELLS);
+        } finally {
+            opponent.shutdown();
+        }
+    }
+}
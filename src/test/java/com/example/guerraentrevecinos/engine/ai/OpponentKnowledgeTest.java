@@ -0,0 +1,43 @@
+package com.example.guerraentrevecinos.engine.ai;
+
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.HitResult;
+import com.example.guerraentrevecinos.engine.UnitKind;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OpponentKnowledgeTest {
+
+    private static long bit(int row, int col) {
+        return 1L << Garden.cell(row, col);
+    }
+
+    @Test
+    public void neighbours_stayOnTheBoard() {
+        assertEquals(bit(0, 1) | bit(1, 0), OpponentKnowledge.neighbours(bit(0, 0)));
+        assertEquals(bit(3, 6) | bit(2, 7) | bit(4, 7), OpponentKnowledge.neighbours(bit(3, 7)));
+        assertEquals(bit(6, 0) | bit(7, 1), OpponentKnowledge.neighbours(bit(7, 0)));
+    }
+
+    @Test
+    public void relocation_reopensCellsAUnitCouldHaveSteppedOnto() {
+        OpponentKnowledge knowledge = new OpponentKnowledge();
+        // Everything cleared except a known dog at (4,4) and an unseen cell at (0,7)
+        for (int cell = 0; cell < Garden.CELLS; cell++) {
+            if (cell != Garden.cell(4, 4) && cell != Garden.cell(0, 7)) knowledge.recordMiss(cell);
+        }
+        knowledge.recordHit(Garden.cell(4, 4), UnitKind.DOG, HitResult.DAMAGED, Garden.cell(4, 4), 1);
+        assertEquals(bit(4, 4) | bit(0, 7), knowledge.legalTargets());
+
+        knowledge.recordRelocation();
+
+        long open = bit(4, 4) | bit(3, 4) | bit(5, 4) | bit(4, 3) | bit(4, 5)
+                | bit(0, 7) | bit(0, 6) | bit(1, 7);
+        assertEquals(open, knowledge.legalTargets());
+        assertEquals(bit(4, 4), knowledge.knownUnits());
+        // Cells two steps from anything that could hold a unit stay cleared
+        assertNotEquals(0, knowledge.knownEmpty() & bit(2, 4));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.guerraentrevecinos.engine.sim;
+
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.Power;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MonteCarloSimulatorTest {
+
+    @Test
+    public void sameSeed_sameReport() {
+        SimulationConfig config = SimulationConfig.defaults(Power.SPY_DRONE);
+
+        SimulationReport first = MonteCarloSimulator.run(config, GreedyPolicy::new, 2000, 7);
+        SimulationReport second = MonteCarloSimulator.run(config, GreedyPolicy::new, 2000, 7);
+
+        assertEquals(2000, first.games());
+        assertEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    public void game_endsWithinRoundLimit() {
+        SimulationConfig config = SimulationConfig.defaults(Power.FERTILIZER).withMaxRounds(5);
+
+        SoloGame game = new SoloGame(config, new GreedyPolicy(), new Random(11)).play();
+
+        assertTrue(game.isFinished());
+        assertTrue(game.rounds() <= 5);
+    }
+
+    @Test
+    public void powers_respectCooldowns() {
+        SimulationConfig config = SimulationConfig.defaults(Power.FENCE_SHIELD);
+        SoloGame game = new SoloGame(config, new RandomPolicy(), new Random(3));
+
+        assertTrue(game.useGardenHose());
+        assertFalse(game.useGardenHose());
+        assertTrue(game.useFenceShield(0));
+        assertFalse(game.useFenceShield(1));
+        assertFalse(game.useSpyDrone(0));
+    }
+
+    @Test
+    public void relocation_isOneOrthogonalStepOntoAnEmptyCell() {
+        SoloGame game = new SoloGame(SimulationConfig.defaults(Power.SPY_DRONE), new RandomPolicy(), new Random(5));
+        Garden own = game.playerGarden();
+        int cell = own.cellOf(0);
+
+        assertFalse(game.useNighttimeRelocation(0, 2, 0));
+        assertFalse(game.useNighttimeRelocation(0, 1, 1));
+        assertFalse(game.useNighttimeRelocation(0, 0, 0));
+        assertEquals(cell, own.cellOf(0));
+
+        int[][] steps = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+        for (int[] step : steps) {
+            int row = Garden.rowOf(cell) + step[0];
+            int col = Garden.colOf(cell) + step[1];
+            if (!Garden.inBounds(row, col) || own.isOccupied(row, col)) {
+                assertFalse(game.useNighttimeRelocation(0, step[0], step[1]));
+                continue;
+            }
+            assertTrue(game.useNighttimeRelocation(0, step[0], step[1]));
+            assertEquals(Garden.cell(row, col), own.cellOf(0));
+            assertEquals(1, game.powerUses(SoloGame.NIGHTTIME_RELOCATION));
+            return;
+        }
+        fail("Unit 0 has nowhere to step");
+    }
+}
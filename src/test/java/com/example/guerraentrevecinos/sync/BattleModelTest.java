@@ -0,0 +1,265 @@
+package com.example.guerraentrevecinos.sync;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.UnitKind;
+import com.example.guerraentrevecinos.engine.VirtualScheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BattleModelTest {
+
+    private static final String ROOM = "ROOM01";
+
+    private final VirtualScheduler scheduler = new VirtualScheduler();
+    private final LoopbackTransport.Server server = new LoopbackTransport.Server(scheduler);
+    private final LoopbackTransport hostTransport = server.connect(30);
+    private final LoopbackTransport guestTransport = server.connect(30);
+    private final BattleRoom host = new BattleRoom(hostTransport, ROOM, true, scheduler::now);
+    private final BattleRoom guest = new BattleRoom(guestTransport, ROOM, false, scheduler::now);
+    private final Garden guestGarden = new Garden();
+    private final Recorder seen = new Recorder();
+    private final BattleModel model = new BattleModel(host, seen);
+
+    // Every diff the host's model reports, in order
+    private static final class Recorder implements BattleModel.Listener {
+        final List<String> diffs = new ArrayList<>();
+
+        @Override
+        public void onRoundChanged(int round) {
+            diffs.add("round " + round);
+        }
+
+        @Override
+        public void onTurnChanged(boolean myTurn) {
+            diffs.add("myTurn " + myTurn);
+        }
+
+        @Override
+        public void onEnemyUnitAdded(int slot) {
+            diffs.add("added " + slot);
+        }
+
+        @Override
+        public void onEnemyUnitMoved(int slot, int fromRow, int fromCol) {
+            diffs.add("moved " + slot + " from " + fromRow + "," + fromCol);
+        }
+
+        @Override
+        public void onEnemyUnitChanged(int slot) {
+            diffs.add("changed " + slot);
+        }
+
+        @Override
+        public void onEnemyUnitRemoved(int slot) {
+            diffs.add("removed " + slot);
+        }
+
+        @Override
+        public void onLastAction(RoomSnapshot action) {
+            diffs.add("action " + action.child("type").getValue(String.class));
+        }
+
+        @Override
+        public void onGameOver(boolean iWon) {
+            diffs.add("gameOver " + iWon);
+        }
+
+        @Override
+        public void onRoomClosed() {
+            diffs.add("closed");
+        }
+
+        @Override
+        public void onCancelled(String error) {
+            fail(error);
+        }
+    }
+
+    // Both sides in the room, the guest's army stored, the host's model caught up
+    private void startGame() {
+        hostTransport.createRoom(ROOM, "Host", new GameSyncTransport.RoomCallback() {
+            @Override
+            public void onSuccess(String roomCode) {
+            }
+
+            @Override
+            public void onFailure(String error) {
+                fail(error);
+            }
+        });
+        scheduler.runUntilIdle();
+        BattleRules.placeArmy(guestGarden, new GameRandom(5));
+        host.initializeGameState();
+        guest.storeUnits(guestGarden, GameSyncTransport.IGNORE);
+        model.start();
+        scheduler.runUntilIdle();
+        seen.diffs.clear();
+    }
+
+    private int slotOf(UnitKind kind) {
+        for (int slot = 0; slot < guestGarden.unitCount(); slot++) {
+            if (guestGarden.kind(slot) == kind) return slot;
+        }
+        throw new IllegalStateException("No " + kind.key());
+    }
+
+    // Where the model shows one of the guest's units
+    private int enemySlotAt(int guestSlot) {
+        return model.enemyGarden().slotAt(guestGarden.row(guestSlot), guestGarden.col(guestSlot));
+    }
+
+    @Test
+    public void start_loadsTheArmyUnitByUnit() {
+        hostTransport.createRoom(ROOM, "Host", new GameSyncTransport.RoomCallback() {
+            @Override
+            public void onSuccess(String roomCode) {
+            }
+
+            @Override
+            public void onFailure(String error) {
+                fail(error);
+            }
+        });
+        BattleRules.placeArmy(guestGarden, new GameRandom(5));
+        host.initializeGameState();
+        model.start();
+        scheduler.runUntilIdle();
+        assertEquals("[myTurn true]", seen.diffs.toString());
+
+        seen.diffs.clear();
+        guest.storeUnits(guestGarden, GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertEquals(guestGarden.unitCount(), seen.diffs.size());
+        assertEquals(guestGarden.unitCount(), model.enemyGarden().aliveCount());
+        assertEquals(guestGarden.occupiedMask(), model.enemyGarden().occupiedMask());
+    }
+
+    @Test
+    public void eachChange_reportsOnlyWhatItChanged() {
+        startGame();
+        int rose = slotOf(UnitKind.ROSE);
+        int cat = slotOf(UnitKind.CAT);
+        int dog = slotOf(UnitKind.DOG);
+        int roseSlot = enemySlotAt(rose);
+        int catSlot = enemySlotAt(cat);
+        int dogSlot = enemySlotAt(dog);
+        int catRow = guestGarden.row(cat);
+        int catCol = guestGarden.col(cat);
+
+        guest.saveRoseColor(rose, "blue");
+        scheduler.runUntilIdle();
+        assertEquals("[changed " + roseSlot + "]", seen.diffs.toString());
+        assertEquals("blue", model.enemyGarden().roseColor(roseSlot));
+
+        seen.diffs.clear();
+        int cell = guestGarden.randomEmptyCell(new GameRandom(1));
+        guest.saveCatTeleport(cat, Garden.rowOf(cell), Garden.colOf(cell), GameSyncTransport.IGNORE);
+        guest.destroyUnit(dog, GameSyncTransport.IGNORE);
+        host.endTurn(GameSyncTransport.IGNORE);
+        guest.confirmMiss(1, 1);
+        scheduler.runUntilIdle();
+        assertEquals("[moved " + catSlot + " from " + catRow + "," + catCol + ", removed " + dogSlot
+                + ", myTurn false, action miss]", seen.diffs.toString());
+        assertEquals(1, model.enemyGarden().health(catSlot));
+        assertEquals(catSlot, model.enemyGarden().slotAt(Garden.rowOf(cell), Garden.colOf(cell)));
+        assertFalse(model.enemyGarden().isAlive(dogSlot));
+
+        // Handing the turn back clears that action's duel fields, it isn't reported again
+        seen.diffs.clear();
+        guest.endTurn(GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertEquals("[myTurn true, round 2]", seen.diffs.toString());
+
+        // Writes outside the watched nodes reach the model not at all
+        seen.diffs.clear();
+        hostTransport.resetStats();
+        host.saveDogFear(3, 3, GameSyncTransport.IGNORE);
+        guestTransport.setValue(ROOM, "units/player1/0/health", 1, GameSyncTransport.IGNORE);
+        guestTransport.removeValue(ROOM, "currentDuel", GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertTrue(seen.diffs.toString(), seen.diffs.isEmpty());
+        assertEquals(0, hostTransport.bytesReceived());
+    }
+
+    @Test
+    public void remoteUpdate_costsTheSameHoweverBigTheRoom() {
+        startGame();
+        int rose = slotOf(UnitKind.ROSE);
+        long[] received = new long[2];
+        for (int i = 0; i < received.length; i++) {
+            // Grow what the model doesn't watch, from nothing to a thousand nodes, then change one unit
+            Map<String, Object> fears = new HashMap<>();
+            for (int n = 0; n < 1000 * i; n++) {
+                fears.put("player1_" + n, n);
+            }
+            host.transport().setValue(ROOM, "dogFears", fears, GameSyncTransport.IGNORE);
+            scheduler.runUntilIdle();
+            seen.diffs.clear();
+            hostTransport.resetStats();
+
+            guest.saveRoseColor(rose, i == 0 ? "white" : "black");
+            scheduler.runUntilIdle();
+            received[i] = hostTransport.bytesReceived();
+            assertEquals(1, seen.diffs.size());
+        }
+        assertEquals(received[0], received[1]);
+        assertTrue(received[0] + " bytes", received[0] < 100);
+    }
+
+    @Test
+    public void killedHere_butEscapedThere_comesBackInANewSlot() {
+        startGame();
+        int cat = slotOf(UnitKind.CAT);
+        int catSlot = enemySlotAt(cat);
+
+        // The attacker marks its direct hit dead, the defender's cat teleports away
+        model.enemyGarden().setHealth(catSlot, 0);
+        int cell = guestGarden.randomEmptyCell(new GameRandom(2));
+        guest.saveCatTeleport(cat, Garden.rowOf(cell), Garden.colOf(cell), GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+
+        int newSlot = model.enemyGarden().slotAt(Garden.rowOf(cell), Garden.colOf(cell));
+        assertEquals("[added " + newSlot + "]", seen.diffs.toString());
+        assertNotEquals(catSlot, newSlot);
+        assertEquals(1, model.enemyGarden().health(newSlot));
+
+        // Removing it later kills the new slot only once
+        seen.diffs.clear();
+        guest.destroyUnit(cat, GameSyncTransport.IGNORE);
+        guest.destroyUnit(cat, GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertEquals("[removed " + newSlot + "]", seen.diffs.toString());
+    }
+
+    @Test
+    public void gameOver_isReportedOnce_andRoomDeletionCloses() {
+        startGame();
+        for (int slot = 0; slot < guestGarden.unitCount(); slot++) {
+            guest.destroyUnit(slot, GameSyncTransport.IGNORE);
+        }
+        guest.updateUnitsRemaining("player2", -1, GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertEquals(1, seen.diffs.stream().filter("gameOver true"::equals).count());
+        assertEquals(0, model.enemyGarden().aliveCount());
+
+        seen.diffs.clear();
+        hostTransport.deleteRoom(ROOM);
+        scheduler.runUntilIdle();
+        assertEquals("[closed]", seen.diffs.toString());
+
+        seen.diffs.clear();
+        model.stop();
+        host.initializeGameState();
+        scheduler.runUntilIdle();
+        assertTrue(seen.diffs.isEmpty());
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.guerraentrevecinos.sync;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.UnitKind;
+import com.example.guerraentrevecinos.engine.VirtualScheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BattleRoomTest {
+
+    private static final String ROOM = "ROOM01";
+
+    private final VirtualScheduler scheduler = new VirtualScheduler();
+    private final LoopbackTransport.Server server = new LoopbackTransport.Server(scheduler);
+    private final LoopbackTransport hostTransport = server.connect(30);
+    private final LoopbackTransport guestTransport = server.connect(30);
+    private final BattleRoom host = new BattleRoom(hostTransport, ROOM, true, scheduler::now);
+    private final BattleRoom guest = new BattleRoom(guestTransport, ROOM, false, scheduler::now);
+    private final Garden hostGarden = new Garden();
+    private final Garden guestGarden = new Garden();
+
+    // A room mid-game: both armies stored, a duel open and a dog fear down
+    private void startGame() {
+        hostTransport.createRoom(ROOM, "Host", new GameSyncTransport.RoomCallback() {
+            @Override
+            public void onSuccess(String roomCode) {
+            }
+
+            @Override
+            public void onFailure(String error) {
+                fail(error);
+            }
+        });
+        scheduler.runUntilIdle();
+        GameRandom random = new GameRandom(3);
+        BattleRules.placeArmy(hostGarden, random);
+        BattleRules.placeArmy(guestGarden, random);
+        host.initializeGameState();
+        host.storeUnits(hostGarden, GameSyncTransport.IGNORE);
+        guest.storeUnits(guestGarden, GameSyncTransport.IGNORE);
+        guest.attack(0, 0, false, GameSyncTransport.IGNORE);
+        host.saveDogFear(4, 4, GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+    }
+
+    private int slotOf(Garden garden, UnitKind kind) {
+        for (int slot = 0; slot < garden.unitCount(); slot++) {
+            if (garden.kind(slot) == kind) return slot;
+        }
+        throw new IllegalStateException("No " + kind.key());
+    }
+
+    @Test
+    public void read_downloadsOnlyThatNode() {
+        startGame();
+        RoomSnapshot[] read = {null};
+        hostTransport.resetStats();
+        hostTransport.read(ROOM, "gameState/player2UnitsRemaining", new GameSyncTransport.ValueCallback() {
+            @Override
+            public void onValue(RoomSnapshot value) {
+                read[0] = value;
+            }
+
+            @Override
+            public void onCancelled(String error) {
+                fail(error);
+            }
+        });
+        scheduler.runUntilIdle();
+
+        assertEquals("player2UnitsRemaining", read[0].getKey());
+        assertEquals(Integer.valueOf(7), read[0].getValue(Integer.class));
+        assertEquals(1, hostTransport.bytesReceived());
+    }
+
+    @Test
+    public void pointUpdates_neverDownloadTheRoom() {
+        startGame();
+        long roomBytes = RoomTree.jsonSize(server.room(ROOM).getValue());
+        hostTransport.resetStats();
+
+        int rose = slotOf(hostGarden, UnitKind.ROSE);
+        int cat = slotOf(hostGarden, UnitKind.CAT);
+        int dog = slotOf(hostGarden, UnitKind.DOG);
+        host.destroyUnit(dog, GameSyncTransport.IGNORE);
+        host.saveRoseColor(rose, "blue");
+        host.saveCatTeleport(cat, 7, 7, GameSyncTransport.IGNORE);
+        guest.endTurn(GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+
+        // Nothing is read back, the only bytes down are write acknowledgements
+        assertEquals(hostTransport.bytesReceived() + " of " + roomBytes, 0, hostTransport.bytesReceived());
+        RoomSnapshot room = server.room(ROOM);
+        assertEquals(Integer.valueOf(6), room.child("gameState/player1UnitsRemaining").getValue(Integer.class));
+        assertFalse(room.child("units/player1/" + dog).exists());
+        assertEquals("blue", room.child("units/player1/" + rose + "/roseColor").getValue(String.class));
+        assertEquals(Integer.valueOf(7), room.child("units/player1/" + cat + "/row").getValue(Integer.class));
+        assertEquals(Integer.valueOf(1), room.child("units/player1/" + cat + "/health").getValue(Integer.class));
+        assertFalse(room.child("currentDuel").exists());
+        assertEquals("player1", room.child("gameState/currentTurn").getValue(String.class));
+        assertEquals(Integer.valueOf(2), room.child("gameState/currentRound").getValue(Integer.class));
+    }
+
+    // Every room the host is shown from now on
+    private List<RoomSnapshot> watchAsHost() {
+        List<RoomSnapshot> seen = new ArrayList<>();
+        host.listen(new GameSyncTransport.RoomListener() {
+            @Override
+            public void onRoomChanged(RoomSnapshot room) {
+                seen.add(room);
+            }
+
+            @Override
+            public void onCancelled(String error) {
+                fail(error);
+            }
+        });
+        scheduler.runUntilIdle();
+        seen.clear();
+        return seen;
+    }
+
+    @Test
+    public void endTurn_startsTheRoundInOneAtomicWrite() {
+        startGame();
+        host.endTurn(GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        List<RoomSnapshot> seen = watchAsHost();
+        guestTransport.resetStats();
+
+        guest.endTurn(GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+
+        assertEquals(1, guestTransport.messagesSent());
+        assertEquals(1, seen.size());
+        assertEquals("player1", seen.get(0).child("gameState/currentTurn").getValue(String.class));
+        assertEquals(Integer.valueOf(2), seen.get(0).child("gameState/currentRound").getValue(Integer.class));
+    }
+
+    @Test
+    public void attack_andDuelCleanup_areNeverSeenHalfDone() {
+        startGame();
+        List<RoomSnapshot> seen = watchAsHost();
+
+        guest.attack(2, 3, true, GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertEquals(1, seen.size());
+        assertEquals("attack", seen.get(0).child("lastAction/type").getValue(String.class));
+        assertEquals(Boolean.TRUE, seen.get(0).child("currentDuel/gardenHoseActive").getValue(Boolean.class));
+
+        guestTransport.setValue(ROOM, "lastAction/attackerChoice", 2, GameSyncTransport.IGNORE);
+        hostTransport.setValue(ROOM, "lastAction/defenderChoice", 4, GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        seen.clear();
+        guest.endTurn(GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertEquals(1, seen.size());
+        assertFalse(seen.get(0).child("currentDuel").exists());
+        assertFalse(seen.get(0).child("lastAction/attackerChoice").exists());
+        assertFalse(seen.get(0).child("lastAction/defenderChoice").exists());
+        assertEquals(Boolean.FALSE, seen.get(0).child("lastAction/duelPending").getValue(Boolean.class));
+        assertEquals("attack", seen.get(0).child("lastAction/type").getValue(String.class));
+        assertEquals("player1", seen.get(0).child("gameState/currentTurn").getValue(String.class));
+    }
+
+    @Test
+    public void unitsRemaining_simultaneousDecrementsFromBothPhonesAllCount() {
+        startGame();
+        guestTransport.setLatencyMillis(75);
+        String counter = "gameState/player1UnitsRemaining";
+
+        // The old read-modify-write: both read 7 and both write 6
+        for (LoopbackTransport transport : new LoopbackTransport[]{hostTransport, guestTransport}) {
+            transport.read(ROOM, counter, new GameSyncTransport.ValueCallback() {
+                @Override
+                public void onValue(RoomSnapshot value) {
+                    transport.setValue(ROOM, counter, value.getValue(Integer.class) - 1, GameSyncTransport.IGNORE);
+                }
+
+                @Override
+                public void onCancelled(String error) {
+                    fail(error);
+                }
+            });
+        }
+        scheduler.runUntilIdle();
+        assertEquals(Integer.valueOf(6), server.room(ROOM).child(counter).getValue(Integer.class));
+
+        // Server-side decrements fired at the same instant, interleaved on the way in
+        int[] failures = {0};
+        GameSyncTransport.WriteCallback count = error -> {
+            if (error != null) failures[0]++;
+        };
+        for (int i = 0; i < 2; i++) {
+            host.updateUnitsRemaining("player1", -1, count);
+            guest.updateUnitsRemaining("player1", -1, count);
+        }
+        host.destroyUnit(slotOf(hostGarden, UnitKind.DOG), count);
+        scheduler.runUntilIdle();
+
+        assertEquals(0, failures[0]);
+        assertEquals(Integer.valueOf(1), server.room(ROOM).child(counter).getValue(Integer.class));
+        assertEquals(Integer.valueOf(7), server.room(ROOM).child("gameState/player2UnitsRemaining").getValue(Integer.class));
+    }
+
+    @Test
+    public void roomUpdate_rejectsNestedPaths() {
+        RoomUpdate update = new RoomUpdate().set("lastAction", null).set("lastAction", null);
+        try {
+            update.set("lastAction/duelPending", false);
+            fail("lastAction/duelPending is inside lastAction");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(1, update.values().size());
+    }
+
+    @Test
+    public void dogFear_blocksOneAttackOnly() {
+        startGame();
+        boolean[] blocked = new boolean[2];
+        guest.checkDogFear(4, 4, result -> blocked[0] = result);
+        scheduler.runUntilIdle();
+        guest.checkDogFear(4, 4, result -> blocked[1] = result);
+        scheduler.runUntilIdle();
+
+        assertTrue(blocked[0]);
+        assertFalse(blocked[1]);
+        assertFalse(server.room(ROOM).child("dogFears").exists());
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.guerraentrevecinos.sync;
+
+import com.example.guerraentrevecinos.engine.VirtualScheduler;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LoopbackTransportTest {
+
+    // Records what a listener saw and when
+    private static final class Recorder implements GameSyncTransport.RoomListener {
+        final VirtualScheduler scheduler;
+        final List<String> log = new ArrayList<>();
+        final List<RoomSnapshot> rooms = new ArrayList<>();
+
+        Recorder(VirtualScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public void onRoomChanged(RoomSnapshot room) {
+            rooms.add(room);
+            log.add(scheduler.now() + ":" + room.child("gameState/currentTurn").getValue(String.class));
+        }
+
+        @Override
+        public void onCancelled(String error) {
+            fail("Cancelled: " + error);
+        }
+
+        RoomSnapshot last() {
+            return rooms.get(rooms.size() - 1);
+        }
+    }
+
+    private static final GameSyncTransport.RoomCallback CREATED = new GameSyncTransport.RoomCallback() {
+        @Override
+        public void onSuccess(String roomCode) {
+        }
+
+        @Override
+        public void onFailure(String error) {
+            fail("Create failed: " + error);
+        }
+    };
+
+    @Test
+    public void writes_reachEachClientAfterItsOwnLatency() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        LoopbackTransport.Server server = new LoopbackTransport.Server(scheduler);
+        LoopbackTransport near = server.connect(10);
+        LoopbackTransport far = server.connect(100);
+
+        near.createRoom("ROOM01", "Ana", CREATED);
+        scheduler.runUntilIdle();
+        Recorder nearSeen = new Recorder(scheduler);
+        Recorder farSeen = new Recorder(scheduler);
+        near.listenToRoom("ROOM01", nearSeen);
+        far.listenToRoom("ROOM01", farSeen);
+        scheduler.runUntilIdle();
+        long start = scheduler.now();
+
+        near.setValue("ROOM01", "gameState/currentTurn", "player2", GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+
+        // 10 ms up to the server, then each client's own delay down
+        assertEquals((start + 20) + ":player2", nearSeen.log.get(nearSeen.log.size() - 1));
+        assertEquals((start + 110) + ":player2", farSeen.log.get(farSeen.log.size() - 1));
+        assertEquals("Ana", server.room("ROOM01").child("player1/displayName").getValue(String.class));
+    }
+
+    @Test
+    public void writes_keepTheirOrderWhenLatencyDrops() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        LoopbackTransport.Server server = new LoopbackTransport.Server(scheduler);
+        LoopbackTransport client = server.connect(500);
+        client.createRoom("ROOM01", "Ana", CREATED);
+
+        client.setValue("ROOM01", "gameState/currentTurn", "player1", GameSyncTransport.IGNORE);
+        client.setLatencyMillis(5);
+        client.setValue("ROOM01", "gameState/currentTurn", "player2", GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+
+        assertEquals("player2", server.room("ROOM01").child("gameState/currentTurn").getValue(String.class));
+    }
+
+    @Test
+    public void listener_getsRoomFirstAndNothingOnceRemoved() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        LoopbackTransport.Server server = new LoopbackTransport.Server(scheduler);
+        LoopbackTransport client = server.connect(20);
+        client.createRoom("ROOM01", "Ana", CREATED);
+        client.setValue("ROOM01", "gameState/currentTurn", "player1", GameSyncTransport.IGNORE);
+
+        Recorder seen = new Recorder(scheduler);
+        client.listenToRoom("ROOM01", seen);
+        scheduler.runUntilIdle();
+        assertEquals(1, seen.rooms.size());
+        assertEquals("player1", seen.last().child("gameState/currentTurn").getValue(String.class));
+
+        // Write in flight when the listener goes away: its event is dropped
+        client.setValue("ROOM01", "gameState/currentTurn", "player2", GameSyncTransport.IGNORE);
+        scheduler.advanceBy(30);
+        client.removeRoomListener("ROOM01", seen);
+        scheduler.runUntilIdle();
+        assertEquals(1, seen.rooms.size());
+    }
+
+    @Test
+    public void childListener_getsOnlyTheChildrenThatChanged() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        LoopbackTransport.Server server = new LoopbackTransport.Server(scheduler);
+        LoopbackTransport client = server.connect(20);
+        client.createRoom("ROOM01", "Ana", CREATED);
+        Map<String, Object> units = new HashMap<>();
+        units.put("0", Collections.singletonMap("row", 1));
+        units.put("1", Collections.singletonMap("row", 2));
+        client.setValue("ROOM01", "units/player1", units, GameSyncTransport.IGNORE);
+
+        List<String> events = new ArrayList<>();
+        GameSyncTransport.ChildListener listener = new GameSyncTransport.ChildListener() {
+            @Override
+            public void onChildAdded(RoomSnapshot child) {
+                events.add("added " + child.getPath() + "=" + child.child("row").getValue());
+            }
+
+            @Override
+            public void onChildChanged(RoomSnapshot child) {
+                events.add("changed " + child.getPath() + "=" + child.child("row").getValue());
+            }
+
+            @Override
+            public void onChildRemoved(RoomSnapshot child) {
+                events.add("removed " + child.getPath() + "=" + child.child("row").getValue());
+            }
+
+            @Override
+            public void onCancelled(String error) {
+                fail("Cancelled: " + error);
+            }
+        };
+        client.listenToChildren("ROOM01", "units/player1", listener);
+        scheduler.runUntilIdle();
+        assertEquals("[added units/player1/0=1, added units/player1/1=2]", events.toString());
+
+        events.clear();
+        client.setValue("ROOM01", "units/player1/1/row", 5, GameSyncTransport.IGNORE);
+        client.setValue("ROOM01", "units/player2/0/row", 5, GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertEquals("[changed units/player1/1=5]", events.toString());
+
+        // Replacing the node from above reports each child that differs, not the equal ones
+        events.clear();
+        units.remove("1");
+        units.put("2", Collections.singletonMap("row", 3));
+        client.setValue("ROOM01", "units", Collections.singletonMap("player1", units), GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertEquals("[removed units/player1/1=5, added units/player1/2=3]", events.toString());
+
+        events.clear();
+        client.removeChildListener("ROOM01", listener);
+        client.removeValue("ROOM01", "units", GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void values_areStoredLikeTheDatabase() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        LoopbackTransport.Server server = new LoopbackTransport.Server(scheduler);
+        LoopbackTransport client = server.connect(0);
+        client.createRoom("ROOM01", "Ana", CREATED);
+
+        Map<String, Object> duel = new HashMap<>();
+        duel.put("attackerChoice", null);
+        duel.put("gardenHoseActive", false);
+        client.setValue("ROOM01", "currentDuel", duel, GameSyncTransport.IGNORE);
+        client.sendDuelChoice("ROOM01", Collections.singletonMap("defenderChoice", 3),
+                GameSyncTransport.IGNORE);
+        client.setValue("ROOM01", "dogFears/player1_2_3/row", 2.0, GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+
+        RoomSnapshot room = server.room("ROOM01");
+        assertEquals(2, room.child("currentDuel").getChildrenCount());
+        assertEquals(Long.valueOf(3), room.child("currentDuel/defenderChoice").getValue());
+        assertEquals(Integer.valueOf(2), room.child("dogFears/player1_2_3/row").getValue(Integer.class));
+
+        // Removing the last child removes the emptied parents too
+        client.removeValue("ROOM01", "dogFears/player1_2_3/row", GameSyncTransport.IGNORE);
+        scheduler.runUntilIdle();
+        assertFalse(server.room("ROOM01").child("dogFears").exists());
+
+        try {
+            client.setValue("ROOM01", "units/player1.0", 1, GameSyncTransport.IGNORE);
+            fail("Dots are not allowed in keys");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void join_failsForUnknownRoom() {
+        VirtualScheduler scheduler = new VirtualScheduler();
+        LoopbackTransport client = new LoopbackTransport.Server(scheduler).connect(50);
+        String[] error = {null};
+        client.joinRoom("NOPE00", "Bo", new GameSyncTransport.RoomCallback() {
+            @Override
+            public void onSuccess(String roomCode) {
+                fail("Joined a room that doesn't exist");
+            }
+
+            @Override
+            public void onFailure(String message) {
+                error[0] = message;
+            }
+        });
+        scheduler.runUntilIdle();
+
+        assertEquals("Room not found", error[0]);
+        assertEquals(100, scheduler.now());
+    }
+
+    @Test
+    public void simulatedPlayers_finishWholeGames() {
+        long[][] latencies = {{0, 0}, {40, 40}, {15, 250}, {300, 60}};
+        for (int seed = 1; seed <= 12; seed++) {
+            long[] latency = latencies[seed % latencies.length];
+            SimulatedPlayer.Match match = new SimulatedPlayer.Match(seed, latency[0], latency[1]);
+            match.play();
+
+            SimulatedPlayer host = match.host();
+            SimulatedPlayer guest = match.guest();
+            String game = "seed " + seed + " latency " + latency[0] + "/" + latency[1];
+
+            // Both ends saw the same finish: one winner, or the round limit for both
+            assertTrue(game, host.attacks() > 0 && guest.attacks() > 0);
+            if (host.won() == null) {
+                assertNull(game, guest.won());
+            } else {
+                assertNotNull(game, guest.won());
+                assertNotEquals(game, host.won(), guest.won());
+            }
+            assertEquals(game, host.round(), guest.round());
+
+            // Every duel ran on both phones and left the room clean
+            assertEquals(game, host.duels(), guest.duels());
+            RoomSnapshot room = match.server.room(match.roomCode());
+            assertFalse(game, room.child("currentDuel").exists());
+            assertEquals(game, "setup", room.child("status").getValue(String.class));
+
+            // Each side counted exactly the units it lost
+            for (String player : new String[]{"player1", "player2"}) {
+                assertEquals(game, room.child("units/" + player).getChildrenCount(),
+                        (long) room.child("gameState/" + player + "UnitsRemaining").getValue(Integer.class));
+            }
+        }
+    }
+
+    @Test
+    public void simulatedGame_isReproducible() {
+        SimulatedPlayer.Match first = new SimulatedPlayer.Match(7, 30, 120);
+        SimulatedPlayer.Match second = new SimulatedPlayer.Match(7, 30, 120);
+
+        assertEquals(first.play(), second.play());
+        assertEquals(first.hostTransport.bytesReceived(), second.hostTransport.bytesReceived());
+        RoomSnapshot firstRoom = first.server.room(first.roomCode());
+        RoomSnapshot secondRoom = second.server.room(second.roomCode());
+        assertEquals(firstRoom.child("gameState").getValue(), secondRoom.child("gameState").getValue());
+        assertEquals(firstRoom.child("units").getValue(), secondRoom.child("units").getValue());
+    }
+}
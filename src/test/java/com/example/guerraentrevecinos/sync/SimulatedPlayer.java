@@ -0,0 +1,431 @@
+package com.example.guerraentrevecinos.sync;
+
+import com.example.guerraentrevecinos.engine.BattleRules;
+import com.example.guerraentrevecinos.engine.Garden;
+import com.example.guerraentrevecinos.engine.GameRandom;
+import com.example.guerraentrevecinos.engine.HitResult;
+import com.example.guerraentrevecinos.engine.TurnTimeline;
+import com.example.guerraentrevecinos.engine.VirtualScheduler;
+
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Headless stand-in for one phone in a multiplayer game. Reacts to room
+ * changes the way MultiplayerBattleActivity and MiniDuelActivity do, with
+ * their delays, and replaces taps with random picks. Aims mostly at the
+ * opponent's live units so games end well before the round limit, and
+ * gives up at the limit since the protocol itself has none.
+ */
+public final class SimulatedPlayer implements BattleModel.Listener {
+
+    /** Two players on one loopback server, from room creation to game over. */
+    public static final class Match {
+        public final VirtualScheduler scheduler = new VirtualScheduler();
+        public final LoopbackTransport.Server server = new LoopbackTransport.Server(scheduler);
+        public final LoopbackTransport hostTransport;
+        public final LoopbackTransport guestTransport;
+        private final long seed;
+        private SimulatedPlayer host;
+        private SimulatedPlayer guest;
+        private String roomCode;
+
+        public Match(long seed, long hostLatencyMillis, long guestLatencyMillis) {
+            this.seed = seed;
+            hostTransport = server.connect(hostLatencyMillis);
+            guestTransport = server.connect(guestLatencyMillis);
+        }
+
+        public SimulatedPlayer host() {
+            return host;
+        }
+
+        public SimulatedPlayer guest() {
+            return guest;
+        }
+
+        public String roomCode() {
+            return roomCode;
+        }
+
+        // Lobby, setup and battle in virtual time; returns how long the game took
+        public long play() {
+            String code = hostTransport.generateRoomCode();
+            hostTransport.createRoom(code, "Host", new GameSyncTransport.RoomCallback() {
+                @Override
+                public void onSuccess(String createdCode) {
+                    guestTransport.joinRoom(createdCode, "Guest", new GameSyncTransport.RoomCallback() {
+                        @Override
+                        public void onSuccess(String joinedCode) {
+                            start(joinedCode);
+                        }
+
+                        @Override
+                        public void onFailure(String error) {
+                            throw new IllegalStateException("Join failed: " + error);
+                        }
+                    });
+                }
+
+                @Override
+                public void onFailure(String error) {
+                    throw new IllegalStateException("Create failed: " + error);
+                }
+            });
+            scheduler.runUntilIdle();
+
+            if (host == null || !host.isFinished() || !guest.isFinished()) {
+                throw new IllegalStateException("Match in " + code + " stalled at " + scheduler.now() + " ms");
+            }
+            return scheduler.now();
+        }
+
+        private void start(String code) {
+            roomCode = code;
+            hostTransport.setPlayerReady(code, true, true);
+            guestTransport.setPlayerReady(code, false, true);
+            host = new SimulatedPlayer(hostTransport, code, true, scheduler, new GameRandom(seed));
+            guest = new SimulatedPlayer(guestTransport, code, false, scheduler, new GameRandom(seed + 1));
+            host.start();
+            guest.start();
+        }
+    }
+
+    // Delays copied from the activities
+    private static final long STORE_UNITS_DELAY_MILLIS = 1000;
+    private static final long STORE_UNITS_RETRY_MILLIS = 2000;
+    private static final long DEFENDER_DUEL_DELAY_MILLIS = 1500;
+    private static final long MISS_END_TURN_MILLIS = 1500;
+    private static final long HIT_END_TURN_MILLIS = 2000;
+    private static final long DOG_FEAR_DELAY_MILLIS = 400;
+    private static final long DUEL_REVEAL_MILLIS = 3500;
+
+    // Time a person takes to tap a cell or a duel number
+    private static final int THINK_MIN_MILLIS = 300;
+    private static final int THINK_MAX_MILLIS = 2000;
+
+    private final BattleRoom room;
+    private final BattleModel model;
+    private final TurnTimeline.Scheduler scheduler;
+    private final Random random;
+    private final boolean isHost;
+    private final Garden garden = new Garden();
+    private final Garden enemy;
+
+    private boolean myTurn = false;
+    private boolean hasAttacked = false;
+    private boolean waitingForDuel = false;
+    private boolean attacking = false;
+    private boolean attackScheduled = false;
+    private long lastProcessedTimestamp = 0;
+    private int round = 1;
+
+    private boolean finished = false;
+    private Boolean won;
+    private int attacks = 0;
+    private int duels = 0;
+
+    public SimulatedPlayer(GameSyncTransport transport, String roomCode, boolean isHost,
+                           VirtualScheduler scheduler, Random random) {
+        this.room = new BattleRoom(transport, roomCode, isHost, scheduler::now);
+        this.model = new BattleModel(room, this);
+        this.enemy = model.enemyGarden();
+        this.scheduler = scheduler;
+        this.random = random;
+        this.isHost = isHost;
+    }
+
+    public BattleRoom room() {
+        return room;
+    }
+
+    public Garden garden() {
+        return garden;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // True or false once a side ran out of units, null when the round limit ended the game
+    public Boolean won() {
+        return won;
+    }
+
+    public int round() {
+        return round;
+    }
+
+    public int attacks() {
+        return attacks;
+    }
+
+    public int duels() {
+        return duels;
+    }
+
+    public void start() {
+        BattleRules.placeArmy(garden, random);
+        model.start();
+        if (isHost) room.initializeGameState();
+        scheduler.schedule(this::storeUnits, STORE_UNITS_DELAY_MILLIS);
+    }
+
+    private void storeUnits() {
+        room.storeUnits(garden, error -> {
+            if (error != null) scheduler.schedule(this::storeUnits, STORE_UNITS_RETRY_MILLIS);
+        });
+    }
+
+    @Override
+    public void onRoundChanged(int newRound) {
+        if (finished) return;
+        round = newRound;
+        if (round > BattleRules.MAX_ROUNDS) finish(null);
+    }
+
+    @Override
+    public void onTurnChanged(boolean newIsMyTurn) {
+        if (finished) return;
+        myTurn = newIsMyTurn;
+        hasAttacked = false;
+        waitingForDuel = false;
+        maybeAttack();
+    }
+
+    @Override
+    public void onEnemyUnitAdded(int slot) {
+        if (!finished) maybeAttack();
+    }
+
+    @Override
+    public void onEnemyUnitMoved(int slot, int fromRow, int fromCol) {
+    }
+
+    @Override
+    public void onEnemyUnitChanged(int slot) {
+    }
+
+    @Override
+    public void onEnemyUnitRemoved(int slot) {
+    }
+
+    @Override
+    public void onLastAction(RoomSnapshot action) {
+        if (!finished) handleAction(action);
+    }
+
+    @Override
+    public void onGameOver(boolean iWon) {
+        if (!finished) finish(iWon);
+    }
+
+    @Override
+    public void onRoomClosed() {
+        if (!finished) finish(null);
+    }
+
+    @Override
+    public void onCancelled(String error) {
+        throw new IllegalStateException("Room listener cancelled: " + error);
+    }
+
+    private void maybeAttack() {
+        if (myTurn && !hasAttacked && !waitingForDuel && enemy.aliveCount() > 0) scheduleAttack();
+    }
+
+    private void handleAction(RoomSnapshot action) {
+        String player = action.child("player").getValue(String.class);
+        String type = action.child("type").getValue(String.class);
+        Long timestamp = action.child("timestamp").getValue(Long.class);
+        if (timestamp == null || timestamp <= lastProcessedTimestamp || !room.opponentKey().equals(player)) return;
+
+        Integer row = action.child("targetRow").getValue(Integer.class);
+        Integer col = action.child("targetCol").getValue(Integer.class);
+        if (row == null || col == null || !Garden.inBounds(row, col)) return;
+
+        if ("attack".equals(type) && !waitingForDuel) {
+            lastProcessedTimestamp = timestamp;
+            int slot = garden.slotAt(row, col);
+            if (slot < 0) {
+                room.confirmMiss(row, col);
+                return;
+            }
+            waitingForDuel = true;
+            attacking = false;
+            room.confirmHit(row, col, garden.type(slot));
+            scheduler.schedule(() -> {
+                if (waitingForDuel && !attacking) openDuel(row, col, false);
+            }, DEFENDER_DUEL_DELAY_MILLIS);
+        } else if ("duel_ready".equals(type) && waitingForDuel && attacking) {
+            lastProcessedTimestamp = timestamp;
+            openDuel(row, col, true);
+        } else if ("miss".equals(type) && waitingForDuel && attacking) {
+            lastProcessedTimestamp = timestamp;
+            waitingForDuel = false;
+            attacking = false;
+            scheduler.schedule(this::endMyTurn, MISS_END_TURN_MILLIS);
+        }
+    }
+
+    private void scheduleAttack() {
+        if (attackScheduled) return;
+        attackScheduled = true;
+        scheduler.schedule(this::attack, think());
+    }
+
+    private void attack() {
+        if (finished || !myTurn || hasAttacked || waitingForDuel) {
+            attackScheduled = false;
+            return;
+        }
+        int cell = enemy.aliveCount() > 0 && random.nextInt(4) != 0
+                ? enemy.randomOccupiedCell(random)
+                : random.nextInt(Garden.CELLS);
+        int row = Garden.rowOf(cell);
+        int col = Garden.colOf(cell);
+
+        room.checkDogFear(row, col, blocked -> {
+            attackScheduled = false;
+            if (finished || !myTurn || hasAttacked || waitingForDuel) return;
+            if (blocked) {
+                // Scared away from that cell, pick another one
+                scheduleAttack();
+                return;
+            }
+            hasAttacked = true;
+            waitingForDuel = true;
+            attacking = true;
+            attacks++;
+            room.attack(row, col, false, error -> {
+                if (error != null) {
+                    hasAttacked = false;
+                    waitingForDuel = false;
+                }
+            });
+        });
+    }
+
+    private void openDuel(int row, int col, boolean asAttacker) {
+        room.readDuel(new GameSyncTransport.ValueCallback() {
+            @Override
+            public void onValue(RoomSnapshot duel) {
+                new Duel(row, col, asAttacker).start();
+            }
+
+            @Override
+            public void onCancelled(String error) {
+                waitingForDuel = false;
+            }
+        });
+    }
+
+    // MiniDuelActivity: pick a number, then wait on the room until both picks are in
+    private final class Duel implements GameSyncTransport.RoomListener {
+        final int row;
+        final int col;
+        final boolean asAttacker;
+        int choice = BattleRules.NO_CHOICE;
+        boolean resolved = false;
+
+        Duel(int row, int col, boolean asAttacker) {
+            this.row = row;
+            this.col = col;
+            this.asAttacker = asAttacker;
+        }
+
+        void start() {
+            room.listen(this);
+            scheduler.schedule(this::choose, think());
+        }
+
+        void choose() {
+            choice = 1 + random.nextInt(BattleRules.DUEL_NUMBERS);
+            String key = asAttacker ? "attackerChoice" : "defenderChoice";
+            room.transport().sendDuelChoice(room.roomCode(), Collections.singletonMap(key, choice),
+                    GameSyncTransport.IGNORE);
+        }
+
+        @Override
+        public void onRoomChanged(RoomSnapshot snapshot) {
+            RoomSnapshot duel = snapshot.child("currentDuel");
+            if (resolved || !duel.exists() || choice == BattleRules.NO_CHOICE) return;
+
+            Integer attackChoice = duel.child("attackerChoice").getValue(Integer.class);
+            Integer defendChoice = duel.child("defenderChoice").getValue(Integer.class);
+            if (attackChoice == null || defendChoice == null) return;
+
+            resolved = true;
+            room.stopListening(this);
+            boolean wasHit = BattleRules.isDirectHit(attackChoice, BattleRules.NO_CHOICE, defendChoice);
+            scheduler.schedule(() -> onDuelResult(row, col, asAttacker, wasHit), DUEL_REVEAL_MILLIS);
+        }
+
+        @Override
+        public void onCancelled(String error) {
+            waitingForDuel = false;
+        }
+    }
+
+    private void onDuelResult(int row, int col, boolean asAttacker, boolean wasHit) {
+        duels++;
+        if (asAttacker) {
+            handleMyAttackResult(row, col, wasHit);
+        } else {
+            handleOpponentAttackResult(row, col, wasHit);
+        }
+    }
+
+    private void handleMyAttackResult(int row, int col, boolean wasHit) {
+        waitingForDuel = false;
+        attacking = false;
+
+        // Only the local view changes, the defender counts its own losses
+        int slot = enemy.slotAt(row, col);
+        if (slot >= 0) enemy.setHealth(slot, wasHit ? 0 : enemy.health(slot) - 1);
+        scheduler.schedule(this::endMyTurn, HIT_END_TURN_MILLIS);
+    }
+
+    private void handleOpponentAttackResult(int row, int col, boolean wasHit) {
+        waitingForDuel = false;
+        attacking = false;
+
+        int slot = garden.slotAt(row, col);
+        if (slot < 0) return;
+
+        HitResult hit = BattleRules.applyHit(garden, slot, wasHit, true, random);
+        switch (hit) {
+            case TELEPORTED:
+                room.saveCatTeleport(slot, garden.row(slot), garden.col(slot), GameSyncTransport.IGNORE);
+                break;
+            case DESTROYED:
+                room.destroyUnit(slot, GameSyncTransport.IGNORE);
+                break;
+            case DOG_FEAR:
+                scheduler.schedule(() -> room.saveDogFear(row, col, GameSyncTransport.IGNORE),
+                        DOG_FEAR_DELAY_MILLIS);
+                break;
+            case ROSE_COLOR_CHANGED:
+                room.saveRoseColor(slot, garden.roseColor(slot));
+                break;
+            default:
+                break;
+        }
+    }
+
+    // The grid stays locked until the turn flips, so hasAttacked is left set
+    private void endMyTurn() {
+        waitingForDuel = false;
+        room.endTurn(GameSyncTransport.IGNORE);
+    }
+
+    private void finish(Boolean won) {
+        finished = true;
+        this.won = won;
+        model.stop();
+    }
+
+    private int think() {
+        return THINK_MIN_MILLIS + random.nextInt(THINK_MAX_MILLIS - THINK_MIN_MILLIS);
+    }
+}